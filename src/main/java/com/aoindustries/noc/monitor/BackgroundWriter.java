@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2016, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2016, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,17 +24,30 @@
 package com.aoindustries.noc.monitor;
 
 import com.aoapps.lang.io.FileUtils;
-import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
 /**
  * Writes files in the background.  The files are written in the order received.
@@ -47,89 +60,485 @@ import java.util.zip.GZIPOutputStream;
  * high load when running on a very busy disk subsystem.  The resulting load would
  * causing things to get progressively worse.</p>
  *
- * <p>TODO: Should we perform any sort of batching?  Write all built-up in a minute at once?  Save HDD disk I/O?
- *       Or more extreme?  Only once per very long time period on the laptop?  Or, when it finds the disk already spun-up
- *       for some other reason?  Been using /dev/shm to avoid night-time disk I/O to keep it quiet while sleeping, but
- *       this loses all info on a reboot.  Is a pen drive a better solution?</p>
+ * <p>Each new file is forced to disk before it is renamed into place, and the directory is forced
+ * after the renames, so a crash leaves either the old or the new version and never a partial file.</p>
+ *
+ * <p>Writes are batched: the queue is written once per window, so a file updated many times within
+ * a window is written once.  Each window writes only what was queued when it started, anything queued
+ * during a rate-limited write waits for the next window.  The writes of a window may be limited to a number of bytes per second,
+ * spreading a large batch out instead of competing with everything else for the disk.  Optionally,
+ * the writes are parked until the disk is found already active for some other reason, up to a
+ * maximum time, so an idle disk is not kept spinning by the monitoring alone.  Serialization and
+ * compression reuse the same buffers and {@link Deflater} for every file.</p>
+ *
+ * <p>Configured by system properties:</p>
+ * <ul>
+ *   <li>{@value #WINDOW_PROPERTY} - milliseconds between writes, default {@value #DEFAULT_WINDOW}.
+ *       Zero writes as soon as possible.</li>
+ *   <li>{@value #BYTES_PER_SECOND_PROPERTY} - maximum write rate, default {@value #DEFAULT_BYTES_PER_SECOND}
+ *       for unlimited</li>
+ *   <li>{@value #DISK_PROPERTY} - the device name in {@code /proc/diskstats}, such as {@code sda}.
+ *       When set, writes are parked until the disk has completed any I/O since the last window.</li>
+ *   <li>{@value #MAX_PARK_PROPERTY} - maximum milliseconds to park writes, default {@value #DEFAULT_MAX_PARK}</li>
+ * </ul>
+ *
+ * <p>The writer's own writes may be flushed by the operating system after its window, which is then
+ * seen as activity on the following window.  This only writes once more while the disk is spinning anyway.</p>
  *
  * @author  AO Industries, Inc.
  */
 final class BackgroundWriter {
 
-  /** Make no instances. */
-  private BackgroundWriter() {
-    throw new AssertionError();
+  private static final Logger logger = Logger.getLogger(BackgroundWriter.class.getName());
+
+  static final String WINDOW_PROPERTY = "com.aoindustries.noc.monitor.backgroundWriter.window";
+  static final String BYTES_PER_SECOND_PROPERTY = "com.aoindustries.noc.monitor.backgroundWriter.bytesPerSecond";
+  static final String DISK_PROPERTY = "com.aoindustries.noc.monitor.backgroundWriter.disk";
+  static final String MAX_PARK_PROPERTY = "com.aoindustries.noc.monitor.backgroundWriter.maxPark";
+
+  private static final long DEFAULT_WINDOW = 60L * 1000;
+  private static final long DEFAULT_BYTES_PER_SECOND = 0;
+  private static final long DEFAULT_MAX_PARK = 60L * 60 * 1000;
+
+  private static final BackgroundWriter instance;
+
+  static {
+    String disk = System.getProperty(DISK_PROPERTY);
+    instance = new BackgroundWriter(
+        Long.getLong(WINDOW_PROPERTY, DEFAULT_WINDOW),
+        Long.getLong(BYTES_PER_SECOND_PROPERTY, DEFAULT_BYTES_PER_SECOND),
+        (disk == null || disk.isEmpty()) ? null : () -> getDiskActivity(disk),
+        Long.getLong(MAX_PARK_PROPERTY, DEFAULT_MAX_PARK)
+    );
   }
 
-  private static final Logger logger = Logger.getLogger(BackgroundWriter.class.getName());
+  static BackgroundWriter getInstance() {
+    return instance;
+  }
 
-  private static class QueueEntry {
+  /**
+   * Queues the object for write.  No defensive copy of the object is made - do not change after giving to this method.
+   */
+  static void enqueueObject(File persistenceFile, File newPersistenceFile, Serializable serializable, boolean gzip) {
+    instance.enqueue(persistenceFile, newPersistenceFile, serializable, gzip);
+  }
+
+  private static final String DISKSTATS = "/proc/diskstats";
+
+  /**
+   * Gets the total reads and writes completed by the given device.
+   *
+   * @return  The total or {@code -1} when unknown
+   */
+  private static long getDiskActivity(String disk) {
+    try (BufferedReader in = new BufferedReader(new FileReader(DISKSTATS))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length > 7 && fields[2].equals(disk)) {
+          return Long.parseLong(fields[3]) + Long.parseLong(fields[7]);
+        }
+      }
+      logger.warning("Disk not found in " + DISKSTATS + ": " + disk);
+    } catch (IOException | NumberFormatException e) {
+      logger.log(Level.WARNING, null, e);
+    }
+    return -1;
+  }
+
+  private static final class QueueEntry {
 
     private final File newPersistenceFile;
     private final Serializable object;
     private final boolean gzip;
 
-    private QueueEntry(File newPersistenceFile, Serializable object, boolean gzip) {
+    /**
+     * When the oldest unwritten version was queued, in {@link System#nanoTime()}.
+     */
+    private final long queuedNanos;
+
+    private QueueEntry(File newPersistenceFile, Serializable object, boolean gzip, long queuedNanos) {
       this.newPersistenceFile = newPersistenceFile;
       this.object = object;
       this.gzip = gzip;
+      this.queuedNanos = queuedNanos;
+    }
+  }
+
+  /**
+   * Exposes the internal array to avoid copying.
+   */
+  private static final class Buffer extends ByteArrayOutputStream {
+
+    private Buffer() {
+      super(INITIAL_BUFFER_SIZE);
+    }
+
+    private byte[] getBuffer() {
+      return buf;
+    }
+
+    private int getCapacity() {
+      return buf.length;
     }
   }
 
-  // These are both synchronized on queue
-  private static final LinkedHashMap<File, QueueEntry> queue = new LinkedHashMap<>();
-  private static boolean running;
+  private static final int INITIAL_BUFFER_SIZE = 8192;
+
+  /**
+   * Buffers grown larger than this by an unusually large file are discarded after the write.
+   */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+  private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+  private final long window;
+  private final long bytesPerSecond;
+  private final LongSupplier diskActivity;
+  private final long maxPark;
+
+  // These are all synchronized on queue
+  private final LinkedHashMap<File, QueueEntry> queue = new LinkedHashMap<>();
+  private boolean scheduled;
+  private long lastDiskActivity = -1;
+  private long parkedSinceNanos = -1;
+
+  /**
+   * Only one window is written at a time, and the reused buffers and deflater are only used
+   * while holding this lock.
+   */
+  private final Object writeLock = new Object();
+  private Buffer serialized = new Buffer();
+  private Buffer compressed = new Buffer();
+  private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+  private final CRC32 crc = new CRC32();
+  private final byte[] deflated = new byte[INITIAL_BUFFER_SIZE];
+
+  private final AtomicLong writes = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+  private final AtomicLong parks = new AtomicLong();
+  private final AtomicLong totalLatencyNanos = new AtomicLong();
+  private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+  /**
+   * @param  bytesPerSecond  The maximum write rate or {@code 0} for unlimited
+   * @param  diskActivity  Gets a counter increased by any disk activity, or {@code null} to not park writes
+   * @param  maxPark  The maximum milliseconds to park writes waiting for disk activity
+   */
+  BackgroundWriter(long window, long bytesPerSecond, LongSupplier diskActivity, long maxPark) {
+    if (window < 0) {
+      throw new IllegalArgumentException("window < 0: " + window);
+    }
+    if (bytesPerSecond < 0) {
+      throw new IllegalArgumentException("bytesPerSecond < 0: " + bytesPerSecond);
+    }
+    if (maxPark < 0) {
+      throw new IllegalArgumentException("maxPark < 0: " + maxPark);
+    }
+    this.window = window;
+    this.bytesPerSecond = bytesPerSecond;
+    this.diskActivity = diskActivity;
+    this.maxPark = maxPark;
+  }
 
   /**
    * Queues the object for write.  No defensive copy of the object is made - do not change after giving to this method.
    */
-  @SuppressWarnings({"UseSpecificCatch", "TooBroadCatch"})
-  static void enqueueObject(File persistenceFile, File newPersistenceFile, Serializable serializable, boolean gzip) {
-    QueueEntry queueEntry = new QueueEntry(newPersistenceFile, serializable, gzip);
+  void enqueue(File persistenceFile, File newPersistenceFile, Serializable serializable, boolean gzip) {
+    long now = System.nanoTime();
     synchronized (queue) {
-      if (queue.put(persistenceFile, queueEntry) != null) {
+      QueueEntry old = queue.get(persistenceFile);
+      if (old != null) {
+        coalesced.incrementAndGet();
         logger.finer("DEBUG: BackgroundWriter: Updating existing in queue");
       }
-      if (!running) {
-        RootNodeImpl.executors.getUnbounded().submit(() -> {
-          int counter = 0;
-          while (true) {
-            // Get the next file from the queue until done
-            File persistenceFile1;
-            QueueEntry queueEntry1;
-            synchronized (queue) {
-              Iterator<Map.Entry<File, QueueEntry>> iter = queue.entrySet().iterator();
-              if (!iter.hasNext()) {
-                running = false;
-                logger.finer("DEBUG: BackgroundWriter: Total burst from queue: " + counter);
-                return;
-              }
-              Map.Entry<File, QueueEntry> first = iter.next();
-              persistenceFile1 = first.getKey();
-              queueEntry1 = first.getValue();
-              iter.remove();
-              counter++;
-            }
+      queue.put(persistenceFile, new QueueEntry(newPersistenceFile, serializable, gzip, old == null ? now : old.queuedNanos));
+      if (!scheduled) {
+        schedule();
+        scheduled = true;
+      }
+    }
+  }
+
+  /**
+   * Must hold lock on queue.
+   */
+  private void schedule() {
+    assert Thread.holdsLock(queue);
+    if (window == 0) {
+      RootNodeImpl.submit(this::writeAndReschedule);
+    } else {
+      RootNodeImpl.schedule(this::writeAndReschedule, window);
+    }
+  }
+
+  private void writeAndReschedule() {
+    try {
+      if (isParked()) {
+        parks.incrementAndGet();
+      } else {
+        write(true);
+      }
+    } catch (ThreadDeath td) {
+      throw td;
+    } catch (Throwable t) {
+      logger.log(Level.SEVERE, null, t);
+    } finally {
+      synchronized (queue) {
+        if (queue.isEmpty()) {
+          scheduled = false;
+        } else {
+          schedule();
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks if writes should wait for the disk to be active.
+   */
+  private boolean isParked() {
+    if (diskActivity == null) {
+      return false;
+    }
+    long activity = diskActivity.getAsLong();
+    long now = System.nanoTime();
+    synchronized (queue) {
+      boolean active = activity == -1 || (lastDiskActivity != -1 && activity != lastDiskActivity);
+      lastDiskActivity = activity;
+      if (active) {
+        parkedSinceNanos = -1;
+        return false;
+      }
+      if (parkedSinceNanos == -1) {
+        parkedSinceNanos = now;
+      }
+      if (now - parkedSinceNanos >= TimeUnit.MILLISECONDS.toNanos(maxPark)) {
+        parkedSinceNanos = -1;
+        return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Writes everything queued now, without waiting for the window or the disk and without limiting the rate.
+   */
+  void flush() {
+    write(false);
+  }
+
+  /**
+   * Writes everything currently queued.
+   */
+  private void write(boolean limitRate) {
+    synchronized (writeLock) {
+      long startNanos = System.nanoTime();
+      long written = 0;
+      int counter = 0;
+      // Take the batch, anything queued from now on is written by the next window
+      List<Map.Entry<File, QueueEntry>> batch;
+      synchronized (queue) {
+        batch = new ArrayList<>(queue.entrySet());
+        queue.clear();
+      }
+      Set<File> directories = new LinkedHashSet<>();
+      Iterator<Map.Entry<File, QueueEntry>> iter = batch.iterator();
+      while (iter.hasNext()) {
+        Map.Entry<File, QueueEntry> next = iter.next();
+        File persistenceFile = next.getKey();
+        QueueEntry queueEntry = next.getValue();
+        iter.remove();
+        counter++;
+        try {
+          int size = write(queueEntry);
+          FileUtils.renameAllowNonAtomic(queueEntry.newPersistenceFile, persistenceFile);
+          directories.add(persistenceFile.getAbsoluteFile().getParentFile());
+          long latency = System.nanoTime() - queueEntry.queuedNanos;
+          writes.incrementAndGet();
+          bytes.addAndGet(size);
+          totalLatencyNanos.addAndGet(latency);
+          maxLatencyNanos.accumulateAndGet(latency, Math::max);
+          written += size;
+        } catch (ThreadDeath td) {
+          throw td;
+        } catch (Throwable t) {
+          logger.log(Level.SEVERE, null, t);
+        }
+        if (limitRate && bytesPerSecond != 0) {
+          // Sleep until the bytes written are within the budget
+          long aheadNanos = written * 1000000000L / bytesPerSecond - (System.nanoTime() - startNanos);
+          if (aheadNanos > 0) {
             try {
-              try (
-                  ObjectOutputStream oout = new ObjectOutputStream(
-                      queueEntry1.gzip
-                          ? new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(queueEntry1.newPersistenceFile)))
-                          : new BufferedOutputStream(new FileOutputStream(queueEntry1.newPersistenceFile))
-                  )
-                  ) {
-                oout.writeObject(queueEntry1.object);
-              }
-              FileUtils.renameAllowNonAtomic(queueEntry1.newPersistenceFile, persistenceFile1);
-            } catch (ThreadDeath td) {
-              throw td;
-            } catch (Throwable t) {
-              logger.log(Level.SEVERE, null, t);
+              TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            } catch (InterruptedException e) {
+              // Restore the interrupted status, leaving the rest queued
+              Thread.currentThread().interrupt();
+              requeue(batch);
+              break;
             }
           }
-        });
-        running = true;
+        }
+      }
+      for (File directory : directories) {
+        forceDirectory(directory);
+      }
+      if (logger.isLoggable(Level.FINE)) {
+        logger.fine(
+            "Wrote " + counter + " files, " + written + " bytes in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms, mean latency "
+                + getMeanLatency() + " ms, queue depth " + getQueueDepth()
+        );
       }
     }
   }
+
+  /**
+   * Puts the unwritten rest of a batch back at the front of the queue.  Newer versions queued since
+   * keep the position and queued time of the unwritten version.
+   */
+  private void requeue(List<Map.Entry<File, QueueEntry>> unwritten) {
+    synchronized (queue) {
+      LinkedHashMap<File, QueueEntry> requeued = new LinkedHashMap<>();
+      for (Map.Entry<File, QueueEntry> entry : unwritten) {
+        requeued.put(entry.getKey(), entry.getValue());
+      }
+      for (Map.Entry<File, QueueEntry> entry : queue.entrySet()) {
+        QueueEntry older = requeued.get(entry.getKey());
+        QueueEntry newer = entry.getValue();
+        if (older != null) {
+          coalesced.incrementAndGet();
+          newer = new QueueEntry(newer.newPersistenceFile, newer.object, newer.gzip, older.queuedNanos);
+        }
+        requeued.put(entry.getKey(), newer);
+      }
+      queue.clear();
+      queue.putAll(requeued);
+    }
+  }
+
+  /**
+   * Forces the renames within a directory to disk.  Directories cannot be opened on all platforms,
+   * where the renames are left to the operating system.
+   */
+  private static void forceDirectory(File directory) {
+    try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      logger.log(Level.FINE, null, e);
+    }
+  }
+
+  /**
+   * Writes one new file, reusing the buffers and deflater, and forces it to disk.  Must hold writeLock.
+   *
+   * @return  The number of bytes written
+   */
+  private int write(QueueEntry queueEntry) throws IOException {
+    assert Thread.holdsLock(writeLock);
+    try {
+      serialized.reset();
+      try (ObjectOutputStream oout = new ObjectOutputStream(serialized)) {
+        oout.writeObject(queueEntry.object);
+      }
+      Buffer out;
+      if (queueEntry.gzip) {
+        gzip(serialized, compressed);
+        out = compressed;
+      } else {
+        out = serialized;
+      }
+      try (FileOutputStream fileOut = new FileOutputStream(queueEntry.newPersistenceFile)) {
+        fileOut.write(out.getBuffer(), 0, out.size());
+        fileOut.getChannel().force(true);
+      }
+      return out.size();
+    } finally {
+      if (serialized.getCapacity() > MAX_RETAINED_BUFFER_SIZE) {
+        serialized = new Buffer();
+      }
+      if (compressed.getCapacity() > MAX_RETAINED_BUFFER_SIZE) {
+        compressed = new Buffer();
+      }
+    }
+  }
+
+  /**
+   * Compresses in the GZIP format, readable by {@link java.util.zip.GZIPInputStream}.  Must hold writeLock.
+   */
+  private void gzip(Buffer in, Buffer out) {
+    assert Thread.holdsLock(writeLock);
+    out.reset();
+    out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+    crc.reset();
+    crc.update(in.getBuffer(), 0, in.size());
+    deflater.reset();
+    deflater.setInput(in.getBuffer(), 0, in.size());
+    deflater.finish();
+    while (!deflater.finished()) {
+      out.write(deflated, 0, deflater.deflate(deflated));
+    }
+    writeIntLittleEndian(out, (int) crc.getValue());
+    writeIntLittleEndian(out, in.size());
+  }
+
+  private static void writeIntLittleEndian(Buffer out, int value) {
+    out.write(value);
+    out.write(value >>> 8);
+    out.write(value >>> 16);
+    out.write(value >>> 24);
+  }
+
+  /**
+   * The number of files waiting to be written.
+   */
+  int getQueueDepth() {
+    synchronized (queue) {
+      return queue.size();
+    }
+  }
+
+  /**
+   * The number of files written.
+   */
+  long getWrites() {
+    return writes.get();
+  }
+
+  /**
+   * The number of versions replaced in the queue by a newer version before being written.
+   */
+  long getCoalesced() {
+    return coalesced.get();
+  }
+
+  /**
+   * The number of bytes written.
+   */
+  long getBytes() {
+    return bytes.get();
+  }
+
+  /**
+   * The number of windows parked waiting for disk activity.
+   */
+  long getParks() {
+    return parks.get();
+  }
+
+  /**
+   * The mean milliseconds from queued to written.
+   */
+  long getMeanLatency() {
+    long count = writes.get();
+    return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / count);
+  }
+
+  /**
+   * The maximum milliseconds from queued to written.
+   */
+  long getMaxLatency() {
+    return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+  }
 }
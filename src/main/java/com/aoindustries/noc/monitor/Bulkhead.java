@@ -0,0 +1,247 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.lang.concurrent.CallableE;
+import com.aoapps.lang.i18n.Resources;
+import java.util.ResourceBundle;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Limits the number of concurrent calls against a single target, with a bounded
+ * number of callers allowed to wait for a permit.  When both the permits and the
+ * queue are full, calls fail fast with a {@link RejectedExecutionException}, so
+ * one slow target cannot tie up an unbounded number of threads.  Calls that wait
+ * longer than the maximum wait are also rejected, with their own message.
+ *
+ * @see  DaemonBulkheads
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class Bulkhead {
+
+  private static final Logger logger = Logger.getLogger(Bulkhead.class.getName());
+
+  private static final Resources RESOURCES =
+      Resources.getResources(ResourceBundle::getBundle, Bulkhead.class);
+
+  /**
+   * A point-in-time view of the activity of one bulkhead.
+   */
+  public static final class Stats {
+
+    private final String name;
+    private final int permits;
+    private final int maxQueued;
+    private final int active;
+    private final int queued;
+    private final long accepted;
+    private final long rejected;
+    private final long maxWaitNanos;
+
+    private Stats(String name, int permits, int maxQueued, int active, int queued, long accepted, long rejected, long maxWaitNanos) {
+      this.name = name;
+      this.permits = permits;
+      this.maxQueued = maxQueued;
+      this.active = active;
+      this.queued = queued;
+      this.accepted = accepted;
+      this.rejected = rejected;
+      this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getPermits() {
+      return permits;
+    }
+
+    public int getMaxQueued() {
+      return maxQueued;
+    }
+
+    /**
+     * The number of calls currently holding a permit.
+     */
+    public int getActive() {
+      return active;
+    }
+
+    /**
+     * The number of calls currently waiting for a permit.
+     */
+    public int getQueued() {
+      return queued;
+    }
+
+    /**
+     * Is every permit in use and the queue full?
+     */
+    public boolean isSaturated() {
+      return active >= permits && queued >= maxQueued;
+    }
+
+    /**
+     * The total number of calls that have been given a permit.
+     */
+    public long getAccepted() {
+      return accepted;
+    }
+
+    /**
+     * The total number of calls that failed fast or gave up waiting for a permit.
+     */
+    public long getRejected() {
+      return rejected;
+    }
+
+    /**
+     * The longest time any call has waited for a permit.
+     */
+    public long getMaxWaitNanos() {
+      return maxWaitNanos;
+    }
+
+    @Override
+    public String toString() {
+      return name + ": active=" + active + '/' + permits + ", queued=" + queued + '/' + maxQueued
+          + ", accepted=" + accepted + ", rejected=" + rejected
+          + ", maxWait=" + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms";
+    }
+  }
+
+  private final String name;
+  private final int permits;
+  private final int maxQueued;
+  private final long maxWaitNanos;
+  private final Semaphore semaphore;
+
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicLong accepted = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong maxWaitNanosObserved = new AtomicLong();
+  private volatile long lastUsedNanos = System.nanoTime();
+
+  /**
+   * @param  permits    The maximum number of concurrent calls
+   * @param  maxQueued  The maximum number of calls waiting for a permit, beyond which calls are rejected immediately
+   * @param  maxWait    The maximum time to wait for a permit
+   */
+  public Bulkhead(String name, int permits, int maxQueued, long maxWait, TimeUnit unit) {
+    if (permits < 1) {
+      throw new IllegalArgumentException("permits < 1: " + permits);
+    }
+    if (maxQueued < 0) {
+      throw new IllegalArgumentException("maxQueued < 0: " + maxQueued);
+    }
+    this.name = name;
+    this.permits = permits;
+    this.maxQueued = maxQueued;
+    this.maxWaitNanos = unit.toNanos(maxWait);
+    this.semaphore = new Semaphore(permits, true);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Performs the call while holding a permit.
+   *
+   * @throws  RejectedExecutionException  when saturated or unable to get a permit within the maximum wait
+   */
+  public <V, E extends Throwable> V call(CallableE<? extends V, ? extends E> callable) throws InterruptedException, RejectedExecutionException, E {
+    acquire();
+    try {
+      return callable.call();
+    } finally {
+      semaphore.release();
+    }
+  }
+
+  private void acquire() throws InterruptedException, RejectedExecutionException {
+    lastUsedNanos = System.nanoTime();
+    if (semaphore.tryAcquire()) {
+      accepted.incrementAndGet();
+      return;
+    }
+    try {
+      if (queued.incrementAndGet() > maxQueued) {
+        throw reject(RESOURCES.getMessage("saturated", name, permits, maxQueued));
+      }
+      long startNanos = System.nanoTime();
+      if (!semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+        throw reject(RESOURCES.getMessage("timeout", name, permits, maxQueued, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos)));
+      }
+      accepted.incrementAndGet();
+      long waitNanos = System.nanoTime() - startNanos;
+      maxWaitNanosObserved.accumulateAndGet(waitNanos, Math::max);
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+
+  /**
+   * @param  message  in default locale because it is persisted by serializer
+   */
+  private RejectedExecutionException reject(String message) {
+    rejected.incrementAndGet();
+    if (logger.isLoggable(Level.FINE)) {
+      logger.fine("Rejected: " + getStats());
+    }
+    return new RejectedExecutionException(message);
+  }
+
+  /**
+   * Gets how long since this bulkhead was last called, or {@code 0} while any call holds
+   * or is waiting for a permit.
+   */
+  long getIdleNanos() {
+    if (semaphore.availablePermits() < permits || queued.get() > 0) {
+      return 0;
+    }
+    return System.nanoTime() - lastUsedNanos;
+  }
+
+  public Stats getStats() {
+    return new Stats(
+        name,
+        permits,
+        maxQueued,
+        permits - semaphore.availablePermits(),
+        Math.min(queued.get(), maxQueued),
+        accepted.get(),
+        rejected.get(),
+        maxWaitNanosObserved.get()
+    );
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The highest alert level of the children of one node, kept as a count of the children at each
+ * alert level.  The children are read once, then each change of a child only moves it between
+ * counts, so the highest level is found without reading any child.
+ *
+ * <p>The children are read again after a child of this node, or of any node below it, is added
+ * or removed.  Only the parent of the changed node and the parent's ancestors read their children
+ * again, every other node keeps its counts.  The children are read without holding the lock of this
+ * node, so a child changing while they are read is never lost: the children are instead read again
+ * on next use.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ChildAlertLevels {
+
+  private static final AlertLevel[] ALERT_LEVELS = AlertLevel.values();
+
+  private final NodeImpl node;
+
+  // All below are guarded by this
+  private boolean valid;
+  private long changeCount;
+  private Map<NodeImpl, AlertLevel> levels;
+  private int[] counts;
+
+  ChildAlertLevels(NodeImpl node) {
+    this.node = node;
+  }
+
+  /**
+   * Gets the highest alert level of the children, reading the children when not yet counted.
+   *
+   * @return  the highest level or {@link AlertLevel#NONE} when there are no children
+   */
+  AlertLevel get() {
+    long startChangeCount;
+    synchronized (this) {
+      if (valid) {
+        return getMax();
+      }
+      startChangeCount = changeCount;
+    }
+    // Read without lock
+    List<? extends NodeImpl> children = node.getChildren();
+    Map<NodeImpl, AlertLevel> newLevels = new IdentityHashMap<>(children.size() * 4 / 3 + 1);
+    int[] newCounts = new int[ALERT_LEVELS.length];
+    for (NodeImpl child : children) {
+      AlertLevel level = child.getAlertLevel();
+      if (newLevels.put(child, level) == null) {
+        newCounts[level.ordinal()]++;
+      }
+    }
+    synchronized (this) {
+      levels = newLevels;
+      counts = newCounts;
+      // Changed while read, read again on next use
+      valid = changeCount == startChangeCount;
+      return getMax();
+    }
+  }
+
+  /**
+   * Moves a child to its current alert level.  The child is read while holding the lock of this
+   * node, so concurrent changes of the same child are counted in order.  Locks are only ever
+   * taken from parent to child.
+   *
+   * <p>The counts of this node may already include the child's current level, such as when read
+   * again by another thread before this call.  The parents must still be updated, since they may
+   * not have read this node since, so the caller continues up the tree whether or not anything
+   * changed here.</p>
+   */
+  synchronized void childChanged(NodeImpl child) {
+    changeCount++;
+    if (!valid) {
+      // Not counted
+      return;
+    }
+    AlertLevel oldLevel = levels.get(child);
+    if (oldLevel == null) {
+      // Added since counted
+      valid = false;
+      return;
+    }
+    AlertLevel newLevel = child.getAlertLevel();
+    if (oldLevel != newLevel) {
+      levels.put(child, newLevel);
+      counts[oldLevel.ordinal()]--;
+      counts[newLevel.ordinal()]++;
+    }
+  }
+
+  /**
+   * Reads the children again on next use, after a child of this node or of any node below it has
+   * been added or removed.
+   */
+  synchronized void structureChanged() {
+    changeCount++;
+    valid = false;
+  }
+
+  private AlertLevel getMax() {
+    assert Thread.holdsLock(this);
+    for (int i = counts.length - 1; i >= 0; i--) {
+      if (counts[i] != 0) {
+        return ALERT_LEVELS[i];
+      }
+    }
+    return AlertLevel.NONE;
+  }
+}
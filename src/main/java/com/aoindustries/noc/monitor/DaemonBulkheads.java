@@ -0,0 +1,188 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.lang.concurrent.CallableE;
+import com.aoindustries.aoserv.client.linux.Server;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One {@link Bulkhead} per {@link Server}, shared by every check that calls the
+ * server's AOServ daemon.  When a daemon is slow, only the checks against that
+ * server wait or fail; the rest of the fleet is unaffected.
+ *
+ * <p>Configured by system properties, applied to every server:</p>
+ * <ul>
+ *   <li>{@value #PERMITS_PROPERTY} - concurrent daemon calls per server, default {@value #DEFAULT_PERMITS}</li>
+ *   <li>{@value #QUEUE_PROPERTY} - calls allowed to wait for a permit, default {@value #DEFAULT_QUEUE}</li>
+ *   <li>{@value #MAX_WAIT_PROPERTY} - milliseconds to wait for a permit, default {@value #DEFAULT_MAX_WAIT}</li>
+ *   <li>{@value #STATS_INTERVAL_PROPERTY} - milliseconds between logging the stats, default {@value #DEFAULT_STATS_INTERVAL}</li>
+ * </ul>
+ *
+ * <p>Each interval, the stats of every bulkhead that rejected calls are logged as a warning, and
+ * all others at {@link Level#FINE}.  A bulkhead not called for {@value #IDLE_REMOVAL} milliseconds,
+ * such as for a server that is no longer monitored, is removed.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class DaemonBulkheads {
+
+  /** Make no instances. */
+  private DaemonBulkheads() {
+    throw new AssertionError();
+  }
+
+  public static final String PERMITS_PROPERTY = "com.aoindustries.noc.monitor.daemonBulkhead.permits";
+  public static final String QUEUE_PROPERTY = "com.aoindustries.noc.monitor.daemonBulkhead.queue";
+  public static final String MAX_WAIT_PROPERTY = "com.aoindustries.noc.monitor.daemonBulkhead.maxWait";
+  public static final String STATS_INTERVAL_PROPERTY = "com.aoindustries.noc.monitor.daemonBulkhead.statsInterval";
+
+  private static final Logger logger = Logger.getLogger(DaemonBulkheads.class.getName());
+
+  private static final int DEFAULT_PERMITS = 4;
+  private static final int DEFAULT_QUEUE = 8;
+  private static final long DEFAULT_MAX_WAIT = 60L * 1000;
+  private static final long DEFAULT_STATS_INTERVAL = 5L * 60 * 1000;
+
+  /**
+   * Checks run every few minutes at most, so an hour without calls means the server is gone.
+   */
+  private static final long IDLE_REMOVAL = 60L * 60 * 1000;
+
+  private static final int permits = Integer.getInteger(PERMITS_PROPERTY, DEFAULT_PERMITS);
+  private static final int maxQueued = Integer.getInteger(QUEUE_PROPERTY, DEFAULT_QUEUE);
+  private static final long maxWait = Long.getLong(MAX_WAIT_PROPERTY, DEFAULT_MAX_WAIT);
+  private static final long statsInterval = Long.getLong(STATS_INTERVAL_PROPERTY, DEFAULT_STATS_INTERVAL);
+
+  /**
+   * Keyed by the server's primary key.
+   */
+  private static final Map<Integer, Bulkhead> bulkheads = new HashMap<>();
+
+  /**
+   * The number rejected when last logged, keyed by the server's primary key and synchronized on bulkheads.
+   */
+  private static final Map<Integer, Long> loggedRejected = new HashMap<>();
+
+  /**
+   * Is logging the stats pending or running, synchronized on bulkheads.
+   */
+  private static boolean scheduled;
+
+  /**
+   * Gets the bulkhead for the given server, creating it if needed.
+   */
+  public static Bulkhead getBulkhead(Server linuxServer) {
+    Integer pkey = linuxServer.getPkey();
+    synchronized (bulkheads) {
+      Bulkhead bulkhead = bulkheads.get(pkey);
+      if (bulkhead == null) {
+        bulkhead = new Bulkhead(linuxServer.toString(), permits, maxQueued, maxWait, TimeUnit.MILLISECONDS);
+        bulkheads.put(pkey, bulkhead);
+        if (!scheduled) {
+          RootNodeImpl.schedule(DaemonBulkheads::logStats, statsInterval);
+          scheduled = true;
+        }
+      }
+      return bulkhead;
+    }
+  }
+
+  /**
+   * Performs a daemon call within the bulkhead for the given server.
+   *
+   * @throws  RejectedExecutionException  when the server's bulkhead is saturated
+   *
+   * @see  Bulkhead#call(com.aoapps.lang.concurrent.CallableE)
+   */
+  public static <V, E extends Throwable> V call(Server linuxServer, CallableE<? extends V, ? extends E> callable) throws InterruptedException, RejectedExecutionException, E {
+    return getBulkhead(linuxServer).call(callable);
+  }
+
+  /**
+   * Gets the current saturation metrics of every server, ordered by server name.
+   */
+  public static SortedMap<String, Bulkhead.Stats> getStats() {
+    SortedMap<String, Bulkhead.Stats> stats = new TreeMap<>();
+    synchronized (bulkheads) {
+      for (Bulkhead bulkhead : bulkheads.values()) {
+        stats.put(bulkhead.getName(), bulkhead.getStats());
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Logs the stats of every bulkhead and removes those that are idle.  Once no bulkheads
+   * remain, stops until the next is created.
+   */
+  private static void logStats() {
+    List<String> warnings = new ArrayList<>();
+    List<String> fine = new ArrayList<>();
+    synchronized (bulkheads) {
+      Iterator<Map.Entry<Integer, Bulkhead>> iter = bulkheads.entrySet().iterator();
+      while (iter.hasNext()) {
+        Map.Entry<Integer, Bulkhead> entry = iter.next();
+        Integer pkey = entry.getKey();
+        Bulkhead bulkhead = entry.getValue();
+        Bulkhead.Stats stats = bulkhead.getStats();
+        Long lastRejected = loggedRejected.put(pkey, stats.getRejected());
+        long newRejected = stats.getRejected() - (lastRejected == null ? 0 : lastRejected);
+        if (newRejected > 0) {
+          warnings.add(stats + ", " + newRejected + " rejected since last logged");
+        } else {
+          fine.add(stats.toString());
+        }
+        if (TimeUnit.NANOSECONDS.toMillis(bulkhead.getIdleNanos()) >= IDLE_REMOVAL) {
+          iter.remove();
+          loggedRejected.remove(pkey);
+          fine.add("Removed idle bulkhead: " + bulkhead.getName());
+        }
+      }
+      if (bulkheads.isEmpty()) {
+        scheduled = false;
+      } else {
+        RootNodeImpl.schedule(DaemonBulkheads::logStats, statsInterval);
+      }
+    }
+    for (String warning : warnings) {
+      logger.warning(warning);
+    }
+    if (logger.isLoggable(Level.FINE)) {
+      for (String message : fine) {
+        logger.fine(message);
+      }
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores the rollups of each level as a series in the {@link HistoryDatabase}, so no file is kept
+ * open per worker.  Any existing {@link ListRollupStore} is imported the first time opened, then
+ * renamed by adding {@code .imported}.  Rollups already in a level are skipped by time, so an
+ * import interrupted by a crash is completed on the next start.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class DatabaseRollupStore implements RollupStore {
+
+  private static final Logger logger = Logger.getLogger(DatabaseRollupStore.class.getName());
+
+  private final List<HistoryStore<Rollup>> levels = new ArrayList<>(Rollup.LEVELS);
+
+  DatabaseRollupStore(HistoryDatabase database, File persistenceFile) throws IOException {
+    RollupSerializer serializer = new RollupSerializer();
+    for (int level = 0; level < Rollup.LEVELS; level++) {
+      levels.add(database.open(new File(persistenceFile.getPath() + SUFFIX + "." + level), serializer));
+    }
+    File listFile = new File(persistenceFile.getPath() + SUFFIX);
+    if (listFile.isFile()) {
+      importList(database, listFile);
+    }
+  }
+
+  /**
+   * Imports the rollups of a {@link ListRollupStore}, oldest first within each level.
+   *
+   * @return  The number of rollups imported
+   */
+  private int importList(HistoryDatabase database, File listFile) throws IOException {
+    long[] newest = new long[Rollup.LEVELS];
+    for (int level = 0; level < Rollup.LEVELS; level++) {
+      Rollup rollup = levels.get(level).peekNewest();
+      newest[level] = (rollup == null) ? Long.MIN_VALUE : rollup.getStartTime();
+    }
+    int count = 0;
+    try (ListRollupStore list = new ListRollupStore(listFile)) {
+      for (int level = 0; level < Rollup.LEVELS; level++) {
+        Iterator<Rollup> iter = list.iterator(level);
+        while (iter.hasNext()) {
+          Rollup rollup = iter.next();
+          if (rollup.getStartTime() > newest[level]) {
+            levels.get(level).addNewest(rollup);
+            count++;
+          }
+        }
+      }
+    }
+    // Written before the list is renamed
+    database.flush();
+    database.force();
+    Files.move(listFile.toPath(), new File(listFile.getPath() + ".imported").toPath());
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Imported " + count + " rollups from " + listFile);
+    }
+    return count;
+  }
+
+  @Override
+  public Iterator<Rollup> iterator() throws IOException {
+    List<Rollup> rollups = new ArrayList<>();
+    for (HistoryStore<Rollup> level : levels) {
+      List<Rollup> levelRollups = new ArrayList<>();
+      Iterator<Rollup> iter = level.iterator();
+      while (iter.hasNext()) {
+        levelRollups.add(iter.next());
+      }
+      Collections.reverse(levelRollups);
+      rollups.addAll(levelRollups);
+    }
+    return rollups.iterator();
+  }
+
+  @Override
+  public Iterator<Rollup> iterator(int level) throws IOException {
+    return levels.get(level).iterator();
+  }
+
+  @Override
+  public void add(Rollup rollup) throws IOException {
+    levels.get(rollup.getLevel()).addNewest(rollup);
+  }
+
+  @Override
+  public void removeOldest(int level, int count) throws IOException {
+    levels.get(level).removeOldest(count);
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (HistoryStore<Rollup> level : levels) {
+      level.close();
+    }
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Runs a monitoring call directly on the calling worker thread, while the shared
+ * {@link RootNodeImpl#schedule(java.lang.Runnable, long) timing wheel} acts as a watchdog
+ * to enforce the timeout.  This avoids the second thread per check used when the call is
+ * submitted to the executor and waited on with {@link Future#get(long, java.util.concurrent.TimeUnit)}.
+ *
+ * <p>When the deadline passes, the worker's existing cancel hook is invoked with this call
+ * as the future.  Canceling with {@code mayInterruptIfRunning} interrupts the worker thread
+ * only while the call is still in progress.</p>
+ *
+ * <p>Only the interrupt sent by cancelation is cleared when the call finishes.  When the worker
+ * thread is already interrupted, such as by the worker being stopped, no interrupt is sent and
+ * the existing interrupt is left in place.  An interrupt that arrives after ours and before the
+ * call finishes cannot be told apart from ours, but workers also check their timer task after
+ * the call, so a stop is still seen.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class DeadlineCall<V> implements Future<V> {
+
+  /**
+   * Calls the given callable on the current thread, enforcing the timeout by the shared watchdog.
+   *
+   * @param  cancel  the worker's cancel hook, which must not block
+   *
+   * @throws  TimeoutException  when the deadline passes before the call completes, even if the call
+   *                            then completes normally
+   */
+  static <V> V call(Callable<V> callable, long timeout, TimeUnit unit, Consumer<? super Future<V>> cancel) throws Exception {
+    DeadlineCall<V> call = new DeadlineCall<>(Thread.currentThread());
+    Future<?> watchdog = RootNodeImpl.schedule(
+        () -> {
+          if (call.expire()) {
+            cancel.accept(call);
+          }
+        },
+        unit.toMillis(timeout)
+    );
+    V result;
+    try {
+      result = callable.call();
+    } catch (Exception e) {
+      call.failed(e);
+      if (call.finish(watchdog)) {
+        TimeoutException timeoutException = new TimeoutException();
+        timeoutException.addSuppressed(e);
+        throw timeoutException;
+      }
+      throw e;
+    } catch (Throwable t) {
+      call.finish(watchdog);
+      throw t;
+    }
+    call.done(result);
+    if (call.finish(watchdog)) {
+      throw new TimeoutException();
+    }
+    return result;
+  }
+
+  private static final int STATE_RUNNING = 0;
+  private static final int STATE_DONE = 1;
+  private static final int STATE_FAILED = 2;
+  private static final int STATE_CANCELLED = 3;
+
+  private final Thread thread;
+
+  // All synchronized on this
+  private int state = STATE_RUNNING;
+  private boolean expired;
+  private boolean interrupted;
+  private boolean finished;
+  private V result;
+  private Exception exception;
+
+  private DeadlineCall(Thread thread) {
+    this.thread = thread;
+  }
+
+  /**
+   * Marks as expired when still running.
+   *
+   * @return  {@code true} when the cancel hook should be called
+   */
+  private synchronized boolean expire() {
+    if (finished) {
+      return false;
+    }
+    expired = true;
+    return true;
+  }
+
+  private synchronized void done(V result) {
+    if (state == STATE_RUNNING) {
+      this.result = result;
+      state = STATE_DONE;
+    }
+  }
+
+  private synchronized void failed(Exception exception) {
+    if (state == STATE_RUNNING) {
+      this.exception = exception;
+      state = STATE_FAILED;
+    }
+  }
+
+  /**
+   * Marks the call finished, so no more interrupts may be delivered to the worker thread.
+   * Clears the interrupt delivered by cancelation, if any, leaving any other interrupt in place.
+   *
+   * @return  {@code true} when the deadline passed
+   */
+  private boolean finish(Future<?> watchdog) {
+    watchdog.cancel(false);
+    boolean clearInterrupt;
+    boolean timedOut;
+    synchronized (this) {
+      finished = true;
+      clearInterrupt = interrupted;
+      timedOut = expired;
+      notifyAll();
+    }
+    if (clearInterrupt) {
+      // Do not leak our interrupt into the rest of the worker pass
+      Thread.interrupted();
+    }
+    return timedOut;
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    synchronized (this) {
+      if (state != STATE_RUNNING) {
+        return false;
+      }
+      state = STATE_CANCELLED;
+      if (mayInterruptIfRunning && !finished && !thread.isInterrupted()) {
+        // Only an interrupt sent here is cleared by finish
+        interrupted = true;
+        thread.interrupt();
+      }
+      notifyAll();
+      return true;
+    }
+  }
+
+  @Override
+  public synchronized boolean isCancelled() {
+    return state == STATE_CANCELLED;
+  }
+
+  @Override
+  public synchronized boolean isDone() {
+    return state != STATE_RUNNING;
+  }
+
+  @Override
+  public synchronized V get() throws InterruptedException, ExecutionException {
+    while (state == STATE_RUNNING) {
+      wait();
+    }
+    return report();
+  }
+
+  @Override
+  public synchronized V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (state == STATE_RUNNING) {
+      long waitNanos = deadline - System.nanoTime();
+      if (waitNanos <= 0) {
+        throw new TimeoutException();
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+    }
+    return report();
+  }
+
+  // Must hold lock
+  private V report() throws ExecutionException {
+    if (state == STATE_CANCELLED) {
+      throw new CancellationException();
+    }
+    if (state == STATE_FAILED) {
+      throw new ExecutionException(exception);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.ProtectionLevel;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Commits the append-only history files of all workers to disk together, once per interval, instead
+ * of forcing on every write of every worker.  With thousands of workers, the separate forces add up
+ * to thousands of flushes per minute, which is the load spiral described for {@link BackgroundWriter}.
+ *
+ * <p>Only the append-only engines, {@link SegmentedLog}, the default, and {@link HistoryDatabase},
+ * register their files.  Each of their records carries a CRC-32, and when opened the first incomplete or corrupt
+ * record ends the file.  Writes within an interval are not ordered on disk, so a crash loses the
+ * records appended since the last commit that completed, and may restore elements removed since
+ * then.  Records committed before that are not affected.</p>
+ *
+ * <p>A {@link com.aoapps.persistence.PersistentLinkedList} updates its pointers in place, where a
+ * partial write can lose the whole list, so it is always opened with
+ * {@link ProtectionLevel#BARRIER} and is never committed here.  This covers the histories of
+ * {@value HistoryStore#ENGINE_PROPERTY}={@value HistoryStore#ENGINE_LIST}, and the rollups
+ * beside the histories of the list and log engines, which are only written every five minutes.</p>
+ *
+ * <p>The interval is configured by the system property {@value #INTERVAL_PROPERTY}, in milliseconds,
+ * default {@value #DEFAULT_INTERVAL}.  Zero forces the append-only files on every write.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class GroupCommit {
+
+  private static final Logger logger = Logger.getLogger(GroupCommit.class.getName());
+
+  static final String INTERVAL_PROPERTY = "com.aoindustries.noc.monitor.groupCommit.interval";
+
+  private static final long DEFAULT_INTERVAL = 5000;
+
+  private static final GroupCommit instance = new GroupCommit(Long.getLong(INTERVAL_PROPERTY, DEFAULT_INTERVAL));
+
+  static GroupCommit getInstance() {
+    return instance;
+  }
+
+  private final long interval;
+
+  private final Set<FileChannel> channels = new LinkedHashSet<>();
+
+  /**
+   * Is a commit pending or running, synchronized on channels.
+   */
+  private boolean scheduled;
+
+  private final AtomicLong commits = new AtomicLong();
+  private final AtomicLong forces = new AtomicLong();
+
+  GroupCommit(long interval) {
+    if (interval < 0) {
+      throw new IllegalArgumentException("interval < 0: " + interval);
+    }
+    this.interval = interval;
+  }
+
+  boolean isEnabled() {
+    return interval != 0;
+  }
+
+  /**
+   * Adds a file to be forced on each commit, until closed.
+   */
+  void register(FileChannel channel) {
+    synchronized (channels) {
+      channels.add(channel);
+      if (!scheduled) {
+        RootNodeImpl.schedule(this::commitAndReschedule, interval);
+        scheduled = true;
+      }
+    }
+  }
+
+  /**
+   * Forces all files to disk.  Closed files are removed.
+   */
+  void commit() {
+    List<FileChannel> snapshot;
+    synchronized (channels) {
+      snapshot = new ArrayList<>(channels);
+    }
+    long startNanos = System.nanoTime();
+    List<FileChannel> closed = new ArrayList<>();
+    for (FileChannel channel : snapshot) {
+      try {
+        channel.force(false);
+        forces.incrementAndGet();
+      } catch (ClosedChannelException e) {
+        closed.add(channel);
+      } catch (IOException e) {
+        logger.log(Level.SEVERE, null, e);
+      }
+    }
+    commits.incrementAndGet();
+    if (!closed.isEmpty()) {
+      synchronized (channels) {
+        channels.removeAll(closed);
+      }
+    }
+    if (logger.isLoggable(Level.FINE)) {
+      logger.fine("Committed " + snapshot.size() + " files in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
+    }
+  }
+
+  private void commitAndReschedule() {
+    try {
+      commit();
+    } catch (ThreadDeath td) {
+      throw td;
+    } catch (Throwable t) {
+      logger.log(Level.SEVERE, null, t);
+    } finally {
+      synchronized (channels) {
+        if (channels.isEmpty()) {
+          scheduled = false;
+        } else {
+          RootNodeImpl.schedule(this::commitAndReschedule, interval);
+        }
+      }
+    }
+  }
+
+  /**
+   * The number of commits performed.
+   */
+  long getCommits() {
+    return commits.get();
+  }
+
+  /**
+   * The number of files forced, over all commits.
+   */
+  long getForces() {
+    return forces.get();
+  }
+}
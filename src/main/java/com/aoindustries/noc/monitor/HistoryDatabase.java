@@ -0,0 +1,1517 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.Serializer;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the histories of all workers together in one directory, instead of one or more open
+ * files per worker.  Each history is a series, named by the path of its persistence file relative
+ * to the parent of the database directory.  The series are spread over a fixed number of shards,
+ * each an append-only log of segment files like {@link SegmentedLog}, so only one file per shard
+ * is open for writing.  All writes are performed by a single background writer, batching the
+ * writes of all workers.
+ *
+ * <p>The lock of the database is only held to queue writes and find series.  The writer takes the
+ * queued writes, then writes each shard without holding any lock, since only the writer appends to
+ * the files.  The positions of the elements are then recorded while holding the lock of the shard,
+ * which is also held to read or remove the elements of its series.  Locks are only taken from the
+ * database to a shard.</p>
+ *
+ * <p>When a write fails, any partial record is truncated and the writes not yet written are kept,
+ * in order, to be retried ahead of the next batch.  They are retried when anything more is queued
+ * or the database is flushed.  Until written, reading an affected series throws
+ * {@link IOException}, so workers log the failure on each pass instead of silently losing
+ * results.</p>
+ *
+ * <p>Removing the oldest elements of a series appends a small head record.  A segment is deleted
+ * once it is the oldest of its shard and none of its elements are still in any series.  A segment
+ * mostly removed, such as by a worker no longer configured, is compacted in the background.</p>
+ *
+ * <p>When opened, the positions of every element are indexed, so the workers read their histories
+ * without rescanning the shards.  The index of a series is released when its history is read, or
+ * after {@link #INDEX_RETENTION} for series no longer used.</p>
+ *
+ * <p>A series not yet in the database is imported from any existing {@link ListHistoryStore} or
+ * {@link SegmentedLog} the first time opened.  {@link HistoryMigration} imports all at once.</p>
+ *
+ * <p>Configured by system properties:</p>
+ * <ul>
+ *   <li>{@value #DIRECTORY_PROPERTY} - the database directory, default {@value #DEFAULT_DIRECTORY}</li>
+ *   <li>{@value #SHARDS_PROPERTY} - the number of shards, default {@value #DEFAULT_SHARDS}.  Existing shards
+ *       are kept when reduced.</li>
+ *   <li>{@value #SEGMENT_SIZE_PROPERTY} - the segment size in bytes, default {@value #DEFAULT_SEGMENT_SIZE}</li>
+ * </ul>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class HistoryDatabase implements Closeable {
+
+  private static final Logger logger = Logger.getLogger(HistoryDatabase.class.getName());
+
+  static final String DIRECTORY_PROPERTY = "com.aoindustries.noc.monitor.history.database";
+  static final String SHARDS_PROPERTY = "com.aoindustries.noc.monitor.history.database.shards";
+  static final String SEGMENT_SIZE_PROPERTY = "com.aoindustries.noc.monitor.history.database.segmentSize";
+
+  private static final String DEFAULT_DIRECTORY = "persistence/history";
+  private static final int DEFAULT_SHARDS = 16;
+  private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+  /**
+   * The time the index is kept for series not yet read.
+   */
+  static final long INDEX_RETENTION = TimeUnit.MINUTES.toMillis(10);
+
+  private static HistoryDatabase instance;
+
+  /**
+   * Gets the database configured by system properties, opening on first use.
+   */
+  static synchronized HistoryDatabase getInstance() throws IOException {
+    if (instance == null) {
+      instance = new HistoryDatabase(
+          getDirectory(),
+          Integer.getInteger(SHARDS_PROPERTY, DEFAULT_SHARDS),
+          Integer.getInteger(SEGMENT_SIZE_PROPERTY, DEFAULT_SEGMENT_SIZE)
+      );
+    }
+    return instance;
+  }
+
+  /**
+   * Gets the configured database directory.
+   */
+  static File getDirectory() {
+    return new File(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY));
+  }
+
+  private static final String SERIES_FILE = "series";
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private static final String NEW_SUFFIX = ".new";
+
+  private static final byte DATA = 0;
+
+  private static final byte HEAD = 1;
+
+  /**
+   * Length, CRC-32, type, series and sequence number.
+   */
+  private static final int RECORD_HEADER_SIZE = 4 + 4 + 1 + 4 + 8;
+
+  /**
+   * Length, CRC-32, series and shard, before the UTF-8 name.
+   */
+  private static final int SERIES_HEADER_SIZE = 4 + 4 + 4 + 4;
+
+  /**
+   * A long array that grows as needed.
+   */
+  private static final class LongList {
+
+    private long[] values = new long[16];
+    private int size;
+
+    private void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+  }
+
+  private static final class Segment {
+
+    private final int number;
+    private final File file;
+    private long size;
+
+    /**
+     * The number of elements, not including head records, and the number still in a series.
+     */
+    private int records;
+    private int live;
+
+    private Segment(int number, File file) {
+      this.number = number;
+      this.file = file;
+    }
+  }
+
+  /**
+   * Everything in a shard and its series is synchronized on the shard, other than its channel,
+   * which is only written by the writer.
+   */
+  private static final class Shard {
+
+    private final File dir;
+
+    /**
+     * The segments, oldest first.  The last is being written.
+     */
+    private final List<Segment> segments = new ArrayList<>();
+    private FileChannel channel;
+
+    /**
+     * The number of series with an index into this shard, which must not be compacted.
+     */
+    private int indexed;
+
+    private boolean compactScheduled;
+
+    private Shard(File dir) {
+      this.dir = dir;
+    }
+
+    private Segment getNewest() {
+      return segments.get(segments.size() - 1);
+    }
+
+    private Segment getSegment(int number) {
+      int low = 0;
+      int high = segments.size() - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        Segment segment = segments.get(mid);
+        if (segment.number < number) {
+          low = mid + 1;
+        } else if (segment.number > number) {
+          high = mid - 1;
+        } else {
+          return segment;
+        }
+      }
+      throw new IllegalStateException("Segment not found: " + number);
+    }
+  }
+
+  private static long getPosition(Segment segment, long position) {
+    return ((long) segment.number << 32) | position;
+  }
+
+  private static int getSegmentNumber(long position) {
+    return (int) (position >>> 32);
+  }
+
+  private static int getOffset(long position) {
+    return (int) position;
+  }
+
+  private static final class Series {
+
+    private final int id;
+    private final String key;
+    private final Shard shard;
+
+    /**
+     * The sequence numbers of the oldest element and of the next element to add.
+     */
+    private long head;
+    private long next;
+
+    /**
+     * The elements of this series in each segment, as consecutive sequence numbers, oldest first.
+     */
+    private final List<Segment> rangeSegments = new ArrayList<>();
+    private final LongList rangeFirsts = new LongList();
+    private final LongList rangeLasts = new LongList();
+    private int rangeStart;
+
+    /**
+     * The position of the newest element written, or {@code -1} when none.
+     */
+    private long newest = -1;
+
+    /**
+     * The positions of the elements written, oldest first, or {@code null} once released.
+     * May include elements already removed.
+     */
+    private LongList index;
+    private long indexTime;
+
+    /**
+     * The number of writes queued and not yet written.  Synchronized on the database.
+     */
+    private int pending;
+
+    /**
+     * The failure of a write not yet retried, while the series is not read.
+     */
+    private volatile IOException failure;
+
+    private Series(int id, String key, Shard shard) {
+      this.id = id;
+      this.key = key;
+      this.shard = shard;
+    }
+
+    /**
+     * Records an element written at the given position.
+     */
+    private void written(Segment segment, long offset, long seq) {
+      int count = rangeSegments.size();
+      if (count > rangeStart && rangeSegments.get(count - 1) == segment) {
+        rangeLasts.values[count - 1] = seq;
+      } else {
+        rangeSegments.add(segment);
+        rangeFirsts.add(seq);
+        rangeLasts.add(seq);
+      }
+      segment.live++;
+      long position = getPosition(segment, offset);
+      newest = position;
+      if (index != null) {
+        index.add(position);
+      }
+    }
+
+    /**
+     * Moves the head, updating the live elements of each segment.
+     */
+    private void setHead(long newHead) {
+      while (rangeStart < rangeSegments.size()) {
+        long first = rangeFirsts.values[rangeStart];
+        long last = rangeLasts.values[rangeStart];
+        long before = last - Math.max(head, first) + 1;
+        long after = last - Math.max(newHead, first) + 1;
+        Segment segment = rangeSegments.get(rangeStart);
+        segment.live -= (int) (Math.max(0, before) - Math.max(0, after));
+        if (after > 0) {
+          break;
+        }
+        rangeSegments.set(rangeStart, null);
+        rangeStart++;
+      }
+      // Release the removed ranges now and then
+      if (rangeStart > 64 && rangeStart * 2 > rangeSegments.size()) {
+        List<Segment> segments = new ArrayList<>(rangeSegments.subList(rangeStart, rangeSegments.size()));
+        long[] firsts = Arrays.copyOfRange(rangeFirsts.values, rangeStart, rangeFirsts.size);
+        long[] lasts = Arrays.copyOfRange(rangeLasts.values, rangeStart, rangeLasts.size);
+        rangeSegments.clear();
+        rangeSegments.addAll(segments);
+        rangeFirsts.values = Arrays.copyOf(firsts, Math.max(16, firsts.length * 2));
+        rangeFirsts.size = firsts.length;
+        rangeLasts.values = Arrays.copyOf(lasts, Math.max(16, lasts.length * 2));
+        rangeLasts.size = lasts.length;
+        rangeStart = 0;
+      }
+      head = newHead;
+    }
+
+    private void releaseIndex() {
+      if (index != null) {
+        index = null;
+        shard.indexed--;
+      }
+    }
+  }
+
+  private static final class Write {
+
+    private final Series series;
+    private final byte type;
+    private final long seq;
+    private final byte[] data;
+
+    private Write(Series series, byte type, long seq, byte[] data) {
+      this.series = series;
+      this.type = type;
+      this.seq = seq;
+      this.data = data;
+    }
+  }
+
+  /**
+   * Reads the remaining bytes of a buffer.
+   */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      int remaining = buffer.remaining();
+      if (remaining == 0) {
+        return -1;
+      }
+      int count = Math.min(len, remaining);
+      buffer.get(b, off, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+  private final File dir;
+  private final File root;
+  private final int maxSegmentSize;
+  private final Shard[] shards;
+  private final FileChannel seriesChannel;
+
+  /**
+   * The series by id.  Only added to while holding the lock of this database, and read without
+   * lock by the writer and compaction.
+   */
+  private final List<Series> seriesById = new CopyOnWriteArrayList<>();
+
+  // All synchronized on this database
+  private final Map<String, Series> seriesByKey = new HashMap<>();
+  private final ArrayDeque<Write> queue = new ArrayDeque<>();
+  private boolean writing;
+
+  /**
+   * The writes that failed, in order, retried ahead of the next batch.
+   */
+  private final List<Write> retry = new ArrayList<>();
+  private boolean retryRequested;
+
+  private boolean discardScheduled;
+  private volatile boolean closed;
+  private final CRC32 crc = new CRC32();
+
+  private long writes;
+  private long batches;
+  private long compactions;
+
+  // Only used by the writer
+  private final CRC32 writerCrc = new CRC32();
+  private ByteBuffer writeBuffer = ByteBuffer.allocate(64 * 1024);
+
+  /**
+   * The writes in the buffer and their offsets in the newest segment.
+   */
+  private final List<Write> buffered = new ArrayList<>();
+  private final LongList bufferedOffsets = new LongList();
+
+  HistoryDatabase(File dir, int shardCount, int maxSegmentSize) throws IOException {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("shardCount < 1: " + shardCount);
+    }
+    if (maxSegmentSize < RECORD_HEADER_SIZE) {
+      throw new IllegalArgumentException("maxSegmentSize < " + RECORD_HEADER_SIZE + ": " + maxSegmentSize);
+    }
+    Files.createDirectories(dir.toPath());
+    this.dir = dir;
+    this.root = dir.getCanonicalFile().getParentFile();
+    this.maxSegmentSize = maxSegmentSize;
+    // Series may be in more shards than currently configured
+    int shardDirs = shardCount;
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (file.isDirectory() && name.startsWith("shard")) {
+          shardDirs = Math.max(shardDirs, Integer.parseInt(name.substring("shard".length())) + 1);
+        }
+      }
+    }
+    shards = new Shard[shardDirs];
+    for (int i = 0; i < shardDirs; i++) {
+      shards[i] = new Shard(new File(dir, String.format(Locale.ROOT, "shard%03d", i)));
+    }
+    seriesChannel = FileChannel.open(new File(dir, SERIES_FILE).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    readSeries(shardCount);
+    long startNanos = System.nanoTime();
+    synchronized (this) {
+      for (Shard shard : shards) {
+        synchronized (shard) {
+          openShard(shard);
+        }
+      }
+      for (Series series : seriesById) {
+        if (series.index != null) {
+          series.indexTime = System.currentTimeMillis();
+          scheduleDiscard();
+          break;
+        }
+      }
+    }
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info(
+          "Opened " + seriesById.size() + " series in " + shardDirs + " shards in "
+              + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms: " + dir
+      );
+    }
+  }
+
+  /**
+   * Reads the names of the series, truncating any incomplete record.
+   */
+  private void readSeries(int shardCount) throws IOException {
+    long fileSize = seriesChannel.size();
+    MappedByteBuffer mapped = seriesChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+    int position = 0;
+    while (position + SERIES_HEADER_SIZE <= fileSize) {
+      int length = mapped.getInt(position);
+      if (length < 0 || position + SERIES_HEADER_SIZE + (long) length > fileSize
+          || getCrc(crc, mapped, position, SERIES_HEADER_SIZE + length) != mapped.getInt(position + 4)) {
+        break;
+      }
+      int id = mapped.getInt(position + 8);
+      int shard = mapped.getInt(position + 12);
+      byte[] name = new byte[length];
+      ByteBuffer nameBuffer = mapped.duplicate();
+      nameBuffer.position(position + SERIES_HEADER_SIZE);
+      nameBuffer.get(name);
+      if (id != seriesById.size() || shard < 0 || shard >= shards.length) {
+        break;
+      }
+      Series series = new Series(id, new String(name, StandardCharsets.UTF_8), shards[shard]);
+      seriesById.add(series);
+      seriesByKey.put(series.key, series);
+      position += SERIES_HEADER_SIZE + length;
+    }
+    if (position != fileSize) {
+      logger.warning("Truncating incomplete series: " + dir + " at " + position + " of " + fileSize);
+      seriesChannel.truncate(position);
+    }
+    seriesChannel.position(position);
+    for (Series series : seriesById) {
+      series.index = new LongList();
+      series.shard.indexed++;
+    }
+  }
+
+  /**
+   * Gets the CRC-32 of a record, which does not include the CRC-32 itself.
+   */
+  private static int getCrc(CRC32 crc, ByteBuffer buffer, int position, int size) {
+    crc.reset();
+    ByteBuffer part = buffer.duplicate();
+    part.position(position).limit(position + 4);
+    crc.update(part);
+    part.limit(position + size).position(position + 8);
+    crc.update(part);
+    return (int) crc.getValue();
+  }
+
+  private static String getSegmentName(int number) {
+    return String.format(Locale.ROOT, "%08x", number) + SEGMENT_SUFFIX;
+  }
+
+  /**
+   * Scans the segments of a shard, rebuilding the state of its series.  Must hold lock of this
+   * database and the shard.
+   */
+  private void openShard(Shard shard) throws IOException {
+    assert Thread.holdsLock(this) && Thread.holdsLock(shard);
+    Files.createDirectories(shard.dir.toPath());
+    List<Segment> found = new ArrayList<>();
+    File[] files = shard.dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (name.endsWith(SEGMENT_SUFFIX)) {
+          found.add(new Segment(Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()), 16), file));
+        } else if (name.endsWith(NEW_SUFFIX)) {
+          Files.delete(file.toPath());
+        }
+      }
+    }
+    found.sort((s1, s2) -> Integer.compare(s1.number, s2.number));
+    shard.segments.addAll(found);
+    for (int i = 0; i < found.size(); i++) {
+      scan(found.get(i), i == found.size() - 1);
+    }
+    // Elements before the head were found before the head record that removed them
+    for (Series series : seriesById) {
+      if (series.shard == shard) {
+        long head = series.head;
+        series.head = Long.MIN_VALUE;
+        series.setHead(head);
+        series.next = Math.max(series.next, head);
+      }
+    }
+    if (shard.segments.isEmpty()) {
+      shard.segments.add(new Segment(0, new File(shard.dir, getSegmentName(0))));
+    }
+    openChannel(shard);
+    deleteDead(shard);
+  }
+
+  /**
+   * Scans the records of a segment.  An incomplete or corrupt record ends the segment,
+   * and is truncated from the newest segment.  Must hold lock of this database and the shard.
+   */
+  private void scan(Segment segment, boolean newest) throws IOException {
+    assert Thread.holdsLock(this);
+    try (FileChannel fileChannel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ)) {
+      long fileSize = fileChannel.size();
+      MappedByteBuffer mapped = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+      int position = 0;
+      while (position + RECORD_HEADER_SIZE <= fileSize) {
+        int length = mapped.getInt(position);
+        if (length < 0 || position + RECORD_HEADER_SIZE + (long) length > fileSize
+            || getCrc(crc, mapped, position, RECORD_HEADER_SIZE + length) != mapped.getInt(position + 4)) {
+          break;
+        }
+        byte type = mapped.get(position + 8);
+        int id = mapped.getInt(position + 9);
+        long seq = mapped.getLong(position + 13);
+        Series series = (id >= 0 && id < seriesById.size()) ? seriesById.get(id) : null;
+        if (series == null) {
+          logger.warning("Ignoring record of unknown series: " + segment.file + " at " + position + ": " + id);
+        } else if (type == HEAD) {
+          series.head = Math.max(series.head, seq);
+        } else {
+          // Counted live until the heads are known
+          series.written(segment, position, seq);
+          series.next = Math.max(series.next, seq + 1);
+          segment.records++;
+        }
+        position += RECORD_HEADER_SIZE + length;
+      }
+      if (position != fileSize) {
+        logger.warning(
+            (newest ? "Truncating incomplete record: " : "Ignoring corrupt record: ")
+                + segment.file + " at " + position + " of " + fileSize
+        );
+      }
+      segment.size = position;
+    }
+  }
+
+  /**
+   * Opens the newest segment of a shard for append.  Must hold lock of the shard.
+   */
+  private void openChannel(Shard shard) throws IOException {
+    assert Thread.holdsLock(shard);
+    Segment segment = shard.getNewest();
+    shard.channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    if (shard.channel.size() > segment.size) {
+      shard.channel.truncate(segment.size);
+    }
+    shard.channel.position(segment.size);
+    if (GroupCommit.getInstance().isEnabled()) {
+      GroupCommit.getInstance().register(shard.channel);
+    }
+  }
+
+  /**
+   * Gets the directory of this database.
+   */
+  File getDatabaseDirectory() {
+    return dir;
+  }
+
+  /**
+   * Gets the name of the series for the given persistence file.
+   */
+  String getKey(File persistenceFile) throws IOException {
+    return root.toPath().relativize(persistenceFile.getCanonicalFile().toPath()).toString().replace(File.separatorChar, '/');
+  }
+
+  /**
+   * Opens the history for the given persistence file, importing any existing history when new.
+   */
+  <E> HistoryStore<E> open(File persistenceFile, Serializer<E> serializer) throws IOException {
+    String key = getKey(persistenceFile);
+    Series series;
+    boolean created;
+    synchronized (this) {
+      checkClosed();
+      series = seriesByKey.get(key);
+      created = series == null;
+      if (created) {
+        series = createSeries(key);
+      }
+    }
+    if (created) {
+      importHistory(series, persistenceFile);
+    }
+    return new Store<>(series, serializer);
+  }
+
+  private void checkClosed() throws IOException {
+    if (closed) {
+      throw new IOException("Closed: " + dir);
+    }
+  }
+
+  /**
+   * A series is not read while any of its writes failed, since its elements would be missing.
+   */
+  private static void checkFailed(Series series) throws IOException {
+    IOException failure = series.failure;
+    if (failure != null) {
+      throw new IOException("Write failed, not available until retried: " + series.key, failure);
+    }
+  }
+
+  /**
+   * Creates and writes a new series.  Must hold lock.
+   */
+  private Series createSeries(String key) throws IOException {
+    assert Thread.holdsLock(this);
+    byte[] name = key.getBytes(StandardCharsets.UTF_8);
+    Series series = new Series(seriesById.size(), key, shards[Math.floorMod(key.hashCode(), shards.length)]);
+    ByteBuffer record = ByteBuffer.allocate(SERIES_HEADER_SIZE + name.length);
+    record.putInt(name.length).putInt(0).putInt(series.id).putInt(Arrays.asList(shards).indexOf(series.shard)).put(name);
+    record.putInt(4, getCrc(crc, record, 0, record.capacity()));
+    record.flip();
+    while (record.hasRemaining()) {
+      seriesChannel.write(record);
+    }
+    // Forced before any record of the series could be written
+    seriesChannel.force(false);
+    seriesById.add(series);
+    seriesByKey.put(key, series);
+    synchronized (series.shard) {
+      series.index = new LongList();
+      series.indexTime = System.currentTimeMillis();
+      series.shard.indexed++;
+    }
+    scheduleDiscard();
+    return series;
+  }
+
+  /**
+   * Passes serialized elements through unchanged.
+   */
+  static final class RawSerializer implements Serializer<byte[]> {
+
+    @Override
+    public boolean isFixedSerializedSize() {
+      return false;
+    }
+
+    @Override
+    public long getSerializedSize(byte[] value) {
+      return value.length;
+    }
+
+    @Override
+    public void serialize(byte[] value, OutputStream out) throws IOException {
+      out.write(value);
+    }
+
+    @Override
+    public byte[] deserialize(InputStream in) throws IOException {
+      return in.readAllBytes();
+    }
+  }
+
+  /**
+   * Imports the existing history of a new series, from a {@link SegmentedLog} directory or
+   * {@link ListHistoryStore} file, which is then renamed by adding {@code .imported}.
+   *
+   * @return  The number of elements imported or {@code -1} when no existing history
+   */
+  private int importHistory(Series series, File persistenceFile) throws IOException {
+    File logDir = new File(persistenceFile.getPath() + ".log");
+    File imported;
+    HistoryStore<byte[]> source;
+    if (logDir.isDirectory()) {
+      source = new SegmentedLog<>(logDir, new RawSerializer(), Integer.MAX_VALUE);
+      imported = new File(logDir.getPath() + ".imported");
+    } else if (persistenceFile.isFile()) {
+      source = new ListHistoryStore<>(persistenceFile, new RawSerializer());
+      imported = new File(persistenceFile.getPath() + ".imported");
+    } else {
+      return -1;
+    }
+    int count = 0;
+    try (HistoryStore<byte[]> store = source) {
+      Iterator<byte[]> iter = store.iterator();
+      while (iter.hasNext()) {
+        add(series, iter.next());
+        count++;
+      }
+    }
+    // Written before the old history is renamed
+    flush();
+    force();
+    Files.move((logDir.isDirectory() ? logDir : persistenceFile).toPath(), imported.toPath());
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Imported " + count + " into " + series.key);
+    }
+    return count;
+  }
+
+  /**
+   * Imports the existing history of the given persistence file, when not already in the database.
+   *
+   * @return  The number of elements imported or {@code -1} when already in the database or no existing history
+   */
+  int importHistory(File persistenceFile) throws IOException {
+    if (!persistenceFile.isFile() && !new File(persistenceFile.getPath() + ".log").isDirectory()) {
+      return -1;
+    }
+    String key = getKey(persistenceFile);
+    Series series;
+    synchronized (this) {
+      checkClosed();
+      if (seriesByKey.containsKey(key)) {
+        return -1;
+      }
+      series = createSeries(key);
+    }
+    int count = importHistory(series, persistenceFile);
+    synchronized (series.shard) {
+      series.releaseIndex();
+    }
+    return count;
+  }
+
+  private void add(Series series, byte[] data) throws IOException {
+    synchronized (this) {
+      checkClosed();
+      long seq;
+      // Queued in the order of the sequence
+      synchronized (series.shard) {
+        seq = series.next++;
+      }
+      enqueue(new Write(series, DATA, seq, data));
+    }
+  }
+
+  /**
+   * Queues a write for the writer.  Must hold lock.
+   */
+  private void enqueue(Write write) {
+    assert Thread.holdsLock(this);
+    queue.add(write);
+    write.series.pending++;
+    if (!writing) {
+      writing = true;
+      RootNodeImpl.submit(this::writeQueue);
+    }
+  }
+
+  /**
+   * Retries the failed writes, even when nothing more is queued.  Must hold lock.
+   */
+  private void requestRetry() {
+    assert Thread.holdsLock(this);
+    if (!retry.isEmpty()) {
+      retryRequested = true;
+      if (!writing) {
+        writing = true;
+        RootNodeImpl.submit(this::writeQueue);
+      }
+    }
+  }
+
+  /**
+   * Writes everything queued, one batch at a time, until the queue is empty.  Any failed writes
+   * are retried ahead of each batch.  The lock of this database is only held to take each batch.
+   */
+  private void writeQueue() {
+    boolean done = false;
+    try {
+      while (!done) {
+        List<Write> batch;
+        synchronized (this) {
+          if (queue.isEmpty() && !retryRequested) {
+            writing = false;
+            notifyAll();
+            done = true;
+            continue;
+          }
+          retryRequested = false;
+          batches++;
+          batch = new ArrayList<>(retry.size() + queue.size());
+          for (Write write : retry) {
+            write.series.failure = null;
+            write.series.pending++;
+          }
+          batch.addAll(retry);
+          retry.clear();
+          batch.addAll(queue);
+          queue.clear();
+        }
+        int written = 0;
+        List<Write> failed = new ArrayList<>();
+        try {
+          Map<Shard, List<Write>> byShard = new LinkedHashMap<>();
+          for (Write write : batch) {
+            byShard.computeIfAbsent(write.series.shard, s -> new ArrayList<>()).add(write);
+          }
+          for (Map.Entry<Shard, List<Write>> entry : byShard.entrySet()) {
+            written += write(entry.getKey(), entry.getValue(), failed);
+          }
+        } finally {
+          synchronized (this) {
+            writes += written;
+            for (Write write : batch) {
+              write.series.pending--;
+            }
+            retry.addAll(failed);
+            notifyAll();
+          }
+        }
+      }
+    } finally {
+      if (!done) {
+        synchronized (this) {
+          writing = false;
+          notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a batch to one shard, in as few writes as the segment size allows.  Only the writer
+   * appends to the newest segment, so it is written without holding any lock.
+   *
+   * <p>When a write fails, the writes not yet written are added to {@code failed}, in order, and
+   * their series are failed until retried.</p>
+   *
+   * @return  The number of records written
+   */
+  private int write(Shard shard, List<Write> batch, List<Write> failed) {
+    assert !Thread.holdsLock(this) && !Thread.holdsLock(shard);
+    buffered.clear();
+    bufferedOffsets.size = 0;
+    writeBuffer.clear();
+    // The first write not yet written and the number of records written before it
+    int unwritten = 0;
+    int written = 0;
+    int count = 0;
+    try {
+      Segment segment;
+      synchronized (shard) {
+        segment = shard.getNewest();
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        Write write = batch.get(i);
+        if (write.type == DATA) {
+          boolean removed;
+          synchronized (shard) {
+            removed = write.seq < write.series.head;
+          }
+          if (removed) {
+            // Removed before written
+            continue;
+          }
+        }
+        int length = write.data == null ? 0 : write.data.length;
+        int recordSize = RECORD_HEADER_SIZE + length;
+        long used = segment.size + writeBuffer.position();
+        if (used > 0 && used + recordSize > maxSegmentSize) {
+          flushBuffer(shard, segment);
+          unwritten = i;
+          written = count;
+          segment = roll(shard);
+        }
+        if (writeBuffer.remaining() < recordSize) {
+          flushBuffer(shard, segment);
+          unwritten = i;
+          written = count;
+          if (writeBuffer.capacity() < recordSize) {
+            writeBuffer = ByteBuffer.allocate(recordSize);
+          }
+        }
+        int start = writeBuffer.position();
+        writeBuffer.putInt(length).putInt(0).put(write.type).putInt(write.series.id).putLong(write.seq);
+        if (write.data != null) {
+          writeBuffer.put(write.data);
+        }
+        writeBuffer.putInt(start + 4, getCrc(writerCrc, writeBuffer, start, recordSize));
+        buffered.add(write);
+        bufferedOffsets.add(segment.size + start);
+        count++;
+      }
+      flushBuffer(shard, segment);
+      return count;
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.SEVERE, shard.dir.toString(), e);
+      buffered.clear();
+      bufferedOffsets.size = 0;
+      IOException failure = (e instanceof IOException) ? (IOException) e : new IOException(e);
+      List<Write> remaining = batch.subList(unwritten, batch.size());
+      for (Write write : remaining) {
+        write.series.failure = failure;
+      }
+      failed.addAll(remaining);
+      return written;
+    }
+  }
+
+  /**
+   * Writes the buffer to the newest segment, then records the positions of its elements while
+   * holding the lock of the shard.  On failure, anything partially written is truncated so the
+   * segment still ends with a complete record.
+   */
+  private void flushBuffer(Shard shard, Segment segment) throws IOException {
+    writeBuffer.flip();
+    int size = writeBuffer.remaining();
+    try {
+      while (writeBuffer.hasRemaining()) {
+        shard.channel.write(writeBuffer);
+      }
+      if (size > 0 && !GroupCommit.getInstance().isEnabled()) {
+        shard.channel.force(false);
+      }
+    } catch (IOException e) {
+      try {
+        shard.channel.truncate(segment.size);
+        shard.channel.position(segment.size);
+      } catch (IOException e2) {
+        e.addSuppressed(e2);
+      }
+      buffered.clear();
+      bufferedOffsets.size = 0;
+      throw e;
+    } finally {
+      writeBuffer.clear();
+    }
+    synchronized (shard) {
+      segment.size += size;
+      for (int i = 0; i < buffered.size(); i++) {
+        Write write = buffered.get(i);
+        if (write.type == DATA) {
+          segment.records++;
+          // Removed while being written
+          if (write.seq >= write.series.head) {
+            write.series.written(segment, bufferedOffsets.values[i], write.seq);
+          }
+        }
+      }
+    }
+    buffered.clear();
+    bufferedOffsets.size = 0;
+  }
+
+  /**
+   * Seals the newest segment of a shard and starts another.  The channel is replaced while holding
+   * the lock of the shard, so {@link #force()} never finds it closed.
+   */
+  private Segment roll(Shard shard) throws IOException {
+    shard.channel.force(false);
+    synchronized (shard) {
+      shard.channel.close();
+      int number = shard.getNewest().number + 1;
+      Segment segment = new Segment(number, new File(shard.dir, getSegmentName(number)));
+      shard.segments.add(segment);
+      openChannel(shard);
+      return segment;
+    }
+  }
+
+  /**
+   * Waits for everything queued to be written, retrying any failed writes once.
+   *
+   * @throws  IOException  when any write is still failed
+   */
+  void flush() throws IOException {
+    synchronized (this) {
+      requestRetry();
+      while (writing || !queue.isEmpty()) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          // Restore the interrupted status
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        }
+      }
+      if (!retry.isEmpty()) {
+        Series series = retry.get(0).series;
+        throw new IOException("Write failed, retried on next flush: " + series.key, series.failure);
+      }
+    }
+  }
+
+  /**
+   * Waits for the queued writes of a series, retrying any failed writes once.  Must hold lock.
+   */
+  private void flush(Series series) throws IOException {
+    assert Thread.holdsLock(this);
+    if (series.failure != null) {
+      requestRetry();
+    }
+    while (series.pending > 0 || retryRequested) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        // Restore the interrupted status
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+    }
+  }
+
+  /**
+   * Forces all shards to disk.
+   */
+  void force() throws IOException {
+    checkClosed();
+    for (Shard shard : shards) {
+      synchronized (shard) {
+        shard.channel.force(false);
+      }
+    }
+  }
+
+  private void removeOldest(Series series, int count) throws IOException {
+    checkClosed();
+    if (count < 0) {
+      throw new IllegalArgumentException("count < 0: " + count);
+    }
+    long head;
+    synchronized (series.shard) {
+      long size = series.next - series.head;
+      if (count > size) {
+        throw new IllegalArgumentException("count > size: " + count + " > " + size);
+      }
+      if (count == 0) {
+        return;
+      }
+      series.setHead(series.head + count);
+      head = series.head;
+      deleteDead(series.shard);
+    }
+    synchronized (this) {
+      checkClosed();
+      enqueue(new Write(series, HEAD, head, null));
+    }
+  }
+
+  /**
+   * Deletes the oldest segments of a shard while none of their elements are in any series, and
+   * compacts any other mostly removed.  Must hold lock of the shard.
+   */
+  private void deleteDead(Shard shard) throws IOException {
+    assert Thread.holdsLock(shard);
+    List<Segment> segments = shard.segments;
+    while (segments.size() > 1 && segments.get(0).live == 0) {
+      Files.delete(segments.remove(0).file.toPath());
+    }
+    if (shard.indexed == 0 && !shard.compactScheduled) {
+      for (int i = 0, last = segments.size() - 1; i < last; i++) {
+        Segment segment = segments.get(i);
+        if (segment.live * 4L < segment.records) {
+          shard.compactScheduled = true;
+          RootNodeImpl.submit(() -> compact(shard));
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Rewrites each sealed, mostly removed segment of a shard with only its head records and the
+   * elements still in a series.  Only the lock of the shard is held, and the writer only appends to
+   * the newest segment, which is never compacted.
+   */
+  private void compact(Shard shard) {
+    int compacted = 0;
+    synchronized (shard) {
+      shard.compactScheduled = false;
+      if (closed || shard.indexed != 0) {
+        return;
+      }
+      for (int i = 0; i < shard.segments.size() - 1; i++) {
+        Segment segment = shard.segments.get(i);
+        if (segment.live * 4L >= segment.records) {
+          continue;
+        }
+        try {
+          compact(shard, segment);
+          compacted++;
+        } catch (ThreadDeath td) {
+          throw td;
+        } catch (Throwable t) {
+          logger.log(Level.SEVERE, null, t);
+          break;
+        }
+      }
+    }
+    if (compacted > 0) {
+      synchronized (this) {
+        compactions += compacted;
+      }
+    }
+  }
+
+  /**
+   * Must hold lock of the shard.
+   */
+  private void compact(Shard shard, Segment segment) throws IOException {
+    assert Thread.holdsLock(shard);
+    File newFile = new File(shard.dir, segment.file.getName() + NEW_SUFFIX);
+    int records = 0;
+    long newSize;
+    // The new positions of the newest elements in this segment
+    Map<Series, Long> newest = new HashMap<>();
+    try (
+        FileChannel in = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ);
+        FileChannel out = FileChannel.open(newFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+        ) {
+      MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+      int position = 0;
+      long outPosition = 0;
+      while (position < segment.size) {
+        int recordSize = RECORD_HEADER_SIZE + mapped.getInt(position);
+        byte type = mapped.get(position + 8);
+        int id = mapped.getInt(position + 9);
+        long seq = mapped.getLong(position + 13);
+        Series series = (id >= 0 && id < seriesById.size()) ? seriesById.get(id) : null;
+        if (series != null && (type == HEAD || seq >= series.head)) {
+          ByteBuffer record = mapped.duplicate();
+          record.position(position).limit(position + recordSize);
+          if (type == DATA && series.newest == getPosition(segment, position)) {
+            newest.put(series, getPosition(segment, outPosition));
+          }
+          while (record.hasRemaining()) {
+            outPosition += out.write(record);
+          }
+          if (type == DATA) {
+            records++;
+          }
+        }
+        position += recordSize;
+      }
+      out.force(false);
+      newSize = outPosition;
+    }
+    Files.move(newFile.toPath(), segment.file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    segment.records = records;
+    segment.size = newSize;
+    for (Map.Entry<Series, Long> entry : newest.entrySet()) {
+      entry.getKey().newest = entry.getValue();
+    }
+  }
+
+  /**
+   * Releases the indexes of series not read within {@link #INDEX_RETENTION}.
+   */
+  private void discardIndexes() {
+    synchronized (this) {
+      discardScheduled = false;
+      long now = System.currentTimeMillis();
+      boolean remaining = false;
+      for (Series series : seriesById) {
+        synchronized (series.shard) {
+          if (series.index != null) {
+            if (now - series.indexTime >= INDEX_RETENTION) {
+              series.releaseIndex();
+            } else {
+              remaining = true;
+            }
+          }
+        }
+      }
+      if (remaining) {
+        scheduleDiscard();
+      }
+    }
+  }
+
+  /**
+   * Must hold lock.
+   */
+  private void scheduleDiscard() {
+    assert Thread.holdsLock(this);
+    if (!discardScheduled) {
+      discardScheduled = true;
+      RootNodeImpl.schedule(this::discardIndexes, INDEX_RETENTION);
+    }
+  }
+
+  /**
+   * Maps the segments of a shard, by number.  Must hold lock of the shard.
+   */
+  private Map<Integer, MappedByteBuffer> map(Shard shard) throws IOException {
+    assert Thread.holdsLock(shard);
+    Map<Integer, MappedByteBuffer> mapped = new HashMap<>();
+    for (Segment segment : shard.segments) {
+      try (FileChannel fileChannel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ)) {
+        mapped.put(segment.number, fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size));
+      }
+    }
+    return mapped;
+  }
+
+  /**
+   * Finds the positions of the elements of a series by scanning its shard, when its index has
+   * been released.  Must hold lock of the shard.
+   */
+  private LongList findPositions(Series series, Map<Integer, MappedByteBuffer> mapped) {
+    assert Thread.holdsLock(series.shard);
+    LongList positions = new LongList();
+    for (Segment segment : series.shard.segments) {
+      MappedByteBuffer buffer = mapped.get(segment.number);
+      int position = 0;
+      while (position < segment.size) {
+        if (buffer.get(position + 8) == DATA && buffer.getInt(position + 9) == series.id
+            && buffer.getLong(position + 13) >= series.head) {
+          positions.add(getPosition(segment, position));
+        }
+        position += RECORD_HEADER_SIZE + buffer.getInt(position);
+      }
+    }
+    return positions;
+  }
+
+  /**
+   * Finds the first of the positions with an element at or after the given sequence number.
+   * The positions are sorted by sequence number.
+   */
+  private static int findFirst(Map<Integer, MappedByteBuffer> mapped, long[] positions, int size, long seq) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      long position = positions[mid];
+      // Segments deleted are before any remaining
+      MappedByteBuffer buffer = mapped.get(getSegmentNumber(position));
+      if (buffer == null || buffer.getLong(getOffset(position) + 13) < seq) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static ByteBuffer getData(Map<Integer, MappedByteBuffer> mapped, long position) {
+    ByteBuffer buffer = mapped.get(getSegmentNumber(position)).duplicate();
+    int offset = getOffset(position);
+    buffer.position(offset + RECORD_HEADER_SIZE).limit(offset + RECORD_HEADER_SIZE + buffer.getInt(offset));
+    return buffer;
+  }
+
+  private <E> E peekNewest(Series series, Serializer<E> serializer) throws IOException {
+    checkClosed();
+    synchronized (this) {
+      flush(series);
+    }
+    checkFailed(series);
+    synchronized (series.shard) {
+      if (series.head == series.next || series.newest == -1) {
+        return null;
+      }
+      Segment segment = series.shard.getSegment(getSegmentNumber(series.newest));
+      try (FileChannel fileChannel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ)) {
+        int offset = getOffset(series.newest);
+        ByteBuffer header = ByteBuffer.allocate(4);
+        fileChannel.read(header, offset);
+        MappedByteBuffer data = fileChannel.map(FileChannel.MapMode.READ_ONLY, offset + RECORD_HEADER_SIZE, header.getInt(0));
+        return serializer.deserialize(new ByteBufferInputStream(data));
+      }
+    }
+  }
+
+  private <E> Iterator<E> iterator(Series series, Serializer<E> serializer) throws IOException {
+    long[] positions;
+    int from;
+    int to;
+    Map<Integer, MappedByteBuffer> mapped;
+    checkClosed();
+    synchronized (this) {
+      flush(series);
+    }
+    checkFailed(series);
+    synchronized (series.shard) {
+      mapped = map(series.shard);
+      LongList index = series.index;
+      if (index != null) {
+        series.releaseIndex();
+        positions = index.values;
+        to = index.size;
+        from = findFirst(mapped, positions, to, series.head);
+      } else {
+        LongList found = findPositions(series, mapped);
+        positions = found.values;
+        from = 0;
+        to = found.size;
+      }
+    }
+    return new Iterator<E>() {
+      private int index = from;
+
+      @Override
+      public boolean hasNext() {
+        return index < to;
+      }
+
+      @Override
+      public E next() {
+        if (index >= to) {
+          throw new NoSuchElementException();
+        }
+        try {
+          return serializer.deserialize(new ByteBufferInputStream(getData(mapped, positions[index++])));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    };
+  }
+
+  /**
+   * The number of series.
+   */
+  synchronized int getSeriesCount() {
+    return seriesById.size();
+  }
+
+  /**
+   * The number of segment files over all shards.
+   */
+  int getSegmentCount() {
+    int count = 0;
+    for (Shard shard : shards) {
+      synchronized (shard) {
+        count += shard.segments.size();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * The number of records written.
+   */
+  synchronized long getWrites() {
+    return writes;
+  }
+
+  /**
+   * The number of batches written by the writer.
+   */
+  synchronized long getBatches() {
+    return batches;
+  }
+
+  /**
+   * The number of segments compacted.
+   */
+  synchronized long getCompactions() {
+    return compactions;
+  }
+
+  /**
+   * Writes everything queued and closes all files.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (!closed) {
+        closed = true;
+        try {
+          // Anything queued before closed
+          flush();
+        } finally {
+          for (Shard shard : shards) {
+            synchronized (shard) {
+              shard.channel.close();
+            }
+          }
+          seriesChannel.close();
+        }
+      }
+    }
+  }
+
+  /**
+   * One series of the database.  Closing has no effect, as the files are shared.
+   */
+  private final class Store<E> implements HistoryStore<E> {
+
+    private final Series series;
+    private final Serializer<E> serializer;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private Store(Series series, Serializer<E> serializer) {
+      this.series = series;
+      this.serializer = serializer;
+    }
+
+    @Override
+    public E peekNewest() throws IOException {
+      return HistoryDatabase.this.peekNewest(series, serializer);
+    }
+
+    @Override
+    public Iterator<E> iterator() throws IOException {
+      return HistoryDatabase.this.iterator(series, serializer);
+    }
+
+    @Override
+    public void addNewest(E element) throws IOException {
+      buffer.reset();
+      serializer.serialize(element, buffer);
+      add(series, buffer.toByteArray());
+    }
+
+    @Override
+    public void removeOldest(int count) throws IOException {
+      HistoryDatabase.this.removeOldest(series, count);
+    }
+
+    @Override
+    public void close() {
+      // Shared
+    }
+  }
+}
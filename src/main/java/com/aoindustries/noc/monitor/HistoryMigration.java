@@ -0,0 +1,158 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectStreamConstants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Imports the per-worker history files under a persistence directory into the {@link HistoryDatabase},
+ * with the monitor stopped.  Each history is found by its list file or {@code .log} directory, and
+ * any {@code .rollups} of it are imported as well.  The serialized last results and alerts beside
+ * the histories are not histories, and are skipped.  Each imported file or log directory is renamed
+ * by adding {@code .imported}, and may be removed once the monitor is running with
+ * {@value HistoryStore#ENGINE_PROPERTY}={@value HistoryStore#ENGINE_DATABASE}.
+ *
+ * <p>Usage: {@code java com.aoindustries.noc.monitor.HistoryMigration [persistence directory]}, where the
+ * persistence directory defaults to the parent of the database directory.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class HistoryMigration {
+
+  /** Make no instances. */
+  private HistoryMigration() {
+    throw new AssertionError();
+  }
+
+  private static final String LOG_SUFFIX = ".log";
+
+  /**
+   * The files beside the histories that are not histories.
+   */
+  private static final String[] SKIP_SUFFIXES = {".alert", ".imported", ".new", ".skip"};
+
+  /**
+   * Finds the persistence files of all histories, in a consistent order.
+   *
+   * @param  databaseDir  The directory of the database, which is not searched
+   */
+  static List<File> findHistories(File dir, File databaseDir) throws IOException {
+    SortedSet<File> histories = new TreeSet<>();
+    findHistories(dir, databaseDir.getCanonicalFile(), histories);
+    return new ArrayList<>(histories);
+  }
+
+  private static void findHistories(File dir, File databaseDir, SortedSet<File> histories) throws IOException {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      Arrays.sort(files);
+      for (File file : files) {
+        String name = file.getName();
+        if (isSkipped(name)) {
+          continue;
+        }
+        if (file.isDirectory()) {
+          if (name.endsWith(LOG_SUFFIX)) {
+            histories.add(new File(dir, name.substring(0, name.length() - LOG_SUFFIX.length())));
+          } else if (!file.getCanonicalFile().equals(databaseDir)) {
+            findHistories(file, databaseDir, histories);
+          }
+        } else if (name.endsWith(RollupStore.SUFFIX)) {
+          // Rollups are imported even without any history
+          histories.add(new File(dir, name.substring(0, name.length() - RollupStore.SUFFIX.length())));
+        } else if (!isSerializedObject(file)) {
+          histories.add(file);
+        }
+      }
+    }
+  }
+
+  private static boolean isSkipped(String name) {
+    for (String suffix : SKIP_SUFFIXES) {
+      if (name.endsWith(suffix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The last results and alerts are written by {@link BackgroundWriter} as serialized objects.
+   */
+  private static boolean isSerializedObject(File file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+      return file.length() >= 2 && in.readShort() == ObjectStreamConstants.STREAM_MAGIC;
+    }
+  }
+
+  /**
+   * Imports all histories not already in the database.
+   *
+   * @return  The number of histories imported
+   */
+  @SuppressWarnings("UseOfSystemOutOrSystemErr")
+  static int migrate(File persistenceDirectory, HistoryDatabase database) throws IOException {
+    int histories = 0;
+    long elements = 0;
+    for (File persistenceFile : findHistories(persistenceDirectory, database.getDatabaseDirectory())) {
+      int count = database.importHistory(persistenceFile);
+      // Imports any rollups not yet imported
+      new DatabaseRollupStore(database, persistenceFile).close();
+      if (count != -1) {
+        histories++;
+        elements += count;
+        System.out.println(database.getKey(persistenceFile) + ": " + count);
+      }
+    }
+    database.flush();
+    database.force();
+    System.out.println("Imported " + histories + " histories, " + elements + " elements");
+    return histories;
+  }
+
+  @SuppressWarnings("UseOfSystemOutOrSystemErr")
+  public static void main(String[] args) throws IOException {
+    if (args.length > 1) {
+      System.err.println("usage: " + HistoryMigration.class.getName() + " [persistence directory]");
+      System.exit(1);
+    }
+    try (HistoryDatabase database = HistoryDatabase.getInstance()) {
+      File persistenceDirectory = args.length == 0
+          ? HistoryDatabase.getDirectory().getCanonicalFile().getParentFile()
+          : new File(args[0]);
+      migrate(persistenceDirectory, database);
+    }
+    System.exit(0);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.Serializer;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * The persisted history of one worker, newest added last and oldest removed first.  The history
+ * is only read at startup, so the stores are optimized for appending and expiring.
+ *
+ * <p>The storage engine is selected by the system property {@value #ENGINE_PROPERTY}:</p>
+ * <ul>
+ *   <li>{@value #ENGINE_LIST} - a {@link com.aoapps.persistence.PersistentLinkedList} per file,
+ *       with a barrier on every write</li>
+ *   <li>{@value #ENGINE_LOG} - a {@link SegmentedLog} directory per file, importing any existing
+ *       list the first time opened, forced to disk by {@link GroupCommit}, the default</li>
+ *   <li>{@value #ENGINE_DATABASE} - a series in the {@link HistoryDatabase} shared by all workers,
+ *       importing any existing list or log the first time opened</li>
+ * </ul>
+ *
+ * <p>Implementations are not thread-safe.  Callers synchronize on the store.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+interface HistoryStore<E> extends Closeable {
+
+  String ENGINE_PROPERTY = "com.aoindustries.noc.monitor.history.engine";
+
+  String ENGINE_LIST = "list";
+
+  String ENGINE_LOG = "log";
+
+  String ENGINE_DATABASE = "database";
+
+  /**
+   * Opens the history for the given file using the configured engine.
+   */
+  static <E> HistoryStore<E> open(File persistenceFile, Serializer<E> serializer) throws IOException {
+    String engine = System.getProperty(ENGINE_PROPERTY, ENGINE_LOG);
+    switch (engine) {
+      case ENGINE_LIST:
+        return new ListHistoryStore<>(persistenceFile, serializer);
+      case ENGINE_LOG:
+        return SegmentedLog.open(persistenceFile, serializer);
+      case ENGINE_DATABASE:
+        return HistoryDatabase.getInstance().open(persistenceFile, serializer);
+      default:
+        throw new IllegalArgumentException(ENGINE_PROPERTY + ": Unexpected engine: " + engine);
+    }
+  }
+
+  /**
+   * Gets the newest element without reading the rest of the history.
+   *
+   * @return  The newest element or {@code null} when empty
+   */
+  E peekNewest() throws IOException;
+
+  /**
+   * Iterates the history, oldest first.  The store must not be modified during iteration.
+   */
+  Iterator<E> iterator() throws IOException;
+
+  /**
+   * Adds a new newest element.
+   */
+  void addNewest(E element) throws IOException;
+
+  /**
+   * Removes the given number of oldest elements.
+   *
+   * @throws  IllegalArgumentException  when more than the number of elements
+   */
+  void removeOldest(int count) throws IOException;
+}
@@ -0,0 +1,113 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The alert level and message of a {@link TableMultiResultWorker}.  The level stored in each result
+ * is before the incremental ramp-up, so the node's own level is written through {@link BackgroundWriter}
+ * when it changes and read at startup.  The alert message is persisted in each translated language
+ * as a {@link PersistedMessage}.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class LastAlert implements Serializable {
+
+  private static final Logger logger = Logger.getLogger(LastAlert.class.getName());
+
+  private static final long serialVersionUID = 2L;
+
+  /**
+   * Reads the last alert, if available.
+   *
+   * @return  The last alert or {@code null} when not found or not readable
+   */
+  static LastAlert read(File persistenceFile) {
+    if (!persistenceFile.exists()) {
+      return null;
+    }
+    try (
+        ObjectInputStream in = new ObjectInputStream(
+            new GZIPInputStream(new BufferedInputStream(new FileInputStream(persistenceFile)))
+        )
+        ) {
+      Object o = in.readObject();
+      if (o instanceof LastAlert && ((LastAlert) o).alertLevel != null) {
+        return (LastAlert) o;
+      }
+      if (logger.isLoggable(Level.WARNING)) {
+        logger.warning("Unexpected last alert, ignoring: " + persistenceFile);
+      }
+    } catch (IOException | ClassNotFoundException | RuntimeException e) {
+      // Such as written by a different version
+      logger.log(Level.WARNING, "Unable to read last alert, ignoring: " + persistenceFile, e);
+    }
+    return null;
+  }
+
+  private final AlertLevel alertLevel;
+
+  private final PersistedMessage alertMessage;
+
+  LastAlert(AlertLevel alertLevel, Function<Locale, String> alertMessage) {
+    this.alertLevel = alertLevel;
+    this.alertMessage = PersistedMessage.of(alertMessage);
+  }
+
+  AlertLevel getAlertLevel() {
+    return alertLevel;
+  }
+
+  Function<Locale, String> getAlertMessage() {
+    return alertMessage;
+  }
+
+  /**
+   * Is the same level and message as the given alert.
+   */
+  boolean isSame(LastAlert other) {
+    return other != null && alertLevel == other.alertLevel && Objects.equals(alertMessage, other.alertMessage);
+  }
+
+  /**
+   * Queues this alert to be written in the background, replacing any write still pending.
+   */
+  void write(File persistenceFile) {
+    BackgroundWriter.enqueueObject(persistenceFile, new File(persistenceFile.getPath() + ".new"), this, true);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The last result of a {@link SingleResultWorker} or {@link TableResultWorker} with its alert level.
+ * Written through {@link BackgroundWriter} after each pass and read at startup, so nodes show their
+ * last known state until the first pass completes.  The alert message is persisted in each
+ * translated language as a {@link PersistedMessage}.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class LastResult<R extends Serializable> implements Serializable {
+
+  private static final Logger logger = Logger.getLogger(LastResult.class.getName());
+
+  private static final long serialVersionUID = 2L;
+
+  /**
+   * Reads the last result, if available.
+   *
+   * @return  The last result or {@code null} when not found or not readable
+   */
+  @SuppressWarnings("unchecked")
+  static <R extends Serializable> LastResult<R> read(File persistenceFile, Class<R> type) {
+    if (!persistenceFile.exists()) {
+      return null;
+    }
+    try (
+        ObjectInputStream in = new ObjectInputStream(
+            new GZIPInputStream(new BufferedInputStream(new FileInputStream(persistenceFile)))
+        )
+        ) {
+      Object o = in.readObject();
+      if (o instanceof LastResult && type.isInstance(((LastResult<?>) o).result)) {
+        return (LastResult<R>) o;
+      }
+      if (logger.isLoggable(Level.WARNING)) {
+        logger.warning("Unexpected last result, ignoring: " + persistenceFile);
+      }
+    } catch (IOException | ClassNotFoundException | RuntimeException e) {
+      // Such as written by a different version
+      logger.log(Level.WARNING, "Unable to read last result, ignoring: " + persistenceFile, e);
+    }
+    return null;
+  }
+
+  private final R result;
+  private final AlertLevel alertLevel;
+
+  private final PersistedMessage alertMessage;
+
+  LastResult(R result, AlertLevel alertLevel, Function<Locale, String> alertMessage) {
+    this.result = result;
+    this.alertLevel = alertLevel;
+    this.alertMessage = PersistedMessage.of(alertMessage);
+  }
+
+  R getResult() {
+    return result;
+  }
+
+  AlertLevel getAlertLevel() {
+    return alertLevel;
+  }
+
+  Function<Locale, String> getAlertMessage() {
+    return alertMessage;
+  }
+
+  /**
+   * Queues this result to be written in the background, replacing any write still pending.
+   */
+  void write(File persistenceFile) {
+    BackgroundWriter.enqueueObject(persistenceFile, new File(persistenceFile.getPath() + ".new"), this, true);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.PersistentCollections;
+import com.aoapps.persistence.PersistentLinkedList;
+import com.aoapps.persistence.ProtectionLevel;
+import com.aoapps.persistence.Serializer;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Iterator;
+
+/**
+ * Stores a history as a {@link PersistentLinkedList} over one file, newest first.  The list updates
+ * its pointers in place, so every write is a {@link ProtectionLevel#BARRIER}, even when
+ * {@link GroupCommit} is enabled.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ListHistoryStore<E> implements HistoryStore<E> {
+
+  private final PersistentLinkedList<E> list;
+
+  ListHistoryStore(File persistenceFile, Serializer<E> serializer) throws IOException {
+    list = new PersistentLinkedList<>(
+        PersistentCollections.getPersistentBuffer(new RandomAccessFile(persistenceFile, "rw"), ProtectionLevel.BARRIER, Long.MAX_VALUE),
+        serializer
+    );
+  }
+
+  @Override
+  public E peekNewest() {
+    return list.peekFirst();
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return list.descendingIterator();
+  }
+
+  @Override
+  public void addNewest(E element) {
+    list.addFirst(element);
+  }
+
+  @Override
+  public void removeOldest(int count) {
+    if (count > list.size()) {
+      throw new IllegalArgumentException("count > size: " + count + " > " + list.size());
+    }
+    for (int i = 0; i < count; i++) {
+      list.removeLast();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    list.close();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.PersistentCollections;
+import com.aoapps.persistence.PersistentLinkedList;
+import com.aoapps.persistence.ProtectionLevel;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Stores the rollups of every level in one {@link PersistentLinkedList}, most recently added first.
+ * Like {@link ListHistoryStore}, every write is a {@link ProtectionLevel#BARRIER}.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ListRollupStore implements RollupStore {
+
+  private final PersistentLinkedList<Rollup> list;
+
+  ListRollupStore(File file) throws IOException {
+    list = new PersistentLinkedList<>(
+        PersistentCollections.getPersistentBuffer(new RandomAccessFile(file, "rw"), ProtectionLevel.BARRIER, Long.MAX_VALUE),
+        new RollupSerializer()
+    );
+  }
+
+  @Override
+  public Iterator<Rollup> iterator() {
+    return list.iterator();
+  }
+
+  @Override
+  public Iterator<Rollup> iterator(int level) {
+    Iterator<Rollup> iter = list.descendingIterator();
+    return new Iterator<Rollup>() {
+      private Rollup next = findNext();
+
+      private Rollup findNext() {
+        while (iter.hasNext()) {
+          Rollup rollup = iter.next();
+          if (rollup.getLevel() == level) {
+            return rollup;
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public Rollup next() {
+        Rollup rollup = next;
+        if (rollup == null) {
+          throw new NoSuchElementException();
+        }
+        next = findNext();
+        return rollup;
+      }
+    };
+  }
+
+  @Override
+  public void add(Rollup rollup) {
+    list.addFirst(rollup);
+  }
+
+  @Override
+  public void removeOldest(int level, int count) {
+    int size = 0;
+    for (Rollup rollup : list) {
+      if (rollup.getLevel() == level) {
+        size++;
+      }
+    }
+    if (count > size) {
+      throw new IllegalArgumentException("count > size: " + count + " > " + size);
+    }
+    // The oldest are the last of the level
+    int kept = size - count;
+    Iterator<Rollup> iter = list.iterator();
+    while (iter.hasNext()) {
+      if (iter.next().getLevel() == level && kept-- <= 0) {
+        iter.remove();
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    list.close();
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2018, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2018, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,6 +24,7 @@
 package com.aoindustries.noc.monitor;
 
 import com.aoapps.collections.AoCollections;
+import com.aoapps.lang.EnumUtils;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.noc.monitor.common.AlertCategory;
 import com.aoindustries.noc.monitor.common.AlertLevel;
@@ -55,6 +56,14 @@ public abstract class NodeImpl extends UnicastRemoteObject implements Node {
   protected final RMIClientSocketFactory csf;
   protected final RMIServerSocketFactory ssf;
 
+  private final ChildAlertLevels childAlertLevels = new ChildAlertLevels(this);
+
+  /**
+   * The lowest {@link #getMaxAlertLevel() maximum alert level} of this node and all of its parents,
+   * found on first use.
+   */
+  private volatile AlertLevel maxAlertLevelConstraint;
+
   protected NodeImpl(int port, RMIClientSocketFactory csf, RMIServerSocketFactory ssf) throws RemoteException {
     super(port, csf, ssf);
     this.port = port;
@@ -180,12 +189,25 @@ public abstract class NodeImpl extends UnicastRemoteObject implements Node {
 
   /**
    * Every node may optionally constrain the maximum alert level for itself and all of
-   * its children.
+   * its children.  This is read once, so must not change for the life of the node.
    */
   protected AlertLevel getMaxAlertLevel() {
     return AlertLevel.UNKNOWN;
   }
 
+  private AlertLevel getMaxAlertLevelConstraint() {
+    AlertLevel constraint = maxAlertLevelConstraint;
+    if (constraint == null) {
+      constraint = getMaxAlertLevel();
+      NodeImpl parent = getParent();
+      if (parent != null) {
+        constraint = EnumUtils.min(constraint, parent.getMaxAlertLevelConstraint());
+      }
+      maxAlertLevelConstraint = constraint;
+    }
+    return constraint;
+  }
+
   /**
    * Makes sure the alert level does not exceed the maximum for this
    * node or any of its parents.  Will reduce the level to not exceed
@@ -195,18 +217,46 @@ public abstract class NodeImpl extends UnicastRemoteObject implements Node {
     if (level == AlertLevel.NONE) {
       return AlertLevel.NONE;
     }
+    return EnumUtils.min(level, getMaxAlertLevelConstraint());
+  }
+
+  /**
+   * Gets the highest alert level of the children.  The children are counted by alert level once, then
+   * kept current as each child changes, so this does not read every child on each call.
+   *
+   * @return  the highest level or {@link AlertLevel#NONE} when there are no children
+   *
+   * @see  #alertLevelChanged()
+   */
+  protected final AlertLevel getChildrenAlertLevel() {
+    return childAlertLevels.get();
+  }
+
+  /**
+   * Updates the counts of all the parents after the alert level of this node has changed.  Each
+   * parent compares the level it counted for its child with the child's current level.  This does
+   * not stop at a parent that is unchanged, since its counts may have been read again by another
+   * thread before its own parent read it.
+   */
+  final void alertLevelChanged() {
+    NodeImpl node = this;
+    NodeImpl parent;
+    while ((parent = node.getParent()) != null) {
+      parent.childAlertLevels.childChanged(node);
+      node = parent;
+    }
+  }
+
+  /**
+   * Reads the children of this node and of all its parents again on next use, after a child of this
+   * node has been added or removed.  No other node reads its children again.
+   */
+  final void childrenChanged() {
     NodeImpl node = this;
     do {
-      AlertLevel maxAlertLevel = node.getMaxAlertLevel();
-      if (level.compareTo(maxAlertLevel) > 0) {
-        level = maxAlertLevel;
-        if (level == AlertLevel.NONE) {
-          return AlertLevel.NONE;
-        }
-      }
+      node.childAlertLevels.structureChanged();
       node = node.getParent();
     } while (node != null);
-    return level;
   }
 
   /**
@@ -0,0 +1,106 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An alert message persisted in every language the monitor is translated to, so each client is
+ * shown its own language when the message is restored at startup.  Alert messages are rendered by
+ * their workers for any locale, so the message itself cannot be persisted.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class PersistedMessage implements Function<Locale, String>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The locales of the translated resources, with {@link Locale#ROOT} for the untranslated
+   * resources used by all other languages.  Add new translations here.
+   */
+  private static final Locale[] LOCALES = {Locale.ROOT, Locale.JAPANESE};
+
+  /**
+   * Renders the message in each translated language.
+   *
+   * @return  The persisted message or {@code null} when there is no message
+   */
+  static PersistedMessage of(Function<Locale, String> message) {
+    return message == null ? null : new PersistedMessage(message);
+  }
+
+  /**
+   * The message by language, only where different from {@link Locale#ROOT}.
+   */
+  private final HashMap<String, String> translations = new HashMap<>();
+
+  private final String message;
+
+  private PersistedMessage(Function<Locale, String> message) {
+    this.message = message.apply(Locale.ROOT);
+    for (Locale locale : LOCALES) {
+      if (!locale.equals(Locale.ROOT)) {
+        String translation = message.apply(locale);
+        if (!Objects.equals(translation, this.message)) {
+          translations.put(locale.getLanguage(), translation);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the message in the language of the given locale, or untranslated when not available.
+   */
+  @Override
+  public String apply(Locale locale) {
+    return translations.getOrDefault(locale.getLanguage(), message);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof PersistedMessage)) {
+      return false;
+    }
+    PersistedMessage other = (PersistedMessage) obj;
+    return Objects.equals(message, other.message) && translations.equals(other.translations);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(message) * 31 + translations.hashCode();
+  }
+
+  /**
+   * The untranslated message.
+   */
+  @Override
+  public String toString() {
+    return message;
+  }
+}
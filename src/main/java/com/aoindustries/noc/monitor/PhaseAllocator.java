@@ -0,0 +1,294 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assigns each worker a fixed phase within its cycle so that worker passes stay evenly spread
+ * over time, instead of drifting by their own run time until many checks bunch up in the same
+ * second.
+ *
+ * <p>The period is divided into one-second slots.  A new phase is placed in the slot with the
+ * fewest phases for the same target host, then the fewest phases overall.  This keeps the load
+ * on both each target host and the local executor flat.  When a phase is released, one phase
+ * from the busiest slot is moved into the freed slot, so the spread stays flat as workers come
+ * and go.  Workers pick up a moved phase on their next pass.</p>
+ *
+ * <p>A phase is a fraction of a cycle, so it applies to any delay: a worker in slot 30 of a
+ * five-minute period runs 10% into each five-minute cycle, and also 10% into each one-minute
+ * cycle while retrying after an error.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class PhaseAllocator {
+
+  private static final long SLOT_DURATION = 1000;
+
+  /**
+   * All allocators, by period.
+   */
+  private static final Map<Long, PhaseAllocator> allocators = new HashMap<>();
+
+  /**
+   * Gets the allocator for the given period.
+   */
+  static PhaseAllocator getInstance(long period) {
+    synchronized (allocators) {
+      PhaseAllocator allocator = allocators.get(period);
+      if (allocator == null) {
+        allocator = new PhaseAllocator(period, System.nanoTime());
+        allocators.put(period, allocator);
+      }
+      return allocator;
+    }
+  }
+
+  /**
+   * The phase of one worker.
+   */
+  final class Phase {
+
+    private final String targetHost;
+
+    // All synchronized on the allocator
+    private int slot;
+    private boolean released;
+
+    private Phase(String targetHost, int slot) {
+      this.targetHost = targetHost;
+      this.slot = slot;
+    }
+
+    /**
+     * Gets the current offset of this phase within the period.
+     */
+    long getOffset() {
+      synchronized (PhaseAllocator.this) {
+        return slot * SLOT_DURATION;
+      }
+    }
+
+    /**
+     * Gets the delay until this phase next begins a period.  Used for the first pass
+     * of a worker.
+     */
+    long getStartupDelay() {
+      return getStartupDelay(System.nanoTime());
+    }
+
+    long getStartupDelay(long nanoTime) {
+      return Math.floorMod(getOffset() - elapsedMillis(nanoTime), period);
+    }
+
+    /**
+     * Adjusts a delay so the next pass lands on this phase within a cycle of the delay's
+     * own length.  The result is within half a delay of the requested delay.  Run time of the
+     * current pass is absorbed, so workers do not drift.
+     */
+    long align(long delay) {
+      return align(delay, System.nanoTime());
+    }
+
+    long align(long delay, long nanoTime) {
+      if (delay <= 0) {
+        return delay;
+      }
+      long target = getOffset() * delay / period;
+      long next = elapsedMillis(nanoTime) + delay;
+      long adjust = Math.floorMod(target - next, delay);
+      if (adjust >= delay - delay / 2) {
+        adjust -= delay;
+      }
+      return delay + adjust;
+    }
+
+    /**
+     * Releases this phase.  Has no effect when already released.
+     */
+    void release() {
+      PhaseAllocator.this.release(this);
+    }
+  }
+
+  private final long period;
+  private final long originNanos;
+  private final int slots;
+
+  /**
+   * The phases in each slot.
+   */
+  private final List<List<Phase>> phases;
+
+  /**
+   * The number of phases in each slot, per target host.
+   */
+  private final Map<String, int[]> hostLoads = new HashMap<>();
+
+  /**
+   * Rotates the starting point of the slot search, so ties are spread around the period.
+   */
+  private int cursor;
+
+  PhaseAllocator(long period, long originNanos) {
+    if (period < SLOT_DURATION) {
+      throw new IllegalArgumentException("period < " + SLOT_DURATION + ": " + period);
+    }
+    this.period = period;
+    this.originNanos = originNanos;
+    this.slots = (int) (period / SLOT_DURATION);
+    this.phases = new ArrayList<>(slots);
+    for (int i = 0; i < slots; i++) {
+      phases.add(new ArrayList<>());
+    }
+  }
+
+  long getPeriod() {
+    return period;
+  }
+
+  private long elapsedMillis(long nanoTime) {
+    return TimeUnit.NANOSECONDS.toMillis(nanoTime - originNanos);
+  }
+
+  /**
+   * Allocates a new phase.
+   *
+   * @param  targetHost  The host the worker checks, or {@code null} when not specific to a host
+   */
+  synchronized Phase allocate(String targetHost) {
+    int[] hostLoad = targetHost == null ? null : hostLoads.computeIfAbsent(targetHost, host -> new int[slots]);
+    int best = -1;
+    int bestHostLoad = Integer.MAX_VALUE;
+    int bestLoad = Integer.MAX_VALUE;
+    for (int i = 0; i < slots; i++) {
+      int slot = (cursor + i) % slots;
+      int slotHostLoad = hostLoad == null ? 0 : hostLoad[slot];
+      int slotLoad = phases.get(slot).size();
+      if (
+          slotHostLoad < bestHostLoad
+              || (slotHostLoad == bestHostLoad && slotLoad < bestLoad)
+      ) {
+        best = slot;
+        bestHostLoad = slotHostLoad;
+        bestLoad = slotLoad;
+      }
+    }
+    // Step by a prime so consecutive ties land far apart
+    cursor = (best + 37) % slots;
+    Phase phase = new Phase(targetHost, best);
+    add(phase, best);
+    return phase;
+  }
+
+  private void add(Phase phase, int slot) {
+    phase.slot = slot;
+    phases.get(slot).add(phase);
+    if (phase.targetHost != null) {
+      hostLoads.get(phase.targetHost)[slot]++;
+    }
+  }
+
+  private void remove(Phase phase) {
+    int slot = phase.slot;
+    List<Phase> slotPhases = phases.get(slot);
+    for (int i = slotPhases.size() - 1; i >= 0; i--) {
+      if (slotPhases.get(i) == phase) {
+        slotPhases.remove(i);
+        break;
+      }
+    }
+    if (phase.targetHost != null) {
+      hostLoads.get(phase.targetHost)[slot]--;
+    }
+  }
+
+  private synchronized void release(Phase phase) {
+    if (phase.released) {
+      return;
+    }
+    phase.released = true;
+    int freed = phase.slot;
+    remove(phase);
+    if (phase.targetHost != null) {
+      int[] hostLoad = hostLoads.get(phase.targetHost);
+      boolean empty = true;
+      for (int load : hostLoad) {
+        if (load != 0) {
+          empty = false;
+          break;
+        }
+      }
+      if (empty) {
+        hostLoads.remove(phase.targetHost);
+      }
+    }
+    rebalance(freed);
+  }
+
+  /**
+   * Moves one phase from the busiest slot into the given slot, when that makes the spread
+   * flatter without making any target host less flat.
+   */
+  private void rebalance(int freed) {
+    int busiest = -1;
+    int busiestLoad = phases.get(freed).size() + 1;
+    for (int slot = 0; slot < slots; slot++) {
+      int load = phases.get(slot).size();
+      if (load > busiestLoad) {
+        busiest = slot;
+        busiestLoad = load;
+      }
+    }
+    if (busiest == -1) {
+      return;
+    }
+    for (Phase candidate : phases.get(busiest)) {
+      if (candidate.targetHost != null) {
+        int[] hostLoad = hostLoads.get(candidate.targetHost);
+        if (hostLoad[freed] + 1 > hostLoad[busiest]) {
+          continue;
+        }
+      }
+      remove(candidate);
+      add(candidate, freed);
+      return;
+    }
+  }
+
+  /**
+   * Gets the number of phases in each slot.
+   */
+  synchronized int[] getLoads() {
+    int[] loads = new int[slots];
+    for (int slot = 0; slot < slots; slot++) {
+      loads[slot] = phases.get(slot).size();
+    }
+    return loads;
+  }
+}
@@ -0,0 +1,379 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.TableMultiResult;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Stores the results of a {@link TableMultiResultWorker} in memory as primitive columns instead
+ * of as objects: time, latency, alert level, and the values of each result as float, int, and long
+ * columns.  Results are materialized only when read.
+ *
+ * <p>Each column of a chunk is kept as a single value until a result differs, so values that
+ * rarely change, such as configured thresholds, cost nothing per result.  Errors are stored only
+ * for the rows that have them.</p>
+ *
+ * <p>Also determines repeated results for {@link RunLengthHistoryStore}: results with the same
+ * alert level, error, and values.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public abstract class ResultColumns<R extends TableMultiResult> implements ResultRepeater<R> {
+
+  /**
+   * The values of one successful result, by column within each type.
+   */
+  public static final class Row {
+
+    private final float[] floats;
+    private final int[] ints;
+    private final long[] longs;
+
+    private Row(int floatColumns, int intColumns, int longColumns) {
+      floats = new float[floatColumns];
+      ints = new int[intColumns];
+      longs = new long[longColumns];
+    }
+
+    public float getFloat(int column) {
+      return floats[column];
+    }
+
+    public void setFloat(int column, float value) {
+      floats[column] = value;
+    }
+
+    public int getInt(int column) {
+      return ints[column];
+    }
+
+    public void setInt(int column, int value) {
+      ints[column] = value;
+    }
+
+    public long getLong(int column) {
+      return longs[column];
+    }
+
+    public void setLong(int column, long value) {
+      longs[column] = value;
+    }
+  }
+
+  /**
+   * One chunk of rows.  Float columns are stored as their bits, followed by the int columns.  Time
+   * and latency are the first two long columns, followed by the long values.  Long columns are
+   * stored as int differences from their constant while they fit.
+   *
+   * <p>Rows visible to existing snapshots are never changed: when a column is first expanded, or an
+   * error is added, a new chunk is created.  Rows are only ever added to the unused end of the
+   * shared arrays.</p>
+   */
+  private static final class Chunk {
+
+    private final byte[] alertLevels;
+
+    /**
+     * The rows with errors, in order, and their messages.
+     */
+    private final int[] errorRows;
+    private final String[] errors;
+
+    /**
+     * The columns, each {@code null} while every row has the constant.
+     */
+    private final int[][] ints;
+    private final int[][] narrowLongs;
+    private final long[][] longs;
+
+    /**
+     * Time and latency are set by the first row, values by the first successful row.
+     * No row reads a constant before it is set.
+     */
+    private final int[] intConstants;
+    private final long[] longConstants;
+    private boolean hasConstants;
+
+    private Chunk(int capacity, int intColumns, int longColumns) {
+      alertLevels = new byte[capacity];
+      errorRows = NO_ERROR_ROWS;
+      errors = NO_ERRORS;
+      ints = new int[intColumns][];
+      narrowLongs = new int[longColumns][];
+      longs = new long[longColumns][];
+      intConstants = new int[intColumns];
+      longConstants = new long[longColumns];
+    }
+
+    private Chunk(Chunk other) {
+      this(other, other.errorRows, other.errors);
+    }
+
+    private Chunk(Chunk other, int[] errorRows, String[] errors) {
+      alertLevels = other.alertLevels;
+      this.errorRows = errorRows;
+      this.errors = errors;
+      ints = other.ints.clone();
+      narrowLongs = other.narrowLongs.clone();
+      longs = other.longs.clone();
+      intConstants = other.intConstants;
+      longConstants = other.longConstants;
+      hasConstants = other.hasConstants;
+    }
+
+    private int capacity() {
+      return alertLevels.length;
+    }
+
+    private long getLong(int column, int row) {
+      long[] wide = longs[column];
+      if (wide != null) {
+        return wide[row];
+      }
+      int[] narrow = narrowLongs[column];
+      return longConstants[column] + (narrow == null ? 0 : narrow[row]);
+    }
+
+    /**
+     * Sets a value of an int column.
+     *
+     * @return  this chunk or a new chunk with the column expanded
+     */
+    private Chunk setInt(Chunk newChunk, int column, int row, int value) {
+      int[] values = newChunk.ints[column];
+      if (values != null) {
+        values[row] = value;
+      } else if (value != intConstants[column]) {
+        if (newChunk == this) {
+          newChunk = new Chunk(this);
+        }
+        values = new int[capacity()];
+        Arrays.fill(values, 0, row, intConstants[column]);
+        values[row] = value;
+        newChunk.ints[column] = values;
+      }
+      return newChunk;
+    }
+
+    /**
+     * Sets a value of a long column.
+     *
+     * @return  this chunk or a new chunk with the column expanded
+     */
+    private Chunk setLong(Chunk newChunk, int column, int row, long value) {
+      long[] wide = newChunk.longs[column];
+      if (wide != null) {
+        wide[row] = value;
+        return newChunk;
+      }
+      long constant = longConstants[column];
+      long difference = value - constant;
+      boolean fits = (int) difference == difference
+          // Overflow of the difference itself
+          && ((value >= constant) == (difference >= 0));
+      int[] narrow = newChunk.narrowLongs[column];
+      if (narrow != null && fits) {
+        narrow[row] = (int) difference;
+        return newChunk;
+      }
+      if (narrow == null && value == constant) {
+        return newChunk;
+      }
+      if (newChunk == this) {
+        newChunk = new Chunk(this);
+      }
+      if (fits) {
+        narrow = new int[capacity()];
+        narrow[row] = (int) difference;
+        newChunk.narrowLongs[column] = narrow;
+      } else {
+        wide = new long[capacity()];
+        for (int i = 0; i < row; i++) {
+          wide[i] = constant + (narrow == null ? 0 : narrow[i]);
+        }
+        wide[row] = value;
+        newChunk.narrowLongs[column] = null;
+        newChunk.longs[column] = wide;
+      }
+      return newChunk;
+    }
+  }
+
+  /**
+   * The long column of the time and latency, before the long values.
+   */
+  private static final int TIME = 0;
+  private static final int LATENCY = 1;
+  private static final int LONG_VALUES = 2;
+
+  private static final int[] NO_ERROR_ROWS = new int[0];
+  private static final String[] NO_ERRORS = new String[0];
+
+  private final int floatColumns;
+  private final int intColumns;
+  private final int longColumns;
+
+  private final ResultSnapshot.Storage<R> storage = new ResultSnapshot.Storage<R>() {
+    @Override
+    public Object newChunk(int capacity) {
+      return new Chunk(capacity, floatColumns + intColumns, LONG_VALUES + longColumns);
+    }
+
+    @Override
+    public Object set(Object chunk, int row, R result) {
+      return ResultColumns.this.set((Chunk) chunk, row, result);
+    }
+
+    @Override
+    public R get(Object chunk, int row) {
+      return ResultColumns.this.get((Chunk) chunk, row);
+    }
+  };
+
+  protected ResultColumns(int floatColumns, int intColumns, int longColumns) {
+    this.floatColumns = floatColumns;
+    this.intColumns = intColumns;
+    this.longColumns = longColumns;
+  }
+
+  final ResultSnapshot.Storage<R> getStorage() {
+    return storage;
+  }
+
+  /**
+   * Gets the values of a successful result.
+   */
+  protected abstract void getValues(R result, Row row);
+
+  /**
+   * Materializes a result for an error.
+   */
+  protected abstract R newErrorResult(long time, long latency, AlertLevel alertLevel, String error);
+
+  /**
+   * Materializes a successful result.
+   */
+  protected abstract R newSampleResult(long time, long latency, AlertLevel alertLevel, Row row);
+
+  @Override
+  public boolean isRepeat(R previous, R result) {
+    if (
+        previous.getAlertLevel() != result.getAlertLevel()
+            || !Objects.equals(previous.getError(), result.getError())
+    ) {
+      return false;
+    }
+    if (result.getError() != null) {
+      return true;
+    }
+    Row previousValues = new Row(floatColumns, intColumns, longColumns);
+    getValues(previous, previousValues);
+    Row values = new Row(floatColumns, intColumns, longColumns);
+    getValues(result, values);
+    return Arrays.equals(previousValues.floats, values.floats)
+        && Arrays.equals(previousValues.ints, values.ints)
+        && Arrays.equals(previousValues.longs, values.longs);
+  }
+
+  @Override
+  public R repeat(R result, long time, long latency) {
+    String error = result.getError();
+    if (error != null) {
+      return newErrorResult(time, latency, result.getAlertLevel(), error);
+    }
+    Row values = new Row(floatColumns, intColumns, longColumns);
+    getValues(result, values);
+    return newSampleResult(time, latency, result.getAlertLevel(), values);
+  }
+
+  private Chunk set(Chunk chunk, int row, R result) {
+    if (row == 0) {
+      chunk.longConstants[TIME] = result.getTime();
+      chunk.longConstants[LATENCY] = result.getLatency();
+    }
+    Chunk newChunk = chunk.setLong(chunk, TIME, row, result.getTime());
+    newChunk = chunk.setLong(newChunk, LATENCY, row, result.getLatency());
+    chunk.alertLevels[row] = (byte) result.getAlertLevel().ordinal();
+    String error = result.getError();
+    if (error != null) {
+      // Rare, so a new chunk each time keeps the rows of existing snapshots untouched
+      int count = newChunk.errorRows.length;
+      int[] errorRows = Arrays.copyOf(newChunk.errorRows, count + 1);
+      errorRows[count] = row;
+      String[] errors = Arrays.copyOf(newChunk.errors, count + 1);
+      errors[count] = error;
+      return new Chunk(newChunk, errorRows, errors);
+    }
+    Row values = new Row(floatColumns, intColumns, longColumns);
+    getValues(result, values);
+    if (!chunk.hasConstants) {
+      for (int i = 0; i < floatColumns; i++) {
+        chunk.intConstants[i] = Float.floatToRawIntBits(values.floats[i]);
+      }
+      System.arraycopy(values.ints, 0, chunk.intConstants, floatColumns, intColumns);
+      System.arraycopy(values.longs, 0, chunk.longConstants, LONG_VALUES, longColumns);
+      chunk.hasConstants = true;
+      // Any rows before are errors, which do not have values
+      newChunk.hasConstants = true;
+    }
+    for (int i = 0; i < floatColumns; i++) {
+      newChunk = chunk.setInt(newChunk, i, row, Float.floatToRawIntBits(values.floats[i]));
+    }
+    for (int i = 0; i < intColumns; i++) {
+      newChunk = chunk.setInt(newChunk, floatColumns + i, row, values.ints[i]);
+    }
+    for (int i = 0; i < longColumns; i++) {
+      newChunk = chunk.setLong(newChunk, LONG_VALUES + i, row, values.longs[i]);
+    }
+    return newChunk;
+  }
+
+  private R get(Chunk chunk, int row) {
+    long time = chunk.getLong(TIME, row);
+    long latency = chunk.getLong(LATENCY, row);
+    AlertLevel alertLevel = AlertLevel.fromOrdinal(chunk.alertLevels[row]);
+    int errorIndex = Arrays.binarySearch(chunk.errorRows, row);
+    if (errorIndex >= 0) {
+      return newErrorResult(time, latency, alertLevel, chunk.errors[errorIndex]);
+    }
+    Row values = new Row(floatColumns, intColumns, longColumns);
+    for (int i = 0; i < floatColumns + intColumns; i++) {
+      int[] column = chunk.ints[i];
+      int value = column == null ? chunk.intConstants[i] : column[row];
+      if (i < floatColumns) {
+        values.floats[i] = Float.intBitsToFloat(value);
+      } else {
+        values.ints[i - floatColumns] = value;
+      }
+    }
+    for (int i = 0; i < longColumns; i++) {
+      values.longs[i] = chunk.getLong(LONG_VALUES + i, row);
+    }
+    return newSampleResult(time, latency, alertLevel, values);
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.collections.AoCollections;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.TableMultiResult;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The compact encodings shared by the version 2 result serializers.  Each record stands alone,
+ * since histories are read and removed one element at a time, so the time is written as a delta
+ * from a fixed {@link #EPOCH} instead of from the previous record.
+ *
+ * <p>The header of each result is:</p>
+ *
+ * <ol>
+ * <li>One byte combining the {@link AlertLevel} and how the error is encoded</li>
+ * <li>The time, as a variable-length delta from {@link #EPOCH}</li>
+ * <li>The latency, as a variable-length number of nanoseconds</li>
+ * <li>The error, when present, as either an index into a dictionary of common errors or the raw string</li>
+ * </ol>
+ *
+ * <p>Raw strings are written by {@link #writeString(java.lang.String, java.io.DataOutput)}, which
+ * has no length limit.  Raw errors written by {@link DataOutput#writeUTF(java.lang.String)}, limited
+ * to 65535 bytes, are still read.</p>
+ *
+ * <p>Variable-length numbers are written seven bits per byte, least significant first, with
+ * signed values zig-zag encoded so small negative values are also short.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class ResultEncoding {
+
+  /** Make no instances. */
+  private ResultEncoding() {
+    throw new AssertionError();
+  }
+
+  private static final Logger logger = Logger.getLogger(ResultEncoding.class.getName());
+
+  /**
+   * Times are written relative to 2020-01-01 00:00:00 UTC.
+   */
+  public static final long EPOCH = 1577836800000L;
+
+  /**
+   * Commonly occurring errors are written as an index into this array.
+   * Only add new items to the end of this array.
+   * If items must be removed, then the version of every serializer using this class must be
+   * incremented and code must perform necessary adjustments when reading objects.
+   */
+  private static final String[] commonErrors = {
+      "Timeout",
+      "java.util.concurrent.TimeoutException",
+      "java.util.concurrent.CancellationException",
+      "Connection refused",
+      "Connection refused (Connection refused)",
+      "Connection reset",
+      "Connection timed out",
+      "Connection timed out (Connection timed out)",
+      "connect timed out",
+      "Connect timed out",
+      "Read timed out",
+      "No route to host",
+      "No route to host (Host unreachable)",
+      "Network is unreachable",
+      "Network is unreachable (connect failed)",
+      "Host is down",
+      "Broken pipe",
+      "Socket closed",
+      "Device counters reset",
+      "Host time reset to the past"
+  };
+
+  private static final Map<String, Integer> commonErrorsMap = AoCollections.newHashMap(commonErrors.length);
+
+  static {
+    for (int c = 0; c < commonErrors.length; c++) {
+      commonErrorsMap.put(commonErrors[c], c);
+    }
+  }
+
+  private static final ConcurrentMap<String, Boolean> commonErrorsSuggested = new ConcurrentHashMap<>();
+
+  /**
+   * The different error encoding types, in the high bits of the first byte.
+   * {@link #RAW_ERROR} is no longer written, replaced by {@link #STRING_ERROR}.
+   */
+  private static final int
+      NO_ERROR = 0,
+      COMMON_ERROR = 1,
+      RAW_ERROR = 2,
+      STRING_ERROR = 3;
+
+  private static final int ALERT_LEVEL_MASK = 0x0f;
+
+  private static final int ERROR_SHIFT = 4;
+
+  /**
+   * Writes the header of a result.
+   */
+  public static void writeHeader(TableMultiResult value, DataOutput out) throws IOException {
+    String error = value.getError();
+    Integer index;
+    int encoding;
+    if (error == null) {
+      index = null;
+      encoding = NO_ERROR;
+    } else {
+      index = commonErrorsMap.get(error);
+      if (index != null) {
+        encoding = COMMON_ERROR;
+      } else {
+        if (
+            logger.isLoggable(Level.FINE)
+                && commonErrorsSuggested.putIfAbsent(error, Boolean.TRUE) == null
+        ) {
+          logger.fine("Suggested value for commonErrors: \"" + error + "\"");
+        }
+        encoding = STRING_ERROR;
+      }
+    }
+    out.writeByte(value.getAlertLevel().ordinal() | (encoding << ERROR_SHIFT));
+    writeVarSignedLong(value.getTime() - EPOCH, out);
+    writeVarSignedLong(value.getLatency(), out);
+    if (encoding == COMMON_ERROR) {
+      writeVarLong(index, out);
+    } else if (encoding == STRING_ERROR) {
+      writeString(error, out);
+    }
+  }
+
+  /**
+   * Reads the first byte of a header, which is then passed to {@link #getAlertLevel(int)}
+   * and {@link #readError(int, java.io.DataInput)}.
+   */
+  public static int readFlags(DataInput in) throws IOException {
+    return in.readUnsignedByte();
+  }
+
+  public static long readTime(DataInput in) throws IOException {
+    return readVarSignedLong(in) + EPOCH;
+  }
+
+  public static long readLatency(DataInput in) throws IOException {
+    return readVarSignedLong(in);
+  }
+
+  public static AlertLevel getAlertLevel(int flags) {
+    return AlertLevel.fromOrdinal(flags & ALERT_LEVEL_MASK);
+  }
+
+  /**
+   * Reads the error, which follows the latency.
+   *
+   * @return  the error or {@code null} when the result is not an error
+   */
+  public static String readError(int flags, DataInput in) throws IOException {
+    int encoding = flags >>> ERROR_SHIFT;
+    switch (encoding) {
+      case NO_ERROR:
+        return null;
+      case COMMON_ERROR:
+        long index = readVarLong(in);
+        if (index >= commonErrors.length) {
+          throw new IOException("Unexpected common error index: " + index);
+        }
+        return commonErrors[(int) index];
+      case RAW_ERROR:
+        return in.readUTF();
+      case STRING_ERROR:
+        return readString(in);
+      default:
+        throw new IOException("Unexpected value for error encoding: " + encoding);
+    }
+  }
+
+  /**
+   * Writes a string as its variable-length number of UTF-8 bytes followed by the bytes.
+   * Unlike {@link DataOutput#writeUTF(java.lang.String)}, any length may be written.
+   */
+  public static void writeString(String value, DataOutput out) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(bytes.length, out);
+    out.write(bytes);
+  }
+
+  public static String readString(DataInput in) throws IOException {
+    long length = readVarLong(in);
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("String too long: " + length);
+    }
+    byte[] bytes = new byte[(int) length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Maps signed values to unsigned, so values near zero in either direction are small.
+   */
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Writes an unsigned value in one to ten bytes.
+   */
+  public static void writeVarLong(long value, DataOutput out) throws IOException {
+    while ((value & ~0x7fL) != 0) {
+      out.writeByte((int) (value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  public static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Variable-length value too long");
+  }
+
+  /**
+   * Writes a signed value, zig-zag encoded.
+   */
+  public static void writeVarSignedLong(long value, DataOutput out) throws IOException {
+    writeVarLong(zigZag(value), out);
+  }
+
+  public static long readVarSignedLong(DataInput in) throws IOException {
+    return unZigZag(readVarLong(in));
+  }
+}
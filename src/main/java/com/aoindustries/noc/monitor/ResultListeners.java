@@ -0,0 +1,434 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends the results of a node to its remote listeners without blocking the worker.  Each listener
+ * has its own queue, drained in order by one background task at a time, so a slow client on a bad
+ * link only delays itself.  Each delivery takes everything queued at once, and a result added and
+ * removed again before being sent is sent neither time.
+ *
+ * <p>Events that carry the whole state, such as a {@link com.aoindustries.noc.monitor.common.SingleResult},
+ * replace anything still queued, so a client that falls behind is resynchronized by the next event.
+ * Other events, such as the results added to a
+ * {@link com.aoindustries.noc.monitor.common.TableMultiResultNode}, are each needed by the client.
+ * Their queue is bounded.  When given the current results, the results sent to each listener are
+ * kept, and a listener that falls behind is reloaded: everything queued is discarded, then the
+ * listener is sent the results removed and added since those it was sent.  Otherwise, a listener
+ * that falls behind is removed.  A listener that throws {@link RemoteException} is always removed,
+ * the same as {@link TreeListenerDispatcher}.</p>
+ *
+ * <p>The maximum events queued per listener is configured by the system property
+ * {@value #MAX_QUEUED_PROPERTY}, default {@value #DEFAULT_MAX_QUEUED}.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ResultListeners<L extends Remote> {
+
+  private static final Logger logger = Logger.getLogger(ResultListeners.class.getName());
+
+  static final String MAX_QUEUED_PROPERTY = "com.aoindustries.noc.monitor.resultListener.maxQueued";
+
+  private static final int DEFAULT_MAX_QUEUED = 1000;
+
+  private static final int maxQueuedDefault = Integer.getInteger(MAX_QUEUED_PROPERTY, DEFAULT_MAX_QUEUED);
+
+  /**
+   * One call to a listener.
+   */
+  @FunctionalInterface
+  interface Event<L> {
+    void send(L listener) throws RemoteException;
+  }
+
+  /**
+   * One result added to or removed from the results of a listener.
+   */
+  interface ResultEvent<L> extends Event<L> {
+
+    /**
+     * Identifies the result, the same for every event of the result.
+     */
+    Object getKey();
+
+    boolean isAdded();
+
+    /**
+     * Gets the event undoing this one, removing a result added or adding a result removed.
+     */
+    ResultEvent<L> inverse();
+  }
+
+  private final Executor executor;
+  private final int maxQueued;
+
+  /**
+   * Gets an added event for each of the current results, oldest first, or {@code null} to remove
+   * listeners that fall behind.
+   */
+  private final Supplier<? extends List<? extends ResultEvent<? super L>>> reload;
+
+  private final List<ListenerQueue> queues = new CopyOnWriteArrayList<>();
+
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong reloads = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Creates listeners configured by the system property, sent by {@link RootNodeImpl#submit(java.lang.Runnable)}.
+   */
+  ResultListeners() {
+    this(null);
+  }
+
+  /**
+   * Creates listeners configured by the system property, sent by {@link RootNodeImpl#submit(java.lang.Runnable)}.
+   *
+   * @param  reload  gets an added event for each of the current results, oldest first, or {@code null}
+   *                 to remove listeners that fall behind
+   */
+  ResultListeners(Supplier<? extends List<? extends ResultEvent<? super L>>> reload) {
+    this(RootNodeImpl::submit, maxQueuedDefault, reload);
+  }
+
+  ResultListeners(Executor executor, int maxQueued) {
+    this(executor, maxQueued, null);
+  }
+
+  /**
+   * @param  reload  gets an added event for each of the current results, oldest first, or {@code null}
+   *                 to remove listeners that fall behind
+   */
+  ResultListeners(Executor executor, int maxQueued, Supplier<? extends List<? extends ResultEvent<? super L>>> reload) {
+    if (maxQueued < 1) {
+      throw new IllegalArgumentException("maxQueued < 1: " + maxQueued);
+    }
+    this.executor = executor;
+    this.maxQueued = maxQueued;
+    this.reload = reload;
+  }
+
+  /**
+   * Adds a listener.  When reloaded, the listener is assumed to have the current results, as
+   * read by the client when it adds the listener.
+   */
+  void addListener(L listener) {
+    queues.add(new ListenerQueue(listener));
+  }
+
+  /**
+   * Removes the most recently added queue of an equal listener.  Removes only once, in case add
+   * and remove come in out of order with quick GUI changes.
+   *
+   * @return  {@code true} when found
+   */
+  boolean removeListener(L listener) {
+    for (int c = queues.size() - 1; c >= 0; c--) {
+      ListenerQueue queue;
+      try {
+        queue = queues.get(c);
+      } catch (IndexOutOfBoundsException e) {
+        // Removed concurrently
+        continue;
+      }
+      if (queue.listener.equals(listener) && queues.remove(queue)) {
+        queue.close();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Queues an event for every listener, reloading or removing any listener with a full queue.
+   */
+  void fire(Event<? super L> event) {
+    for (ListenerQueue queue : queues) {
+      queue.add(event, false);
+    }
+  }
+
+  /**
+   * Queues an event carrying the whole state for every listener, replacing everything still queued.
+   */
+  void fireLatest(Event<? super L> event) {
+    for (ListenerQueue queue : queues) {
+      queue.add(event, true);
+    }
+  }
+
+  int getListenerCount() {
+    return queues.size();
+  }
+
+  /**
+   * The number of events sent.
+   */
+  long getSent() {
+    return sent.get();
+  }
+
+  /**
+   * The number of events dropped, replaced, or coalesced before being sent.
+   */
+  long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * The number of times a listener was reloaded for falling behind.
+   */
+  long getReloads() {
+    return reloads.get();
+  }
+
+  /**
+   * The number of listeners removed for falling behind.
+   */
+  long getEvictions() {
+    return evictions.get();
+  }
+
+  private final class ListenerQueue implements Runnable {
+
+    private final L listener;
+
+    // All synchronized on this
+    private final Deque<Event<? super L>> events = new ArrayDeque<>();
+    /**
+     * The added events still queued, by key, so a removal before being sent drops both.
+     */
+    private final Map<Object, ResultEvent<? super L>> queuedAdds = new HashMap<>();
+    private boolean reloading;
+    private boolean running;
+    private boolean closed;
+
+    /**
+     * The added events of the results sent, when reloaded.  Only used by the delivery.
+     */
+    private final Map<Object, ResultEvent<? super L>> view;
+
+    private ListenerQueue(L listener) {
+      this.listener = listener;
+      if (reload == null) {
+        view = null;
+      } else {
+        view = new LinkedHashMap<>();
+        for (ResultEvent<? super L> event : reload.get()) {
+          view.put(event.getKey(), event);
+        }
+      }
+    }
+
+    private void close() {
+      synchronized (this) {
+        closed = true;
+        events.clear();
+        queuedAdds.clear();
+      }
+    }
+
+    private void add(Event<? super L> event, boolean replace) {
+      boolean submit;
+      synchronized (this) {
+        if (closed || reloading) {
+          // Reloading sends the results current when delivered
+          return;
+        }
+        if (replace) {
+          dropped.addAndGet(events.size());
+          events.clear();
+          queuedAdds.clear();
+        } else if (event instanceof ResultEvent) {
+          ResultEvent<? super L> resultEvent = (ResultEvent<? super L>) event;
+          if (!resultEvent.isAdded()) {
+            ResultEvent<? super L> queuedAdd = queuedAdds.remove(resultEvent.getKey());
+            if (queuedAdd != null) {
+              events.removeFirstOccurrence(queuedAdd);
+              dropped.addAndGet(2);
+              return;
+            }
+          }
+        }
+        if (!replace && events.size() >= maxQueued) {
+          dropped.addAndGet(events.size() + 1L);
+          events.clear();
+          queuedAdds.clear();
+          if (view != null) {
+            // Falling behind, reloaded when next delivered
+            reloading = true;
+            reloads.incrementAndGet();
+            if (logger.isLoggable(Level.WARNING)) {
+              logger.warning("Reloading listener, more than " + maxQueued + " events queued: " + listener);
+            }
+          } else {
+            // Falling behind, removed so the client reconnects and reloads
+            closed = true;
+            if (queues.remove(this)) {
+              evictions.incrementAndGet();
+              if (logger.isLoggable(Level.WARNING)) {
+                logger.warning("Removing listener, more than " + maxQueued + " events queued: " + listener);
+              }
+            }
+            return;
+          }
+        } else {
+          events.addLast(event);
+          if (event instanceof ResultEvent && ((ResultEvent<? super L>) event).isAdded()) {
+            ResultEvent<? super L> resultEvent = (ResultEvent<? super L>) event;
+            queuedAdds.put(resultEvent.getKey(), resultEvent);
+          }
+        }
+        submit = !running;
+        running = true;
+      }
+      if (submit) {
+        executor.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        List<Event<? super L>> batch;
+        boolean reloadNow;
+        synchronized (this) {
+          if (closed || (!reloading && events.isEmpty())) {
+            running = false;
+            return;
+          }
+          // Events queued after this are sent after the reload
+          reloadNow = reloading;
+          reloading = false;
+          batch = new ArrayList<>(events);
+          events.clear();
+          queuedAdds.clear();
+        }
+        if (reloadNow) {
+          if (!sendReload()) {
+            return;
+          }
+        }
+        for (Event<? super L> event : batch) {
+          if (!send(event)) {
+            return;
+          }
+        }
+      }
+    }
+
+    /**
+     * Sends the results removed and added since the results sent.
+     *
+     * @return  {@code false} when the listener has been removed
+     */
+    private boolean sendReload() {
+      List<? extends ResultEvent<? super L>> current = reload.get();
+      Map<Object, ResultEvent<? super L>> currentByKey = new HashMap<>();
+      for (ResultEvent<? super L> event : current) {
+        currentByKey.put(event.getKey(), event);
+      }
+      List<ResultEvent<? super L>> removed = new ArrayList<>();
+      for (ResultEvent<? super L> event : view.values()) {
+        if (!currentByKey.containsKey(event.getKey())) {
+          removed.add(event);
+        }
+      }
+      for (ResultEvent<? super L> event : removed) {
+        if (!send(event.inverse())) {
+          return false;
+        }
+      }
+      for (ResultEvent<? super L> event : current) {
+        if (!send(event)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Sends one event.  When reloaded, a result already sent is not added again, and a result not
+     * sent is not removed.
+     *
+     * @return  {@code false} when the listener has been removed
+     */
+    @SuppressWarnings({"UseSpecificCatch", "TooBroadCatch"})
+    private boolean send(Event<? super L> event) {
+      ResultEvent<? super L> resultEvent = null;
+      if (view != null && event instanceof ResultEvent) {
+        resultEvent = (ResultEvent<? super L>) event;
+        if (resultEvent.isAdded() == view.containsKey(resultEvent.getKey())) {
+          // Already sent by a reload
+          dropped.incrementAndGet();
+          return true;
+        }
+      }
+      try {
+        event.send(listener);
+        sent.incrementAndGet();
+        if (resultEvent != null) {
+          if (resultEvent.isAdded()) {
+            view.put(resultEvent.getKey(), resultEvent);
+          } else {
+            view.remove(resultEvent.getKey());
+          }
+        }
+        return true;
+      } catch (RemoteException err) {
+        if (queues.remove(this)) {
+          logger.log(Level.SEVERE, null, err);
+        }
+        close();
+        synchronized (this) {
+          running = false;
+        }
+        return false;
+      } catch (ThreadDeath td) {
+        throw td;
+      } catch (Throwable t) {
+        logger.log(Level.SEVERE, null, t);
+        return true;
+      }
+    }
+  }
+}
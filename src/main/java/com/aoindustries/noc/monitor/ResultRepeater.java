@@ -0,0 +1,47 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.TableMultiResult;
+
+/**
+ * Determines which results are repeats of the previous result, the same in everything but their
+ * time and latency, so consecutive repeats may be collapsed into runs by {@link RunLengthHistoryStore}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public interface ResultRepeater<R extends TableMultiResult> {
+
+  /**
+   * Checks if the result is the same as the previous in everything but time and latency,
+   * including the alert level and error.
+   */
+  boolean isRepeat(R previous, R result);
+
+  /**
+   * Gets a copy of the result at a different time and latency, sharing everything else.
+   */
+  R repeat(R result, long time, long latency);
+}
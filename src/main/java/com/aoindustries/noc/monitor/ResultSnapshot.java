@@ -0,0 +1,219 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.RandomAccess;
+
+/**
+ * An immutable, versioned snapshot of the results of a worker, newest first.  Readers need no
+ * lock and nothing is copied: a new snapshot shares the storage of the previous one.
+ *
+ * <p>Results are stored oldest first in fixed-size chunks.  Adding a result writes into the next
+ * unused slot of the last chunk, which no existing snapshot can see, so only a single writer at
+ * a time may derive new snapshots from the latest.  Removing the oldest result only moves the
+ * start offset, dropping the first chunk once it is fully consumed.</p>
+ *
+ * <p>By default, chunks hold the result objects.  A {@link Storage} may instead store them in
+ * another form, such as the primitive columns of {@link ResultColumns}, materializing results
+ * only as they are read.</p>
+ *
+ * <p>Serialized as a plain copy of only the newest results, up to
+ * {@value #MAX_SERIALIZED_PROPERTY}, default {@value #DEFAULT_MAX_SERIALIZED}, so a client
+ * reading the results of a worker is not sent its whole history.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ResultSnapshot<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int CHUNK_SIZE = 256;
+
+  static final String MAX_SERIALIZED_PROPERTY = "com.aoindustries.noc.monitor.results.maxSerialized";
+
+  private static final int DEFAULT_MAX_SERIALIZED = 1000;
+
+  private static final int maxSerialized = Integer.getInteger(MAX_SERIALIZED_PROPERTY, DEFAULT_MAX_SERIALIZED);
+
+  /**
+   * Stores the results within each chunk.
+   */
+  interface Storage<E> {
+
+    /**
+     * Creates a new, empty chunk.
+     */
+    Object newChunk(int capacity);
+
+    /**
+     * Sets a row not yet visible to any snapshot.
+     *
+     * @return  The chunk to use from now on, which is a new chunk when any row visible to existing
+     *          snapshots could not be left untouched
+     */
+    Object set(Object chunk, int row, E element);
+
+    E get(Object chunk, int row);
+  }
+
+  private static final Storage<Object> OBJECTS = new Storage<Object>() {
+    @Override
+    public Object newChunk(int capacity) {
+      return new Object[capacity];
+    }
+
+    @Override
+    public Object set(Object chunk, int row, Object element) {
+      ((Object[]) chunk)[row] = element;
+      return chunk;
+    }
+
+    @Override
+    public Object get(Object chunk, int row) {
+      return ((Object[]) chunk)[row];
+    }
+  };
+
+  private static final ResultSnapshot<?> EMPTY = new ResultSnapshot<>(OBJECTS, new Object[0], 0, 0, 0);
+
+  /**
+   * Gets an empty snapshot that stores the result objects.
+   */
+  @SuppressWarnings("unchecked")
+  static <E> ResultSnapshot<E> empty() {
+    return (ResultSnapshot<E>) EMPTY;
+  }
+
+  /**
+   * Gets an empty snapshot using the given storage.
+   */
+  static <E> ResultSnapshot<E> empty(Storage<E> storage) {
+    return new ResultSnapshot<>(storage, new Object[0], 0, 0, 0);
+  }
+
+  private final transient Storage<E> storage;
+
+  /**
+   * The chunks, oldest first.
+   */
+  private final transient Object[] chunks;
+
+  /**
+   * The index of the oldest result within the first chunk.
+   */
+  private final transient int offset;
+
+  private final transient int size;
+
+  private final transient long version;
+
+  @SuppressWarnings("unchecked")
+  private ResultSnapshot(Storage<? super E> storage, Object[] chunks, int offset, int size, long version) {
+    this.storage = (Storage<E>) storage;
+    this.chunks = chunks;
+    this.offset = offset;
+    this.size = size;
+    this.version = version;
+  }
+
+  /**
+   * Gets the version, incremented on every change.
+   */
+  long getVersion() {
+    return version;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param  index  zero for the newest result
+   */
+  @Override
+  public E get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+    int position = offset + size - 1 - index;
+    return storage.get(chunks[position / CHUNK_SIZE], position % CHUNK_SIZE);
+  }
+
+  /**
+   * Gets a new snapshot with the given result added as the newest.
+   * Must only be called on the latest snapshot, by one thread at a time.
+   */
+  ResultSnapshot<E> addNewest(E result) {
+    int position = offset + size;
+    int chunk = position / CHUNK_SIZE;
+    Object[] newChunks;
+    Object oldChunk;
+    if (chunk < chunks.length) {
+      newChunks = chunks;
+      oldChunk = chunks[chunk];
+    } else {
+      newChunks = Arrays.copyOf(chunks, chunk + 1);
+      oldChunk = storage.newChunk(CHUNK_SIZE);
+      newChunks[chunk] = oldChunk;
+    }
+    Object newChunk = storage.set(oldChunk, position % CHUNK_SIZE, result);
+    if (newChunk != oldChunk) {
+      if (newChunks == chunks) {
+        newChunks = chunks.clone();
+      }
+      newChunks[chunk] = newChunk;
+    }
+    return new ResultSnapshot<>(storage, newChunks, offset, size + 1, version + 1);
+  }
+
+  /**
+   * Gets a new snapshot without the oldest result.
+   */
+  ResultSnapshot<E> removeOldest() {
+    if (size == 0) {
+      throw new IllegalStateException("Empty");
+    }
+    if (size == 1) {
+      return new ResultSnapshot<>(storage, new Object[0], 0, 0, version + 1);
+    }
+    int newOffset = offset + 1;
+    Object[] newChunks = chunks;
+    if (newOffset == CHUNK_SIZE) {
+      newChunks = Arrays.copyOfRange(chunks, 1, chunks.length);
+      newOffset = 0;
+    }
+    return new ResultSnapshot<>(storage, newChunks, newOffset, size - 1, version + 1);
+  }
+
+  private Object writeReplace() {
+    return Collections.unmodifiableList(new ArrayList<>(subList(0, Math.min(size, maxSerialized))));
+  }
+}
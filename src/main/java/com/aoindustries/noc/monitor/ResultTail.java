@@ -0,0 +1,118 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of the newest few results of a worker, newest first, given to alert evaluation
+ * in place of the whole history.  The results are held as the objects already created, so reading
+ * them neither locks, deserializes, nor materializes results from columns.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class ResultTail<E> extends AbstractList<E> implements RandomAccess {
+
+  private static final Object[] EMPTY_ELEMENTS = new Object[0];
+
+  /**
+   * Gets a tail of up to the given number of the newest results.
+   *
+   * @param  results  the results, newest first
+   */
+  static <E> ResultTail<E> of(List<? extends E> results, int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity < 0: " + capacity);
+    }
+    int size = Math.min(capacity, results.size());
+    Object[] elements = size == 0 ? EMPTY_ELEMENTS : new Object[size];
+    for (int i = 0; i < size; i++) {
+      elements[i] = results.get(i);
+    }
+    return new ResultTail<>(capacity, elements);
+  }
+
+  private final int capacity;
+
+  /**
+   * The results, newest first.
+   */
+  private final Object[] elements;
+
+  private ResultTail(int capacity, Object[] elements) {
+    this.capacity = capacity;
+    this.elements = elements;
+  }
+
+  /**
+   * The maximum number of results kept.
+   */
+  int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public int size() {
+    return elements.length;
+  }
+
+  /**
+   * @param  index  zero for the newest result
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    return (E) elements[index];
+  }
+
+  /**
+   * Gets a new tail with the given result added as the newest, dropping the oldest when full.
+   */
+  ResultTail<E> addNewest(E result) {
+    if (capacity == 0) {
+      return this;
+    }
+    int newSize = Math.min(capacity, elements.length + 1);
+    Object[] newElements = new Object[newSize];
+    newElements[0] = result;
+    System.arraycopy(elements, 0, newElements, 1, newSize - 1);
+    return new ResultTail<>(capacity, newElements);
+  }
+
+  /**
+   * Gets a tail with no more than the given number of results, used when older results are
+   * removed from the history.
+   */
+  ResultTail<E> trim(int maxSize) {
+    if (maxSize >= elements.length) {
+      return this;
+    }
+    Object[] newElements = new Object[Math.max(0, maxSize)];
+    System.arraycopy(elements, 0, newElements, 0, newElements.length);
+    return new ResultTail<>(capacity, newElements);
+  }
+}
@@ -0,0 +1,366 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.TableMultiResult;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * An aggregate of the results of a {@link TableMultiResultWorker} over one fixed time range.
+ * Raw results are kept for {@link #RAW_RETENTION two days}, then aggregated into progressively
+ * larger time ranges:
+ *
+ * <pre>5 minutes for 5 days
+ * 15 minutes for 7 days
+ * 30 minutes for 14 days
+ * 1 hour for 28 days
+ * 2 hours for 56 days
+ * 4 hours for 112 days
+ * 1 day forever beyond this</pre>
+ *
+ * <p>Column zero is always the latency, in nanoseconds.  Any further columns are the values
+ * provided by {@link TableMultiResultWorker#getRollupValues(com.aoindustries.noc.monitor.common.TableMultiResult)}.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class Rollup implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The time raw results are kept before being aggregated.
+   */
+  public static final long RAW_RETENTION = TimeUnit.DAYS.toMillis(2);
+
+  private static final long[] DURATIONS = {
+      TimeUnit.MINUTES.toMillis(5),
+      TimeUnit.MINUTES.toMillis(15),
+      TimeUnit.MINUTES.toMillis(30),
+      TimeUnit.HOURS.toMillis(1),
+      TimeUnit.HOURS.toMillis(2),
+      TimeUnit.HOURS.toMillis(4),
+      TimeUnit.DAYS.toMillis(1)
+  };
+
+  private static final long[] RETENTIONS = {
+      TimeUnit.DAYS.toMillis(5),
+      TimeUnit.DAYS.toMillis(7),
+      TimeUnit.DAYS.toMillis(14),
+      TimeUnit.DAYS.toMillis(28),
+      TimeUnit.DAYS.toMillis(56),
+      TimeUnit.DAYS.toMillis(112),
+      Long.MAX_VALUE
+  };
+
+  /**
+   * The number of levels of aggregation.
+   */
+  public static final int LEVELS = DURATIONS.length;
+
+  /**
+   * Gets the time range covered by each rollup at the given level.
+   */
+  public static long getDuration(int level) {
+    return DURATIONS[level];
+  }
+
+  /**
+   * Gets the time rollups at the given level are kept before being aggregated into the next level.
+   *
+   * @return  The retention or {@link Long#MAX_VALUE} for the last level, which is kept forever
+   */
+  public static long getRetention(int level) {
+    return RETENTIONS[level];
+  }
+
+  /**
+   * Gets the start of the time range at the given level that contains the given time.
+   */
+  static long getStartTime(int level, long time) {
+    long duration = DURATIONS[level];
+    return Math.floorDiv(time, duration) * duration;
+  }
+
+  /**
+   * The statistics of one column.  Kept as sums so rollups may be merged without losing precision
+   * in the mean or standard deviation.
+   */
+  public static final class Column implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double sum;
+    private double sumOfSquares;
+
+    Column() {
+      // Empty
+    }
+
+    Column(long count, double min, double max, double sum, double sumOfSquares) {
+      this.count = count;
+      this.min = min;
+      this.max = max;
+      this.sum = sum;
+      this.sumOfSquares = sumOfSquares;
+    }
+
+    private void add(double value) {
+      if (Double.isNaN(value)) {
+        // Not available
+        return;
+      }
+      if (count == 0) {
+        min = value;
+        max = value;
+      } else {
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+      }
+      count++;
+      sum += value;
+      sumOfSquares += value * value;
+    }
+
+    private void add(Column other) {
+      if (other.count == 0) {
+        return;
+      }
+      if (count == 0) {
+        min = other.min;
+        max = other.max;
+      } else {
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+      }
+      count += other.count;
+      sum += other.sum;
+      sumOfSquares += other.sumOfSquares;
+    }
+
+    /**
+     * The number of values.
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * The minimum value or {@link Double#NaN} when there are no values.
+     */
+    public double getMin() {
+      return min;
+    }
+
+    /**
+     * The maximum value or {@link Double#NaN} when there are no values.
+     */
+    public double getMax() {
+      return max;
+    }
+
+    public double getSum() {
+      return sum;
+    }
+
+    public double getSumOfSquares() {
+      return sumOfSquares;
+    }
+
+    /**
+     * The mean value or {@link Double#NaN} when there are no values.
+     */
+    public double getMean() {
+      return count == 0 ? Double.NaN : (sum / count);
+    }
+
+    /**
+     * The population standard deviation or {@link Double#NaN} when there are no values.
+     */
+    public double getStandardDeviation() {
+      if (count == 0) {
+        return Double.NaN;
+      }
+      double mean = sum / count;
+      // Rounding may make this slightly negative
+      return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+    }
+
+    @Override
+    public String toString() {
+      return "count=" + count + ", min=" + min + ", max=" + max + ", mean=" + getMean() + ", stddev=" + getStandardDeviation();
+    }
+  }
+
+  /**
+   * Aggregates raw results into a rollup at the first level.
+   *
+   * @param  getValues  gets the values of a successful result
+   */
+  static <R extends TableMultiResult> Rollup aggregate(long startTime, Iterable<? extends R> results, Function<? super R, double[]> getValues) {
+    int count = 0;
+    int errorCount = 0;
+    AlertLevel maxAlertLevel = AlertLevel.NONE;
+    Column[] columns = null;
+    for (R result : results) {
+      double[] values = result.getError() == null ? getValues.apply(result) : null;
+      // Errors have no values, so size for the widest result
+      columns = ensureColumns(columns, 1 + (values == null ? 0 : values.length));
+      count++;
+      if (result.getError() != null) {
+        errorCount++;
+      }
+      if (result.getAlertLevel().compareTo(maxAlertLevel) > 0) {
+        maxAlertLevel = result.getAlertLevel();
+      }
+      columns[0].add(result.getLatency());
+      if (values != null) {
+        for (int i = 0; i < values.length; i++) {
+          columns[i + 1].add(values[i]);
+        }
+      }
+    }
+    if (columns == null) {
+      throw new IllegalArgumentException("No results");
+    }
+    return new Rollup(0, startTime, count, errorCount, maxAlertLevel, columns);
+  }
+
+  /**
+   * Merges rollups of one level into a rollup at the given level.
+   */
+  static Rollup merge(int level, long startTime, Iterable<? extends Rollup> rollups) {
+    int count = 0;
+    int errorCount = 0;
+    AlertLevel maxAlertLevel = AlertLevel.NONE;
+    Column[] columns = null;
+    for (Rollup rollup : rollups) {
+      columns = ensureColumns(columns, rollup.columns.length);
+      count += rollup.count;
+      errorCount += rollup.errorCount;
+      if (rollup.maxAlertLevel.compareTo(maxAlertLevel) > 0) {
+        maxAlertLevel = rollup.maxAlertLevel;
+      }
+      for (int i = 0; i < rollup.columns.length; i++) {
+        columns[i].add(rollup.columns[i]);
+      }
+    }
+    if (columns == null) {
+      throw new IllegalArgumentException("No rollups");
+    }
+    return new Rollup(level, startTime, count, errorCount, maxAlertLevel, columns);
+  }
+
+  private static Column[] ensureColumns(Column[] columns, int size) {
+    int oldSize = columns == null ? 0 : columns.length;
+    if (oldSize >= size) {
+      return columns;
+    }
+    Column[] newColumns = new Column[size];
+    if (columns != null) {
+      System.arraycopy(columns, 0, newColumns, 0, oldSize);
+    }
+    for (int i = oldSize; i < size; i++) {
+      newColumns[i] = new Column();
+    }
+    return newColumns;
+  }
+
+  private final int level;
+  private final long startTime;
+  private final int count;
+  private final int errorCount;
+  private final AlertLevel maxAlertLevel;
+  private final Column[] columns;
+
+  Rollup(int level, long startTime, int count, int errorCount, AlertLevel maxAlertLevel, Column[] columns) {
+    this.level = level;
+    this.startTime = startTime;
+    this.count = count;
+    this.errorCount = errorCount;
+    this.maxAlertLevel = maxAlertLevel;
+    this.columns = columns;
+  }
+
+  /**
+   * The level of aggregation, from zero for five minutes through {@link #LEVELS} - 1 for one day.
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * The start of the time range, inclusive.
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * The end of the time range, exclusive.
+   */
+  public long getEndTime() {
+    return startTime + DURATIONS[level];
+  }
+
+  /**
+   * The number of raw results aggregated.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * The number of raw results that were errors.
+   */
+  public int getErrorCount() {
+    return errorCount;
+  }
+
+  /**
+   * The highest alert level of any raw result.
+   */
+  public AlertLevel getMaxAlertLevel() {
+    return maxAlertLevel;
+  }
+
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  public Column getColumn(int index) {
+    return columns[index];
+  }
+
+  @Override
+  public String toString() {
+    return "Rollup(level=" + level + ", startTime=" + startTime + ", count=" + count + ", errorCount=" + errorCount
+        + ", maxAlertLevel=" + maxAlertLevel + ", latency=(" + columns[0] + "))";
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Aggregates the history of all running {@link TableMultiResultWorker workers} into
+ * {@link Rollup rollups}, one worker at a time in a single background pass every five minutes.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class RollupAggregator {
+
+  /** Make no instances. */
+  private RollupAggregator() {
+    throw new AssertionError();
+  }
+
+  private static final Logger logger = Logger.getLogger(RollupAggregator.class.getName());
+
+  private static final long INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+  private static final Set<TableMultiResultWorker<?, ?>> workers = new LinkedHashSet<>();
+
+  /**
+   * Is a pass pending or running, synchronized on workers.
+   */
+  private static boolean scheduled;
+
+  static void register(TableMultiResultWorker<?, ?> worker) {
+    synchronized (workers) {
+      workers.add(worker);
+      if (!scheduled) {
+        RootNodeImpl.schedule(RollupAggregator::aggregate, INTERVAL);
+        scheduled = true;
+      }
+    }
+  }
+
+  /**
+   * Stops aggregating the given worker.  Once no workers remain, the passes stop
+   * after the next.
+   */
+  static void unregister(TableMultiResultWorker<?, ?> worker) {
+    synchronized (workers) {
+      workers.remove(worker);
+    }
+  }
+
+  private static void aggregate() {
+    List<TableMultiResultWorker<?, ?>> snapshot;
+    synchronized (workers) {
+      snapshot = new ArrayList<>(workers);
+    }
+    long startNanos = System.nanoTime();
+    for (TableMultiResultWorker<?, ?> worker : snapshot) {
+      try {
+        worker.aggregate(System.currentTimeMillis());
+      } catch (ThreadDeath td) {
+        throw td;
+      } catch (Throwable t) {
+        logger.log(Level.SEVERE, null, t);
+      }
+    }
+    if (logger.isLoggable(Level.FINE)) {
+      logger.fine("Aggregated " + snapshot.size() + " workers in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
+    }
+    synchronized (workers) {
+      if (workers.isEmpty()) {
+        scheduled = false;
+      } else {
+        RootNodeImpl.schedule(RollupAggregator::aggregate, INTERVAL);
+      }
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.hodgepodge.io.stream.StreamableInput;
+import com.aoapps.hodgepodge.io.stream.StreamableOutput;
+import com.aoapps.persistence.BufferedSerializer;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author  AO Industries, Inc.
+ */
+class RollupSerializer extends BufferedSerializer<Rollup> {
+
+  private static final int VERSION = 1;
+
+  @Override
+  protected void serialize(Rollup value, ByteArrayOutputStream buffer) throws IOException {
+    try (StreamableOutput out = new StreamableOutput(buffer)) {
+      out.writeCompressedInt(VERSION);
+      out.writeByte(value.getLevel());
+      out.writeLong(value.getStartTime());
+      out.writeCompressedInt(value.getCount());
+      out.writeCompressedInt(value.getErrorCount());
+      out.writeByte(value.getMaxAlertLevel().ordinal());
+      int columnCount = value.getColumnCount();
+      out.writeCompressedInt(columnCount);
+      for (int i = 0; i < columnCount; i++) {
+        Rollup.Column column = value.getColumn(i);
+        out.writeLong(column.getCount());
+        out.writeDouble(column.getMin());
+        out.writeDouble(column.getMax());
+        out.writeDouble(column.getSum());
+        out.writeDouble(column.getSumOfSquares());
+      }
+    }
+  }
+
+  @Override
+  public Rollup deserialize(InputStream rawIn) throws IOException {
+    try (StreamableInput in = new StreamableInput(rawIn)) {
+      int version = in.readCompressedInt();
+      if (version == 1) {
+        int level = in.readByte();
+        long startTime = in.readLong();
+        int count = in.readCompressedInt();
+        int errorCount = in.readCompressedInt();
+        AlertLevel maxAlertLevel = AlertLevel.fromOrdinal(in.readByte());
+        int columnCount = in.readCompressedInt();
+        Rollup.Column[] columns = new Rollup.Column[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+          columns[i] = new Rollup.Column(
+              in.readLong(),
+              in.readDouble(),
+              in.readDouble(),
+              in.readDouble(),
+              in.readDouble()
+          );
+        }
+        return new Rollup(level, startTime, count, errorCount, maxAlertLevel, columns);
+      } else {
+        throw new IOException("Unsupported object version: " + version);
+      }
+    }
+  }
+}
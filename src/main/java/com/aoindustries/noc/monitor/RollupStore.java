@@ -0,0 +1,82 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * The persisted {@link Rollup rollups} of one worker.  Stored as a {@link ListRollupStore} beside
+ * the history, or as one series per level in the {@link HistoryDatabase} when
+ * {@value HistoryStore#ENGINE_PROPERTY}={@value HistoryStore#ENGINE_DATABASE}, so the number of
+ * open files does not grow with the number of workers.
+ *
+ * <p>Implementations are not thread-safe.  Callers synchronize on the store.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+interface RollupStore extends Closeable {
+
+  /**
+   * The suffix added to the persistence file of the history.
+   */
+  String SUFFIX = ".rollups";
+
+  /**
+   * Opens the rollups for the given history using the configured engine.
+   */
+  static RollupStore open(File persistenceFile) throws IOException {
+    if (HistoryStore.ENGINE_DATABASE.equals(System.getProperty(HistoryStore.ENGINE_PROPERTY, HistoryStore.ENGINE_LOG))) {
+      return new DatabaseRollupStore(HistoryDatabase.getInstance(), persistenceFile);
+    } else {
+      return new ListRollupStore(new File(persistenceFile.getPath() + SUFFIX));
+    }
+  }
+
+  /**
+   * Iterates the rollups of every level, newest first within each level.
+   */
+  Iterator<Rollup> iterator() throws IOException;
+
+  /**
+   * Iterates the rollups of one level, oldest first.  The store must not be modified during
+   * iteration.
+   */
+  Iterator<Rollup> iterator(int level) throws IOException;
+
+  /**
+   * Adds a rollup, newer than any other of its level.
+   */
+  void add(Rollup rollup) throws IOException;
+
+  /**
+   * Removes the given number of oldest rollups of one level.
+   *
+   * @throws  IllegalArgumentException  when more than the number of rollups of the level
+   */
+  void removeOldest(int level, int count) throws IOException;
+}
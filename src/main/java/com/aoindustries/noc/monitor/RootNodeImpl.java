@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -45,14 +45,17 @@ import java.rmi.server.RMIClientSocketFactory;
 import java.rmi.server.RMIServerSocketFactory;
 import java.security.SecureRandom;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
@@ -84,11 +87,47 @@ public class RootNodeImpl extends NodeImpl implements RootNode {
    */
   public static final Executors executors = new Executors();
 
+  /**
+   * All worker passes are timed by a single wheel, ticking ten times per second, with
+   * roughly a minute and a half per revolution.  Longer delays simply take multiple rounds.
+   */
+  private static final TimingWheel timingWheel = new TimingWheel(
+      RootNodeImpl.class.getName() + ".timingWheel",
+      RootNodeImpl::submit,
+      100,
+      TimeUnit.MILLISECONDS,
+      1024
+  );
+
+  /**
+   * Submits a task to be performed in a background thread.  Uses a new virtual thread per task
+   * when {@linkplain VirtualThreads enabled}, otherwise uses the unbounded executor.
+   */
+  static Future<?> submit(Runnable task) {
+    ExecutorService virtual = VirtualThreads.getExecutor();
+    return (virtual != null) ? virtual.submit(task) : executors.getUnbounded().submit(task);
+  }
+
+  /**
+   * Submits a task to be performed in a background thread.  Uses a new virtual thread per task
+   * when {@linkplain VirtualThreads enabled}, otherwise uses the unbounded executor.
+   */
+  static <T> Future<T> submit(Callable<T> task) {
+    ExecutorService virtual = VirtualThreads.getExecutor();
+    return (virtual != null) ? virtual.submit(task) : executors.getUnbounded().submit(task);
+  }
+
   /**
    * Schedules a task to be performed in the future.  It will be performed in a background thread via the ExecutorService.
+   *
+   * <p>The delay is tracked by a {@link TimingWheel} instead of the executor's delay queue, so scheduling and
+   * canceling are constant-time regardless of how many workers are running.  Canceling the returned future
+   * after the task has been dispatched cancels the task in the executor.</p>
+   *
+   * @throws  RejectedExecutionException  when the wheel has been stopped, instead of the task never running
    */
-  public static Future<?> schedule(Runnable task, long delay) {
-    return executors.getUnbounded().submit(task, delay);
+  public static Future<?> schedule(Runnable task, long delay) throws RejectedExecutionException {
+    return timingWheel.schedule(task, delay);
   }
 
   /**
@@ -212,15 +251,7 @@ public class RootNodeImpl extends NodeImpl implements RootNode {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            this.otherDevicesNode,
-            this.physicalServersNode,
-            this.virtualServersNode,
-            this.unallocatedNode,
-            this.signupsNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -251,281 +282,81 @@ public class RootNodeImpl extends NodeImpl implements RootNode {
       logger.fine("new OtherDevicesNode");
       otherDevicesNode = new OtherDevicesNode(this, port, csf, ssf);
       otherDevicesNode.start();
-      nodeAdded();
+      nodeAdded(this);
     }
 
     if (physicalServersNode == null) {
       logger.fine("new PhysicalServersNode");
       physicalServersNode = new PhysicalServersNode(this, port, csf, ssf);
       physicalServersNode.start();
-      nodeAdded();
+      nodeAdded(this);
     }
 
     if (virtualServersNode == null) {
       logger.fine("new VirtualServersNode");
       virtualServersNode = new VirtualServersNode(this, port, csf, ssf);
       virtualServersNode.start();
-      nodeAdded();
+      nodeAdded(this);
     }
 
     if (unallocatedNode == null) {
       logger.fine("new UnallocatedNode");
       unallocatedNode = new UnallocatedNode(this, port, csf, ssf);
       unallocatedNode.start();
-      nodeAdded();
+      nodeAdded(this);
     }
 
     if (signupsNode == null) {
       logger.fine("new SignupsNode");
       signupsNode = new SignupsNode(this, port, csf, ssf);
       signupsNode.start();
-      nodeAdded();
+      nodeAdded(this);
     }
   }
 
-  private final List<TreeListener> treeListeners = new ArrayList<>();
-  // Synchronized on treeListeners
-  private final Map<TreeListener, NodeAddedSignaler> nodeAddedSignalers = new HashMap<>();
-  private final Map<TreeListener, NodeRemovedSignaler> nodeRemovedSignalers = new HashMap<>();
-  private final Map<TreeListener, NodeAlertLevelChangedSignaler> nodeAlertLevelChangedSignalers = new HashMap<>();
+  private final TreeListenerDispatcher treeListeners = TreeListenerDispatcher.newInstance();
 
   @Override
   public void addTreeListener(TreeListener treeListener) {
-    synchronized (treeListeners) {
-      treeListeners.add(treeListener);
-    }
+    treeListeners.addTreeListener(treeListener);
   }
 
   @Override
   public void removeTreeListener(TreeListener treeListener) {
-    synchronized (treeListeners) {
-      for (int c = treeListeners.size() - 1; c >= 0; c--) {
-        if (treeListeners.get(c) == treeListener) {
-          treeListeners.remove(c);
-          // Remove only once, in case add and remove come in out of order with quick GUI changes
-          return;
-        }
-      }
-    }
-    logger.log(Level.WARNING, null, new AssertionError("Listener not found: " + treeListener));
-  }
-
-  private class NodeAddedSignaler implements Runnable {
-
-    private final TreeListener treeListener;
-
-    private long lastCounterSent;
-    private long currentCounter;
-
-    NodeAddedSignaler(TreeListener treeListener) {
-      this.treeListener = treeListener;
-    }
-
-    void nodeAdded() {
-      synchronized (treeListeners) {
-        currentCounter++;
-      }
-    }
-
-    @Override
-    @SuppressWarnings("SleepWhileInLoop")
-    public void run() {
-      boolean removed = false;
-      try {
-        while (!Thread.currentThread().isInterrupted()) {
-          long sendingCounter;
-          synchronized (treeListeners) {
-            if (lastCounterSent < currentCounter) {
-              nodeAddedSignalers.remove(treeListener);
-              removed = true;
-              break;
-            }
-            sendingCounter = currentCounter;
-          }
-          treeListener.nodeAdded();
-          synchronized (treeListeners) {
-            lastCounterSent = sendingCounter;
-          }
-          try {
-            Thread.sleep(250);
-          } catch (InterruptedException err) {
-            logger.log(Level.WARNING, null, err);
-            // Restore the interrupted status
-            Thread.currentThread().interrupt();
-          }
-        }
-      } catch (RemoteException err) {
-        removeTreeListener(treeListener);
-        logger.log(Level.SEVERE, null, err);
-      } finally {
-        synchronized (treeListeners) {
-          if (!removed) {
-            nodeAddedSignalers.remove(treeListener);
-          }
-        }
-      }
-    }
-  }
-
-  private class NodeRemovedSignaler implements Runnable {
-
-    private final TreeListener treeListener;
-
-    private long lastCounterSent;
-    private long currentCounter;
-
-    NodeRemovedSignaler(TreeListener treeListener) {
-      this.treeListener = treeListener;
-    }
-
-    void nodeRemoved() {
-      synchronized (treeListeners) {
-        currentCounter++;
-      }
-    }
-
-    @Override
-    @SuppressWarnings("SleepWhileInLoop")
-    public void run() {
-      boolean removed = false;
-      try {
-        while (!Thread.currentThread().isInterrupted()) {
-          long sendingCounter;
-          synchronized (treeListeners) {
-            if (lastCounterSent < currentCounter) {
-              nodeRemovedSignalers.remove(treeListener);
-              removed = true;
-              break;
-            }
-            sendingCounter = currentCounter;
-          }
-          treeListener.nodeRemoved();
-          synchronized (treeListeners) {
-            lastCounterSent = sendingCounter;
-          }
-          try {
-            Thread.sleep(250);
-          } catch (InterruptedException err) {
-            logger.log(Level.WARNING, null, err);
-            // Restore the interrupted status
-            Thread.currentThread().interrupt();
-          }
-        }
-      } catch (RemoteException err) {
-        removeTreeListener(treeListener);
-        logger.log(Level.SEVERE, null, err);
-      } finally {
-        synchronized (treeListeners) {
-          if (!removed) {
-            nodeRemovedSignalers.remove(treeListener);
-          }
-        }
-      }
-    }
-  }
-
-  private class NodeAlertLevelChangedSignaler implements Runnable {
-
-    private final TreeListener treeListener;
-
-    private List<AlertChange> queuedChanges;
-
-    NodeAlertLevelChangedSignaler(TreeListener treeListener) {
-      this.treeListener = treeListener;
-    }
-
-    void nodeAlertLevelChanged(AlertChange change) {
-      synchronized (treeListeners) {
-        if (queuedChanges == null) {
-          queuedChanges = new ArrayList<>();
-        }
-        queuedChanges.add(change);
-      }
-    }
-
-    @Override
-    @SuppressWarnings("SleepWhileInLoop")
-    public void run() {
-      boolean removed = false;
-      try {
-        while (!Thread.currentThread().isInterrupted()) {
-          List<AlertChange> changes;
-          synchronized (treeListeners) {
-            if (queuedChanges == null) {
-              nodeAlertLevelChangedSignalers.remove(treeListener);
-              removed = true;
-              break;
-            }
-            changes = queuedChanges;
-            queuedChanges = null;
-          }
-          treeListener.nodeAlertChanged(changes);
-          try {
-            Thread.sleep(250);
-          } catch (InterruptedException err) {
-            logger.log(Level.WARNING, null, err);
-            // Restore the interrupted status
-            Thread.currentThread().interrupt();
-          }
-        }
-      } catch (RemoteException err) {
-        removeTreeListener(treeListener);
-        logger.log(Level.SEVERE, null, err);
-      } finally {
-        synchronized (treeListeners) {
-          if (!removed) {
-            nodeAlertLevelChangedSignalers.remove(treeListener);
-          }
-        }
-      }
+    if (!treeListeners.removeTreeListener(treeListener)) {
+      logger.log(Level.WARNING, null, new AssertionError("Listener not found: " + treeListener));
     }
   }
 
   /**
-   * Notifies all of the listeners.  Batches the calls into a per-listener background task.  Each of the background tasks may
-   * send one event representing any number of changes.  Each background task will wait 250 ms between each send.
+   * Notifies all of the listeners.  The events of each listener are batched by the {@link TreeListenerDispatcher},
+   * sending one event representing any number of changes per window.
+   *
+   * @param  parent  The node a child was added to, which reads its children again along with its parents
    */
-  public void nodeAdded() {
+  public void nodeAdded(NodeImpl parent) {
     assert !SwingUtilities.isEventDispatchThread() : "Running in Swing event dispatch thread";
 
-    synchronized (treeListeners) {
-      for (TreeListener treeListener : treeListeners) {
-        NodeAddedSignaler nodeAddedSignaler = nodeAddedSignalers.get(treeListener);
-        if (nodeAddedSignaler == null) {
-          nodeAddedSignaler = new NodeAddedSignaler(treeListener);
-          nodeAddedSignalers.put(treeListener, nodeAddedSignaler);
-          nodeAddedSignaler.nodeAdded();
-          executors.getUnbounded().submit(nodeAddedSignaler);
-        } else {
-          nodeAddedSignaler.nodeAdded();
-        }
-      }
-    }
+    parent.childrenChanged();
+    treeListeners.nodeAdded();
   }
 
   /**
-   * Notifies all of the listeners.  Batches the calls into a per-listener background task.  Each of the background tasks may
-   * send one event representing any number of changes.  Each background task will wait 250 ms between each send.
+   * Notifies all of the listeners.  The events of each listener are batched by the {@link TreeListenerDispatcher},
+   * sending one event representing any number of changes per window.
+   *
+   * @param  parent  The node a child was removed from, which reads its children again along with its parents
    */
-  public void nodeRemoved() {
-    synchronized (treeListeners) {
-      for (TreeListener treeListener : treeListeners) {
-        NodeRemovedSignaler nodeRemovedSignaler = nodeRemovedSignalers.get(treeListener);
-        if (nodeRemovedSignaler == null) {
-          nodeRemovedSignaler = new NodeRemovedSignaler(treeListener);
-          nodeRemovedSignalers.put(treeListener, nodeRemovedSignaler);
-          nodeRemovedSignaler.nodeRemoved();
-          executors.getUnbounded().submit(nodeRemovedSignaler);
-        } else {
-          nodeRemovedSignaler.nodeRemoved();
-        }
-      }
-    }
+  public void nodeRemoved(NodeImpl parent) {
+    parent.childrenChanged();
+    treeListeners.nodeRemoved();
   }
 
   /**
-   * Notifies all of the listeners.  Batches the calls into a per-listener background task.  Each of the background tasks may
-   * send one event representing any number of changes.  Each background task will wait 250 ms between each send.
+   * Notifies all of the listeners.  The events of each listener are batched by the {@link TreeListenerDispatcher},
+   * sending one event representing any number of changes per window.
+   *
+   * <p>The alert levels counted by the parents of the node are updated first.</p>
    */
   void nodeAlertLevelChanged(
       NodeImpl node,
@@ -537,6 +368,7 @@ public class RootNodeImpl extends NodeImpl implements RootNode {
   ) throws RemoteException {
     assert !SwingUtilities.isEventDispatchThread() : "Running in Swing event dispatch thread";
 
+    node.alertLevelChanged();
     if (oldAlertLevel != newAlertLevel) {
       AlertChange change = new AlertChange(
           node,
@@ -547,19 +379,7 @@ public class RootNodeImpl extends NodeImpl implements RootNode {
           oldAlertCategory,
           newAlertCategory
       );
-      synchronized (treeListeners) {
-        for (TreeListener treeListener : treeListeners) {
-          NodeAlertLevelChangedSignaler nodeAlertLevelChangedSignaler = nodeAlertLevelChangedSignalers.get(treeListener);
-          if (nodeAlertLevelChangedSignaler == null) {
-            nodeAlertLevelChangedSignaler = new NodeAlertLevelChangedSignaler(treeListener);
-            nodeAlertLevelChangedSignalers.put(treeListener, nodeAlertLevelChangedSignaler);
-            nodeAlertLevelChangedSignaler.nodeAlertLevelChanged(change);
-            executors.getUnbounded().submit(nodeAlertLevelChangedSignaler);
-          } else {
-            nodeAlertLevelChangedSignaler.nodeAlertLevelChanged(change);
-          }
-        }
-      }
+      treeListeners.nodeAlertChanged(change);
     }
   }
 
@@ -612,24 +432,4 @@ public class RootNodeImpl extends NodeImpl implements RootNode {
   public File getPersistenceDirectory() throws IOException {
     return mkdir(new File("persistence"));
   }
-
-  private static int lastStartupDelay5;
-  private static final Object lastStartupDelay5Lock = new Object();
-
-  static int getNextStartupDelayFiveMinutes() {
-    synchronized (lastStartupDelay5Lock) {
-      lastStartupDelay5 = (lastStartupDelay5 + 5037) % (5 * 60 * 1000);
-      return lastStartupDelay5;
-    }
-  }
-
-  private static int lastStartupDelay15;
-  private static final Object lastStartupDelay15Lock = new Object();
-
-  public static int getNextStartupDelayFifteenMinutes() {
-    synchronized (lastStartupDelay15Lock) {
-      lastStartupDelay15 = (lastStartupDelay15 + 15037) % (15 * 60 * 1000);
-      return lastStartupDelay15;
-    }
-  }
 }
@@ -0,0 +1,465 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.hodgepodge.io.stream.StreamableInput;
+import com.aoapps.hodgepodge.io.stream.StreamableOutput;
+import com.aoapps.persistence.BufferedSerializer;
+import com.aoapps.persistence.Serializer;
+import com.aoindustries.noc.monitor.common.TableMultiResult;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A history that collapses consecutive repeated results into runs, storing the first result of
+ * each run in full and only the time and latency of the repeats.  Steady-state checks, such as
+ * successful pings, are mostly repeats, so this greatly reduces the size of their history.
+ * Results are expanded again by {@link ResultRepeater#repeat(com.aoindustries.noc.monitor.common.TableMultiResult, long, long)}
+ * as they are read, so readers of the history are unaffected.
+ *
+ * <p>Enabled for workers that provide a {@link ResultRepeater} by setting the system property
+ * {@value #RUN_LENGTH_PROPERTY} to the maximum number of results per run.  Disabled by default.
+ * Once enabled, disabling again leaves the runs unread.</p>
+ *
+ * <p>The current run is written one result at a time to the history of the persistence file
+ * itself, exactly as without runs, so every result is persisted as soon as it is added.  When the
+ * run ends, it is added as a single element to the {@code .runs} history, then removed from the
+ * current run.  Results found in both, such as after an unexpected shutdown, are removed from the
+ * current run the next time opened.  Any existing history is collapsed into runs the first time
+ * opened.</p>
+ *
+ * <p>Removing part of the oldest run only skips its first results.  The number skipped is written in
+ * the background to the {@code .runs.skip} file.  Should it be lost, the skipped results are read
+ * again and removed again by the next aggregation, which finds their rollup already written.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class RunLengthHistoryStore<R extends TableMultiResult> implements HistoryStore<R> {
+
+  private static final Logger logger = Logger.getLogger(RunLengthHistoryStore.class.getName());
+
+  static final String RUN_LENGTH_PROPERTY = "com.aoindustries.noc.monitor.history.runLength";
+
+  private static final int RUN_LENGTH = Integer.getInteger(RUN_LENGTH_PROPERTY, 0);
+
+  /**
+   * Are runs enabled?
+   */
+  static boolean isEnabled() {
+    return RUN_LENGTH > 0;
+  }
+
+  /**
+   * Opens the history for the given file, with the configured maximum number of results per run.
+   */
+  static <R extends TableMultiResult> RunLengthHistoryStore<R> open(
+      File persistenceFile,
+      Serializer<R> serializer,
+      ResultRepeater<R> repeater
+  ) throws IOException {
+    return new RunLengthHistoryStore<>(persistenceFile, serializer, repeater, RUN_LENGTH);
+  }
+
+  /**
+   * A run of repeated results: the first result with the time and latency of each.
+   */
+  static final class Run<R extends TableMultiResult> {
+
+    private final R first;
+    private final long[] times;
+    private final long[] latencies;
+
+    private Run(R first, long[] times, long[] latencies) {
+      this.first = first;
+      this.times = times;
+      this.latencies = latencies;
+    }
+
+    Run(List<R> results) {
+      int size = results.size();
+      first = results.get(0);
+      times = new long[size];
+      latencies = new long[size];
+      for (int i = 0; i < size; i++) {
+        R result = results.get(i);
+        times[i] = result.getTime();
+        latencies[i] = result.getLatency();
+      }
+    }
+
+    int size() {
+      return times.length;
+    }
+
+    long getTime(int index) {
+      return times[index];
+    }
+
+    private R get(int index, ResultRepeater<R> repeater) {
+      return index == 0 ? first : repeater.repeat(first, times[index], latencies[index]);
+    }
+  }
+
+  /**
+   * Writes the first result of a run with its own serializer, followed by the time, as a
+   * difference from the previous, and latency of each repeat.
+   */
+  static final class RunSerializer<R extends TableMultiResult> extends BufferedSerializer<Run<R>> {
+
+    private static final int VERSION = 1;
+
+    private final Serializer<R> serializer;
+
+    RunSerializer(Serializer<R> serializer) {
+      this.serializer = serializer;
+    }
+
+    @Override
+    protected void serialize(Run<R> run, ByteArrayOutputStream buffer) throws IOException {
+      try (StreamableOutput out = new StreamableOutput(buffer)) {
+        out.writeCompressedInt(VERSION);
+        ResultEncoding.writeVarLong(serializer.getSerializedSize(run.first), out);
+        serializer.serialize(run.first, out);
+        int size = run.size();
+        ResultEncoding.writeVarLong(size - 1L, out);
+        for (int i = 1; i < size; i++) {
+          ResultEncoding.writeVarSignedLong(run.times[i] - run.times[i - 1], out);
+          ResultEncoding.writeVarSignedLong(run.latencies[i], out);
+        }
+      }
+    }
+
+    @Override
+    public Run<R> deserialize(InputStream rawIn) throws IOException {
+      try (StreamableInput in = new StreamableInput(rawIn)) {
+        int version = in.readCompressedInt();
+        if (version == 1) {
+          long firstSize = ResultEncoding.readVarLong(in);
+          if (firstSize < 0 || firstSize > Integer.MAX_VALUE) {
+            throw new IOException("Unexpected size of first result: " + firstSize);
+          }
+          byte[] bytes = new byte[(int) firstSize];
+          in.readFully(bytes);
+          R first = serializer.deserialize(new ByteArrayInputStream(bytes));
+          long repeats = ResultEncoding.readVarLong(in);
+          if (repeats < 0 || repeats >= Integer.MAX_VALUE) {
+            throw new IOException("Unexpected number of repeats: " + repeats);
+          }
+          int size = (int) repeats + 1;
+          long[] times = new long[size];
+          long[] latencies = new long[size];
+          times[0] = first.getTime();
+          latencies[0] = first.getLatency();
+          for (int i = 1; i < size; i++) {
+            times[i] = times[i - 1] + ResultEncoding.readVarSignedLong(in);
+            latencies[i] = ResultEncoding.readVarSignedLong(in);
+          }
+          return new Run<>(first, times, latencies);
+        } else {
+          throw new IOException("Unsupported object version: " + version);
+        }
+      }
+    }
+  }
+
+  /**
+   * The number of results skipped in the oldest run, identified by its first time.
+   */
+  private static final class Skip implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long time;
+    private final int skipped;
+
+    private Skip(long time, int skipped) {
+      this.time = time;
+      this.skipped = skipped;
+    }
+  }
+
+  private final ResultRepeater<R> repeater;
+  private final int maxRunLength;
+
+  /**
+   * The results of the current run.
+   */
+  private final HistoryStore<R> current;
+
+  /**
+   * The runs before the current run.
+   */
+  private final HistoryStore<Run<R>> runs;
+
+  private final File skipFile;
+
+  /**
+   * Set once existing history has been collapsed into runs.
+   */
+  private boolean prepared;
+
+  /**
+   * The results in {@link #current}, oldest first.
+   */
+  private final List<R> currentRun = new ArrayList<>();
+
+  /**
+   * The oldest run or {@code null} when none.
+   */
+  private Run<R> oldestRun;
+
+  /**
+   * The number of results removed from the oldest run.
+   */
+  private int skipped;
+
+  RunLengthHistoryStore(File persistenceFile, Serializer<R> serializer, ResultRepeater<R> repeater, int maxRunLength) throws IOException {
+    this(
+        HistoryStore.open(persistenceFile, serializer),
+        HistoryStore.open(new File(persistenceFile.getPath() + ".runs"), new RunSerializer<>(serializer)),
+        new File(persistenceFile.getPath() + ".runs.skip"),
+        repeater,
+        maxRunLength
+    );
+  }
+
+  /**
+   * @param  current  The history of the current run
+   * @param  runs     The history of the runs before the current run
+   */
+  RunLengthHistoryStore(HistoryStore<R> current, HistoryStore<Run<R>> runs, File skipFile, ResultRepeater<R> repeater, int maxRunLength) {
+    if (maxRunLength < 1) {
+      throw new IllegalArgumentException("maxRunLength < 1: " + maxRunLength);
+    }
+    this.repeater = repeater;
+    this.maxRunLength = maxRunLength;
+    this.current = current;
+    this.runs = runs;
+    this.skipFile = skipFile;
+  }
+
+  private Run<R> readOldestRun() throws IOException {
+    Iterator<Run<R>> iter = runs.iterator();
+    return iter.hasNext() ? iter.next() : null;
+  }
+
+  /**
+   * Reads the number of results skipped in the oldest run, if available.
+   *
+   * @return  The skip or {@code null} when not found or not readable
+   */
+  private Skip readSkip() {
+    if (!skipFile.exists()) {
+      return null;
+    }
+    try (
+        ObjectInputStream in = new ObjectInputStream(
+            new GZIPInputStream(new BufferedInputStream(new FileInputStream(skipFile)))
+        )
+        ) {
+      return (Skip) in.readObject();
+    } catch (IOException | ClassNotFoundException | RuntimeException e) {
+      logger.log(Level.WARNING, "Unable to read skipped results, ignoring: " + skipFile, e);
+      return null;
+    }
+  }
+
+  /**
+   * Queues the number of results skipped in the oldest run to be written in the background.
+   */
+  private void writeSkip() {
+    BackgroundWriter.enqueueObject(
+        skipFile,
+        new File(skipFile.getPath() + ".new"),
+        new Skip(oldestRun == null ? Long.MIN_VALUE : oldestRun.getTime(0), skipped),
+        true
+    );
+  }
+
+  /**
+   * Reads the current run, removing any results already in a run and collapsing any
+   * existing history into runs.
+   */
+  private void prepare() throws IOException {
+    if (prepared) {
+      return;
+    }
+    oldestRun = readOldestRun();
+    Skip skip = readSkip();
+    if (skip != null && oldestRun != null && skip.time == oldestRun.getTime(0) && skip.skipped < oldestRun.size()) {
+      skipped = skip.skipped;
+    }
+    Run<R> newestRun = runs.peekNewest();
+    long runsEnd = (newestRun == null) ? Long.MIN_VALUE : newestRun.getTime(newestRun.size() - 1);
+    List<R> results = new ArrayList<>();
+    Iterator<R> iter = current.iterator();
+    while (iter.hasNext()) {
+      results.add(iter.next());
+    }
+    int written = 0;
+    while (written < results.size() && results.get(written).getTime() <= runsEnd) {
+      written++;
+    }
+    if (written > 0) {
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Results already in a run, recovering from unexpected shutdown: " + written);
+      }
+      current.removeOldest(written);
+    }
+    for (R result : results.subList(written, results.size())) {
+      endRunBefore(result);
+      currentRun.add(result);
+    }
+    prepared = true;
+  }
+
+  /**
+   * Ends the current run when full or the given result is not a repeat.
+   */
+  private void endRunBefore(R result) throws IOException {
+    if (
+        !currentRun.isEmpty()
+            && (currentRun.size() >= maxRunLength || !repeater.isRepeat(currentRun.get(0), result))
+    ) {
+      Run<R> run = new Run<>(currentRun);
+      runs.addNewest(run);
+      current.removeOldest(currentRun.size());
+      currentRun.clear();
+      if (oldestRun == null) {
+        oldestRun = run;
+      }
+    }
+  }
+
+  @Override
+  public R peekNewest() throws IOException {
+    R newest = current.peekNewest();
+    if (newest == null) {
+      Run<R> newestRun = runs.peekNewest();
+      if (newestRun != null) {
+        newest = newestRun.get(newestRun.size() - 1, repeater);
+      }
+    }
+    return newest;
+  }
+
+  @Override
+  public Iterator<R> iterator() throws IOException {
+    prepare();
+    Iterator<Run<R>> runIter = runs.iterator();
+    Iterator<R> currentIter = currentRun.iterator();
+    int skip = skipped;
+    return new Iterator<R>() {
+      private Run<R> run;
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        while (run == null || index >= run.size()) {
+          if (!runIter.hasNext()) {
+            return currentIter.hasNext();
+          }
+          index = (run == null) ? skip : 0;
+          run = runIter.next();
+        }
+        return true;
+      }
+
+      @Override
+      public R next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        if (run != null && index < run.size()) {
+          return run.get(index++, repeater);
+        }
+        return currentIter.next();
+      }
+    };
+  }
+
+  @Override
+  public void addNewest(R element) throws IOException {
+    prepare();
+    endRunBefore(element);
+    current.addNewest(element);
+    currentRun.add(element);
+  }
+
+  @Override
+  public void removeOldest(int count) throws IOException {
+    if (count < 0) {
+      throw new IllegalArgumentException("count < 0: " + count);
+    }
+    prepare();
+    boolean skipChanged = false;
+    while (count > 0 && oldestRun != null) {
+      int remaining = oldestRun.size() - skipped;
+      if (count < remaining) {
+        skipped += count;
+        count = 0;
+      } else {
+        runs.removeOldest(1);
+        count -= remaining;
+        skipped = 0;
+        oldestRun = readOldestRun();
+      }
+      skipChanged = true;
+    }
+    if (count > 0) {
+      if (count > currentRun.size()) {
+        throw new IllegalArgumentException("More than the number of elements: " + count);
+      }
+      current.removeOldest(count);
+      currentRun.subList(0, count).clear();
+    }
+    if (skipChanged) {
+      writeSkip();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      current.close();
+    } finally {
+      runs.close();
+    }
+  }
+}
@@ -0,0 +1,684 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.Serializer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Stores a history as append-only segment files in one directory.  Each new element is a
+ * sequential write to the end of the newest segment, instead of the pointer updates in place
+ * of a linked list.  Segments are read by mapping them into memory.
+ *
+ * <p>Each element has a sequence number, with each segment file named by the sequence number of
+ * its first element.  The oldest element not removed, the head, is kept in a small separate file,
+ * so removing the oldest elements only writes the head and deletes any segments left entirely
+ * before it.  A segment that is mostly removed is compacted in the background to the remaining
+ * elements.</p>
+ *
+ * <p>Each record is its length, a CRC-32 of the length and data, then the data as written by the
+ * {@link Serializer}.  When opened, any incomplete record at the end of the newest segment is
+ * truncated.  A corrupt record in an older segment leaves a gap in the sequence numbers, so the log
+ * ends at the first gap: the newer segments are renamed by adding {@value #CORRUPT_SUFFIX}, and the
+ * segment with the corrupt record is truncated when next written.  Segments are forced to disk by {@link GroupCommit}, or on every write when disabled.</p>
+ *
+ * <p>Unlike other {@link HistoryStore} implementations, this is thread-safe and synchronizes on
+ * itself, since compaction runs in the background while the caller may be adding or removing
+ * elements.  Iterators map their segments when created, so they are not affected by compaction.</p>
+ *
+ * <p>The segment size is configured by the system property {@value #SEGMENT_SIZE_PROPERTY}, in
+ * bytes, default {@value #DEFAULT_SEGMENT_SIZE}, sized so two days of results span a few segments.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class SegmentedLog<E> implements HistoryStore<E> {
+
+  private static final Logger logger = Logger.getLogger(SegmentedLog.class.getName());
+
+  static final String SEGMENT_SIZE_PROPERTY = "com.aoindustries.noc.monitor.history.segmentSize";
+
+  private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+  private static final int segmentSize = Integer.getInteger(SEGMENT_SIZE_PROPERTY, DEFAULT_SEGMENT_SIZE);
+
+  private static final String LOG_SUFFIX = ".log";
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private static final String NEW_SUFFIX = ".new";
+
+  private static final String CORRUPT_SUFFIX = ".corrupt";
+
+  private static final String HEAD_FILE = "head";
+
+  /**
+   * The length and CRC-32 before each record.
+   */
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  /**
+   * The head sequence number and its CRC-32.
+   */
+  private static final int HEAD_SIZE = 12;
+
+  /**
+   * Opens the log for the given file, in a directory named by adding {@value #LOG_SUFFIX}.  When
+   * the directory does not exist and the file does, the file is imported as a
+   * {@link ListHistoryStore} and then renamed by adding {@code .imported}.
+   */
+  static <E> SegmentedLog<E> open(File persistenceFile, Serializer<E> serializer) throws IOException {
+    File dir = new File(persistenceFile.getPath() + LOG_SUFFIX);
+    if (!dir.exists() && persistenceFile.exists()) {
+      importList(persistenceFile, dir, serializer);
+    }
+    return new SegmentedLog<>(dir, serializer, segmentSize);
+  }
+
+  /**
+   * Imports into a new directory that is renamed into place once complete, so an interrupted
+   * import is started over.
+   */
+  private static <E> void importList(File persistenceFile, File dir, Serializer<E> serializer) throws IOException {
+    File newDir = new File(dir.getPath() + NEW_SUFFIX);
+    if (newDir.exists()) {
+      File[] files = newDir.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          Files.delete(file.toPath());
+        }
+      }
+      Files.delete(newDir.toPath());
+    }
+    int count = 0;
+    try (
+        ListHistoryStore<E> list = new ListHistoryStore<>(persistenceFile, serializer);
+        SegmentedLog<E> log = new SegmentedLog<>(newDir, serializer, segmentSize)
+        ) {
+      Iterator<E> iter = list.iterator();
+      while (iter.hasNext()) {
+        log.addNewest(iter.next());
+        count++;
+      }
+      log.force();
+    }
+    Files.move(newDir.toPath(), dir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    Files.move(persistenceFile.toPath(), new File(persistenceFile.getPath() + ".imported").toPath());
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Imported " + count + " into " + dir);
+    }
+  }
+
+  private static String getSegmentName(long first) {
+    return String.format(Locale.ROOT, "%016x", first) + SEGMENT_SUFFIX;
+  }
+
+  private static final class Segment {
+
+    private final long first;
+    private final File file;
+
+    /**
+     * The number of records, size in bytes and position of the last record.
+     */
+    private int count;
+    private long size;
+    private long lastPosition;
+
+    private Segment(long first, File file) {
+      this.first = first;
+      this.file = file;
+    }
+
+    /**
+     * The sequence number after the last record.
+     */
+    private long end() {
+      return first + count;
+    }
+  }
+
+  /**
+   * Exposes the internal array to avoid copying.
+   */
+  private static final class Buffer extends ByteArrayOutputStream {
+
+    private byte[] getBuffer() {
+      return buf;
+    }
+  }
+
+  /**
+   * Reads the remaining bytes of a buffer.
+   */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      int remaining = buffer.remaining();
+      if (remaining == 0) {
+        return -1;
+      }
+      int count = Math.min(len, remaining);
+      buffer.get(b, off, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+  private final File dir;
+  private final Serializer<E> serializer;
+  private final int maxSegmentSize;
+  private final GroupCommit groupCommit;
+
+  /**
+   * The segments, oldest first.  The last is being written.
+   */
+  private final List<Segment> segments = new ArrayList<>();
+  private FileChannel channel;
+  private final FileChannel headChannel;
+  private long head;
+  private boolean compactScheduled;
+  private boolean closed;
+
+  private final Buffer buffer = new Buffer();
+  private final ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+  private final ByteBuffer headBuffer = ByteBuffer.allocate(HEAD_SIZE);
+  private final CRC32 crc = new CRC32();
+
+  private long compactions;
+
+  SegmentedLog(File dir, Serializer<E> serializer, int maxSegmentSize) throws IOException {
+    this(dir, serializer, maxSegmentSize, GroupCommit.getInstance());
+  }
+
+  /**
+   * @param  groupCommit  forces the segments to disk when enabled, otherwise forced on every write
+   */
+  SegmentedLog(File dir, Serializer<E> serializer, int maxSegmentSize, GroupCommit groupCommit) throws IOException {
+    if (maxSegmentSize < RECORD_HEADER_SIZE) {
+      throw new IllegalArgumentException("maxSegmentSize < " + RECORD_HEADER_SIZE + ": " + maxSegmentSize);
+    }
+    this.dir = dir;
+    this.serializer = serializer;
+    this.maxSegmentSize = maxSegmentSize;
+    this.groupCommit = groupCommit;
+    Files.createDirectories(dir.toPath());
+    // Find the segments, ignoring any incomplete compaction
+    List<Segment> found = new ArrayList<>();
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (name.endsWith(SEGMENT_SUFFIX)) {
+          found.add(new Segment(Long.parseUnsignedLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()), 16), file));
+        } else if (name.endsWith(NEW_SUFFIX)) {
+          Files.delete(file.toPath());
+        }
+      }
+    }
+    found.sort((s1, s2) -> Long.compare(s1.first, s2.first));
+    for (int i = 0; i < found.size(); i++) {
+      Segment segment = found.get(i);
+      scan(segment, i == found.size() - 1);
+    }
+    // A segment overlapping the next was replaced by compaction before an unexpected shutdown
+    for (int i = 0; i < found.size(); i++) {
+      Segment segment = found.get(i);
+      if (i + 1 < found.size() && segment.end() > found.get(i + 1).first) {
+        Files.delete(segment.file.toPath());
+      } else {
+        segments.add(segment);
+      }
+    }
+    // A segment ending before the next begins lost records to corruption, so the log ends there
+    for (int i = 0; i + 1 < segments.size(); i++) {
+      Segment segment = segments.get(i);
+      long next = segments.get(i + 1).first;
+      if (segment.end() < next) {
+        logger.warning(
+            "Sequence gap after " + segment.file + ": expected " + segment.end() + ", found " + next
+                + ", moving aside " + (segments.size() - i - 1) + " newer segments"
+        );
+        while (segments.size() > i + 1) {
+          quarantine(segments.remove(i + 1));
+        }
+        break;
+      }
+    }
+    headChannel = FileChannel.open(new File(dir, HEAD_FILE).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    head = readHead();
+    if (!segments.isEmpty()) {
+      head = Math.max(head, segments.get(0).first);
+      head = Math.min(head, segments.get(segments.size() - 1).end());
+    }
+    if (segments.isEmpty()) {
+      Segment segment = new Segment(head, new File(dir, getSegmentName(head)));
+      segments.add(segment);
+    }
+    openChannel();
+    if (groupCommit.isEnabled()) {
+      groupCommit.register(headChannel);
+    }
+    deleteExpired();
+  }
+
+  /**
+   * Counts the valid records of a segment.  An incomplete or corrupt record ends the segment.
+   */
+  private void scan(Segment segment, boolean newest) throws IOException {
+    try (FileChannel fileChannel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ)) {
+      long fileSize = fileChannel.size();
+      MappedByteBuffer mapped = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+      int position = 0;
+      int count = 0;
+      long lastPosition = 0;
+      while (position + RECORD_HEADER_SIZE <= fileSize) {
+        int length = mapped.getInt(position);
+        if (length < 0 || position + RECORD_HEADER_SIZE + (long) length > fileSize) {
+          break;
+        }
+        int expected = mapped.getInt(position + 4);
+        crc.reset();
+        ByteBuffer record = mapped.duplicate();
+        record.position(position).limit(position + RECORD_HEADER_SIZE + length);
+        ByteBuffer lengthBytes = record.duplicate();
+        lengthBytes.limit(position + 4);
+        crc.update(lengthBytes);
+        record.position(position + RECORD_HEADER_SIZE);
+        crc.update(record);
+        if ((int) crc.getValue() != expected) {
+          break;
+        }
+        lastPosition = position;
+        position += RECORD_HEADER_SIZE + length;
+        count++;
+      }
+      if (position != fileSize) {
+        logger.warning(
+            (newest ? "Truncating incomplete record: " : "Ignoring corrupt record: ")
+                + segment.file + " at " + position + " of " + fileSize
+        );
+      }
+      segment.count = count;
+      segment.size = position;
+      segment.lastPosition = lastPosition;
+    }
+  }
+
+  /**
+   * Renames a segment by adding {@value #CORRUPT_SUFFIX}, so it is no longer read but is kept for
+   * inspection.
+   */
+  private static void quarantine(Segment segment) throws IOException {
+    Files.move(segment.file.toPath(), new File(segment.file.getPath() + CORRUPT_SUFFIX).toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private long readHead() throws IOException {
+    headBuffer.clear();
+    while (headBuffer.hasRemaining() && headChannel.read(headBuffer, headBuffer.position()) != -1) {
+      // Read fully
+    }
+    if (headBuffer.hasRemaining()) {
+      return 0;
+    }
+    crc.reset();
+    crc.update(headBuffer.array(), 0, 8);
+    if ((int) crc.getValue() != headBuffer.getInt(8)) {
+      logger.warning("Ignoring corrupt head: " + dir);
+      return 0;
+    }
+    return headBuffer.getLong(0);
+  }
+
+  private void writeHead() throws IOException {
+    headBuffer.clear();
+    headBuffer.putLong(0, head);
+    crc.reset();
+    crc.update(headBuffer.array(), 0, 8);
+    headBuffer.putInt(8, (int) crc.getValue());
+    while (headBuffer.hasRemaining()) {
+      headChannel.write(headBuffer, headBuffer.position());
+    }
+    if (!groupCommit.isEnabled()) {
+      headChannel.force(false);
+    }
+  }
+
+  /**
+   * Opens the newest segment for append, truncating anything after its last valid record.
+   */
+  private void openChannel() throws IOException {
+    Segment segment = segments.get(segments.size() - 1);
+    channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    if (channel.size() > segment.size) {
+      channel.truncate(segment.size);
+    }
+    channel.position(segment.size);
+    if (groupCommit.isEnabled()) {
+      groupCommit.register(channel);
+    }
+  }
+
+  private void checkClosed() throws IOException {
+    if (closed) {
+      throw new IOException("Closed: " + dir);
+    }
+  }
+
+  @Override
+  public synchronized E peekNewest() throws IOException {
+    checkClosed();
+    for (int i = segments.size() - 1; i >= 0; i--) {
+      Segment segment = segments.get(i);
+      if (segment.end() <= head) {
+        return null;
+      }
+      if (segment.count > 0) {
+        try (FileChannel fileChannel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ)) {
+          MappedByteBuffer mapped = fileChannel.map(FileChannel.MapMode.READ_ONLY, segment.lastPosition, segment.size - segment.lastPosition);
+          mapped.position(RECORD_HEADER_SIZE);
+          return serializer.deserialize(new ByteBufferInputStream(mapped));
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public synchronized Iterator<E> iterator() throws IOException {
+    checkClosed();
+    // Mapped now, so segments compacted or deleted in the background are still read
+    List<MappedByteBuffer> mappedSegments = new ArrayList<>();
+    List<Integer> counts = new ArrayList<>();
+    List<Long> firstSequences = new ArrayList<>();
+    for (Segment segment : segments) {
+      if (segment.end() > head) {
+        try (FileChannel fileChannel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ)) {
+          mappedSegments.add(fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size));
+        }
+        counts.add(segment.count);
+        firstSequences.add(segment.first);
+      }
+    }
+    long start = head;
+    return new Iterator<E>() {
+      private int index;
+      private MappedByteBuffer mapped;
+      private int remaining;
+
+      /**
+       * Moves to the next segment with any records, skipping those before the head.
+       */
+      private boolean advance() {
+        while (remaining == 0) {
+          if (index >= mappedSegments.size()) {
+            mapped = null;
+            return false;
+          }
+          mapped = mappedSegments.get(index);
+          remaining = counts.get(index);
+          long first = firstSequences.get(index);
+          index++;
+          for (long seq = first; seq < start && remaining > 0; seq++) {
+            mapped.position(mapped.position() + RECORD_HEADER_SIZE + mapped.getInt(mapped.position()));
+            remaining--;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return advance();
+      }
+
+      @Override
+      public E next() {
+        if (!advance()) {
+          throw new NoSuchElementException();
+        }
+        int length = mapped.getInt();
+        mapped.position(mapped.position() + 4);
+        ByteBuffer record = mapped.slice();
+        record.limit(length);
+        mapped.position(mapped.position() + length);
+        remaining--;
+        try {
+          return serializer.deserialize(new ByteBufferInputStream(record));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    };
+  }
+
+  @Override
+  public synchronized void addNewest(E element) throws IOException {
+    checkClosed();
+    buffer.reset();
+    serializer.serialize(element, buffer);
+    int length = buffer.size();
+    Segment segment = segments.get(segments.size() - 1);
+    if (segment.count > 0 && segment.size + RECORD_HEADER_SIZE + length > maxSegmentSize) {
+      segment = roll();
+    }
+    recordHeader.clear();
+    recordHeader.putInt(length);
+    crc.reset();
+    crc.update(recordHeader.array(), 0, 4);
+    crc.update(buffer.getBuffer(), 0, length);
+    recordHeader.putInt((int) crc.getValue());
+    recordHeader.flip();
+    ByteBuffer[] record = {recordHeader, ByteBuffer.wrap(buffer.getBuffer(), 0, length)};
+    while (record[1].hasRemaining()) {
+      channel.write(record);
+    }
+    segment.lastPosition = segment.size;
+    segment.size += RECORD_HEADER_SIZE + length;
+    segment.count++;
+    if (!groupCommit.isEnabled()) {
+      channel.force(false);
+    }
+  }
+
+  /**
+   * Seals the newest segment and starts another.
+   */
+  private Segment roll() throws IOException {
+    Segment sealed = segments.get(segments.size() - 1);
+    channel.force(false);
+    channel.close();
+    long first = sealed.end();
+    Segment segment = new Segment(first, new File(dir, getSegmentName(first)));
+    segments.add(segment);
+    openChannel();
+    return segment;
+  }
+
+  @Override
+  public synchronized void removeOldest(int count) throws IOException {
+    checkClosed();
+    if (count < 0) {
+      throw new IllegalArgumentException("count < 0: " + count);
+    }
+    long newHead = head;
+    for (Segment segment : segments) {
+      int live = (int) (segment.end() - Math.max(newHead, segment.first));
+      if (live <= 0) {
+        continue;
+      }
+      if (count < live) {
+        newHead = Math.max(newHead, segment.first) + count;
+        count = 0;
+        break;
+      }
+      count -= live;
+      newHead = segment.end();
+    }
+    if (count > 0) {
+      throw new IllegalArgumentException("count > size: " + count + " more than available");
+    }
+    if (newHead != head) {
+      head = newHead;
+      writeHead();
+      deleteExpired();
+    }
+  }
+
+  /**
+   * Deletes any segments entirely before the head, other than the one being written, and
+   * compacts the oldest when mostly removed.
+   */
+  private void deleteExpired() throws IOException {
+    while (segments.size() > 1 && segments.get(0).end() <= head) {
+      Files.delete(segments.remove(0).file.toPath());
+    }
+    if (segments.size() > 1 && !compactScheduled) {
+      Segment oldest = segments.get(0);
+      if ((head - oldest.first) * 2 >= oldest.count) {
+        compactScheduled = true;
+        RootNodeImpl.submit(this::compact);
+      }
+    }
+  }
+
+  /**
+   * Rewrites the oldest segment with only the records at or after the head.
+   */
+  private void compact() {
+    synchronized (this) {
+      compactScheduled = false;
+      try {
+        if (closed || segments.size() < 2) {
+          return;
+        }
+        Segment oldest = segments.get(0);
+        if (head <= oldest.first || head >= oldest.end()) {
+          return;
+        }
+        Segment compacted = new Segment(head, new File(dir, getSegmentName(head)));
+        File newFile = new File(dir, compacted.file.getName() + NEW_SUFFIX);
+        try (
+            FileChannel in = FileChannel.open(oldest.file.toPath(), StandardOpenOption.READ);
+            FileChannel out = FileChannel.open(newFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+            ) {
+          MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, 0, oldest.size);
+          int position = 0;
+          for (long seq = oldest.first; seq < head; seq++) {
+            position += RECORD_HEADER_SIZE + mapped.getInt(position);
+          }
+          mapped.position(position);
+          while (mapped.hasRemaining()) {
+            out.write(mapped);
+          }
+          out.force(false);
+          compacted.count = (int) (oldest.end() - head);
+          compacted.size = oldest.size - position;
+          compacted.lastPosition = oldest.lastPosition - position;
+        }
+        // The compacted segment replaces the oldest, even if not yet deleted
+        Files.move(newFile.toPath(), compacted.file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(oldest.file.toPath());
+        segments.set(0, compacted);
+        compactions++;
+      } catch (ThreadDeath td) {
+        throw td;
+      } catch (Throwable t) {
+        logger.log(Level.SEVERE, null, t);
+      }
+    }
+  }
+
+  /**
+   * Forces all writes to disk.
+   */
+  synchronized void force() throws IOException {
+    checkClosed();
+    channel.force(false);
+    headChannel.force(false);
+  }
+
+  /**
+   * The number of segment files.
+   */
+  synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * The number of segments compacted.
+   */
+  synchronized long getCompactions() {
+    return compactions;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      try {
+        channel.close();
+      } finally {
+        headChannel.close();
+      }
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2018, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2018, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -30,9 +30,7 @@ import com.aoindustries.noc.monitor.common.SingleResultNode;
 import java.rmi.RemoteException;
 import java.rmi.server.RMIClientSocketFactory;
 import java.rmi.server.RMIServerSocketFactory;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.function.Function;
@@ -55,7 +53,7 @@ public abstract class SingleResultNodeImpl extends NodeImpl implements SingleRes
   protected final NodeImpl parent;
   private final SingleResultWorker worker;
 
-  private final List<SingleResultListener> singleResultListeners = new ArrayList<>();
+  private final ResultListeners<SingleResultListener> singleResultListeners = new ResultListeners<>();
 
   protected SingleResultNodeImpl(RootNodeImpl rootNode, NodeImpl parent, SingleResultWorker worker, int port, RMIClientSocketFactory csf, RMIServerSocketFactory ssf) throws RemoteException {
     super(port, csf, ssf);
@@ -120,42 +118,22 @@ public abstract class SingleResultNodeImpl extends NodeImpl implements SingleRes
 
   @Override
   public final void addSingleResultListener(SingleResultListener singleResultListener) {
-    synchronized (singleResultListeners) {
-      singleResultListeners.add(singleResultListener);
-    }
+    singleResultListeners.addListener(singleResultListener);
   }
 
   @Override
   public final void removeSingleResultListener(SingleResultListener singleResultListener) {
-    synchronized (singleResultListeners) {
-      for (int c = singleResultListeners.size() - 1; c >= 0; c--) {
-        if (singleResultListeners.get(c).equals(singleResultListener)) {
-          singleResultListeners.remove(c);
-          // Remove only once, in case add and remove come in out of order with quick GUI changes?
-          return;
-        }
-      }
+    if (!singleResultListeners.removeListener(singleResultListener)) {
+      logger.log(Level.WARNING, null, new AssertionError("Listener not found: " + singleResultListener));
     }
-    logger.log(Level.WARNING, null, new AssertionError("Listener not found: " + singleResultListener));
   }
 
   /**
-   * Notifies all of the listeners.
+   * Notifies all of the listeners in the background.
    */
   final void singleResultUpdated(SingleResult singleResult) {
     assert !SwingUtilities.isEventDispatchThread() : "Running in Swing event dispatch thread";
 
-    synchronized (singleResultListeners) {
-      Iterator<SingleResultListener> iter = singleResultListeners.iterator();
-      while (iter.hasNext()) {
-        SingleResultListener singleResultListener = iter.next();
-        try {
-          singleResultListener.singleResultUpdated(singleResult);
-        } catch (RemoteException err) {
-          iter.remove();
-          logger.log(Level.SEVERE, null, err);
-        }
-      }
-    }
+    singleResultListeners.fireLatest(listener -> listener.singleResultUpdated(singleResult));
   }
 }
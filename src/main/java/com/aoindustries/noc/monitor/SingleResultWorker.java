@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2012, 2016, 2018, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2012, 2016, 2018, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -42,7 +42,8 @@ import javax.swing.SwingUtilities;
 /**
  * The workers for single results node.
  *
- * <p>TODO: Add persistence of the last report</p>
+ * <p>The last result and alert level are persisted after each pass and restored at startup,
+ * so the node shows its last known state until the first pass completes.</p>
  *
  * @author  AO Industries, Inc.
  */
@@ -55,6 +56,7 @@ public abstract class SingleResultWorker implements Runnable {
    */
   private final Object timerTaskLock = new Object();
   private Future<?> timerTask;
+  private PhaseAllocator.Phase phase;
 
   private volatile SingleResult lastResult;
   private volatile AlertLevel alertLevel;
@@ -66,6 +68,12 @@ public abstract class SingleResultWorker implements Runnable {
 
   protected SingleResultWorker(File persistenceFile) {
     this.persistenceFile = persistenceFile;
+    LastResult<SingleResult> last = LastResult.read(persistenceFile, SingleResult.class);
+    if (last != null) {
+      lastResult = last.getResult();
+      alertLevel = last.getAlertLevel();
+      alertMessage = last.getAlertMessage();
+    }
   }
 
   final SingleResult getLastResult() {
@@ -81,16 +89,28 @@ public abstract class SingleResultWorker implements Runnable {
   }
 
   /**
-   * The default startup delay is within five minutes.
+   * The default phase period is five minutes.  Workers are spread evenly
+   * over this period, and the first pass starts within it.
+   *
+   * @see  PhaseAllocator
+   */
+  protected long getPhasePeriod() {
+    return 5L * 60 * 1000;
+  }
+
+  /**
+   * Gets the host this worker checks, so the checks against any one host are
+   * spread over time.  The default is {@code null} for not specific to a host.
    */
-  protected int getNextStartupDelay() {
-    return RootNodeImpl.getNextStartupDelayFiveMinutes();
+  protected String getTargetHost() {
+    return null;
   }
 
   private void start() {
     synchronized (timerTaskLock) {
       assert timerTask == null : "thread already started";
-      timerTask = RootNodeImpl.schedule(this, getNextStartupDelay());
+      phase = PhaseAllocator.getInstance(getPhasePeriod()).allocate(getTargetHost());
+      timerTask = RootNodeImpl.schedule(this, phase.getStartupDelay());
     }
   }
 
@@ -99,12 +119,17 @@ public abstract class SingleResultWorker implements Runnable {
       if (timerTask != null) {
         timerTask.cancel(true);
         timerTask = null;
+        phase.release();
+        phase = null;
       }
     }
   }
 
   private String getReportWithTimeout() throws Exception {
-    Future<String> future = RootNodeImpl.executors.getUnbounded().submit(this::getReport);
+    if (useInlineTimeout()) {
+      return DeadlineCall.call(this::getReport, 5, TimeUnit.MINUTES, this::cancel);
+    }
+    Future<String> future = RootNodeImpl.submit(this::getReport);
     try {
       return future.get(5, TimeUnit.MINUTES);
     } catch (InterruptedException | TimeoutException err) {
@@ -209,6 +234,7 @@ public abstract class SingleResultWorker implements Runnable {
       }
       alertLevel = newAlertLevel;
       alertMessage = alertLevelAndMessage.getAlertMessage();
+      new LastResult<>(result, newAlertLevel, alertMessage).write(persistenceFile);
 
       singleResultUpdated(result);
       if (oldAlertLevel != newAlertLevel) {
@@ -233,7 +259,7 @@ public abstract class SingleResultWorker implements Runnable {
         if (timerTask != null) {
           timerTask = RootNodeImpl.schedule(
               this,
-              getSleepDelay(lastSuccessful, alertLevel)
+              phase.align(getSleepDelay(lastSuccessful, alertLevel))
           );
         }
       }
@@ -297,6 +323,20 @@ public abstract class SingleResultWorker implements Runnable {
     return (lastSuccessful && alertLevel == AlertLevel.NONE) ? (5L * 60 * 1000) : (60L * 1000);
   }
 
+  /**
+   * When enabled, the call to <code>getReport</code> is performed directly on the
+   * worker thread instead of being decoupled through a <code>Future</code>.  The
+   * same timeout is enforced by a shared watchdog, which calls
+   * {@link #cancel(java.util.concurrent.Future)} when the deadline passes.  This
+   * avoids a second thread per check, but should only be enabled when
+   * <code>getReport</code> responds to interruption or to the cancel hook.
+   *
+   * <p>Disabled by default.</p>
+   */
+  protected boolean useInlineTimeout() {
+    return false;
+  }
+
   /**
    * Determines the alert level and message for the provided result.
    */
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2012, 2014, 2018, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2012, 2014, 2018, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -32,7 +32,6 @@ import java.rmi.server.RMIClientSocketFactory;
 import java.rmi.server.RMIServerSocketFactory;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.function.Function;
@@ -55,7 +54,48 @@ public abstract class TableMultiResultNodeImpl<R extends TableMultiResult> exten
   final NodeImpl parent;
   final TableMultiResultWorker<?, R> worker;
 
-  private final List<TableMultiResultListener<? super R>> tableMultiResultListeners = new ArrayList<>();
+  /**
+   * A result added or removed, identified by its time.
+   */
+  private static final class ResultChange<R extends TableMultiResult> implements ResultListeners.ResultEvent<TableMultiResultListener<? super R>> {
+
+    private final R result;
+    private final boolean added;
+
+    private ResultChange(R result, boolean added) {
+      this.result = result;
+      this.added = added;
+    }
+
+    @Override
+    public void send(TableMultiResultListener<? super R> listener) throws RemoteException {
+      if (added) {
+        listener.tableMultiResultAdded(result);
+      } else {
+        listener.tableMultiResultRemoved(result);
+      }
+    }
+
+    @Override
+    public Object getKey() {
+      return result.getTime();
+    }
+
+    @Override
+    public boolean isAdded() {
+      return added;
+    }
+
+    @Override
+    public ResultChange<R> inverse() {
+      return new ResultChange<>(result, !added);
+    }
+  }
+
+  /**
+   * Reloads listeners that fall behind with the current results.
+   */
+  private final ResultListeners<TableMultiResultListener<? super R>> tableMultiResultListeners = new ResultListeners<>(this::getResultsAdded);
 
   protected TableMultiResultNodeImpl(
       RootNodeImpl rootNode,
@@ -127,62 +167,43 @@ public abstract class TableMultiResultNodeImpl<R extends TableMultiResult> exten
 
   @Override
   public final void addTableMultiResultListener(TableMultiResultListener<? super R> tableMultiResultListener) {
-    synchronized (tableMultiResultListeners) {
-      tableMultiResultListeners.add(tableMultiResultListener);
-    }
+    tableMultiResultListeners.addListener(tableMultiResultListener);
   }
 
   @Override
   public final void removeTableMultiResultListener(TableMultiResultListener<? super R> tableMultiResultListener) {
-    synchronized (tableMultiResultListeners) {
-      for (int c = tableMultiResultListeners.size() - 1; c >= 0; c--) {
-        if (tableMultiResultListeners.get(c).equals(tableMultiResultListener)) {
-          tableMultiResultListeners.remove(c);
-          // Remove only once, in case add and remove come in out of order with quick GUI changes
-          return;
-        }
-      }
+    if (!tableMultiResultListeners.removeListener(tableMultiResultListener)) {
+      logger.log(Level.WARNING, null, new AssertionError("Listener not found: " + tableMultiResultListener));
+    }
+  }
+
+  /**
+   * Gets an added event for each of the current results, oldest first.
+   */
+  private List<ResultChange<R>> getResultsAdded() {
+    List<? extends R> results = worker.getResults();
+    List<ResultChange<R>> added = new ArrayList<>(results.size());
+    for (int i = results.size() - 1; i >= 0; i--) {
+      added.add(new ResultChange<>(results.get(i), true));
     }
-    logger.log(Level.WARNING, null, new AssertionError("Listener not found: " + tableMultiResultListener));
+    return added;
   }
 
   /**
-   * Notifies all of the listeners.
+   * Notifies all of the listeners in the background.
    */
   final void tableMultiResultAdded(R tableMultiResult) {
     assert !SwingUtilities.isEventDispatchThread() : "Running in Swing event dispatch thread";
 
-    synchronized (tableMultiResultListeners) {
-      Iterator<TableMultiResultListener<? super R>> i = tableMultiResultListeners.iterator();
-      while (i.hasNext()) {
-        TableMultiResultListener<? super R> tableMultiResultListener = i.next();
-        try {
-          tableMultiResultListener.tableMultiResultAdded(tableMultiResult);
-        } catch (RemoteException err) {
-          i.remove();
-          logger.log(Level.SEVERE, null, err);
-        }
-      }
-    }
+    tableMultiResultListeners.fire(new ResultChange<>(tableMultiResult, true));
   }
 
   /**
-   * Notifies all of the listeners.
+   * Notifies all of the listeners in the background.
    */
   final void tableMultiResultRemoved(R tableMultiResult) {
     assert !SwingUtilities.isEventDispatchThread() : "Running in Swing event dispatch thread";
 
-    synchronized (tableMultiResultListeners) {
-      Iterator<TableMultiResultListener<? super R>> i = tableMultiResultListeners.iterator();
-      while (i.hasNext()) {
-        TableMultiResultListener<? super R> tableMultiResultListener = i.next();
-        try {
-          tableMultiResultListener.tableMultiResultRemoved(tableMultiResult);
-        } catch (RemoteException err) {
-          i.remove();
-          logger.log(Level.SEVERE, null, err);
-        }
-      }
-    }
+    tableMultiResultListeners.fire(new ResultChange<>(tableMultiResult, false));
   }
 }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2012, 2014, 2016, 2018, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2012, 2014, 2016, 2018, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,19 +24,17 @@
 package com.aoindustries.noc.monitor;
 
 import com.aoapps.lang.EnumUtils;
+import com.aoapps.lang.exception.WrappedException;
 import com.aoapps.lang.i18n.Resources;
 import com.aoapps.lang.i18n.ThreadLocale;
-import com.aoapps.persistence.PersistentCollections;
-import com.aoapps.persistence.PersistentLinkedList;
-import com.aoapps.persistence.ProtectionLevel;
 import com.aoapps.persistence.Serializer;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.TableMultiResult;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
@@ -52,24 +50,34 @@ import javax.swing.SwingUtilities;
 /**
  * The workers for table multi-results node.
  *
- * <p>TODO: Instead of a fixed history size, aggregate data into larger time ranges and keep
- * track of mean, min, max, and standard deviation (or perhaps 5th/95th percentile?).  Keep
- * the following time ranges:</p>
+ * <p>Raw results are kept for two days, then aggregated into {@link Rollup rollups} over
+ * progressively larger time ranges, keeping months of history in bounded space.  Aggregation is
+ * performed for all workers by {@link RollupAggregator} in a single background thread, and the
+ * rollups are persisted in a {@link RollupStore}.  Each
+ * rollup is written before the results it replaces are removed, so a rollup found already
+ * written on the next pass is recovery from an unexpected shutdown and is not written again.</p>
  *
- * <pre>1 minute for 2 days = 2880 samples
- * 5 minutes for 5 days = 1440 samples
- * 15 minutes for 7 days = 672 samples
- * 30 minutes for 14 days = 672 samples
- * 1 hour for 28 days = 672 samples
- * 2 hours for 56 days = 672 samples
- * 4 hours for 112 days = 672 samples
- * 1 day forever beyond this
- * ==================================
- * total: 7680 samples + one per day beyond 224 days</pre>
+ * <p>The raw results are also kept in memory as an immutable {@link ResultSnapshot}, read once
+ * at startup.  Readers use the current snapshot without locking or deserializing, while the
+ * results persisted in the {@link HistoryStore} are only written.  Numeric series should provide
+ * {@link ResultColumns} so the results are kept as primitive columns instead of objects.</p>
  *
- * <p>Update in a single background thread across all workers, and handle recovery from unexpected
- * shutdown gracefully by inserting aggregate before removing samples, and detect on next aggregation.
- * Also, the linked list should always be sorted by time descending, confirm this on aggregation pass.</p>
+ * <p>At startup, the alert level and message are restored before the first pass, so it only
+ * notifies of a real change.  They are read from a {@link LastAlert} beside the history, since the
+ * level of each result is before the incremental ramp-up.  Only without it, for histories written
+ * by a previous version, the newest persisted result is read instead.  The rest of the history is
+ * read in the background once the worker is started, with the histories of many workers read in
+ * parallel.  Passes do not wait for it: until it is read, results are only written to the store,
+ * and the newest result for collapsing repeats is read from the store.  Only workers evaluating
+ * alerts from their history, and readers of the results, wait for it to be read.  Neither is done
+ * in the constructor, so subclass overrides are not called before the subclass is initialized.</p>
+ *
+ * <p>Workers providing a {@link ResultRepeater}, including all workers with {@link ResultColumns},
+ * may have consecutive repeated results collapsed into runs by {@link RunLengthHistoryStore}.
+ * Repeated results then also share everything but their time and latency with the previous result.</p>
+ *
+ * <p>Alert evaluation is given only the newest {@link #getAlertHistorySize() few results} each worker
+ * type needs, kept as objects in a {@link ResultTail} that is replaced as results are added.</p>
  *
  * @author  AO Industries, Inc.
  */
@@ -85,46 +93,280 @@ public abstract class TableMultiResultWorker<S, R extends TableMultiResult> impl
    */
   private final Object timerTaskLock = new Object();
   private Future<?> timerTask;
+  private PhaseAllocator.Phase phase;
+
+  private final HistoryStore<R> results;
+
+  /**
+   * Determines repeated results when collapsed into runs, {@code null} otherwise.
+   */
+  private final ResultRepeater<R> repeater;
+
+  /**
+   * Stores the results in memory as primitive columns, or {@code null} to keep the result objects.
+   */
+  private final ResultColumns<R> columns;
+
+  /**
+   * The current results, newest first.  Replaced while holding lock on results.
+   * {@code null} until read by {@link #loader}.
+   */
+  private volatile ResultSnapshot<R> snapshot;
+
+  /**
+   * Reads the history in the background.  {@code null} until {@link #init()}.
+   * Set while holding timerTaskLock.
+   *
+   * @see  #getSnapshot()
+   */
+  private volatile Future<?> loader;
+
+  /**
+   * The newest persisted result, when its alert message is to be restored by {@link #init()}.
+   * Synchronized on timerTaskLock.
+   */
+  private R restoredNewest;
+
+  /**
+   * The newest results for alert evaluation.  Replaced while holding lock on results.
+   * {@code null} until first needed.
+   *
+   * @see  #getTail()
+   */
+  private volatile ResultTail<R> tail;
 
-  private final PersistentLinkedList<R> results;
+  private final RollupStore rollups;
+
+  /**
+   * The oldest and newest start time of the rollups at each level, or {@link Long#MAX_VALUE}
+   * and {@link Long#MIN_VALUE} when none.  Synchronized on rollups.
+   */
+  private final long[] oldestRollups = new long[Rollup.LEVELS];
+  private final long[] newestRollups = new long[Rollup.LEVELS];
 
   private volatile AlertLevel alertLevel = null;
   private volatile Function<Locale, String> alertMessage;
 
+  /**
+   * Persists the alert level after incremental ramp-up, which is not the level of the newest result.
+   */
+  private final File lastAlertFile;
+
+  /**
+   * The last alert written, only accessed by the pass.
+   */
+  private LastAlert lastAlert;
+
   private final List<TableMultiResultNodeImpl<R>> tableMultiResultNodeImpls = new ArrayList<>();
 
   protected TableMultiResultWorker(File persistenceFile, Serializer<R> serializer) throws IOException {
-    this.results = new PersistentLinkedList<>(
-        PersistentCollections.getPersistentBuffer(new RandomAccessFile(persistenceFile, "rw"), ProtectionLevel.BARRIER, Long.MAX_VALUE),
-        // new RandomAccessFileBuffer(new RandomAccessFile(persistenceFile, "rw"), ProtectionLevel.NONE),
-        /*
-        new TwoCopyBarrierBuffer(
-          persistenceFile,
-          ProtectionLevel.BARRIER,
-          4096, // Matches the block size of the underlying ext2 filesystem - hopefully matches the flash page size??? Can't find specs.
-          60L*1000L, // TODO: Flash: 60L*60L*1000L, // Only commit once per 60 minutes in the single asynchronous writer thread
-          5L*60L*1000L // TODO: Flash: 24L*60L*60L*1000L  // Only commit synchronously (concurrently) once per 24 hours to save flash writes
-        ),
-         */
-        serializer
-    );
-  }
-
-  /**
-   * Gets an unmodifiable copy of the results.
-   */
-  final List<R> getResults() {
-    // System.out.println("DEBUG: getResults");
-    // try {
-    synchronized (results) {
-      return Collections.unmodifiableList(new ArrayList<>(results));
+    this(persistenceFile, serializer, null, null);
+  }
+
+  /**
+   * @param  columns  Stores the results in memory as primitive columns, or {@code null} to keep the result objects
+   */
+  protected TableMultiResultWorker(File persistenceFile, Serializer<R> serializer, ResultColumns<R> columns) throws IOException {
+    this(persistenceFile, serializer, columns, columns);
+  }
+
+  /**
+   * @param  repeater  Determines repeated results to collapse into runs, or {@code null} to never collapse
+   */
+  protected TableMultiResultWorker(File persistenceFile, Serializer<R> serializer, ResultRepeater<R> repeater) throws IOException {
+    this(persistenceFile, serializer, null, repeater);
+  }
+
+  private TableMultiResultWorker(
+      File persistenceFile,
+      Serializer<R> serializer,
+      ResultColumns<R> columns,
+      ResultRepeater<R> repeater
+  ) throws IOException {
+    if (repeater != null && RunLengthHistoryStore.isEnabled()) {
+      this.repeater = repeater;
+      this.results = RunLengthHistoryStore.open(persistenceFile, serializer, repeater);
+    } else {
+      this.repeater = null;
+      this.results = HistoryStore.open(persistenceFile, serializer);
+    }
+    this.columns = columns;
+    this.rollups = RollupStore.open(persistenceFile);
+    // Restore the alert state, from the newest result when written before the last alert was kept
+    this.lastAlertFile = new File(persistenceFile.getPath() + ".alert");
+    LastAlert last = LastAlert.read(lastAlertFile);
+    if (last != null) {
+      lastAlert = last;
+      alertLevel = last.getAlertLevel();
+      alertMessage = last.getAlertMessage();
+    } else {
+      R newest = results.peekNewest();
+      if (newest != null) {
+        alertLevel = newest.getAlertLevel();
+        restoredNewest = newest;
+      }
     }
-    // } catch (ThreadDeath td) {
-    //     throw td;
-    // } catch (Throwable t) {
-    //     ErrorPrinter.printStackTraces(t);
-    //     throw t;
-    // }
+  }
+
+  /**
+   * Restores the alert message from the newest persisted result, when needed, and starts reading
+   * the history in the background.  Only done once, when the worker is started or first read.
+   *
+   * @return  the loader
+   */
+  final Future<?> init() {
+    synchronized (timerTaskLock) {
+      Future<?> current = loader;
+      if (current == null) {
+        R newest = restoredNewest;
+        if (newest != null) {
+          alertMessage = getRestoredAlertMessage(newest);
+          restoredNewest = null;
+        }
+        current = RootNodeImpl.executors.getPerProcessor().submit(() -> load(columns));
+        loader = current;
+      }
+      return current;
+    }
+  }
+
+  /**
+   * Reads the history into memory.  On failure, logs and continues with no history.
+   */
+  private void load(ResultColumns<R> columns) {
+    ResultSnapshot<R> empty = (columns == null) ? ResultSnapshot.empty() : ResultSnapshot.empty(columns.getStorage());
+    try {
+      synchronized (results) {
+        ResultSnapshot<R> loaded = empty;
+        Iterator<R> iter = results.iterator();
+        while (iter.hasNext()) {
+          loaded = loaded.addNewest(iter.next());
+        }
+        snapshot = loaded;
+      }
+      synchronized (rollups) {
+        indexRollups();
+      }
+    } catch (ThreadDeath td) {
+      throw td;
+    } catch (Throwable t) {
+      logger.log(Level.SEVERE, null, t);
+      synchronized (results) {
+        if (snapshot == null) {
+          snapshot = empty;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the current results, waiting for the history to be read.
+   * Must not hold lock on results or rollups, which are held while reading.
+   */
+  private ResultSnapshot<R> getSnapshot() {
+    ResultSnapshot<R> current = snapshot;
+    if (current == null) {
+      assert !Thread.holdsLock(results) && !Thread.holdsLock(rollups);
+      try {
+        init().get();
+      } catch (InterruptedException err) {
+        // Restore the interrupted status
+        Thread.currentThread().interrupt();
+        throw new WrappedException(err);
+      } catch (ExecutionException err) {
+        throw new WrappedException(err);
+      }
+      current = snapshot;
+    }
+    return current;
+  }
+
+  /**
+   * Gets the newest result, from the snapshot once the history is read, otherwise from the store.
+   * Must hold lock on results.
+   *
+   * @return  the newest result or {@code null} when none or it could not be read
+   */
+  private R getNewest() {
+    assert Thread.holdsLock(results);
+    ResultSnapshot<R> current = snapshot;
+    if (current != null) {
+      return current.isEmpty() ? null : current.get(0);
+    }
+    try {
+      return results.peekNewest();
+    } catch (IOException err) {
+      logger.log(Level.WARNING, null, err);
+      return null;
+    }
+  }
+
+  /**
+   * Gets the newest results for alert evaluation.  Only waits for the history to be read when the
+   * worker uses previous results.
+   */
+  private ResultTail<R> getTail() {
+    ResultTail<R> current = tail;
+    if (current == null) {
+      int size = getAlertHistorySize();
+      ResultSnapshot<R> loaded = (size == 0) ? ResultSnapshot.empty() : getSnapshot();
+      synchronized (results) {
+        current = tail;
+        if (current == null) {
+          current = ResultTail.of((size == 0) ? loaded : snapshot, size);
+          tail = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Gets the number of previous results given to
+   * {@link #getAlertLevelAndMessage(java.lang.Object, java.lang.Iterable)}.
+   * Workers that evaluate alerts from their history must declare how much of it they use.
+   * By default, no previous results are used.
+   */
+  protected int getAlertHistorySize() {
+    return 0;
+  }
+
+  /**
+   * Gets the alert message to restore at startup from the newest persisted result, when no last
+   * alert was written.  By default, this is the error of an error result, or {@code null} for a
+   * successful result, which has no message until the next pass.
+   */
+  protected Function<Locale, String> getRestoredAlertMessage(R result) {
+    String error = result.getError();
+    return (error == null) ? null : locale -> RESOURCES.getMessage(locale, "tableData.error", error);
+  }
+
+  /**
+   * Finds the oldest and newest rollup at each level.  Must hold lock on rollups.
+   */
+  private void indexRollups() throws IOException {
+    assert Thread.holdsLock(rollups);
+    Arrays.fill(oldestRollups, Long.MAX_VALUE);
+    Arrays.fill(newestRollups, Long.MIN_VALUE);
+    Iterator<Rollup> iter = rollups.iterator();
+    while (iter.hasNext()) {
+      Rollup rollup = iter.next();
+      int level = rollup.getLevel();
+      long startTime = rollup.getStartTime();
+      if (startTime < oldestRollups[level]) {
+        oldestRollups[level] = startTime;
+      }
+      if (startTime > newestRollups[level]) {
+        newestRollups[level] = startTime;
+      }
+    }
+  }
+
+  /**
+   * Gets an immutable snapshot of the results, newest first.  Does not lock or copy.
+   */
+  final ResultSnapshot<R> getResults() {
+    return getSnapshot();
   }
 
   final AlertLevel getAlertLevel() {
@@ -132,35 +374,58 @@ public abstract class TableMultiResultWorker<S, R extends TableMultiResult> impl
   }
 
   final Function<Locale, String> getAlertMessage() {
+    if (loader == null) {
+      init();
+    }
     return alertMessage;
   }
 
   /**
-   * The default startup delay is within five minutes.
+   * The default phase period is five minutes.  Workers are spread evenly
+   * over this period, and the first pass starts within it.
+   *
+   * @see  PhaseAllocator
    */
-  protected int getNextStartupDelay() {
-    return RootNodeImpl.getNextStartupDelayFiveMinutes();
+  protected long getPhasePeriod() {
+    return 5L * 60 * 1000;
+  }
+
+  /**
+   * Gets the host this worker checks, so the checks against any one host are
+   * spread over time.  The default is {@code null} for not specific to a host.
+   */
+  protected String getTargetHost() {
+    return null;
   }
 
   @SuppressWarnings("unchecked")
   private void start() {
     synchronized (timerTaskLock) {
       assert timerTask == null : "thread already started";
-      timerTask = RootNodeImpl.schedule(this, getNextStartupDelay());
+      init();
+      phase = PhaseAllocator.getInstance(getPhasePeriod()).allocate(getTargetHost());
+      timerTask = RootNodeImpl.schedule(this, phase.getStartupDelay());
     }
+    RollupAggregator.register(this);
   }
 
   private void stop() {
+    RollupAggregator.unregister(this);
     synchronized (timerTaskLock) {
       if (timerTask != null) {
         timerTask.cancel(true);
         timerTask = null;
+        phase.release();
+        phase = null;
       }
     }
   }
 
   private S getSampleWithTimeout() throws Exception {
-    Future<S> future = RootNodeImpl.executors.getUnbounded().submit(this::getSample);
+    if (useInlineTimeout()) {
+      return DeadlineCall.call(this::getSample, getFutureTimeout(), getFutureTimeoutUnit(), this::cancel);
+    }
+    Future<S> future = RootNodeImpl.submit(this::getSample);
     try {
       return future.get(getFutureTimeout(), getFutureTimeoutUnit());
     } catch (InterruptedException | TimeoutException err) {
@@ -219,9 +484,7 @@ public abstract class TableMultiResultWorker<S, R extends TableMultiResult> impl
         } else {
           sample = getSample();
         }
-        synchronized (results) {
-          alertLevelAndMessage = getAlertLevelAndMessage(sample, results);
-        }
+        alertLevelAndMessage = getAlertLevelAndMessage(sample, getTail());
         lastSuccessful = true;
       } catch (Exception err) {
         // Get error in default locale because it is persisted by serializer
@@ -277,19 +540,32 @@ public abstract class TableMultiResultWorker<S, R extends TableMultiResult> impl
         );
       }
 
-      // Update the results
-      R removed = null;
+      // Update the results, older results are removed by aggregate.  Does not wait for the history
+      // to be read: until then, results are only added to the store, which is read afterwards.
       synchronized (results) {
-        results.addFirst(added);
-        if (results.size() > getHistorySize()) {
-          removed = results.removeLast();
+        if (repeater != null) {
+          R previous = getNewest();
+          if (previous != null && repeater.isRepeat(previous, added)) {
+            added = repeater.repeat(previous, added.getTime(), added.getLatency());
+          }
+        }
+        try {
+          results.addNewest(added);
+        } catch (IOException err) {
+          // Still shown and alerted on, the database engine retries the write
+          logger.log(Level.SEVERE, null, err);
+        }
+        ResultSnapshot<R> currentSnapshot = snapshot;
+        if (currentSnapshot != null) {
+          snapshot = currentSnapshot.addNewest(added);
+        }
+        ResultTail<R> currentTail = tail;
+        if (currentTail != null) {
+          tail = currentTail.addNewest(added);
         }
       }
 
       tableMultiResultAdded(added);
-      if (removed != null) {
-        tableMultiResultRemoved(removed);
-      }
 
       AlertLevel maxAlertLevel = alertLevelAndMessage.getAlertLevel();
       AlertLevel newAlertLevel;
@@ -311,6 +587,7 @@ public abstract class TableMultiResultWorker<S, R extends TableMultiResult> impl
       }
       alertLevel = newAlertLevel;
       alertMessage = alertLevelAndMessage.getAlertMessage();
+      writeLastAlert(newAlertLevel, alertLevelAndMessage.getAlertMessage());
 
       if (oldAlertLevel != newAlertLevel) {
         synchronized (tableMultiResultNodeImpls) {
@@ -334,13 +611,24 @@ public abstract class TableMultiResultWorker<S, R extends TableMultiResult> impl
         if (timerTask != null) {
           timerTask = RootNodeImpl.schedule(
               this,
-              getSleepDelay(lastSuccessful, alertLevel)
+              phase.align(getSleepDelay(lastSuccessful, alertLevel))
           );
         }
       }
     }
   }
 
+  /**
+   * Writes the alert level and message in the background when changed since last written.
+   */
+  final void writeLastAlert(AlertLevel newAlertLevel, Function<Locale, String> newAlertMessage) {
+    LastAlert newLastAlert = new LastAlert(newAlertLevel, newAlertMessage);
+    if (!newLastAlert.isSame(lastAlert)) {
+      newLastAlert.write(lastAlertFile);
+      lastAlert = newLastAlert;
+    }
+  }
+
   final void addTableMultiResultNodeImpl(TableMultiResultNodeImpl<R> tableMultiResultNodeImpl) {
     synchronized (tableMultiResultNodeImpls) {
       boolean needsStart = tableMultiResultNodeImpls.isEmpty();
@@ -412,9 +700,144 @@ public abstract class TableMultiResultWorker<S, R extends TableMultiResult> impl
   }
 
   /**
-   * The number of history items to store.
+   * Gets the numeric values of a successful result to be aggregated into {@link Rollup rollups},
+   * as columns following the latency.  The default has no values, so only latency, errors, and
+   * alert levels are aggregated.
+   */
+  protected double[] getRollupValues(R result) {
+    return NO_VALUES;
+  }
+
+  private static final double[] NO_VALUES = new double[0];
+
+  /**
+   * The most results removed by one pass of {@link #aggregate(long)} that are sent to the listeners
+   * one event each.  A pass removing more, such as the first after upgrading from a fixed history
+   * size, sends no removal events instead of overflowing the queue of every listener.
+   */
+  static final int MAX_REMOVED_EVENTS = 100;
+
+  /**
+   * Aggregates results older than {@link Rollup#RAW_RETENTION} into rollups, and rollups past their
+   * retention into the next level.  Only whole time ranges are aggregated.
+   */
+  final void aggregate(long now) throws IOException {
+    // Raw results to the first level
+    getSnapshot();
+    long cutoff = now - Rollup.RAW_RETENTION;
+    List<R> removed = new ArrayList<>();
+    boolean trimmed = false;
+    while (true) {
+      synchronized (results) {
+        ResultSnapshot<R> current = snapshot;
+        int size = current.size();
+        if (size == 0) {
+          break;
+        }
+        long startTime = Rollup.getStartTime(0, current.get(size - 1).getTime());
+        long endTime = startTime + Rollup.getDuration(0);
+        if (endTime > cutoff) {
+          break;
+        }
+        // Results are sorted by time descending, so the range is at the end
+        List<R> range = new ArrayList<>();
+        long lastTime = Long.MIN_VALUE;
+        for (int i = size - 1; i >= 0; i--) {
+          R result = current.get(i);
+          long time = result.getTime();
+          if (time < lastTime && logger.isLoggable(Level.WARNING)) {
+            logger.log(Level.WARNING, "Results not sorted by time descending: " + time + " < " + lastTime);
+          }
+          lastTime = time;
+          if (time >= endTime) {
+            break;
+          }
+          range.add(result);
+        }
+        addRollup(Rollup.aggregate(startTime, range, this::getRollupValues));
+        results.removeOldest(range.size());
+        for (int i = range.size(); i > 0; i--) {
+          current = current.removeOldest();
+        }
+        snapshot = current;
+        ResultTail<R> currentTail = tail;
+        if (currentTail != null) {
+          tail = currentTail.trim(current.size());
+        }
+        if (!trimmed) {
+          removed.addAll(range);
+          if (removed.size() > MAX_REMOVED_EVENTS) {
+            removed.clear();
+            trimmed = true;
+          }
+        }
+      }
+    }
+    if (trimmed) {
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Aggregated more than " + MAX_REMOVED_EVENTS + " results, not sending removal events: " + lastAlertFile.getPath());
+      }
+    } else {
+      for (R result : removed) {
+        tableMultiResultRemoved(result);
+      }
+    }
+    // Each level to the next
+    synchronized (rollups) {
+      for (int level = 0; level < Rollup.LEVELS - 1; level++) {
+        int nextLevel = level + 1;
+        long levelCutoff = now - Rollup.getRetention(level);
+        while (oldestRollups[level] != Long.MAX_VALUE) {
+          long startTime = Rollup.getStartTime(nextLevel, oldestRollups[level]);
+          long endTime = startTime + Rollup.getDuration(nextLevel);
+          if (endTime > levelCutoff) {
+            break;
+          }
+          // Rollups are in time order within each level, so the range is at the start
+          List<Rollup> range = new ArrayList<>();
+          long oldest = Long.MAX_VALUE;
+          Iterator<Rollup> iter = rollups.iterator(level);
+          while (iter.hasNext()) {
+            Rollup rollup = iter.next();
+            if (rollup.getStartTime() < endTime) {
+              range.add(rollup);
+            } else {
+              oldest = rollup.getStartTime();
+              break;
+            }
+          }
+          addRollup(Rollup.merge(nextLevel, startTime, range));
+          rollups.removeOldest(level, range.size());
+          oldestRollups[level] = oldest;
+          if (oldest == Long.MAX_VALUE) {
+            newestRollups[level] = Long.MIN_VALUE;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds a new rollup, unless already added before an unexpected shutdown.  Rollups are
+   * always added in time order within each level.
    */
-  protected abstract int getHistorySize();
+  private void addRollup(Rollup rollup) throws IOException {
+    synchronized (rollups) {
+      int level = rollup.getLevel();
+      long startTime = rollup.getStartTime();
+      if (startTime <= newestRollups[level]) {
+        if (logger.isLoggable(Level.INFO)) {
+          logger.info("Rollup already written, recovering from unexpected shutdown: " + rollup);
+        }
+        return;
+      }
+      rollups.add(rollup);
+      newestRollups[level] = startTime;
+      if (oldestRollups[level] == Long.MAX_VALUE) {
+        oldestRollups[level] = startTime;
+      }
+    }
+  }
 
   /**
    * This is the main monitor routine.
@@ -447,6 +870,8 @@ public abstract class TableMultiResultWorker<S, R extends TableMultiResult> impl
    * Determines the alert level and message for the provided result.
    * If unable to parse, may throw an exception to report the error.  This
    * should not block or delay for any reason.
+   *
+   * @param  previousResults  up to {@link #getAlertHistorySize()} of the newest results, newest first
    */
   protected abstract AlertLevelAndMessage getAlertLevelAndMessage(S sample, Iterable<? extends R> previousResults) throws Exception;
 
@@ -459,6 +884,20 @@ public abstract class TableMultiResultWorker<S, R extends TableMultiResult> impl
     return true;
   }
 
+  /**
+   * When enabled, the call to <code>getSample</code> is performed directly on the
+   * worker thread instead of being decoupled through a <code>Future</code>.  The
+   * same timeout is enforced by a shared watchdog, which calls
+   * {@link #cancel(java.util.concurrent.Future)} when the deadline passes.  This
+   * avoids a second thread per check, but should only be enabled when
+   * <code>getSample</code> responds to interruption or to the cancel hook.
+   *
+   * <p>Only used when {@link #useFutureTimeout()} is enabled.  Disabled by default.</p>
+   */
+  protected boolean useInlineTimeout() {
+    return false;
+  }
+
   /**
    * The default future timeout is 5 minutes.
    */
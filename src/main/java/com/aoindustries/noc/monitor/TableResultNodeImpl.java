@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2018, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2018, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -31,9 +31,7 @@ import java.io.IOException;
 import java.rmi.RemoteException;
 import java.rmi.server.RMIClientSocketFactory;
 import java.rmi.server.RMIServerSocketFactory;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.function.Function;
@@ -56,7 +54,7 @@ public abstract class TableResultNodeImpl extends NodeImpl implements TableResul
   final NodeImpl parent;
   protected final TableResultWorker<?, ?> worker;
 
-  private final List<TableResultListener> tableResultListeners = new ArrayList<>();
+  private final ResultListeners<TableResultListener> tableResultListeners = new ResultListeners<>();
 
   protected TableResultNodeImpl(RootNodeImpl rootNode, NodeImpl parent, TableResultWorker<?, ?> worker, int port, RMIClientSocketFactory csf, RMIServerSocketFactory ssf) throws RemoteException {
     super(port, csf, ssf);
@@ -121,42 +119,22 @@ public abstract class TableResultNodeImpl extends NodeImpl implements TableResul
 
   @Override
   public final void addTableResultListener(TableResultListener tableResultListener) {
-    synchronized (tableResultListeners) {
-      tableResultListeners.add(tableResultListener);
-    }
+    tableResultListeners.addListener(tableResultListener);
   }
 
   @Override
   public final void removeTableResultListener(TableResultListener tableResultListener) {
-    synchronized (tableResultListeners) {
-      for (int c = tableResultListeners.size() - 1; c >= 0; c--) {
-        if (tableResultListeners.get(c).equals(tableResultListener)) {
-          tableResultListeners.remove(c);
-          // Remove only once, in case add and remove come in out of order with quick GUI changes
-          return;
-        }
-      }
+    if (!tableResultListeners.removeListener(tableResultListener)) {
+      logger.log(Level.WARNING, null, new AssertionError("Listener not found: " + tableResultListener));
     }
-    logger.log(Level.WARNING, null, new AssertionError("Listener not found: " + tableResultListener));
   }
 
   /**
-   * Notifies all of the listeners.
+   * Notifies all of the listeners in the background.
    */
   final void tableResultUpdated(TableResult tableResult) {
     assert !SwingUtilities.isEventDispatchThread() : "Running in Swing event dispatch thread";
 
-    synchronized (tableResultListeners) {
-      Iterator<TableResultListener> iter = tableResultListeners.iterator();
-      while (iter.hasNext()) {
-        TableResultListener tableResultListener = iter.next();
-        try {
-          tableResultListener.tableResultUpdated(tableResult);
-        } catch (RemoteException err) {
-          iter.remove();
-          logger.log(Level.SEVERE, null, err);
-        }
-      }
-    }
+    tableResultListeners.fireLatest(listener -> listener.tableResultUpdated(tableResult));
   }
 }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2016, 2018, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2016, 2018, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -46,7 +46,8 @@ import javax.swing.SwingUtilities;
 /**
  * The workers for table results node.
  *
- * <p>TODO: Add persistence of the last report</p>
+ * <p>The last result and alert level are persisted after each pass and restored at startup,
+ * so the node shows its last known state until the first pass completes.</p>
  *
  * @author  AO Industries, Inc.
  */
@@ -62,6 +63,7 @@ public abstract class TableResultWorker<R, D> implements Runnable {
    */
   private final Object timerTaskLock = new Object();
   private Future<?> timerTask;
+  private PhaseAllocator.Phase phase;
 
   private volatile TableResult lastResult;
   private volatile AlertLevel alertLevel = null;
@@ -73,6 +75,12 @@ public abstract class TableResultWorker<R, D> implements Runnable {
 
   protected TableResultWorker(File persistenceFile) {
     this.persistenceFile = persistenceFile;
+    LastResult<TableResult> last = LastResult.read(persistenceFile, TableResult.class);
+    if (last != null) {
+      lastResult = last.getResult();
+      alertLevel = last.getAlertLevel();
+      alertMessage = last.getAlertMessage();
+    }
   }
 
   final TableResult getLastResult() {
@@ -88,16 +96,28 @@ public abstract class TableResultWorker<R, D> implements Runnable {
   }
 
   /**
-   * The default startup delay is within five minutes.
+   * The default phase period is five minutes.  Workers are spread evenly
+   * over this period, and the first pass starts within it.
+   *
+   * @see  PhaseAllocator
+   */
+  protected long getPhasePeriod() {
+    return 5L * 60 * 1000;
+  }
+
+  /**
+   * Gets the host this worker checks, so the checks against any one host are
+   * spread over time.  The default is {@code null} for not specific to a host.
    */
-  protected int getNextStartupDelay() {
-    return RootNodeImpl.getNextStartupDelayFiveMinutes();
+  protected String getTargetHost() {
+    return null;
   }
 
   private void start() {
     synchronized (timerTaskLock) {
       assert timerTask == null : "thread already started";
-      timerTask = RootNodeImpl.schedule(this, getNextStartupDelay());
+      phase = PhaseAllocator.getInstance(getPhasePeriod()).allocate(getTargetHost());
+      timerTask = RootNodeImpl.schedule(this, phase.getStartupDelay());
     }
   }
 
@@ -106,12 +126,17 @@ public abstract class TableResultWorker<R, D> implements Runnable {
       if (timerTask != null) {
         timerTask.cancel(true);
         timerTask = null;
+        phase.release();
+        phase = null;
       }
     }
   }
 
   private R getQueryResultWithTimeout() throws InterruptedException, TimeoutException, Exception {
-    Future<R> future = RootNodeImpl.executors.getUnbounded().submit(this::getQueryResult);
+    if (useInlineTimeout()) {
+      return DeadlineCall.call(this::getQueryResult, getTimeout(), getTimeoutUnit(), this::cancel);
+    }
+    Future<R> future = RootNodeImpl.submit(this::getQueryResult);
     try {
       return future.get(getTimeout(), getTimeoutUnit());
     } catch (InterruptedException | TimeoutException err) {
@@ -237,6 +262,7 @@ public abstract class TableResultWorker<R, D> implements Runnable {
       }
       alertLevel = newAlertLevel;
       alertMessage = alertLevelAndMessage.getAlertMessage();
+      new LastResult<>(result, newAlertLevel, alertMessage).write(persistenceFile);
       tableResultUpdated(result);
       if (oldAlertLevel != newAlertLevel) {
         synchronized (tableResultNodeImpls) {
@@ -261,7 +287,7 @@ public abstract class TableResultWorker<R, D> implements Runnable {
         if (timerTask != null) {
           timerTask = RootNodeImpl.schedule(
               this,
-              getSleepDelay(lastSuccessful, maxAlertLevel)
+              phase.align(getSleepDelay(lastSuccessful, maxAlertLevel))
           );
         }
       }
@@ -282,6 +308,20 @@ public abstract class TableResultWorker<R, D> implements Runnable {
     return TimeUnit.MINUTES;
   }
 
+  /**
+   * When enabled, the call to <code>getQueryResult</code> is performed directly on the
+   * worker thread instead of being decoupled through a <code>Future</code>.  The
+   * same timeout is enforced by a shared watchdog, which calls
+   * {@link #cancel(java.util.concurrent.Future)} when the deadline passes.  This
+   * avoids a second thread per check, but should only be enabled when
+   * <code>getQueryResult</code> responds to interruption or to the cancel hook.
+   *
+   * <p>Disabled by default.</p>
+   */
+  protected boolean useInlineTimeout() {
+    return false;
+  }
+
   final void addTableResultNodeImpl(TableResultNodeImpl tableResultNodeImpl) {
     synchronized (tableResultNodeImpls) {
       boolean needsStart = tableResultNodeImpls.isEmpty();
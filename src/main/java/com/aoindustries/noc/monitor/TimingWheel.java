@@ -0,0 +1,427 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hashed timing wheel that schedules tasks with a resolution of one tick.
+ * Inserting and canceling a task are both constant-time operations on a
+ * doubly-linked bucket, regardless of the number of tasks scheduled.
+ *
+ * <p>A single ticker thread advances the wheel.  On each tick, all of the tasks
+ * that have expired in the current bucket are detached in one batch and then
+ * handed to the dispatch executor outside of any lock.  The task itself never
+ * runs on the ticker thread.</p>
+ *
+ * <p>A task that could not be dispatched, such as rejected by the executor, is put back in the
+ * wheel and dispatched again after {@link #RETRY_DELAY}, since a worker waiting on its next pass
+ * would otherwise stop monitoring for good.  Only {@link #stop()} stops the ticker; an interrupt
+ * of the ticker thread is logged and ignored.</p>
+ *
+ * <p>This replaces submitting a new delayed task to the unbounded executor for
+ * every pass of every worker, which kept the executor's delay queue churning
+ * with tens of thousands of entries.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class TimingWheel {
+
+  private static final Logger logger = Logger.getLogger(TimingWheel.class.getName());
+
+  /**
+   * The delay before dispatching again a task that could not be dispatched.
+   */
+  private static final long RETRY_DELAY = TimeUnit.SECONDS.toNanos(1);
+
+  private static final int STATE_PENDING = 0;
+  private static final int STATE_DISPATCHED = 1;
+  private static final int STATE_CANCELLED = 2;
+
+  private static final int CANCEL_NONE = 0;
+  private static final int CANCEL_NO_INTERRUPT = 1;
+  private static final int CANCEL_INTERRUPT = 2;
+
+  /**
+   * The future returned for each scheduled task.  Canceling before dispatch
+   * unlinks the task from its bucket.  Canceling after dispatch is delegated
+   * to the future of the dispatched task.
+   */
+  private final class Timeout implements Future<Object> {
+
+    private final Runnable task;
+
+    // All synchronized on lock
+    private int state = STATE_PENDING;
+    private long remainingRounds;
+    private int bucket = -1;
+    private Timeout prev;
+    private Timeout next;
+    private int cancelAfterDispatch = CANCEL_NONE;
+
+    private volatile Future<?> dispatched;
+
+    private Timeout(Runnable task) {
+      this.task = task;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      Future<?> f;
+      synchronized (lock) {
+        if (state == STATE_PENDING) {
+          state = STATE_CANCELLED;
+          unlink(this);
+          pending--;
+          return true;
+        }
+        if (state == STATE_CANCELLED) {
+          return false;
+        }
+        f = dispatched;
+        if (f == null) {
+          // Expired but not yet handed to the dispatcher, cancel once it is
+          cancelAfterDispatch = mayInterruptIfRunning ? CANCEL_INTERRUPT : CANCEL_NO_INTERRUPT;
+          return true;
+        }
+      }
+      return f.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+      synchronized (lock) {
+        if (state == STATE_CANCELLED) {
+          return true;
+        }
+      }
+      Future<?> f = dispatched;
+      return f != null && f.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+      synchronized (lock) {
+        if (state == STATE_CANCELLED) {
+          return true;
+        }
+      }
+      Future<?> f = dispatched;
+      return f != null && f.isDone();
+    }
+
+    @Override
+    public Object get() throws InterruptedException, ExecutionException {
+      Future<?> f;
+      try {
+        f = awaitDispatched(false, 0);
+      } catch (TimeoutException e) {
+        throw new AssertionError("Untimed wait may not time out", e);
+      }
+      return f.get();
+    }
+
+    @Override
+    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      Future<?> f = awaitDispatched(true, deadline);
+      return f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private Future<?> awaitDispatched(boolean timed, long deadline) throws InterruptedException, TimeoutException {
+      synchronized (lock) {
+        while (true) {
+          if (state == STATE_CANCELLED) {
+            throw new CancellationException();
+          }
+          Future<?> f = dispatched;
+          if (f != null) {
+            return f;
+          }
+          if (timed) {
+            long waitNanos = deadline - System.nanoTime();
+            if (waitNanos <= 0) {
+              throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(lock, waitNanos);
+          } else {
+            lock.wait();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Dispatches a task, returning a future that may be used to cancel the task
+   * once it has left the wheel.
+   */
+  @FunctionalInterface
+  interface Dispatcher {
+    Future<?> dispatch(Runnable task) throws RejectedExecutionException;
+  }
+
+  private final String name;
+  private final Dispatcher dispatcher;
+  private final long tickNanos;
+  private final int mask;
+
+  private final Object lock = new Object();
+
+  // All synchronized on lock
+  private final Timeout[] heads;
+  private long tick;
+  private long startNanos;
+  private int pending;
+  private Thread ticker;
+  private boolean stopped;
+
+  /**
+   * @param  name           The name of the ticker thread
+   * @param  dispatcher     Runs each task once it has expired
+   * @param  tickDuration   The resolution of the wheel
+   * @param  ticksPerWheel  The number of buckets, rounded up to a power of two
+   */
+  TimingWheel(String name, Dispatcher dispatcher, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+    if (tickDuration <= 0) {
+      throw new IllegalArgumentException("tickDuration <= 0: " + tickDuration);
+    }
+    if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+      throw new IllegalArgumentException("ticksPerWheel out of range: " + ticksPerWheel);
+    }
+    int size = Integer.highestOneBit(ticksPerWheel);
+    if (size < ticksPerWheel) {
+      size <<= 1;
+    }
+    this.name = name;
+    this.dispatcher = dispatcher;
+    this.tickNanos = unit.toNanos(tickDuration);
+    this.mask = size - 1;
+    this.heads = new Timeout[size];
+  }
+
+  /**
+   * Schedules a task to be dispatched after the given delay in milliseconds.
+   * The ticker thread is started on first use.
+   *
+   * @throws  RejectedExecutionException  when the wheel has been stopped
+   */
+  Future<?> schedule(Runnable task, long delay) throws RejectedExecutionException {
+    if (task == null) {
+      throw new NullPointerException("task is null");
+    }
+    Timeout timeout = new Timeout(task);
+    long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay));
+    synchronized (lock) {
+      if (stopped) {
+        throw new RejectedExecutionException(name + " is stopped");
+      }
+      if (ticker == null) {
+        startNanos = System.nanoTime();
+        ticker = new Thread(this::runTicker, name);
+        ticker.setDaemon(true);
+        ticker.start();
+      }
+      // Tick "t" is processed once (t + 1) ticks have elapsed since start
+      long elapsed = System.nanoTime() - startNanos + delayNanos;
+      long targetTick = Math.max(tick, (elapsed + tickNanos - 1) / tickNanos - 1);
+      timeout.remainingRounds = (targetTick - tick) / heads.length;
+      link(timeout, (int) (targetTick & mask));
+      pending++;
+    }
+    return timeout;
+  }
+
+  /**
+   * Gets the number of tasks waiting in the wheel.
+   */
+  int getPending() {
+    synchronized (lock) {
+      return pending;
+    }
+  }
+
+  /**
+   * Stops the wheel.  No further tasks will be dispatched, including those already
+   * scheduled or waiting to be dispatched again.  Any future call to
+   * {@link #schedule(java.lang.Runnable, long)} will be rejected with an exception.
+   * Tasks that have already been dispatched are unaffected.
+   *
+   * @return  the tasks that were still waiting in the wheel, now canceled
+   */
+  List<Runnable> stop() {
+    List<Runnable> unprocessed = new ArrayList<>();
+    Thread t;
+    synchronized (lock) {
+      if (stopped) {
+        return unprocessed;
+      }
+      stopped = true;
+      for (int i = 0; i < heads.length; i++) {
+        Timeout timeout = heads[i];
+        while (timeout != null) {
+          Timeout next = timeout.next;
+          timeout.state = STATE_CANCELLED;
+          timeout.prev = null;
+          timeout.next = null;
+          timeout.bucket = -1;
+          unprocessed.add(timeout.task);
+          timeout = next;
+        }
+        heads[i] = null;
+      }
+      pending = 0;
+      lock.notifyAll();
+      t = ticker;
+    }
+    if (t != null && t != Thread.currentThread()) {
+      t.interrupt();
+    }
+    return unprocessed;
+  }
+
+  // Must hold lock
+  private void link(Timeout timeout, int bucket) {
+    Timeout head = heads[bucket];
+    timeout.bucket = bucket;
+    timeout.prev = null;
+    timeout.next = head;
+    if (head != null) {
+      head.prev = timeout;
+    }
+    heads[bucket] = timeout;
+  }
+
+  // Must hold lock
+  private void unlink(Timeout timeout) {
+    if (timeout.prev == null) {
+      heads[timeout.bucket] = timeout.next;
+    } else {
+      timeout.prev.next = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+    timeout.bucket = -1;
+  }
+
+  @SuppressWarnings({"UseSpecificCatch", "TooBroadCatch"})
+  private void runTicker() {
+    List<Timeout> expired = new ArrayList<>();
+    List<Future<?>> dispatchedFutures = new ArrayList<>();
+    while (true) {
+      synchronized (lock) {
+        try {
+          // Wait for the end of the current tick
+          while (!stopped) {
+            long waitNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (waitNanos <= 0) {
+              break;
+            }
+            TimeUnit.NANOSECONDS.timedWait(lock, waitNanos);
+          }
+        } catch (InterruptedException e) {
+          if (!stopped) {
+            // Only stop() stops the wheel, which would otherwise silently stop every worker
+            logger.log(Level.WARNING, name + " interrupted, continuing", e);
+            continue;
+          }
+        }
+        if (stopped) {
+          return;
+        }
+        // Detach all expired in this bucket as one batch
+        int bucket = (int) (tick & mask);
+        Timeout timeout = heads[bucket];
+        while (timeout != null) {
+          Timeout next = timeout.next;
+          if (timeout.remainingRounds <= 0) {
+            unlink(timeout);
+            timeout.state = STATE_DISPATCHED;
+            pending--;
+            expired.add(timeout);
+          } else {
+            timeout.remainingRounds--;
+          }
+          timeout = next;
+        }
+        tick++;
+      }
+      if (!expired.isEmpty()) {
+        // Dispatch outside the lock
+        for (Timeout timeout : expired) {
+          Future<?> future;
+          try {
+            future = dispatcher.dispatch(timeout.task);
+          } catch (ThreadDeath td) {
+            throw td;
+          } catch (Throwable t) {
+            logger.log(Level.SEVERE, name + ": Unable to dispatch, retrying", t);
+            future = null;
+          }
+          dispatchedFutures.add(future);
+        }
+        synchronized (lock) {
+          for (int i = 0, size = expired.size(); i < size; i++) {
+            Timeout timeout = expired.get(i);
+            Future<?> future = dispatchedFutures.get(i);
+            if (future == null) {
+              if (stopped || timeout.cancelAfterDispatch != CANCEL_NONE) {
+                timeout.state = STATE_CANCELLED;
+              } else {
+                // Put back in the wheel to dispatch again
+                long retryTicks = Math.max(1, (RETRY_DELAY + tickNanos - 1) / tickNanos);
+                long targetTick = tick + retryTicks - 1;
+                timeout.state = STATE_PENDING;
+                timeout.remainingRounds = (targetTick - tick) / heads.length;
+                link(timeout, (int) (targetTick & mask));
+                pending++;
+              }
+            } else {
+              timeout.dispatched = future;
+              if (timeout.cancelAfterDispatch != CANCEL_NONE) {
+                future.cancel(timeout.cancelAfterDispatch == CANCEL_INTERRUPT);
+              }
+            }
+          }
+          // Wake any get() waiting on dispatch
+          lock.notifyAll();
+        }
+        expired.clear();
+        dispatchedFutures.clear();
+      }
+    }
+  }
+}
@@ -0,0 +1,394 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertChange;
+import com.aoindustries.noc.monitor.common.TreeListener;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends the events of a {@link RootNodeImpl} to its {@link TreeListener tree listeners}.  Each
+ * listener has its own queue, and the events queued within one window are sent together: any number
+ * of nodes added or removed as a single call each, and the alert changes as one list.  No thread
+ * waits between sends.  The first event queued for an idle listener schedules its delivery when it
+ * is queued: right away when the last delivery was at least a window ago, otherwise for the rest of
+ * the window.  Only one delivery per listener is in progress at a time.  Events do not share any
+ * lock between listeners.
+ *
+ * <p>A listener that falls behind is removed and logged, as is a listener that throws
+ * {@link RemoteException}: when more than the maximum number of alert changes are queued, or when a
+ * delivery has not completed within the deadline.  Deliveries are checked once per deadline, so a
+ * hung delivery is removed within two deadlines.</p>
+ *
+ * <p>Configured by system properties:</p>
+ * <ul>
+ *   <li>{@value #WINDOW_PROPERTY} - milliseconds events are gathered before being sent, and between
+ *       sends to the same listener, default {@value #DEFAULT_WINDOW}</li>
+ *   <li>{@value #MAX_QUEUED_PROPERTY} - maximum alert changes queued per listener, default
+ *       {@value #DEFAULT_MAX_QUEUED}</li>
+ *   <li>{@value #DEADLINE_PROPERTY} - maximum milliseconds for one delivery, default {@value #DEFAULT_DEADLINE}</li>
+ * </ul>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class TreeListenerDispatcher {
+
+  private static final Logger logger = Logger.getLogger(TreeListenerDispatcher.class.getName());
+
+  static final String WINDOW_PROPERTY = "com.aoindustries.noc.monitor.treeListener.window";
+  static final String MAX_QUEUED_PROPERTY = "com.aoindustries.noc.monitor.treeListener.maxQueued";
+  static final String DEADLINE_PROPERTY = "com.aoindustries.noc.monitor.treeListener.deadline";
+
+  private static final long DEFAULT_WINDOW = 250;
+  private static final int DEFAULT_MAX_QUEUED = 10000;
+  private static final long DEFAULT_DEADLINE = 60L * 1000;
+
+  /**
+   * Performs a task in a background thread after a delay.
+   */
+  @FunctionalInterface
+  interface Scheduler {
+
+    /**
+     * @param  delay  the delay in milliseconds
+     */
+    void schedule(Runnable task, long delay);
+  }
+
+  /**
+   * Creates a dispatcher configured by the system properties, scheduled by {@link RootNodeImpl#schedule(java.lang.Runnable, long)}
+   * or submitted by {@link RootNodeImpl#submit(java.lang.Runnable)} when not delayed.
+   */
+  static TreeListenerDispatcher newInstance() {
+    return new TreeListenerDispatcher(
+        (task, delay) -> {
+          if (delay == 0) {
+            RootNodeImpl.submit(task);
+          } else {
+            RootNodeImpl.schedule(task, delay);
+          }
+        },
+        Long.getLong(WINDOW_PROPERTY, DEFAULT_WINDOW),
+        Integer.getInteger(MAX_QUEUED_PROPERTY, DEFAULT_MAX_QUEUED),
+        Long.getLong(DEADLINE_PROPERTY, DEFAULT_DEADLINE)
+    );
+  }
+
+  private final Scheduler scheduler;
+  private final long window;
+  private final int maxQueued;
+  private final long deadline;
+
+  private final List<ListenerQueue> queues = new CopyOnWriteArrayList<>();
+
+  private final AtomicLong deliveries = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  TreeListenerDispatcher(Scheduler scheduler, long window, int maxQueued, long deadline) {
+    if (window < 0) {
+      throw new IllegalArgumentException("window < 0: " + window);
+    }
+    if (maxQueued < 1) {
+      throw new IllegalArgumentException("maxQueued < 1: " + maxQueued);
+    }
+    if (deadline < 1) {
+      throw new IllegalArgumentException("deadline < 1: " + deadline);
+    }
+    this.scheduler = scheduler;
+    this.window = window;
+    this.maxQueued = maxQueued;
+    this.deadline = deadline;
+  }
+
+  void addTreeListener(TreeListener treeListener) {
+    queues.add(new ListenerQueue(treeListener));
+  }
+
+  /**
+   * Removes the most recently added queue of the given listener.  Removes only once, in case add
+   * and remove come in out of order with quick GUI changes.
+   *
+   * @return  {@code true} when found
+   */
+  boolean removeTreeListener(TreeListener treeListener) {
+    for (int c = queues.size() - 1; c >= 0; c--) {
+      ListenerQueue queue;
+      try {
+        queue = queues.get(c);
+      } catch (IndexOutOfBoundsException e) {
+        // Removed concurrently
+        continue;
+      }
+      if (queue.treeListener == treeListener && queues.remove(queue)) {
+        queue.close();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  void nodeAdded() {
+    for (ListenerQueue queue : queues) {
+      queue.nodeAdded();
+    }
+  }
+
+  void nodeRemoved() {
+    for (ListenerQueue queue : queues) {
+      queue.nodeRemoved();
+    }
+  }
+
+  void nodeAlertChanged(AlertChange change) {
+    for (ListenerQueue queue : queues) {
+      queue.nodeAlertChanged(change);
+    }
+  }
+
+  /**
+   * The number of listeners.
+   */
+  int getListenerCount() {
+    return queues.size();
+  }
+
+  /**
+   * The number of deliveries, each sending all events queued for one listener.
+   */
+  long getDeliveries() {
+    return deliveries.get();
+  }
+
+  /**
+   * The number of listeners removed for falling behind or throwing {@link RemoteException}.
+   */
+  long getEvictions() {
+    return evictions.get();
+  }
+
+  private final class ListenerQueue implements Runnable {
+
+    private final TreeListener treeListener;
+
+    // All synchronized on this
+    private boolean nodeAdded;
+    private boolean nodeRemoved;
+    private List<AlertChange> changes;
+    private boolean scheduled;
+    private boolean delivering;
+    private long deliveryCount;
+    private boolean delivered;
+    private long lastDeliveryNanos;
+    private boolean deadlineScheduled;
+    private long checkedDelivery;
+    private boolean closed;
+
+    private ListenerQueue(TreeListener treeListener) {
+      this.treeListener = treeListener;
+    }
+
+    private void close() {
+      synchronized (this) {
+        closed = true;
+        changes = null;
+      }
+    }
+
+    /**
+     * Removes this listener.  Must hold lock on this.
+     */
+    private void evict(String reason, Throwable t) {
+      assert Thread.holdsLock(this);
+      closed = true;
+      changes = null;
+      if (queues.remove(this)) {
+        evictions.incrementAndGet();
+        logger.log(Level.WARNING, "Removing tree listener, " + reason + ": " + treeListener, t);
+      }
+    }
+
+    /**
+     * Schedules delivery when idle.  Must hold lock on this.
+     *
+     * @return  the milliseconds to delay the delivery scheduled after releasing the lock,
+     *          or {@code -1} when already scheduled or delivering
+     */
+    private long needsSchedule() {
+      assert Thread.holdsLock(this);
+      if (scheduled || delivering) {
+        return -1;
+      }
+      scheduled = true;
+      if (!delivered) {
+        return 0;
+      }
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastDeliveryNanos);
+      return (elapsed >= window) ? 0 : (window - elapsed);
+    }
+
+    /**
+     * Removes this listener when the delivery in progress when last checked is still in progress.
+     * Otherwise, checks the delivery now in progress after another deadline.
+     */
+    private void checkDeadline() {
+      boolean reschedule = false;
+      synchronized (this) {
+        if (!closed && delivering) {
+          if (deliveryCount == checkedDelivery) {
+            evict("delivery not completed within " + deadline + " ms", null);
+          } else {
+            checkedDelivery = deliveryCount;
+            reschedule = true;
+          }
+        }
+        deadlineScheduled = reschedule;
+      }
+      if (reschedule) {
+        scheduler.schedule(this::checkDeadline, deadline);
+      }
+    }
+
+    private void nodeAdded() {
+      long delay;
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        nodeAdded = true;
+        delay = needsSchedule();
+      }
+      if (delay != -1) {
+        scheduler.schedule(this, delay);
+      }
+    }
+
+    private void nodeRemoved() {
+      long delay;
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        nodeRemoved = true;
+        delay = needsSchedule();
+      }
+      if (delay != -1) {
+        scheduler.schedule(this, delay);
+      }
+    }
+
+    private void nodeAlertChanged(AlertChange change) {
+      long delay;
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        if (changes == null) {
+          changes = new ArrayList<>();
+        } else if (changes.size() >= maxQueued) {
+          evict("more than " + maxQueued + " alert changes queued", null);
+          return;
+        }
+        changes.add(change);
+        delay = needsSchedule();
+      }
+      if (delay != -1) {
+        scheduler.schedule(this, delay);
+      }
+    }
+
+    @Override
+    @SuppressWarnings({"UseSpecificCatch", "TooBroadCatch"})
+    public void run() {
+      boolean sendNodeAdded;
+      boolean sendNodeRemoved;
+      List<AlertChange> sendChanges;
+      boolean scheduleDeadline = false;
+      synchronized (this) {
+        scheduled = false;
+        if (closed) {
+          return;
+        }
+        sendNodeAdded = nodeAdded;
+        sendNodeRemoved = nodeRemoved;
+        sendChanges = changes;
+        nodeAdded = false;
+        nodeRemoved = false;
+        changes = null;
+        delivering = true;
+        deliveryCount++;
+        if (!deadlineScheduled) {
+          deadlineScheduled = true;
+          checkedDelivery = deliveryCount;
+          scheduleDeadline = true;
+        }
+      }
+      if (scheduleDeadline) {
+        scheduler.schedule(this::checkDeadline, deadline);
+      }
+      boolean reschedule = false;
+      try {
+        if (sendNodeAdded) {
+          treeListener.nodeAdded();
+        }
+        if (sendNodeRemoved) {
+          treeListener.nodeRemoved();
+        }
+        if (sendChanges != null) {
+          treeListener.nodeAlertChanged(sendChanges);
+        }
+        deliveries.incrementAndGet();
+      } catch (RemoteException err) {
+        synchronized (this) {
+          evict("unable to send", err);
+        }
+      } catch (ThreadDeath td) {
+        throw td;
+      } catch (Throwable t) {
+        logger.log(Level.SEVERE, null, t);
+      } finally {
+        synchronized (this) {
+          delivering = false;
+          delivered = true;
+          lastDeliveryNanos = System.nanoTime();
+          if (!closed && (nodeAdded || nodeRemoved || changes != null)) {
+            // Events queued during delivery are sent after another window
+            scheduled = true;
+            reschedule = true;
+          }
+        }
+      }
+      if (reschedule) {
+        scheduler.schedule(this, window);
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Optionally runs worker passes and monitoring checks on virtual threads.  Nearly all checks
+ * block on I/O, so one virtual thread per check lets a single monitor run tens of thousands
+ * of concurrent checks without a platform thread stack for each.
+ *
+ * <p>Enabled by the system property {@value #ENABLED_PROPERTY}.  Virtual threads require
+ * Java 21 or newer; on older runtimes a warning is logged and the unbounded executor of
+ * {@link RootNodeImpl#executors} continues to be used.</p>
+ *
+ * <p>Before Java 24, a virtual thread is pinned to its carrier while blocking inside a
+ * {@code synchronized} block, and the worker base classes synchronize in many places.  To detect
+ * this, the JDK's own pinning trace is turned on when virtual threads are enabled, unless already
+ * configured.  The mode is taken from the system property {@value #TRACE_PINNED_PROPERTY}, which
+ * defaults to {@code "short"} and may be {@code "full"} or {@code "none"}.  Java 24 no longer pins
+ * in {@code synchronized} and removed the trace, so it is not configured there.  Pinning is also
+ * recorded by JFR as {@code jdk.VirtualThreadPinned} events.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class VirtualThreads {
+
+  /** Make no instances. */
+  private VirtualThreads() {
+    throw new AssertionError();
+  }
+
+  private static final Logger logger = Logger.getLogger(VirtualThreads.class.getName());
+
+  static final String ENABLED_PROPERTY = "com.aoindustries.noc.monitor.virtualThreads";
+
+  static final String TRACE_PINNED_PROPERTY = "com.aoindustries.noc.monitor.virtualThreads.tracePinned";
+
+  static final String JDK_TRACE_PINNED_PROPERTY = "jdk.tracePinnedThreads";
+
+  /**
+   * The Java feature version that removed {@value #JDK_TRACE_PINNED_PROPERTY}.
+   */
+  private static final int TRACE_PINNED_REMOVED = 24;
+
+  /**
+   * The executor that starts a new virtual thread per task, or {@code null} when not enabled.
+   */
+  private static final ExecutorService executor;
+
+  static {
+    executor = Boolean.getBoolean(ENABLED_PROPERTY)
+        ? newExecutor(java.util.concurrent.Executors.class, Runtime.version().feature())
+        : null;
+  }
+
+  /**
+   * Creates the executor by reflection, while still compiling for Java 11.
+   *
+   * @param  executors  The class providing {@code newVirtualThreadPerTaskExecutor()}
+   * @param  feature  The Java feature version, only configuring the pinning trace before {@value #TRACE_PINNED_REMOVED}
+   *
+   * @return  The executor or {@code null} when not available.
+   */
+  static ExecutorService newExecutor(Class<?> executors, int feature) {
+    try {
+      Method method = executors.getMethod("newVirtualThreadPerTaskExecutor");
+      if (feature < TRACE_PINNED_REMOVED) {
+        // Must be configured before the first virtual thread is created
+        String tracePinned = System.getProperty(TRACE_PINNED_PROPERTY, "short");
+        if (!"none".equals(tracePinned) && System.getProperty(JDK_TRACE_PINNED_PROPERTY) == null) {
+          System.setProperty(JDK_TRACE_PINNED_PROPERTY, tracePinned);
+        }
+      }
+      ExecutorService newExecutor = (ExecutorService) method.invoke(null);
+      logger.info("Running worker passes and monitoring checks on virtual threads");
+      return newExecutor;
+    } catch (NoSuchMethodException e) {
+      logger.log(Level.WARNING, "Virtual threads require Java 21 or newer, using platform threads", e);
+    } catch (IllegalAccessException | InvocationTargetException | SecurityException e) {
+      logger.log(Level.WARNING, "Unable to create virtual thread executor, using platform threads", e);
+    }
+    return null;
+  }
+
+  /**
+   * Gets the virtual thread executor.
+   *
+   * @return  The executor or {@code null} when virtual threads are not enabled or not available.
+   */
+  static ExecutorService getExecutor() {
+    return executor;
+  }
+}
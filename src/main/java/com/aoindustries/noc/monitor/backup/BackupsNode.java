@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -25,6 +25,7 @@ package com.aoindustries.noc.monitor.backup;
 
 import com.aoapps.hodgepodge.table.Table;
 import com.aoapps.hodgepodge.table.TableListener;
+import com.aoapps.lang.EnumUtils;
 import com.aoapps.lang.exception.WrappedException;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.backup.BackupPartition;
@@ -34,7 +35,6 @@ import com.aoindustries.aoserv.client.infrastructure.ServerFarm;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.aoserv.client.net.Host;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.TableResult;
@@ -82,7 +82,7 @@ public class BackupsNode extends NodeImpl implements TableResultNode, TableResul
   private final List<BackupNode> backupNodes = new ArrayList<>();
   private boolean started;
 
-  private AlertLevel alertLevel;
+  private volatile AlertLevel alertLevel;
   private TableResult lastResult;
 
   private final List<TableResultListener> tableResultListeners = new ArrayList<>();
@@ -114,14 +114,13 @@ public class BackupsNode extends NodeImpl implements TableResultNode, TableResul
    */
   @Override
   public AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (backupNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(
-          alertLevel == null ? AlertLevel.UNKNOWN : alertLevel,
-          backupNodes
-      );
-    }
-    return constrainAlertLevel(level);
+    AlertLevel level = alertLevel;
+    return constrainAlertLevel(
+        EnumUtils.max(
+            level == null ? AlertLevel.UNKNOWN : level,
+            getChildrenAlertLevel()
+        )
+    );
   }
 
   /**
@@ -165,7 +164,7 @@ public class BackupsNode extends NodeImpl implements TableResultNode, TableResul
       for (BackupNode backupNode : backupNodes) {
         backupNode.removeTableResultListener(this);
         backupNode.stop();
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       backupNodes.clear();
     }
@@ -273,7 +272,7 @@ public class BackupsNode extends NodeImpl implements TableResultNode, TableResul
           backupNode.removeTableResultListener(this);
           backupNode.stop();
           backupNodeIter.remove();
-          hostNode.hostsNode.rootNode.nodeRemoved();
+          hostNode.hostsNode.rootNode.nodeRemoved(this);
         }
       }
       // Add new ones
@@ -284,7 +283,7 @@ public class BackupsNode extends NodeImpl implements TableResultNode, TableResul
           BackupNode backupNode = new BackupNode(this, fileReplication, port, csf, ssf);
           backupNodes.add(c, backupNode);
           backupNode.start();
-          hostNode.hostsNode.rootNode.nodeAdded();
+          hostNode.hostsNode.rootNode.nodeAdded(this);
           backupNode.addTableResultListener(this);
         }
       }
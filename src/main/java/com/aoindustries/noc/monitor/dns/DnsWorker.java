@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009-2013, 2016, 2017, 2018, 2020, 2021, 2022, 2023, 2025  AO Industries, Inc.
+ * Copyright (C) 2009-2013, 2016, 2017, 2018, 2020, 2021, 2022, 2023, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -31,7 +31,6 @@ import com.aoindustries.aoserv.client.dns.RecordType;
 import com.aoindustries.aoserv.client.net.IpAddress;
 import com.aoindustries.aoserv.client.net.monitoring.IpAddressMonitoring;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
-import com.aoindustries.noc.monitor.RootNodeImpl;
 import com.aoindustries.noc.monitor.TableResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.TableResult;
@@ -303,10 +302,10 @@ class DnsWorker extends TableResultWorker<List<DnsWorker.DnsQueryResult>, Object
   }
 
   /**
-   * The startup delay is within fifteen minutes.
+   * The phase period is fifteen minutes.
    */
   @Override
-  protected int getNextStartupDelay() {
-    return RootNodeImpl.getNextStartupDelayFifteenMinutes();
+  protected long getPhasePeriod() {
+    return 15L * 60 * 1000;
   }
 }
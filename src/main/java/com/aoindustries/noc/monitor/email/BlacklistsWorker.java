@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009-2013, 2014, 2015, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2009-2013, 2014, 2015, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -1824,10 +1824,19 @@ class BlacklistsWorker extends TableResultWorker<List<BlacklistsWorker.Blacklist
   }
 
   /**
-   * The startup delay is within fifteen minutes.
+   * The lookups already run on their own executor, and waiting on them responds to interruption,
+   * so the query is run directly on the worker thread with the timeout enforced by the shared watchdog.
    */
   @Override
-  protected int getNextStartupDelay() {
-    return RootNodeImpl.getNextStartupDelayFifteenMinutes();
+  protected boolean useInlineTimeout() {
+    return true;
+  }
+
+  /**
+   * The phase period is fifteen minutes.
+   */
+  @Override
+  protected long getPhasePeriod() {
+    return 15L * 60 * 1000;
   }
 }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2013, 2014, 2015, 2016, 2018, 2019, 2020, 2021, 2022, 2025  AO Industries, Inc.
+ * Copyright (C) 2008-2013, 2014, 2015, 2016, 2018, 2019, 2020, 2021, 2022, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -29,6 +29,7 @@ import com.aoapps.lang.i18n.ThreadLocale;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.aoserv.client.linux.Server.DrbdReport;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.TableResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.TableResult;
@@ -153,9 +154,14 @@ class DrbdWorker extends TableResultWorker<List<DrbdReport>, Object> {
     );
   }
 
+  @Override
+  protected String getTargetHost() {
+    return linuxServer.toString();
+  }
+
   @Override
   protected List<DrbdReport> getQueryResult() throws Exception {
-    return linuxServer.getDrbdReport();
+    return DaemonBulkheads.call(linuxServer, linuxServer::getDrbdReport);
   }
 
   @Override
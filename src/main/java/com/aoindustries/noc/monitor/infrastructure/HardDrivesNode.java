@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -25,7 +25,6 @@ package com.aoindustries.noc.monitor.infrastructure;
 
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.linux.Server;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.net.HostNode;
@@ -86,11 +85,7 @@ public class HardDrivesNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            this.hardDriveTemperatureNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -115,7 +110,7 @@ public class HardDrivesNode extends NodeImpl {
       if (hardDriveTemperatureNode == null) {
         hardDriveTemperatureNode = new HardDrivesTemperatureNode(this, port, csf, ssf);
         hardDriveTemperatureNode.start();
-        hostNode.hostsNode.rootNode.nodeAdded();
+        hostNode.hostsNode.rootNode.nodeAdded(this);
       }
     }
   }
@@ -126,7 +121,7 @@ public class HardDrivesNode extends NodeImpl {
       if (hardDriveTemperatureNode != null) {
         hardDriveTemperatureNode.stop();
         hardDriveTemperatureNode = null;
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
     }
   }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2016, 2018, 2019, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2016, 2018, 2019, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -29,6 +29,7 @@ import com.aoapps.lang.i18n.Resources;
 import com.aoapps.lang.text.LocalizedParseException;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.TableResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.TableResult;
@@ -137,9 +138,14 @@ class HardDrivesTemperatureWorker extends TableResultWorker<List<String>, String
     );
   }
 
+  @Override
+  protected String getTargetHost() {
+    return linuxServer.toString();
+  }
+
   @Override
   protected List<String> getQueryResult() throws Exception {
-    String report = linuxServer.getHddTempReport();
+    String report = DaemonBulkheads.call(linuxServer, linuxServer::getHddTempReport);
     List<String> lines = Strings.splitLines(report);
     List<String> tableData = new ArrayList<>(lines.size() * 3);
     int lineNum = 0;
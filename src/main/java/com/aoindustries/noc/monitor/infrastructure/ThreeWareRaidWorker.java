@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -28,12 +28,12 @@ import com.aoapps.lang.Strings;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.SingleResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.SingleResult;
 import java.io.File;
 import java.io.IOException;
-import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -81,8 +81,13 @@ class ThreeWareRaidWorker extends SingleResultWorker {
   }
 
   @Override
-  protected String getReport() throws IOException, SQLException {
-    return linuxServer.get3wareRaidReport();
+  protected String getTargetHost() {
+    return linuxServer.toString();
+  }
+
+  @Override
+  protected String getReport() throws Exception {
+    return DaemonBulkheads.call(linuxServer, linuxServer::get3wareRaidReport);
   }
 
   /**
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2012, 2013, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2012, 2013, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,6 +27,7 @@ import com.aoapps.hodgepodge.io.stream.StreamableInput;
 import com.aoapps.hodgepodge.io.stream.StreamableOutput;
 import com.aoapps.persistence.BufferedSerializer;
 import com.aoapps.sql.MilliInterval;
+import com.aoindustries.noc.monitor.ResultEncoding;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.UpsResult;
 import java.io.ByteArrayOutputStream;
@@ -40,26 +41,29 @@ import java.io.InputStream;
  */
 public class UpsResultSerializer extends BufferedSerializer<UpsResult> {
 
-  private static final int VERSION = 2;
+  private static final int VERSION = 3;
 
   private static void writeTimeSpan(MilliInterval value, DataOutput out) throws IOException {
-    out.writeLong(value == null ? Long.MIN_VALUE : value.getIntervalMillis());
+    out.writeBoolean(value != null);
+    if (value != null) {
+      ResultEncoding.writeVarSignedLong(value.getIntervalMillis(), out);
+    }
   }
 
-  private static MilliInterval readTimeSpan(DataInput in) throws IOException {
-    long value = in.readLong();
-    return value == Long.MIN_VALUE ? null : new MilliInterval(value);
+  private static MilliInterval readTimeSpan(int version, DataInput in) throws IOException {
+    if (version < 3) {
+      long value = in.readLong();
+      return value == Long.MIN_VALUE ? null : new MilliInterval(value);
+    }
+    return in.readBoolean() ? new MilliInterval(ResultEncoding.readVarSignedLong(in)) : null;
   }
 
   @Override
   protected void serialize(UpsResult value, ByteArrayOutputStream buffer) throws IOException {
     try (StreamableOutput out = new StreamableOutput(buffer)) {
       out.writeCompressedInt(VERSION);
-      out.writeLong(value.getTime());
-      out.writeLong(value.getLatency());
-      out.writeByte(value.getAlertLevel().ordinal());
+      ResultEncoding.writeHeader(value, out);
       String error = value.getError();
-      out.writeNullUTF(error);
       if (error == null) {
         out.writeNullUTF(value.getUpsname());
         out.writeNullUTF(value.getStatus());
@@ -87,40 +91,50 @@ public class UpsResultSerializer extends BufferedSerializer<UpsResult> {
   public UpsResult deserialize(InputStream rawIn) throws IOException {
     try (StreamableInput in = new StreamableInput(rawIn)) {
       int version = in.readCompressedInt();
-      if (version == 1 || version == 2) {
-        long time = in.readLong();
-        long latency = in.readLong();
-        AlertLevel alertLevel = AlertLevel.fromOrdinal(in.readByte());
-        String error = in.readNullUTF();
-        if (error != null) {
-          return new UpsResult(time, latency, alertLevel, error);
-        }
-        return new UpsResult(
-            time,
-            latency,
-            alertLevel,
-            in.readNullUTF(),
-            in.readNullUTF(),
-            in.readFloat(),
-            in.readFloat(),
-            in.readFloat(),
-            in.readFloat(),
-            in.readFloat(),
-            in.readFloat(),
-            in.readFloat(),
-            in.readFloat(),
-            in.readFloat(),
-            in.readFloat(),
-            in.readCompressedInt(),
-            in.readCompressedInt(),
-            readTimeSpan(in),
-            version == 1 ? null : readTimeSpan(in), // cumonbatt added in version 2
-            readTimeSpan(in),
-            in.readFloat()
-        );
+      long time;
+      long latency;
+      AlertLevel alertLevel;
+      String error;
+      if (version == 3) {
+        int flags = ResultEncoding.readFlags(in);
+        time = ResultEncoding.readTime(in);
+        latency = ResultEncoding.readLatency(in);
+        alertLevel = ResultEncoding.getAlertLevel(flags);
+        error = ResultEncoding.readError(flags, in);
+      } else if (version == 1 || version == 2) {
+        time = in.readLong();
+        latency = in.readLong();
+        alertLevel = AlertLevel.fromOrdinal(in.readByte());
+        error = in.readNullUTF();
       } else {
         throw new IOException("Unsupported object version: " + version);
       }
+      if (error != null) {
+        return new UpsResult(time, latency, alertLevel, error);
+      }
+      return new UpsResult(
+          time,
+          latency,
+          alertLevel,
+          in.readNullUTF(),
+          in.readNullUTF(),
+          in.readFloat(),
+          in.readFloat(),
+          in.readFloat(),
+          in.readFloat(),
+          in.readFloat(),
+          in.readFloat(),
+          in.readFloat(),
+          in.readFloat(),
+          in.readFloat(),
+          in.readFloat(),
+          in.readCompressedInt(),
+          in.readCompressedInt(),
+          readTimeSpan(version, in),
+          version == 1 ? null : readTimeSpan(version, in), // cumonbatt added in version 2
+          readTimeSpan(version, in),
+          in.readFloat()
+      );
     }
   }
 }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2012, 2013, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2025  AO Industries, Inc.
+ * Copyright (C) 2012, 2013, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,6 +27,7 @@ import com.aoapps.lang.i18n.Resources;
 import com.aoapps.sql.MilliInterval;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.TableMultiResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.UpsResult;
@@ -118,14 +119,29 @@ class UpsWorker extends TableMultiResultWorker<UpsStatus, UpsResult> {
   /**
    * Keep approximately one week of results.
    */
+  /**
+   * Rollup columns are line voltage, output voltage, load percent, battery charge, battery voltage, and internal temperature.
+   */
+  @Override
+  protected double[] getRollupValues(UpsResult result) {
+    return new double[] {
+        result.getLinev(),
+        result.getOutputv(),
+        result.getLoadpct(),
+        result.getBcharge(),
+        result.getBattv(),
+        result.getItemp()
+    };
+  }
+
   @Override
-  protected int getHistorySize() {
-    return 10000;
+  protected String getTargetHost() {
+    return server.toString();
   }
 
   @Override
   protected UpsStatus getSample() throws Exception {
-    return new UpsStatus(server.getUpsStatus());
+    return new UpsStatus(DaemonBulkheads.call(server, server::getUpsStatus));
   }
 
   @Override
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2024, 2025  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2024, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -29,6 +29,7 @@ import com.aoapps.lang.i18n.Resources;
 import com.aoapps.lang.i18n.ThreadLocale;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.TableResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.TableResult;
@@ -160,9 +161,14 @@ class FilesystemsWorker extends TableResultWorker<List<String>, String> {
     return (b == null) ? "" : (b + "%");
   }
 
+  @Override
+  protected String getTargetHost() {
+    return linuxServer.toString();
+  }
+
   @Override
   protected List<String> getQueryResult() throws Exception {
-    Collection<Server.FilesystemReport> report = linuxServer.getFilesystemsReport().values();
+    Collection<Server.FilesystemReport> report = DaemonBulkheads.call(linuxServer, linuxServer::getFilesystemsReport).values();
 
     // Read the report, line-by-line
     List<String> tableData = new ArrayList<>(report.size() * COLUMNS);
@@ -0,0 +1,108 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor.linux;
+
+/**
+ * One sample of the load average, with the limits at the time of the sample.
+ *
+ * @author  AO Industries, Inc.
+ */
+class LoadAverage {
+
+  private final float oneMinute;
+  private final float fiveMinute;
+  private final float tenMinute;
+  private final int runningProcesses;
+  private final int totalProcesses;
+  private final int lastPid;
+  private final float loadLow;
+  private final float loadMedium;
+  private final float loadHigh;
+  private final float loadCritical;
+
+  LoadAverage(
+      float oneMinute,
+      float fiveMinute,
+      float tenMinute,
+      int runningProcesses,
+      int totalProcesses,
+      int lastPid,
+      float loadLow,
+      float loadMedium,
+      float loadHigh,
+      float loadCritical
+  ) {
+    this.oneMinute = oneMinute;
+    this.fiveMinute = fiveMinute;
+    this.tenMinute = tenMinute;
+    this.runningProcesses = runningProcesses;
+    this.totalProcesses = totalProcesses;
+    this.lastPid = lastPid;
+    this.loadLow = loadLow;
+    this.loadMedium = loadMedium;
+    this.loadHigh = loadHigh;
+    this.loadCritical = loadCritical;
+  }
+
+  float getOneMinute() {
+    return oneMinute;
+  }
+
+  float getFiveMinute() {
+    return fiveMinute;
+  }
+
+  float getTenMinute() {
+    return tenMinute;
+  }
+
+  int getRunningProcesses() {
+    return runningProcesses;
+  }
+
+  int getTotalProcesses() {
+    return totalProcesses;
+  }
+
+  int getLastPid() {
+    return lastPid;
+  }
+
+  float getLoadLow() {
+    return loadLow;
+  }
+
+  float getLoadMedium() {
+    return loadMedium;
+  }
+
+  float getLoadHigh() {
+    return loadHigh;
+  }
+
+  float getLoadCritical() {
+    return loadCritical;
+  }
+}
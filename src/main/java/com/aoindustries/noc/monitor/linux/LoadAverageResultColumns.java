@@ -0,0 +1,80 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor.linux;
+
+import com.aoindustries.noc.monitor.ResultColumns;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.LoadAverageResult;
+
+/**
+ * Stores {@link LoadAverageResult} in memory as primitive columns:
+ * load averages and limits as float columns, process counts and last PID as int columns.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class LoadAverageResultColumns extends ResultColumns<LoadAverageResult> {
+
+  public LoadAverageResultColumns() {
+    super(7, 3, 0);
+  }
+
+  @Override
+  protected void getValues(LoadAverageResult result, Row row) {
+    row.setFloat(0, result.getOneMinute());
+    row.setFloat(1, result.getFiveMinute());
+    row.setFloat(2, result.getTenMinute());
+    row.setFloat(3, result.getLoadLow());
+    row.setFloat(4, result.getLoadMedium());
+    row.setFloat(5, result.getLoadHigh());
+    row.setFloat(6, result.getLoadCritical());
+    row.setInt(0, result.getRunningProcesses());
+    row.setInt(1, result.getTotalProcesses());
+    row.setInt(2, result.getLastPid());
+  }
+
+  @Override
+  protected LoadAverageResult newErrorResult(long time, long latency, AlertLevel alertLevel, String error) {
+    return new LoadAverageResult(time, latency, alertLevel, error);
+  }
+
+  @Override
+  protected LoadAverageResult newSampleResult(long time, long latency, AlertLevel alertLevel, Row row) {
+    return new LoadAverageResult(
+        time,
+        latency,
+        alertLevel,
+        row.getFloat(0),
+        row.getFloat(1),
+        row.getFloat(2),
+        row.getInt(0),
+        row.getInt(1),
+        row.getInt(2),
+        row.getFloat(3),
+        row.getFloat(4),
+        row.getFloat(5),
+        row.getFloat(6)
+    );
+  }
+}
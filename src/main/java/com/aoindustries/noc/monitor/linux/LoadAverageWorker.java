@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2012, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2012, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -26,22 +26,21 @@ package com.aoindustries.noc.monitor.linux;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.TableMultiResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.LoadAverageResult;
 import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 
 /**
  * @author  AO Industries, Inc.
  */
-class LoadAverageWorker extends TableMultiResultWorker<List<Number>, LoadAverageResult> {
+class LoadAverageWorker extends TableMultiResultWorker<LoadAverage, LoadAverageResult> {
 
   private static final Resources RESOURCES =
       Resources.getResources(ResourceBundle::getBundle, LoadAverageWorker.class);
@@ -71,20 +70,34 @@ class LoadAverageWorker extends TableMultiResultWorker<List<Number>, LoadAverage
   private Server currentLinuxServer;
 
   private LoadAverageWorker(File persistenceDirectory, Server linuxServer) throws IOException {
-    super(new File(persistenceDirectory, "loadavg"), new LoadAverageResultSerializer());
+    super(new File(persistenceDirectory, "loadavg"), new LoadAverageResultSerializer(), new LoadAverageResultColumns());
     this.originalLinuxServer = currentLinuxServer = linuxServer;
   }
 
+  /**
+   * Rollup columns are one, five, and ten minute load averages, running processes, and total processes.
+   */
+  @Override
+  protected double[] getRollupValues(LoadAverageResult result) {
+    return new double[] {
+        result.getOneMinute(),
+        result.getFiveMinute(),
+        result.getTenMinute(),
+        result.getRunningProcesses(),
+        result.getTotalProcesses()
+    };
+  }
+
   @Override
-  protected int getHistorySize() {
-    return 2000;
+  protected String getTargetHost() {
+    return originalLinuxServer.toString();
   }
 
   @Override
-  protected List<Number> getSample() throws Exception {
+  protected LoadAverage getSample() throws Exception {
     // Get the latest limits
     currentLinuxServer = originalLinuxServer.getTable().getConnector().getLinux().getServer().get(originalLinuxServer.getPkey());
-    String loadavg = currentLinuxServer.getLoadAvgReport();
+    String loadavg = DaemonBulkheads.call(currentLinuxServer, currentLinuxServer::getLoadAvgReport);
     int pos1 = loadavg.indexOf(' ');
     if (pos1 == -1) {
       throw new ParseException("Unable to find first space in loadavg", 0);
@@ -105,7 +118,7 @@ class LoadAverageWorker extends TableMultiResultWorker<List<Number>, LoadAverage
     if (pos5 == -1) {
       throw new ParseException("Unable to find fourth space in loadavg", pos4 + 1);
     }
-    return Arrays.asList(
+    return new LoadAverage(
         Float.parseFloat(loadavg.substring(0, pos1)),
         Float.parseFloat(loadavg.substring(pos1 + 1, pos2)),
         Float.parseFloat(loadavg.substring(pos2 + 1, pos3)),
@@ -120,8 +133,8 @@ class LoadAverageWorker extends TableMultiResultWorker<List<Number>, LoadAverage
   }
 
   @Override
-  protected AlertLevelAndMessage getAlertLevelAndMessage(List<Number> sample, Iterable<? extends LoadAverageResult> previousResults) throws Exception {
-    float fiveMinuteAverage = (Float) sample.get(1);
+  protected AlertLevelAndMessage getAlertLevelAndMessage(LoadAverage sample, Iterable<? extends LoadAverageResult> previousResults) throws Exception {
+    float fiveMinuteAverage = sample.getFiveMinute();
     float loadCritical = currentLinuxServer.getMonitoringLoadCritical();
     if (!Float.isNaN(loadCritical) && fiveMinuteAverage >= loadCritical) {
       return new AlertLevelAndMessage(
@@ -198,21 +211,21 @@ class LoadAverageWorker extends TableMultiResultWorker<List<Number>, LoadAverage
   }
 
   @Override
-  protected LoadAverageResult newSampleResult(long time, long latency, AlertLevel alertLevel, List<Number> sample) {
+  protected LoadAverageResult newSampleResult(long time, long latency, AlertLevel alertLevel, LoadAverage sample) {
     return new LoadAverageResult(
         time,
         latency,
         alertLevel,
-        (Float) sample.get(0),
-        (Float) sample.get(1),
-        (Float) sample.get(2),
-        (Integer) sample.get(3),
-        (Integer) sample.get(4),
-        (Integer) sample.get(5),
-        (Float) sample.get(6),
-        (Float) sample.get(7),
-        (Float) sample.get(8),
-        (Float) sample.get(9)
+        sample.getOneMinute(),
+        sample.getFiveMinute(),
+        sample.getTenMinute(),
+        sample.getRunningProcesses(),
+        sample.getTotalProcesses(),
+        sample.getLastPid(),
+        sample.getLoadLow(),
+        sample.getLoadMedium(),
+        sample.getLoadHigh(),
+        sample.getLoadCritical()
     );
   }
 }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -28,6 +28,7 @@ import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.aoserv.client.linux.Server.MdMismatchReport;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.TableResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.TableResult;
@@ -128,9 +129,14 @@ class MdMismatchWorker extends TableResultWorker<List<MdMismatchReport>, String>
     );
   }
 
+  @Override
+  protected String getTargetHost() {
+    return linuxServer.toString();
+  }
+
   @Override
   protected List<MdMismatchReport> getQueryResult() throws Exception {
-    return linuxServer.getMdMismatchReport();
+    return DaemonBulkheads.call(linuxServer, linuxServer::getMdMismatchReport);
   }
 
   @Override
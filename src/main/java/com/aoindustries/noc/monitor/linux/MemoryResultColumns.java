@@ -0,0 +1,72 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor.linux;
+
+import com.aoindustries.noc.monitor.ResultColumns;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.MemoryResult;
+
+/**
+ * Stores {@link MemoryResult} in memory as primitive columns:
+ * memory and swap sizes as long columns.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class MemoryResultColumns extends ResultColumns<MemoryResult> {
+
+  public MemoryResultColumns() {
+    super(0, 0, 6);
+  }
+
+  @Override
+  protected void getValues(MemoryResult result, Row row) {
+    row.setLong(0, result.getMemTotal());
+    row.setLong(1, result.getMemFree());
+    row.setLong(2, result.getBuffers());
+    row.setLong(3, result.getCached());
+    row.setLong(4, result.getSwapTotal());
+    row.setLong(5, result.getSwapFree());
+  }
+
+  @Override
+  protected MemoryResult newErrorResult(long time, long latency, AlertLevel alertLevel, String error) {
+    return new MemoryResult(time, latency, alertLevel, error);
+  }
+
+  @Override
+  protected MemoryResult newSampleResult(long time, long latency, AlertLevel alertLevel, Row row) {
+    return new MemoryResult(
+        time,
+        latency,
+        alertLevel,
+        row.getLong(0),
+        row.getLong(1),
+        row.getLong(2),
+        row.getLong(3),
+        row.getLong(4),
+        row.getLong(5)
+    );
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -26,9 +26,11 @@ package com.aoindustries.noc.monitor.linux;
 import com.aoapps.hodgepodge.io.stream.StreamableInput;
 import com.aoapps.hodgepodge.io.stream.StreamableOutput;
 import com.aoapps.persistence.BufferedSerializer;
+import com.aoindustries.noc.monitor.ResultEncoding;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.MemoryResult;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -37,24 +39,28 @@ import java.io.InputStream;
  */
 public class MemoryResultSerializer extends BufferedSerializer<MemoryResult> {
 
-  private static final int VERSION = 1;
+  private static final int VERSION = 2;
+
+  /**
+   * The values are variable-length since version 2.
+   */
+  private static long readValue(int version, DataInput in) throws IOException {
+    return version == 1 ? in.readLong() : ResultEncoding.readVarSignedLong(in);
+  }
 
   @Override
   protected void serialize(MemoryResult value, ByteArrayOutputStream buffer) throws IOException {
     try (StreamableOutput out = new StreamableOutput(buffer)) {
       out.writeCompressedInt(VERSION);
-      out.writeLong(value.getTime());
-      out.writeLong(value.getLatency());
-      out.writeByte(value.getAlertLevel().ordinal());
+      ResultEncoding.writeHeader(value, out);
       String error = value.getError();
-      out.writeNullUTF(error);
       if (error == null) {
-        out.writeLong(value.getMemTotal());
-        out.writeLong(value.getMemFree());
-        out.writeLong(value.getBuffers());
-        out.writeLong(value.getCached());
-        out.writeLong(value.getSwapTotal());
-        out.writeLong(value.getSwapFree());
+        ResultEncoding.writeVarSignedLong(value.getMemTotal(), out);
+        ResultEncoding.writeVarSignedLong(value.getMemFree(), out);
+        ResultEncoding.writeVarSignedLong(value.getBuffers(), out);
+        ResultEncoding.writeVarSignedLong(value.getCached(), out);
+        ResultEncoding.writeVarSignedLong(value.getSwapTotal(), out);
+        ResultEncoding.writeVarSignedLong(value.getSwapFree(), out);
       }
     }
   }
@@ -63,28 +69,38 @@ public class MemoryResultSerializer extends BufferedSerializer<MemoryResult> {
   public MemoryResult deserialize(InputStream rawIn) throws IOException {
     try (StreamableInput in = new StreamableInput(rawIn)) {
       int version = in.readCompressedInt();
-      if (version == 1) {
-        long time = in.readLong();
-        long latency = in.readLong();
-        AlertLevel alertLevel = AlertLevel.fromOrdinal(in.readByte());
-        String error = in.readNullUTF();
-        if (error != null) {
-          return new MemoryResult(time, latency, alertLevel, error);
-        }
-        return new MemoryResult(
-            time,
-            latency,
-            alertLevel,
-            in.readLong(),
-            in.readLong(),
-            in.readLong(),
-            in.readLong(),
-            in.readLong(),
-            in.readLong()
-        );
+      long time;
+      long latency;
+      AlertLevel alertLevel;
+      String error;
+      if (version == 2) {
+        int flags = ResultEncoding.readFlags(in);
+        time = ResultEncoding.readTime(in);
+        latency = ResultEncoding.readLatency(in);
+        alertLevel = ResultEncoding.getAlertLevel(flags);
+        error = ResultEncoding.readError(flags, in);
+      } else if (version == 1) {
+        time = in.readLong();
+        latency = in.readLong();
+        alertLevel = AlertLevel.fromOrdinal(in.readByte());
+        error = in.readNullUTF();
       } else {
         throw new IOException("Unsupported object version: " + version);
       }
+      if (error != null) {
+        return new MemoryResult(time, latency, alertLevel, error);
+      }
+      return new MemoryResult(
+          time,
+          latency,
+          alertLevel,
+          readValue(version, in),
+          readValue(version, in),
+          readValue(version, in),
+          readValue(version, in),
+          readValue(version, in),
+          readValue(version, in)
+      );
     }
   }
 }
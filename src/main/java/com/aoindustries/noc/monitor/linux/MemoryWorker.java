@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2012, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2012, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,6 +27,7 @@ import com.aoapps.lang.Strings;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.TableMultiResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.ApproximateDisplayExactSize;
@@ -82,13 +83,28 @@ class MemoryWorker extends TableMultiResultWorker<List<ApproximateDisplayExactSi
   private Server currentLinuxServer;
 
   private MemoryWorker(File persistenceDirectory, Server linuxServer) throws IOException {
-    super(new File(persistenceDirectory, "meminfo"), new MemoryResultSerializer());
+    super(new File(persistenceDirectory, "meminfo"), new MemoryResultSerializer(), new MemoryResultColumns());
     this.originalLinuxServer = currentLinuxServer = linuxServer;
   }
 
+  /**
+   * Rollup columns are total memory, free memory, buffers, cached, total swap, and free swap.
+   */
+  @Override
+  protected double[] getRollupValues(MemoryResult result) {
+    return new double[] {
+        result.getMemTotal(),
+        result.getMemFree(),
+        result.getBuffers(),
+        result.getCached(),
+        result.getSwapTotal(),
+        result.getSwapFree()
+    };
+  }
+
   @Override
-  protected int getHistorySize() {
-    return 2000;
+  protected String getTargetHost() {
+    return originalLinuxServer.toString();
   }
 
   @Override
@@ -96,7 +112,7 @@ class MemoryWorker extends TableMultiResultWorker<List<ApproximateDisplayExactSi
   protected List<ApproximateDisplayExactSize> getSample() throws Exception {
     // Get the latest limits
     currentLinuxServer = originalLinuxServer.getTable().getConnector().getLinux().getServer().get(originalLinuxServer.getPkey());
-    String meminfo = currentLinuxServer.getMemInfoReport();
+    String meminfo = DaemonBulkheads.call(currentLinuxServer, currentLinuxServer::getMemInfoReport);
     long memTotal = -1;
     long memFree = -1;
     long buffers = -1;
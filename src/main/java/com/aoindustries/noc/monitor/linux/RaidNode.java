@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2013, 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008-2013, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -26,7 +26,6 @@ package com.aoindustries.noc.monitor.linux;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.distribution.OperatingSystemVersion;
 import com.aoindustries.aoserv.client.linux.Server;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.infrastructure.DrbdNode;
@@ -98,14 +97,7 @@ public class RaidNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            this.threeWareRaidNode,
-            this.mdStatNode,
-            this.mdMismatchNode,
-            this.drbdNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -137,19 +129,19 @@ public class RaidNode extends NodeImpl {
         if (threeWareRaidNode == null) {
           threeWareRaidNode = new ThreeWareRaidNode(this, port, csf, ssf);
           threeWareRaidNode.start();
-          hostNode.hostsNode.rootNode.nodeAdded();
+          hostNode.hostsNode.rootNode.nodeAdded(this);
         }
       }
       // Any machine may have MD RAID (at least until all services run in Xen outers)
       if (mdStatNode == null) {
         mdStatNode = new MdStatNode(this, port, csf, ssf);
         mdStatNode.start();
-        hostNode.hostsNode.rootNode.nodeAdded();
+        hostNode.hostsNode.rootNode.nodeAdded(this);
       }
       if (mdMismatchNode == null) {
         mdMismatchNode = new MdMismatchNode(this, port, csf, ssf);
         mdMismatchNode.start();
-        hostNode.hostsNode.rootNode.nodeAdded();
+        hostNode.hostsNode.rootNode.nodeAdded(this);
       }
       // We only run DRBD in xen outers
       if (
@@ -160,7 +152,7 @@ public class RaidNode extends NodeImpl {
         if (drbdNode == null) {
           drbdNode = new DrbdNode(this, port, csf, ssf);
           drbdNode.start();
-          hostNode.hostsNode.rootNode.nodeAdded();
+          hostNode.hostsNode.rootNode.nodeAdded(this);
         }
       }
     }
@@ -172,22 +164,22 @@ public class RaidNode extends NodeImpl {
       if (threeWareRaidNode != null) {
         threeWareRaidNode.stop();
         threeWareRaidNode = null;
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       if (mdStatNode != null) {
         mdStatNode.stop();
         mdStatNode = null;
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       if (mdMismatchNode != null) {
         mdMismatchNode.stop();
         mdMismatchNode = null;
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       if (drbdNode != null) {
         drbdNode.stop();
         drbdNode = null;
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
     }
   }
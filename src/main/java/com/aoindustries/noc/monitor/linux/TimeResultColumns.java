@@ -0,0 +1,62 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor.linux;
+
+import com.aoindustries.noc.monitor.ResultColumns;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.TimeResult;
+
+/**
+ * Stores {@link TimeResult} in memory as primitive columns:
+ * the clock skew as a long column.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class TimeResultColumns extends ResultColumns<TimeResult> {
+
+  public TimeResultColumns() {
+    super(0, 0, 1);
+  }
+
+  @Override
+  protected void getValues(TimeResult result, Row row) {
+    row.setLong(0, result.getSkew());
+  }
+
+  @Override
+  protected TimeResult newErrorResult(long time, long latency, AlertLevel alertLevel, String error) {
+    return new TimeResult(time, latency, alertLevel, error);
+  }
+
+  @Override
+  protected TimeResult newSampleResult(long time, long latency, AlertLevel alertLevel, Row row) {
+    return new TimeResult(
+        time,
+        latency,
+        alertLevel,
+        row.getLong(0)
+    );
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2013, 2016, 2018, 2019, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2013, 2016, 2018, 2019, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,6 +27,7 @@ import com.aoapps.lang.i18n.Resources;
 import com.aoapps.sql.MilliInterval;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.noc.monitor.AlertLevelAndMessage;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.TableMultiResultWorker;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.TimeResult;
@@ -85,31 +86,42 @@ class TimeWorker extends TableMultiResultWorker<MilliInterval, TimeResult> {
   private Server currentLinuxServer;
 
   private TimeWorker(File persistenceDirectory, Server linuxServer) throws IOException {
-    super(new File(persistenceDirectory, "time"), new TimeResultSerializer());
+    super(new File(persistenceDirectory, "time"), new TimeResultSerializer(), new TimeResultColumns());
     this.originalLinuxServer = currentLinuxServer = linuxServer;
   }
 
+  /**
+   * Rollup columns are clock skew in milliseconds.
+   */
+  @Override
+  protected double[] getRollupValues(TimeResult result) {
+    return new double[] {result.getSkew()};
+  }
+
   @Override
-  protected int getHistorySize() {
-    return 2000;
+  protected String getTargetHost() {
+    return originalLinuxServer.toString();
   }
 
   @Override
   protected MilliInterval getSample() throws Exception {
     // Get the latest limits
-    currentLinuxServer = originalLinuxServer.getTable().getConnector().getLinux().getServer().get(originalLinuxServer.getPkey());
-
-    long requestTime = System.currentTimeMillis();
-    long startNanos = System.nanoTime();
-    long systemTime = currentLinuxServer.getSystemTimeMillis();
-    long latency = System.nanoTime() - startNanos;
-    long latencyRemainder = latency % 2000000;
-    long skew = systemTime - (requestTime + latency / 2000000);
-    if (latencyRemainder >= 1000000) {
-      skew--;
-    }
-
-    return new MilliInterval(skew);
+    final Server linuxServer = originalLinuxServer.getTable().getConnector().getLinux().getServer().get(originalLinuxServer.getPkey());
+    currentLinuxServer = linuxServer;
+
+    // Measured within the bulkhead so time waiting for a permit is not counted as latency
+    return DaemonBulkheads.call(linuxServer, () -> {
+      long requestTime = System.currentTimeMillis();
+      long startNanos = System.nanoTime();
+      long systemTime = linuxServer.getSystemTimeMillis();
+      long latency = System.nanoTime() - startNanos;
+      long latencyRemainder = latency % 2000000;
+      long skew = systemTime - (requestTime + latency / 2000000);
+      if (latencyRemainder >= 1000000) {
+        skew--;
+      }
+      return new MilliInterval(skew);
+    });
   }
 
   private static AlertLevel getAlertLevel(long skew) {
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009-2013, 2014, 2016, 2017, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009-2013, 2014, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -25,7 +25,6 @@ package com.aoindustries.noc.monitor.mysql;
 
 import com.aoindustries.aoserv.client.backup.MysqlReplication;
 import com.aoindustries.aoserv.client.mysql.Database;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.TableResultNodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import java.io.File;
@@ -104,12 +103,7 @@ public class DatabaseNode extends TableResultNodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            super.getAlertLevel(),
-            this.checkTablesNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   @Override
@@ -136,7 +130,7 @@ public class DatabaseNode extends TableResultNodeImpl {
       if (checkTablesNode == null) {
         checkTablesNode = new CheckTablesNode(this, port, csf, ssf);
         checkTablesNode.start();
-        databasesNode.serverNode.serversNode.hostNode.hostsNode.rootNode.nodeAdded();
+        databasesNode.serverNode.serversNode.hostNode.hostsNode.rootNode.nodeAdded(this);
       }
       super.start();
     }
@@ -150,7 +144,7 @@ public class DatabaseNode extends TableResultNodeImpl {
       if (checkTablesNode != null) {
         checkTablesNode.stop();
         checkTablesNode = null;
-        databasesNode.serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved();
+        databasesNode.serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
     }
   }
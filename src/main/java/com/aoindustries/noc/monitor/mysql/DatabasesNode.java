@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009-2013, 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009-2013, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -28,7 +28,6 @@ import com.aoapps.hodgepodge.table.TableListener;
 import com.aoapps.lang.exception.WrappedException;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.mysql.Database;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import java.io.File;
@@ -94,13 +93,7 @@ public class DatabasesNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (databaseNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(
-          databaseNodes
-      );
-    }
-    return constrainAlertLevel(level);
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -141,7 +134,7 @@ public class DatabasesNode extends NodeImpl {
       serverNode.serversNode.hostNode.hostsNode.rootNode.conn.getMysql().getDatabase().removeTableListener(tableListener);
       for (DatabaseNode mysqlDatabaseNode : databaseNodes) {
         mysqlDatabaseNode.stop();
-        serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved();
+        serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       databaseNodes.clear();
     }
@@ -167,7 +160,7 @@ public class DatabasesNode extends NodeImpl {
           if (!databases.contains(database)) {
             databaseNode.stop();
             databaseNodeIter.remove();
-            serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved();
+            serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved(this);
           }
         }
         // Add new ones
@@ -178,7 +171,7 @@ public class DatabasesNode extends NodeImpl {
             DatabaseNode databaseNode = new DatabaseNode(this, database, slaveNode != null ? slaveNode.getMysqlReplication() : null, port, csf, ssf);
             databaseNodes.add(c, databaseNode);
             databaseNode.start();
-            serverNode.serversNode.hostNode.hostsNode.rootNode.nodeAdded();
+            serverNode.serversNode.hostNode.hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
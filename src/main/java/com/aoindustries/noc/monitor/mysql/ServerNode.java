@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009, 2014, 2016, 2017, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009, 2014, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,7 +27,6 @@ import com.aoapps.hodgepodge.table.Table;
 import com.aoapps.hodgepodge.table.TableListener;
 import com.aoapps.lang.exception.WrappedException;
 import com.aoindustries.aoserv.client.mysql.Server;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.RootNodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
@@ -93,12 +92,7 @@ public class ServerNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            this.slavesNode,
-            this.databasesNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -138,7 +132,7 @@ public class ServerNode extends NodeImpl {
         if (databasesNode == null) {
           databasesNode = new DatabasesNode(this, port, csf, ssf);
           databasesNode.start();
-          rootNode.nodeAdded();
+          rootNode.nodeAdded(this);
         }
       }
     }
@@ -154,13 +148,13 @@ public class ServerNode extends NodeImpl {
       if (slavesNode != null) {
         slavesNode.stop();
         slavesNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
 
       if (databasesNode != null) {
         databasesNode.stop();
         databasesNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
     }
   }
@@ -182,13 +176,13 @@ public class ServerNode extends NodeImpl {
           if (slavesNode == null) {
             slavesNode = new SlavesNode(this, port, csf, ssf);
             slavesNode.start();
-            serversNode.hostNode.hostsNode.rootNode.nodeAdded();
+            serversNode.hostNode.hostsNode.rootNode.nodeAdded(this);
           }
         } else {
           if (slavesNode != null) {
             slavesNode.stop();
             slavesNode = null;
-            serversNode.hostNode.hostsNode.rootNode.nodeRemoved();
+            serversNode.hostNode.hostsNode.rootNode.nodeRemoved(this);
           }
         }
       }
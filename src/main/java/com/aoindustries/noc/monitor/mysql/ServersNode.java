@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -28,7 +28,6 @@ import com.aoapps.hodgepodge.table.TableListener;
 import com.aoapps.lang.exception.WrappedException;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.linux.Server;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.net.HostNode;
@@ -93,11 +92,7 @@ public class ServersNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (serverNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(serverNodes);
-    }
-    return constrainAlertLevel(level);
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -138,7 +133,7 @@ public class ServersNode extends NodeImpl {
       hostNode.hostsNode.rootNode.conn.getMysql().getServer().removeTableListener(tableListener);
       for (ServerNode serverNode : serverNodes) {
         serverNode.stop();
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       serverNodes.clear();
     }
@@ -164,7 +159,7 @@ public class ServersNode extends NodeImpl {
           if (!servers.contains(server)) {
             serverNode.stop();
             serverNodeIter.remove();
-            hostNode.hostsNode.rootNode.nodeRemoved();
+            hostNode.hostsNode.rootNode.nodeRemoved(this);
           }
         }
         // Add new ones
@@ -175,7 +170,7 @@ public class ServersNode extends NodeImpl {
             ServerNode serverNode = new ServerNode(this, server, port, csf, ssf);
             serverNodes.add(c, serverNode);
             serverNode.start();
-            hostNode.hostsNode.rootNode.nodeAdded();
+            hostNode.hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -112,12 +112,7 @@ public class SlaveNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            this.slaveStatusNode,
-            this.databasesNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -143,12 +138,12 @@ public class SlaveNode extends NodeImpl {
       if (slaveStatusNode == null) {
         slaveStatusNode = new SlaveStatusNode(this, port, csf, ssf);
         slaveStatusNode.start();
-        rootNode.nodeAdded();
+        rootNode.nodeAdded(this);
       }
       if (databasesNode == null) {
         databasesNode = new DatabasesNode(this, port, csf, ssf);
         databasesNode.start();
-        rootNode.nodeAdded();
+        rootNode.nodeAdded(this);
       }
     }
   }
@@ -160,13 +155,13 @@ public class SlaveNode extends NodeImpl {
       if (slaveStatusNode != null) {
         slaveStatusNode.stop();
         slaveStatusNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
 
       if (databasesNode != null) {
         databasesNode.stop();
         databasesNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
     }
   }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009-2012, 2016, 2018, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009-2012, 2016, 2018, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -77,11 +77,6 @@ class SlaveStatusWorker extends TableMultiResultWorker<List<String>, MysqlReplic
     this.originalMysqlReplication = currentMysqlReplication = mysqlReplication;
   }
 
-  @Override
-  protected int getHistorySize() {
-    return 2000;
-  }
-
   @Override
   protected List<String> getSample() throws Exception {
     // Get the latest values
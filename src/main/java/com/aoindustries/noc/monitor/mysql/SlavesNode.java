@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -28,7 +28,6 @@ import com.aoapps.hodgepodge.table.TableListener;
 import com.aoapps.lang.exception.WrappedException;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.backup.MysqlReplication;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import java.io.File;
@@ -87,11 +86,7 @@ public class SlavesNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (slaveNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(slaveNodes);
-    }
-    return constrainAlertLevel(level);
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -136,7 +131,7 @@ public class SlavesNode extends NodeImpl {
       serverNode.serversNode.hostNode.hostsNode.rootNode.conn.getNet().getHost().removeTableListener(tableListener);
       for (SlaveNode slaveNode : slaveNodes) {
         slaveNode.stop();
-        serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved();
+        serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       slaveNodes.clear();
     }
@@ -164,7 +159,7 @@ public class SlavesNode extends NodeImpl {
           if (!mysqlReplications.contains(mysqlReplication)) {
             slaveNode.stop();
             slaveNodeIter.remove();
-            serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved();
+            serverNode.serversNode.hostNode.hostsNode.rootNode.nodeRemoved(this);
           }
         }
         // Add new ones
@@ -175,7 +170,7 @@ public class SlavesNode extends NodeImpl {
             SlaveNode slaveNode = new SlaveNode(this, mysqlReplication, port, csf, ssf);
             slaveNodes.add(c, slaveNode);
             slaveNode.start();
-            serverNode.serversNode.hostNode.hostsNode.rootNode.nodeAdded();
+            serverNode.serversNode.hostNode.hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2001-2009, 2016, 2017, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2001-2009, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,6 +27,7 @@ import com.aoapps.net.InetAddress;
 import com.aoapps.net.Port;
 import com.aoapps.net.URIParameters;
 import com.aoindustries.aoserv.client.linux.Server;
+import com.aoindustries.noc.monitor.DaemonBulkheads;
 import com.aoindustries.noc.monitor.portmon.PortMonitor;
 
 /**
@@ -51,6 +52,6 @@ public class AoservDaemonPortMonitor extends PortMonitor {
 
   @Override
   public String checkPort() throws Exception {
-    return linuxServer.checkPort(ipAddress, port, appProtocol, monitoringParameters);
+    return DaemonBulkheads.call(linuxServer, () -> linuxServer.checkPort(ipAddress, port, appProtocol, monitoringParameters));
   }
 }
@@ -0,0 +1,50 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor.net;
+
+import com.aoindustries.noc.monitor.ResultRepeater;
+import com.aoindustries.noc.monitor.common.NetBindResult;
+import java.util.Objects;
+
+/**
+ * {@link NetBindResult} are repeats when their alert level, error, and result are the same,
+ * which is most of the time for a healthy service.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class BindResultRepeater implements ResultRepeater<NetBindResult> {
+
+  @Override
+  public boolean isRepeat(NetBindResult previous, NetBindResult result) {
+    return previous.getAlertLevel() == result.getAlertLevel()
+        && Objects.equals(previous.getError(), result.getError())
+        && Objects.equals(previous.getResult(), result.getResult());
+  }
+
+  @Override
+  public NetBindResult repeat(NetBindResult result, long time, long latency) {
+    return new NetBindResult(time, latency, result.getAlertLevel(), result.getError(), result.getResult());
+  }
+}
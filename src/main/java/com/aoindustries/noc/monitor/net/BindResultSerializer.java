@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009, 2014, 2017, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009, 2014, 2017, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,6 +27,7 @@ import com.aoapps.collections.AoCollections;
 import com.aoapps.hodgepodge.io.stream.StreamableInput;
 import com.aoapps.hodgepodge.io.stream.StreamableOutput;
 import com.aoapps.persistence.BufferedSerializer;
+import com.aoindustries.noc.monitor.ResultEncoding;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.NetBindResult;
 import java.io.ByteArrayOutputStream;
@@ -45,7 +46,7 @@ public class BindResultSerializer extends BufferedSerializer<NetBindResult> {
 
   private static final Logger logger = Logger.getLogger(BindResultSerializer.class.getName());
 
-  private static final int VERSION = 2;
+  private static final int VERSION = 3;
 
   /**
    * Commonly used strings are written as an index into this array.
@@ -83,14 +84,19 @@ public class BindResultSerializer extends BufferedSerializer<NetBindResult> {
   private static final String MESSAGE_ACCEPTED_SUFFIX = " Message accepted for delivery";
 
   /**
-   * The different encoding types.
+   * The different encoding types.  Since version 3, errors are part of the header written by
+   * {@link ResultEncoding} and {@link #ERROR} is no longer used.  {@link #MESSAGE_ACCEPTED} and
+   * {@link #RAW}, limited to 65535 bytes, are no longer written, replaced by {@link #MESSAGE_ACCEPTED_STRING}
+   * and {@link #RAW_STRING}.
    */
   private static final byte
       ERROR = 0,
       NULL_RESULT = 1,
       COMMON_RESULTS = 2,
       MESSAGE_ACCEPTED = 3,
-      RAW = 4;
+      RAW = 4,
+      MESSAGE_ACCEPTED_STRING = 5,
+      RAW_STRING = 6;
 
   private static final ConcurrentMap<String, Boolean> commonResultsSuggested = new ConcurrentHashMap<>();
 
@@ -98,14 +104,9 @@ public class BindResultSerializer extends BufferedSerializer<NetBindResult> {
   protected void serialize(NetBindResult value, ByteArrayOutputStream buffer) throws IOException {
     try (StreamableOutput out = new StreamableOutput(buffer)) {
       out.writeCompressedInt(VERSION);
-      out.writeLong(value.getTime());
-      out.writeLong(value.getLatency());
-      out.writeByte(value.getAlertLevel().ordinal());
+      ResultEncoding.writeHeader(value, out);
       String error = value.getError();
-      if (error != null) {
-        out.writeByte(ERROR);
-        out.writeUTF(error);
-      } else {
+      if (error == null) {
         String result = value.getResult();
         if (result == null) {
           out.writeByte(NULL_RESULT);
@@ -116,8 +117,8 @@ public class BindResultSerializer extends BufferedSerializer<NetBindResult> {
             out.writeCompressedInt(index);
           } else {
             if (result.endsWith(MESSAGE_ACCEPTED_SUFFIX)) {
-              out.writeByte(MESSAGE_ACCEPTED);
-              out.writeUTF(result.substring(0, result.length() - MESSAGE_ACCEPTED_SUFFIX.length()));
+              out.writeByte(MESSAGE_ACCEPTED_STRING);
+              ResultEncoding.writeString(result.substring(0, result.length() - MESSAGE_ACCEPTED_SUFFIX.length()), out);
             } else {
               if (
                   logger.isLoggable(Level.INFO)
@@ -127,8 +128,8 @@ public class BindResultSerializer extends BufferedSerializer<NetBindResult> {
               ) {
                 logger.info("Suggested value for commonResultsMap: \"" + result + "\"");
               }
-              out.writeByte(RAW);
-              out.writeUTF(result);
+              out.writeByte(RAW_STRING);
+              ResultEncoding.writeString(result, out);
             }
           }
         }
@@ -136,29 +137,48 @@ public class BindResultSerializer extends BufferedSerializer<NetBindResult> {
     }
   }
 
+  private static NetBindResult readResult(long time, long latency, AlertLevel alertLevel, byte encodingType, StreamableInput in) throws IOException {
+    switch (encodingType) {
+      case NULL_RESULT:
+        return new NetBindResult(time, latency, alertLevel, null, null);
+      case COMMON_RESULTS:
+        return new NetBindResult(time, latency, alertLevel, null, commonResults[in.readCompressedInt()]);
+      case MESSAGE_ACCEPTED:
+        return new NetBindResult(time, latency, alertLevel, null, in.readUTF() + MESSAGE_ACCEPTED_SUFFIX);
+      case RAW:
+        return new NetBindResult(time, latency, alertLevel, null, in.readUTF());
+      case MESSAGE_ACCEPTED_STRING:
+        return new NetBindResult(time, latency, alertLevel, null, ResultEncoding.readString(in) + MESSAGE_ACCEPTED_SUFFIX);
+      case RAW_STRING:
+        return new NetBindResult(time, latency, alertLevel, null, ResultEncoding.readString(in));
+      default:
+        throw new IOException("Unexpected value for encodingType: " + encodingType);
+    }
+  }
+
   @Override
   public NetBindResult deserialize(InputStream rawIn) throws IOException {
     try (StreamableInput in = new StreamableInput(rawIn)) {
       int version = in.readCompressedInt();
-      if (version == 2) {
+      if (version == 3) {
+        int flags = ResultEncoding.readFlags(in);
+        long time = ResultEncoding.readTime(in);
+        long latency = ResultEncoding.readLatency(in);
+        AlertLevel alertLevel = ResultEncoding.getAlertLevel(flags);
+        String error = ResultEncoding.readError(flags, in);
+        if (error != null) {
+          return new NetBindResult(time, latency, alertLevel, error, null);
+        }
+        return readResult(time, latency, alertLevel, in.readByte(), in);
+      } else if (version == 2) {
         long time = in.readLong();
         long latency = in.readLong();
         AlertLevel alertLevel = AlertLevel.fromOrdinal(in.readByte());
         byte encodingType = in.readByte();
-        switch (encodingType) {
-          case ERROR:
-            return new NetBindResult(time, latency, alertLevel, in.readUTF(), null);
-          case NULL_RESULT:
-            return new NetBindResult(time, latency, alertLevel, null, null);
-          case COMMON_RESULTS:
-            return new NetBindResult(time, latency, alertLevel, null, commonResults[in.readCompressedInt()]);
-          case MESSAGE_ACCEPTED:
-            return new NetBindResult(time, latency, alertLevel, null, in.readUTF() + MESSAGE_ACCEPTED_SUFFIX);
-          case RAW:
-            return new NetBindResult(time, latency, alertLevel, null, in.readUTF());
-          default:
-            throw new IOException("Unexpected value for encodingType: " + encodingType);
+        if (encodingType == ERROR) {
+          return new NetBindResult(time, latency, alertLevel, in.readUTF(), null);
         }
+        return readResult(time, latency, alertLevel, encodingType, in);
       } else if (version == 1) {
         long time = in.readLong();
         long latency = in.readLong();
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2009-2013, 2016, 2017, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2009-2013, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -88,13 +88,13 @@ class BindWorker extends TableMultiResultWorker<String, NetBindResult> {
   private volatile PortMonitor portMonitor;
 
   private BindWorker(File persistenceFile, BindsNode.NetMonitorSetting netMonitorSetting) throws IOException {
-    super(persistenceFile, new BindResultSerializer());
+    super(persistenceFile, new BindResultSerializer(), new BindResultRepeater());
     this.netMonitorSetting = netMonitorSetting;
   }
 
   @Override
-  protected int getHistorySize() {
-    return 2000;
+  protected String getTargetHost() {
+    return netMonitorSetting.getServer().toString();
   }
 
   @Override
@@ -133,6 +133,15 @@ class BindWorker extends TableMultiResultWorker<String, NetBindResult> {
     return portMonitor.checkPort();
   }
 
+  /**
+   * Port checks respond to {@link PortMonitor#cancel()}, so are run directly on
+   * the worker thread with the timeout enforced by the shared watchdog.
+   */
+  @Override
+  protected boolean useInlineTimeout() {
+    return true;
+  }
+
   @Override
   protected void cancel(Future<String> future) {
     super.cancel(future);
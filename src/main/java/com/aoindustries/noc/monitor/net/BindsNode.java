@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2016, 2017, 2018, 2019, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -34,7 +34,6 @@ import com.aoindustries.aoserv.client.net.Bind;
 import com.aoindustries.aoserv.client.net.Device;
 import com.aoindustries.aoserv.client.net.Host;
 import com.aoindustries.aoserv.client.net.IpAddress;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.RootNodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
@@ -97,11 +96,7 @@ public class BindsNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (netBindNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(netBindNodes);
-    }
-    return constrainAlertLevel(level);
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -161,7 +156,7 @@ public class BindsNode extends NodeImpl {
       conn.getNet().getDevice().removeTableListener(tableListener);
       for (BindNode netBindNode : netBindNodes) {
         netBindNode.stop();
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
       netBindNodes.clear();
     }
@@ -332,7 +327,7 @@ public class BindsNode extends NodeImpl {
           if (!netMonitorSettings.contains(netMonitorSetting)) {
             netBindNode.stop();
             netBindNodeIter.remove();
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
         // Add new ones
@@ -343,7 +338,7 @@ public class BindsNode extends NodeImpl {
             BindNode netBindNode = new BindNode(this, netMonitorSetting, port, csf, ssf);
             netBindNodes.add(c, netBindNode);
             netBindNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         }
       }
@@ -0,0 +1,76 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor.net;
+
+import com.aoindustries.noc.monitor.ResultColumns;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.NetDeviceBitRateResult;
+
+/**
+ * Stores {@link NetDeviceBitRateResult} in memory as primitive columns:
+ * bit and packet rates and limits as long columns.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class DeviceBitRateResultColumns extends ResultColumns<NetDeviceBitRateResult> {
+
+  public DeviceBitRateResultColumns() {
+    super(0, 0, 8);
+  }
+
+  @Override
+  protected void getValues(NetDeviceBitRateResult result, Row row) {
+    row.setLong(0, result.getTxBitsPerSecond());
+    row.setLong(1, result.getRxBitsPerSecond());
+    row.setLong(2, result.getTxPacketsPerSecond());
+    row.setLong(3, result.getRxPacketsPerSecond());
+    row.setLong(4, result.getBpsLow());
+    row.setLong(5, result.getBpsMedium());
+    row.setLong(6, result.getBpsHigh());
+    row.setLong(7, result.getBpsCritical());
+  }
+
+  @Override
+  protected NetDeviceBitRateResult newErrorResult(long time, long latency, AlertLevel alertLevel, String error) {
+    return new NetDeviceBitRateResult(time, latency, alertLevel, error);
+  }
+
+  @Override
+  protected NetDeviceBitRateResult newSampleResult(long time, long latency, AlertLevel alertLevel, Row row) {
+    return new NetDeviceBitRateResult(
+        time,
+        latency,
+        alertLevel,
+        row.getLong(0),
+        row.getLong(1),
+        row.getLong(2),
+        row.getLong(3),
+        row.getLong(4),
+        row.getLong(5),
+        row.getLong(6),
+        row.getLong(7)
+    );
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2013, 2016, 2018, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2013, 2016, 2018, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -82,13 +82,21 @@ class DeviceBitRateWorker extends TableMultiResultWorker<List<Object>, NetDevice
   private Device currentDevice;
 
   private DeviceBitRateWorker(File persistenceDirectory, Device device) throws IOException {
-    super(new File(persistenceDirectory, "bit_rate"), new DeviceBitRateResultSerializer());
+    super(new File(persistenceDirectory, "bit_rate"), new DeviceBitRateResultSerializer(), new DeviceBitRateResultColumns());
     this.originalDevice = currentDevice = device;
   }
 
+  /**
+   * Rollup columns are transmit bits, receive bits, transmit packets, and receive packets per second.
+   */
   @Override
-  protected int getHistorySize() {
-    return 2000;
+  protected double[] getRollupValues(NetDeviceBitRateResult result) {
+    return new double[] {
+        result.getTxBitsPerSecond(),
+        result.getRxBitsPerSecond(),
+        result.getTxPacketsPerSecond(),
+        result.getRxPacketsPerSecond()
+    };
   }
 
   private long lastStatsTime = -1;
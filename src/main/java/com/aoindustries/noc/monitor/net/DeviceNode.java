@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2012, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2025  AO Industries, Inc.
+ * Copyright (C) 2008-2012, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -30,7 +30,6 @@ import com.aoindustries.aoserv.client.AoservConnector;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.aoserv.client.net.Device;
 import com.aoindustries.aoserv.client.net.DeviceId;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.RootNodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
@@ -104,13 +103,7 @@ public class DeviceNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            this.deviceBitRateNode,
-            this.deviceBondingNode,
-            this.ipAddressesNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -157,17 +150,17 @@ public class DeviceNode extends NodeImpl {
       if (ipAddressesNode != null) {
         ipAddressesNode.stop();
         ipAddressesNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
       if (deviceBondingNode != null) {
         deviceBondingNode.stop();
         deviceBondingNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
       if (deviceBitRateNode != null) {
         deviceBitRateNode.stop();
         deviceBitRateNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
     }
   }
@@ -201,13 +194,13 @@ public class DeviceNode extends NodeImpl {
           if (deviceBitRateNode == null) {
             deviceBitRateNode = new DeviceBitRateNode(this, port, csf, ssf);
             deviceBitRateNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         } else {
           if (deviceBitRateNode != null) {
             deviceBitRateNode.stop();
             deviceBitRateNode = null;
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
         // bonding
@@ -222,13 +215,13 @@ public class DeviceNode extends NodeImpl {
           if (deviceBondingNode == null) {
             deviceBondingNode = new DeviceBondingNode(this, port, csf, ssf);
             deviceBondingNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         } else {
           if (deviceBondingNode != null) {
             deviceBondingNode.stop();
             deviceBondingNode = null;
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
         // IP Addresses
@@ -236,13 +229,13 @@ public class DeviceNode extends NodeImpl {
           if (ipAddressesNode == null) {
             ipAddressesNode = new IpAddressesNode(this, port, csf, ssf);
             ipAddressesNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         } else {
           if (ipAddressesNode != null) {
             ipAddressesNode.stop();
             ipAddressesNode = null;
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
       }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2025  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -29,7 +29,6 @@ import com.aoapps.lang.exception.WrappedException;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.net.Device;
 import com.aoindustries.aoserv.client.net.Host;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import java.io.File;
@@ -93,11 +92,7 @@ public class DevicesNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (deviceNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(deviceNodes);
-    }
-    return constrainAlertLevel(level);
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -138,7 +133,7 @@ public class DevicesNode extends NodeImpl {
       hostNode.hostsNode.rootNode.conn.getNet().getDevice().removeTableListener(tableListener);
       for (DeviceNode deviceNode : deviceNodes) {
         deviceNode.stop();
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       deviceNodes.clear();
     }
@@ -174,7 +169,7 @@ public class DevicesNode extends NodeImpl {
           if (!netDevices.contains(device)) {
             deviceNode.stop();
             netDeviceNodeIter.remove();
-            hostNode.hostsNode.rootNode.nodeRemoved();
+            hostNode.hostsNode.rootNode.nodeRemoved(this);
           }
         }
         // Add new ones
@@ -185,7 +180,7 @@ public class DevicesNode extends NodeImpl {
             DeviceNode deviceNode = new DeviceNode(this, device, port, csf, ssf);
             deviceNodes.add(c, deviceNode);
             deviceNode.start();
-            hostNode.hostsNode.rootNode.nodeAdded();
+            hostNode.hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2013, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2025  AO Industries, Inc.
+ * Copyright (C) 2008-2013, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -31,7 +31,6 @@ import com.aoindustries.aoserv.client.infrastructure.PhysicalServer;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.aoserv.client.net.Host;
 import com.aoindustries.aoserv.client.web.HttpdServer;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.backup.BackupsNode;
 import com.aoindustries.noc.monitor.common.AlertLevel;
@@ -129,22 +128,7 @@ public class HostNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            this.backupsNode,
-            this.devicesNode,
-            this.httpdServersNode,
-            this.mysqlServersNode,
-            this.hardDrivesNode,
-            this.raidNode,
-            this.sslCertificatesNode,
-            this.upsNode,
-            this.filesystemsNode,
-            this.loadAverageNode,
-            this.memoryNode,
-            this.timeNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -197,7 +181,7 @@ public class HostNode extends NodeImpl {
       if (backupsNode == null) {
         backupsNode = new BackupsNode(this, port, csf, ssf);
         backupsNode.start();
-        hostsNode.rootNode.nodeAdded();
+        hostsNode.rootNode.nodeAdded(this);
       }
     }
     verifyNetDevices();
@@ -229,62 +213,62 @@ public class HostNode extends NodeImpl {
       if (timeNode != null) {
         timeNode.stop();
         timeNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (memoryNode != null) {
         memoryNode.stop();
         memoryNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (loadAverageNode != null) {
         loadAverageNode.stop();
         loadAverageNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (filesystemsNode != null) {
         filesystemsNode.stop();
         filesystemsNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (upsNode != null) {
         upsNode.stop();
         upsNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (sslCertificatesNode != null) {
         sslCertificatesNode.stop();
         sslCertificatesNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (raidNode != null) {
         raidNode.stop();
         raidNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (hardDrivesNode != null) {
         hardDrivesNode.stop();
         hardDrivesNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (mysqlServersNode != null) {
         mysqlServersNode.stop();
         mysqlServersNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (httpdServersNode != null) {
         httpdServersNode.stop();
         httpdServersNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (devicesNode != null) {
         devicesNode.stop();
         devicesNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
       if (backupsNode != null) {
         backupsNode.stop();
         backupsNode = null;
-        hostsNode.rootNode.nodeRemoved();
+        hostsNode.rootNode.nodeRemoved(this);
       }
     }
   }
@@ -296,7 +280,7 @@ public class HostNode extends NodeImpl {
         if (devicesNode == null) {
           devicesNode = new DevicesNode(this, host, port, csf, ssf);
           devicesNode.start();
-          hostsNode.rootNode.nodeAdded();
+          hostsNode.rootNode.nodeAdded(this);
         }
       }
     }
@@ -320,14 +304,14 @@ public class HostNode extends NodeImpl {
           if (httpdServersNode == null) {
             httpdServersNode = new HttpdServersNode(this, linuxServer, port, csf, ssf);
             httpdServersNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         } else {
           // No HTTPD server
           if (httpdServersNode != null) {
             httpdServersNode.stop();
             httpdServersNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         }
       }
@@ -352,14 +336,14 @@ public class HostNode extends NodeImpl {
           if (mysqlServersNode == null) {
             mysqlServersNode = new ServersNode(this, linuxServer, port, csf, ssf);
             mysqlServersNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         } else {
           // No MySQL server
           if (mysqlServersNode != null) {
             mysqlServersNode.stop();
             mysqlServersNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         }
       }
@@ -392,14 +376,14 @@ public class HostNode extends NodeImpl {
           if (hardDrivesNode == null) {
             hardDrivesNode = new HardDrivesNode(this, linuxServer, port, csf, ssf);
             hardDrivesNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         } else {
           // No hddtemp monitoring
           if (hardDrivesNode != null) {
             hardDrivesNode.stop();
             hardDrivesNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         }
       }
@@ -423,14 +407,14 @@ public class HostNode extends NodeImpl {
           if (raidNode != null) {
             raidNode.stop();
             raidNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         } else {
           // Has raid monitoring
           if (raidNode == null) {
             raidNode = new RaidNode(this, linuxServer, port, csf, ssf);
             raidNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -455,14 +439,14 @@ public class HostNode extends NodeImpl {
           if (sslCertificatesNode != null) {
             sslCertificatesNode.stop();
             sslCertificatesNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         } else {
           // Has monitored SSL certificates
           if (sslCertificatesNode == null) {
             sslCertificatesNode = new CertificatesNode(this, linuxServer, port, csf, ssf);
             sslCertificatesNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -491,14 +475,14 @@ public class HostNode extends NodeImpl {
           if (upsNode != null) {
             upsNode.stop();
             upsNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         } else {
           // Has UPS monitoring
           if (upsNode == null) {
             upsNode = new UpsNode(this, linuxServer, port, csf, ssf);
             upsNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -522,14 +506,14 @@ public class HostNode extends NodeImpl {
           if (filesystemsNode != null) {
             filesystemsNode.stop();
             filesystemsNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         } else {
           // Has filesystem monitoring
           if (filesystemsNode == null) {
             filesystemsNode = new FilesystemsNode(this, linuxServer, port, csf, ssf);
             filesystemsNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -553,14 +537,14 @@ public class HostNode extends NodeImpl {
           if (loadAverageNode != null) {
             loadAverageNode.stop();
             loadAverageNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         } else {
           // Has load monitoring
           if (loadAverageNode == null) {
             loadAverageNode = new LoadAverageNode(this, linuxServer, port, csf, ssf);
             loadAverageNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -584,14 +568,14 @@ public class HostNode extends NodeImpl {
           if (memoryNode != null) {
             memoryNode.stop();
             memoryNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         } else {
           // Has memory monitoring
           if (memoryNode == null) {
             memoryNode = new MemoryNode(this, linuxServer, port, csf, ssf);
             memoryNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -615,14 +599,14 @@ public class HostNode extends NodeImpl {
           if (timeNode != null) {
             timeNode.stop();
             timeNode = null;
-            hostsNode.rootNode.nodeRemoved();
+            hostsNode.rootNode.nodeRemoved(this);
           }
         } else {
           // Has time monitoring
           if (timeNode == null) {
             timeNode = new TimeNode(this, linuxServer, port, csf, ssf);
             timeNode.start();
-            hostsNode.rootNode.nodeAdded();
+            hostsNode.rootNode.nodeAdded(this);
           }
         }
       }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,7 +27,6 @@ import com.aoapps.hodgepodge.table.Table;
 import com.aoapps.hodgepodge.table.TableListener;
 import com.aoapps.lang.exception.WrappedException;
 import com.aoindustries.aoserv.client.net.Host;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.RootNodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
@@ -83,11 +82,7 @@ public abstract class HostsNode extends NodeImpl {
    */
   @Override
   public final AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (hostNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(hostNodes);
-    }
-    return constrainAlertLevel(level);
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -123,7 +118,7 @@ public abstract class HostsNode extends NodeImpl {
       rootNode.conn.getNet().getHost().removeTableListener(tableListener);
       for (HostNode hostNode : hostNodes) {
         hostNode.stop();
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
       hostNodes.clear();
     }
@@ -156,7 +151,7 @@ public abstract class HostsNode extends NodeImpl {
           if (!hosts.contains(host)) {
             hostNode.stop();
             hostNodeIter.remove();
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
         // Add new ones
@@ -167,7 +162,7 @@ public abstract class HostsNode extends NodeImpl {
             HostNode hostNode = new HostNode(this, host, port, csf, ssf);
             hostNodes.add(c, hostNode);
             hostNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         }
       }
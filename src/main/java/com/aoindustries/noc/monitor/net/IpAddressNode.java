@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2016, 2017, 2018, 2020, 2021, 2022, 2025  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2016, 2017, 2018, 2020, 2021, 2022, 2025, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -30,7 +30,6 @@ import com.aoapps.net.InetAddress;
 import com.aoindustries.aoserv.client.AoservConnector;
 import com.aoindustries.aoserv.client.net.IpAddress;
 import com.aoindustries.aoserv.client.net.monitoring.IpAddressMonitoring;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.RootNodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
@@ -127,14 +126,7 @@ public class IpAddressNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            this.pingNode,
-            this.netBindsNode,
-            this.dnsNode,
-            this.blacklistsNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -189,22 +181,22 @@ public class IpAddressNode extends NodeImpl {
       if (blacklistsNode != null) {
         blacklistsNode.stop();
         blacklistsNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
       if (dnsNode != null) {
         dnsNode.stop();
         dnsNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
       if (netBindsNode != null) {
         netBindsNode.stop();
         netBindsNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
       if (pingNode != null) {
         pingNode.stop();
         pingNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
     }
   }
@@ -238,26 +230,26 @@ public class IpAddressNode extends NodeImpl {
           if (pingNode == null) {
             pingNode = new PingNode(this, port, csf, ssf);
             pingNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         } else {
           if (pingNode != null) {
             pingNode.stop();
             pingNode = null;
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
         if (hasNetBinds) {
           if (netBindsNode == null) {
             netBindsNode = new BindsNode(this, port, csf, ssf);
             netBindsNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         } else {
           if (netBindsNode != null) {
             netBindsNode.stop();
             netBindsNode = null;
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
         if (
@@ -271,13 +263,13 @@ public class IpAddressNode extends NodeImpl {
           if (dnsNode == null) {
             dnsNode = new DnsNode(this, port, csf, ssf);
             dnsNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         } else {
           if (dnsNode != null) {
             dnsNode.stop();
             dnsNode = null;
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
         if (
@@ -289,13 +281,13 @@ public class IpAddressNode extends NodeImpl {
           if (blacklistsNode == null) {
             blacklistsNode = new BlacklistsNode(this, port, csf, ssf);
             blacklistsNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         } else {
           if (blacklistsNode != null) {
             blacklistsNode.stop();
             blacklistsNode = null;
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
       }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2008, 2009, 2014, 2016, 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -30,7 +30,6 @@ import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.net.Device;
 import com.aoindustries.aoserv.client.net.IpAddress;
 import com.aoindustries.aoserv.client.net.monitoring.IpAddressMonitoring;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.RootNodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
@@ -105,13 +104,7 @@ public class IpAddressesNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (ipAddressNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(
-          ipAddressNodes
-      );
-    }
-    return constrainAlertLevel(level);
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -152,7 +145,7 @@ public class IpAddressesNode extends NodeImpl {
       rootNode.conn.getNet().getIpAddress().removeTableListener(tableListener);
       for (IpAddressNode ipAddressNode : ipAddressNodes) {
         ipAddressNode.stop();
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
       ipAddressNodes.clear();
     }
@@ -223,7 +216,7 @@ public class IpAddressesNode extends NodeImpl {
           ) {
             ipAddressNode.stop();
             ipAddressNodeIter.remove();
-            rootNode.nodeRemoved();
+            rootNode.nodeRemoved(this);
           }
         }
         // Add new ones
@@ -234,7 +227,7 @@ public class IpAddressesNode extends NodeImpl {
             IpAddressNode ipAddressNode = new IpAddressNode(this, ipAddress, port, csf, ssf);
             ipAddressNodes.add(c, ipAddressNode);
             ipAddressNode.start();
-            rootNode.nodeAdded();
+            rootNode.nodeAdded(this);
           }
         }
       }
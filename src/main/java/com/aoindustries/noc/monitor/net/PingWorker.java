@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2008-2012, 2016, 2017, 2018, 2020, 2021, 2022, 2024  AO Industries, Inc.
+ * Copyright (C) 2008-2012, 2016, 2017, 2018, 2020, 2021, 2022, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -85,20 +85,20 @@ class PingWorker extends TableMultiResultWorker<Object, PingResult> {
   private final com.aoapps.net.InetAddress ipAddress;
 
   private PingWorker(File persistenceDirectory, com.aoapps.net.InetAddress ipAddress) throws IOException {
-    super(new File(persistenceDirectory, "pings"), new PingResultSerializer());
+    super(new File(persistenceDirectory, "pings"), new PingResultSerializer(), new PingResultColumns());
     this.ipAddress = ipAddress;
   }
 
-  @Override
-  protected int getHistorySize() {
-    return 10000;
-  }
-
   /**
    * Uses a single sample object because no data is contained in the sample, only the timing information is maintained.
    */
   private static final Object SAMPLE = new Object();
 
+  @Override
+  protected String getTargetHost() {
+    return ipAddress.toString();
+  }
+
   @Override
   protected Object getSample() throws Exception {
     final InetAddress inetAddress = InetAddress.getByName(ipAddress.toString());
@@ -137,6 +137,11 @@ class PingWorker extends TableMultiResultWorker<Object, PingResult> {
     return AlertLevel.NONE;
   }
 
+  /**
+   * The number of pings the packet loss is measured over, including the current one.
+   */
+  private static final int PACKET_LOSS_PINGS = 10;
+
   /**
    * Gets the packet loss percent.
    */
@@ -150,13 +155,18 @@ class PingWorker extends TableMultiResultWorker<Object, PingResult> {
         timeouts++;
       }
       checked++;
-      if (checked >= 10) {
+      if (checked >= PACKET_LOSS_PINGS) {
         break;
       }
     }
     return timeouts * 10;
   }
 
+  @Override
+  protected int getAlertHistorySize() {
+    return PACKET_LOSS_PINGS - 1;
+  }
+
   @Override
   protected AlertLevelAndMessage getAlertLevelAndMessage(Object sample, Iterable<? extends PingResult> previousResults) throws Exception {
     int packetLossPercent = getPacketLossPercent(previousResults);
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2014, 2018, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2014, 2018, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,7 +24,6 @@
 package com.aoindustries.noc.monitor.net;
 
 import com.aoapps.lang.i18n.Resources;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.RootNodeImpl;
 import com.aoindustries.noc.monitor.common.AlertCategory;
@@ -83,11 +82,7 @@ public class UnallocatedNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    return constrainAlertLevel(
-        AlertLevelUtils.getMaxAlertLevel(
-            this.ipAddressesNode
-        )
-    );
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -117,7 +112,7 @@ public class UnallocatedNode extends NodeImpl {
       if (ipAddressesNode == null) {
         ipAddressesNode = new IpAddressesNode(this, port, csf, ssf);
         ipAddressesNode.start();
-        rootNode.nodeAdded();
+        rootNode.nodeAdded(this);
       }
     }
   }
@@ -128,7 +123,7 @@ public class UnallocatedNode extends NodeImpl {
       if (ipAddressesNode != null) {
         ipAddressesNode.stop();
         ipAddressesNode = null;
-        rootNode.nodeRemoved();
+        rootNode.nodeRemoved(this);
       }
     }
   }
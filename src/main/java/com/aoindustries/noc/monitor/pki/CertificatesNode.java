@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -29,7 +29,6 @@ import com.aoapps.lang.exception.WrappedException;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.aoserv.client.pki.Certificate;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.net.HostNode;
@@ -92,11 +91,7 @@ public class CertificatesNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (certificateNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(certificateNodes);
-    }
-    return constrainAlertLevel(level);
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -139,7 +134,7 @@ public class CertificatesNode extends NodeImpl {
       hostNode.hostsNode.rootNode.conn.getPki().getCertificate().removeTableListener(tableListener);
       for (CertificateNode sslCertificateNode : certificateNodes) {
         sslCertificateNode.stop();
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       certificateNodes.clear();
     }
@@ -178,7 +173,7 @@ public class CertificatesNode extends NodeImpl {
           ) {
             sslCertificateNode.stop();
             sslCertificateNodeIter.remove();
-            hostNode.hostsNode.rootNode.nodeRemoved();
+            hostNode.hostsNode.rootNode.nodeRemoved(this);
           }
         }
         // Add new ones
@@ -189,14 +184,14 @@ public class CertificatesNode extends NodeImpl {
             CertificateNode sslCertificateNode = new CertificateNode(this, sslCertificate, port, csf, ssf);
             certificateNodes.add(c, sslCertificateNode);
             sslCertificateNode.start();
-            hostNode.hostsNode.rootNode.nodeAdded();
+            hostNode.hostsNode.rootNode.nodeAdded(this);
           }
         }
         // Prune any extra nodes that can happen when they are reordered
         while (certificateNodes.size() > certificates.size()) {
           CertificateNode sslCertificateNode = certificateNodes.remove(certificateNodes.size() - 1);
           sslCertificateNode.stop();
-          hostNode.hostsNode.rootNode.nodeRemoved();
+          hostNode.hostsNode.rootNode.nodeRemoved(this);
         }
       }
     }
@@ -0,0 +1,72 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor.web;
+
+import com.aoindustries.noc.monitor.ResultColumns;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.HttpdServerResult;
+
+/**
+ * Stores {@link HttpdServerResult} in memory as primitive columns:
+ * concurrency and limits as int columns.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class HttpdServerResultColumns extends ResultColumns<HttpdServerResult> {
+
+  public HttpdServerResultColumns() {
+    super(0, 6, 0);
+  }
+
+  @Override
+  protected void getValues(HttpdServerResult result, Row row) {
+    row.setInt(0, result.getConcurrency());
+    row.setInt(1, result.getMaxConcurrency());
+    row.setInt(2, result.getConcurrencyLow());
+    row.setInt(3, result.getConcurrencyMedium());
+    row.setInt(4, result.getConcurrencyHigh());
+    row.setInt(5, result.getConcurrencyCritical());
+  }
+
+  @Override
+  protected HttpdServerResult newErrorResult(long time, long latency, AlertLevel alertLevel, String error) {
+    return new HttpdServerResult(time, latency, alertLevel, error);
+  }
+
+  @Override
+  protected HttpdServerResult newSampleResult(long time, long latency, AlertLevel alertLevel, Row row) {
+    return new HttpdServerResult(
+        time,
+        latency,
+        alertLevel,
+        row.getInt(0),
+        row.getInt(1),
+        row.getInt(2),
+        row.getInt(3),
+        row.getInt(4),
+        row.getInt(5)
+    );
+  }
+}
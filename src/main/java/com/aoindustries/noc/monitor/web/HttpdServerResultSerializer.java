@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -26,6 +26,7 @@ package com.aoindustries.noc.monitor.web;
 import com.aoapps.hodgepodge.io.stream.StreamableInput;
 import com.aoapps.hodgepodge.io.stream.StreamableOutput;
 import com.aoapps.persistence.BufferedSerializer;
+import com.aoindustries.noc.monitor.ResultEncoding;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.common.HttpdServerResult;
 import java.io.ByteArrayOutputStream;
@@ -37,17 +38,14 @@ import java.io.InputStream;
  */
 public class HttpdServerResultSerializer extends BufferedSerializer<HttpdServerResult> {
 
-  private static final int VERSION = 1;
+  private static final int VERSION = 2;
 
   @Override
   protected void serialize(HttpdServerResult value, ByteArrayOutputStream buffer) throws IOException {
     try (StreamableOutput out = new StreamableOutput(buffer)) {
       out.writeCompressedInt(VERSION);
-      out.writeLong(value.getTime());
-      out.writeLong(value.getLatency());
-      out.writeByte(value.getAlertLevel().ordinal());
+      ResultEncoding.writeHeader(value, out);
       String error = value.getError();
-      out.writeNullUTF(error);
       if (error == null) {
         out.writeCompressedInt(value.getConcurrency());
         out.writeCompressedInt(value.getMaxConcurrency());
@@ -63,28 +61,38 @@ public class HttpdServerResultSerializer extends BufferedSerializer<HttpdServerR
   public HttpdServerResult deserialize(InputStream rawIn) throws IOException {
     try (StreamableInput in = new StreamableInput(rawIn)) {
       int version = in.readCompressedInt();
-      if (version == 1) {
-        long time = in.readLong();
-        long latency = in.readLong();
-        AlertLevel alertLevel = AlertLevel.fromOrdinal(in.readByte());
-        String error = in.readNullUTF();
-        if (error != null) {
-          return new HttpdServerResult(time, latency, alertLevel, error);
-        }
-        return new HttpdServerResult(
-            time,
-            latency,
-            alertLevel,
-            in.readCompressedInt(),
-            in.readCompressedInt(),
-            in.readCompressedInt(),
-            in.readCompressedInt(),
-            in.readCompressedInt(),
-            in.readCompressedInt()
-        );
+      long time;
+      long latency;
+      AlertLevel alertLevel;
+      String error;
+      if (version == 2) {
+        int flags = ResultEncoding.readFlags(in);
+        time = ResultEncoding.readTime(in);
+        latency = ResultEncoding.readLatency(in);
+        alertLevel = ResultEncoding.getAlertLevel(flags);
+        error = ResultEncoding.readError(flags, in);
+      } else if (version == 1) {
+        time = in.readLong();
+        latency = in.readLong();
+        alertLevel = AlertLevel.fromOrdinal(in.readByte());
+        error = in.readNullUTF();
       } else {
         throw new IOException("Unsupported object version: " + version);
       }
+      if (error != null) {
+        return new HttpdServerResult(time, latency, alertLevel, error);
+      }
+      return new HttpdServerResult(
+          time,
+          latency,
+          alertLevel,
+          in.readCompressedInt(),
+          in.readCompressedInt(),
+          in.readCompressedInt(),
+          in.readCompressedInt(),
+          in.readCompressedInt(),
+          in.readCompressedInt()
+      );
     }
   }
 }
@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2018, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2018, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -80,13 +80,19 @@ class HttpdServerWorker extends TableMultiResultWorker<List<Integer>, HttpdServe
   private HttpdServer currentHttpdServer;
 
   private HttpdServerWorker(File persistenceFile, HttpdServer httpdServer) throws IOException {
-    super(persistenceFile, new HttpdServerResultSerializer());
+    super(persistenceFile, new HttpdServerResultSerializer(), new HttpdServerResultColumns());
     this.originalHttpdServer = currentHttpdServer = httpdServer;
   }
 
+  /**
+   * Rollup columns are concurrency and maximum concurrency.
+   */
   @Override
-  protected int getHistorySize() {
-    return 2000;
+  protected double[] getRollupValues(HttpdServerResult result) {
+    return new double[] {
+        result.getConcurrency(),
+        result.getMaxConcurrency()
+    };
   }
 
   @Override
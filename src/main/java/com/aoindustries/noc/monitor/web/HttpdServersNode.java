@@ -1,6 +1,6 @@
 /*
  * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
- * Copyright (C) 2018, 2019, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2018, 2019, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -29,7 +29,6 @@ import com.aoapps.lang.exception.WrappedException;
 import com.aoapps.lang.i18n.Resources;
 import com.aoindustries.aoserv.client.linux.Server;
 import com.aoindustries.aoserv.client.web.HttpdServer;
-import com.aoindustries.noc.monitor.AlertLevelUtils;
 import com.aoindustries.noc.monitor.NodeImpl;
 import com.aoindustries.noc.monitor.common.AlertLevel;
 import com.aoindustries.noc.monitor.net.HostNode;
@@ -99,11 +98,7 @@ public class HttpdServersNode extends NodeImpl {
    */
   @Override
   public AlertLevel getAlertLevel() {
-    AlertLevel level;
-    synchronized (httpdServerNodes) {
-      level = AlertLevelUtils.getMaxAlertLevel(httpdServerNodes);
-    }
-    return constrainAlertLevel(level);
+    return constrainAlertLevel(getChildrenAlertLevel());
   }
 
   /**
@@ -144,7 +139,7 @@ public class HttpdServersNode extends NodeImpl {
       hostNode.hostsNode.rootNode.conn.getWeb().getHttpdServer().removeTableListener(tableListener);
       for (HttpdServerNode httpdServerNode : httpdServerNodes) {
         httpdServerNode.stop();
-        hostNode.hostsNode.rootNode.nodeRemoved();
+        hostNode.hostsNode.rootNode.nodeRemoved(this);
       }
       httpdServerNodes.clear();
     }
@@ -193,7 +188,7 @@ public class HttpdServersNode extends NodeImpl {
           if (!hasMatch) {
             httpdServerNode.stop();
             httpdServerNodeIter.remove();
-            hostNode.hostsNode.rootNode.nodeRemoved();
+            hostNode.hostsNode.rootNode.nodeRemoved(this);
           }
         }
         // Add new ones
@@ -220,7 +215,7 @@ public class HttpdServersNode extends NodeImpl {
               if (logger.isLoggable(Level.FINE)) {
                 logger.fine("Notifying added for " + httpdServer.getName());
               }
-              hostNode.hostsNode.rootNode.nodeAdded();
+              hostNode.hostsNode.rootNode.nodeAdded(this);
             } catch (ThreadDeath td) {
               throw td;
             } catch (Throwable t) {
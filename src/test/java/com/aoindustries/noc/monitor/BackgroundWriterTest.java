@@ -0,0 +1,172 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the batching, rate limiting and parking of {@link BackgroundWriter}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class BackgroundWriterTest extends TestCase {
+
+  public BackgroundWriterTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(BackgroundWriterTest.class);
+    return suite;
+  }
+
+  private File dir;
+
+  @Override
+  protected void setUp() throws Exception {
+    dir = Files.createTempDirectory("BackgroundWriterTest").toFile();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        Files.delete(file.toPath());
+      }
+    }
+    Files.delete(dir.toPath());
+  }
+
+  private void enqueue(BackgroundWriter writer, int index, Serializable object, boolean gzip) {
+    File file = new File(dir, "file" + index);
+    writer.enqueue(file, new File(dir, "file" + index + ".new"), object, gzip);
+  }
+
+  private Object read(int index, boolean gzip) throws Exception {
+    try (
+        InputStream in = new BufferedInputStream(new FileInputStream(new File(dir, "file" + index)));
+        ObjectInputStream oin = new ObjectInputStream(gzip ? new GZIPInputStream(in) : in)
+        ) {
+      return oin.readObject();
+    }
+  }
+
+  private static void awaitWrites(BackgroundWriter writer, long writes) throws InterruptedException {
+    for (int i = 0; i < 1000 && (writer.getWrites() < writes || writer.getQueueDepth() > 0); i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(writes, writer.getWrites());
+    assertEquals(0, writer.getQueueDepth());
+  }
+
+  public void testCoalescesWithinWindow() throws Exception {
+    BackgroundWriter writer = new BackgroundWriter(200, 0, null, 0);
+    for (int version = 0; version < 10; version++) {
+      enqueue(writer, 0, "version" + version, true);
+      enqueue(writer, 1, "other" + version, false);
+    }
+    assertEquals(2, writer.getQueueDepth());
+    awaitWrites(writer, 2);
+    assertEquals(18, writer.getCoalesced());
+    assertEquals("version9", read(0, true));
+    assertEquals("other9", read(1, false));
+    assertTrue(writer.getMaxLatency() >= 100);
+  }
+
+  public void testBuffersReused() throws Exception {
+    BackgroundWriter writer = new BackgroundWriter(0, 0, null, 0);
+    Random random = new Random(1);
+    // Large, then small, then larger than retained
+    int[] sizes = {100000, 10, 2 * 1024 * 1024, 1000};
+    byte[][] values = new byte[sizes.length][];
+    for (int i = 0; i < sizes.length; i++) {
+      values[i] = new byte[sizes[i]];
+      random.nextBytes(values[i]);
+      enqueue(writer, i, values[i], (i % 2) == 0);
+      writer.flush();
+    }
+    awaitWrites(writer, sizes.length);
+    for (int i = 0; i < sizes.length; i++) {
+      assertTrue(Arrays.equals(values[i], (byte[]) read(i, (i % 2) == 0)));
+    }
+  }
+
+  public void testRateLimited() throws Exception {
+    final int files = 10;
+    final int size = 10000;
+    final long bytesPerSecond = 200000;
+    BackgroundWriter writer = new BackgroundWriter(0, bytesPerSecond, null, 0);
+    Random random = new Random(2);
+    long startNanos = System.nanoTime();
+    for (int i = 0; i < files; i++) {
+      byte[] value = new byte[size];
+      random.nextBytes(value);
+      enqueue(writer, i, value, false);
+    }
+    awaitWrites(writer, files);
+    long millis = (System.nanoTime() - startNanos) / 1000000;
+    long expected = writer.getBytes() * 1000 / bytesPerSecond;
+    System.out.println(
+        "BackgroundWriterTest: " + writer.getBytes() + " bytes at " + bytesPerSecond + " bytes/second in " + millis
+            + " ms, mean latency " + writer.getMeanLatency() + " ms, max latency " + writer.getMaxLatency() + " ms"
+    );
+    // The last file is written without waiting after it
+    assertTrue(millis + " < " + expected, millis >= expected * (files - 1) / files);
+  }
+
+  public void testParksUntilDiskActive() throws Exception {
+    AtomicLong activity = new AtomicLong();
+    BackgroundWriter writer = new BackgroundWriter(50, 0, activity::get, 60000);
+    enqueue(writer, 0, "parked", true);
+    Thread.sleep(500);
+    assertEquals(0, writer.getWrites());
+    assertTrue(writer.getParks() > 0);
+    activity.incrementAndGet();
+    awaitWrites(writer, 1);
+    assertEquals("parked", read(0, true));
+  }
+
+  public void testMaxPark() throws Exception {
+    BackgroundWriter writer = new BackgroundWriter(50, 0, () -> 0, 300);
+    enqueue(writer, 0, "parked", false);
+    awaitWrites(writer, 1);
+    assertTrue(writer.getParks() > 0);
+    assertTrue(writer.getMaxLatency() >= 300);
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link Bulkhead}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class BulkheadTest extends TestCase {
+
+  public BulkheadTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(BulkheadTest.class);
+    return suite;
+  }
+
+  private ExecutorService executor;
+
+  @Override
+  protected void setUp() throws Exception {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    executor.shutdownNow();
+  }
+
+  private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 30000;
+    while (!condition.getAsBoolean()) {
+      assertTrue("Timed out", System.currentTimeMillis() < deadline);
+      Thread.sleep(5);
+    }
+  }
+
+  /**
+   * Starts a call that holds a permit until released.
+   */
+  private Future<?> hold(Bulkhead bulkhead, CountDownLatch release) {
+    return executor.submit(() -> bulkhead.call(() -> {
+      release.await();
+      return null;
+    }));
+  }
+
+  public void testPermitLimit() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("test", 2, 10, 1, TimeUnit.MINUTES);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger concurrent = new AtomicInteger();
+    AtomicInteger maxConcurrent = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      futures.add(executor.submit(() -> bulkhead.call(() -> {
+        maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+        try {
+          release.await();
+        } finally {
+          concurrent.decrementAndGet();
+        }
+        return null;
+      })));
+    }
+    waitFor(() -> bulkhead.getStats().getQueued() == 3);
+    assertEquals(2, bulkhead.getStats().getActive());
+    release.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    assertEquals(2, maxConcurrent.get());
+    Bulkhead.Stats stats = bulkhead.getStats();
+    assertEquals(0, stats.getActive());
+    assertEquals(0, stats.getQueued());
+    assertEquals(5, stats.getAccepted());
+    assertEquals(0, stats.getRejected());
+  }
+
+  public void testQueueFull() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("test", 1, 1, 1, TimeUnit.MINUTES);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> active = hold(bulkhead, release);
+    waitFor(() -> bulkhead.getStats().getActive() == 1);
+    Future<?> queued = hold(bulkhead, release);
+    waitFor(() -> bulkhead.getStats().getQueued() == 1);
+    assertTrue(bulkhead.getStats().isSaturated());
+    long start = System.nanoTime();
+    try {
+      bulkhead.call(() -> "result");
+      fail("RejectedExecutionException not thrown");
+    } catch (RejectedExecutionException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("1 calls waiting"));
+    }
+    assertTrue("Not rejected immediately", System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    assertEquals(1, bulkhead.getStats().getRejected());
+    release.countDown();
+    active.get();
+    queued.get();
+    assertEquals(2, bulkhead.getStats().getAccepted());
+  }
+
+  public void testTimeout() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("test", 1, 5, 100, TimeUnit.MILLISECONDS);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> active = hold(bulkhead, release);
+    waitFor(() -> bulkhead.getStats().getActive() == 1);
+    long start = System.nanoTime();
+    try {
+      bulkhead.call(() -> "result");
+      fail("RejectedExecutionException not thrown");
+    } catch (RejectedExecutionException e) {
+      // Not reported as saturated, since the queue was not full
+      assertFalse(e.getMessage(), e.getMessage().contains("calls waiting"));
+      assertTrue(e.getMessage(), e.getMessage().contains("100 ms"));
+    }
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    Bulkhead.Stats stats = bulkhead.getStats();
+    assertEquals(1, stats.getRejected());
+    assertEquals(0, stats.getQueued());
+    release.countDown();
+    active.get();
+  }
+
+  public void testReleasedOnException() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("test", 1, 0, 1, TimeUnit.MINUTES);
+    IOException thrown = new IOException("Test");
+    for (int i = 0; i < 3; i++) {
+      try {
+        bulkhead.call(() -> {
+          throw thrown;
+        });
+        fail("IOException not thrown");
+      } catch (IOException e) {
+        assertSame(thrown, e);
+      }
+      assertEquals(0, bulkhead.getStats().getActive());
+    }
+    // With no queue, would be rejected if the permit were not released
+    assertEquals("result", bulkhead.call(() -> "result"));
+    assertEquals(4, bulkhead.getStats().getAccepted());
+    assertEquals(0, bulkhead.getStats().getRejected());
+  }
+
+  public void testIdle() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("test", 1, 1, 1, TimeUnit.MINUTES);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> active = hold(bulkhead, release);
+    waitFor(() -> bulkhead.getStats().getActive() == 1);
+    Thread.sleep(10);
+    assertEquals(0, bulkhead.getIdleNanos());
+    release.countDown();
+    active.get();
+    Thread.sleep(10);
+    assertTrue(bulkhead.getIdleNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+  }
+}
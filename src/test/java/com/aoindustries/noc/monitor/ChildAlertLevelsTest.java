@@ -0,0 +1,326 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link ChildAlertLevels} and compares reading the alert level of the root of a large tree
+ * against the previous walk of every node.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ChildAlertLevelsTest extends TestCase {
+
+  private static final int HOSTS = 500;
+
+  private static final int LEAVES_PER_HOST = 20;
+
+  public ChildAlertLevelsTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(ChildAlertLevelsTest.class);
+    return suite;
+  }
+
+  private static final AtomicLong childrenReads = new AtomicLong();
+
+  /**
+   * Branches count their children, leaves have their own level.
+   */
+  private static final class TestNode extends NodeImpl {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TestNode parent;
+    private final List<TestNode> children = new CopyOnWriteArrayList<>();
+    private final AlertLevel maxAlertLevel;
+    private volatile AlertLevel alertLevel = AlertLevel.NONE;
+
+    private TestNode(TestNode parent, AlertLevel maxAlertLevel) throws RemoteException {
+      super(0, null, null);
+      this.parent = parent;
+      this.maxAlertLevel = maxAlertLevel;
+      if (parent != null) {
+        parent.children.add(this);
+      }
+    }
+
+    private TestNode(TestNode parent) throws RemoteException {
+      this(parent, AlertLevel.UNKNOWN);
+    }
+
+    @Override
+    public TestNode getParent() {
+      return parent;
+    }
+
+    @Override
+    public List<TestNode> getChildren() {
+      childrenReads.incrementAndGet();
+      return getSnapshot(children);
+    }
+
+    @Override
+    protected AlertLevel getMaxAlertLevel() {
+      return maxAlertLevel;
+    }
+
+    @Override
+    public AlertLevel getAlertLevel() {
+      if (children.isEmpty()) {
+        return constrainAlertLevel(alertLevel);
+      }
+      return constrainAlertLevel(getChildrenAlertLevel());
+    }
+
+    /**
+     * The previous implementation, reading every node below.
+     */
+    private AlertLevel getAlertLevelWalk() {
+      if (children.isEmpty()) {
+        return constrainAlertLevel(alertLevel);
+      }
+      AlertLevel level = AlertLevel.NONE;
+      for (TestNode child : getChildren()) {
+        AlertLevel childLevel = child.getAlertLevelWalk();
+        if (childLevel.compareTo(level) > 0) {
+          level = childLevel;
+        }
+      }
+      return constrainAlertLevel(level);
+    }
+
+    private void setAlertLevel(AlertLevel alertLevel) {
+      this.alertLevel = alertLevel;
+      alertLevelChanged();
+    }
+
+    @Override
+    public String getAlertMessage() {
+      return null;
+    }
+
+    @Override
+    public boolean getAllowsChildren() {
+      return true;
+    }
+
+    @Override
+    public String getLabel() {
+      return "node";
+    }
+  }
+
+  private static TestNode newTree(List<TestNode> leaves) throws RemoteException {
+    TestNode root = new TestNode(null);
+    for (int h = 0; h < HOSTS; h++) {
+      TestNode host = new TestNode(root);
+      for (int l = 0; l < LEAVES_PER_HOST; l++) {
+        leaves.add(new TestNode(host));
+      }
+    }
+    return root;
+  }
+
+  public void testChangesPropagate() throws RemoteException {
+    List<TestNode> leaves = new ArrayList<>();
+    TestNode root = newTree(leaves);
+    assertEquals(AlertLevel.NONE, root.getAlertLevel());
+    TestNode leaf = leaves.get(123);
+    leaf.setAlertLevel(AlertLevel.HIGH);
+    leaves.get(456).setAlertLevel(AlertLevel.LOW);
+    long reads = childrenReads.get();
+    assertEquals(AlertLevel.HIGH, root.getAlertLevel());
+    assertEquals(AlertLevel.HIGH, leaf.getParent().getAlertLevel());
+    assertEquals(AlertLevel.LOW, leaves.get(456).getParent().getAlertLevel());
+    assertEquals("Children read again", reads, childrenReads.get());
+    leaf.setAlertLevel(AlertLevel.NONE);
+    assertEquals(AlertLevel.LOW, root.getAlertLevel());
+    leaves.get(456).setAlertLevel(AlertLevel.NONE);
+    assertEquals(AlertLevel.NONE, root.getAlertLevel());
+    assertEquals("Children read again", reads, childrenReads.get());
+  }
+
+  public void testStructureChanged() throws RemoteException {
+    List<TestNode> leaves = new ArrayList<>();
+    TestNode root = newTree(leaves);
+    assertEquals(AlertLevel.NONE, root.getAlertLevel());
+    TestNode host = root.children.get(3);
+    TestNode added = new TestNode(host);
+    added.alertLevel = AlertLevel.MEDIUM;
+    host.childrenChanged();
+    long reads = childrenReads.get();
+    assertEquals(AlertLevel.MEDIUM, root.getAlertLevel());
+    // Only the host and the root read their children again
+    assertEquals(2, childrenReads.get() - reads);
+    for (TestNode other : root.children) {
+      other.getAlertLevel();
+    }
+    assertEquals(2, childrenReads.get() - reads);
+    // Changes of a child added since counted are not lost
+    TestNode other = new TestNode(root.children.get(4));
+    other.setAlertLevel(AlertLevel.CRITICAL);
+    assertEquals(AlertLevel.CRITICAL, root.getAlertLevel());
+    root.children.remove(4);
+    root.childrenChanged();
+    reads = childrenReads.get();
+    assertEquals(AlertLevel.MEDIUM, root.getAlertLevel());
+    assertEquals(1, childrenReads.get() - reads);
+  }
+
+  public void testConstrained() throws RemoteException {
+    TestNode root = new TestNode(null);
+    TestNode limited = new TestNode(root, AlertLevel.MEDIUM);
+    TestNode leaf = new TestNode(new TestNode(limited));
+    TestNode free = new TestNode(new TestNode(root));
+    leaf.setAlertLevel(AlertLevel.CRITICAL);
+    assertEquals(AlertLevel.MEDIUM, leaf.getAlertLevel());
+    assertEquals(AlertLevel.MEDIUM, root.getAlertLevel());
+    free.setAlertLevel(AlertLevel.HIGH);
+    assertEquals(AlertLevel.HIGH, root.getAlertLevel());
+    free.setAlertLevel(AlertLevel.NONE);
+    assertEquals(AlertLevel.MEDIUM, root.getAlertLevel());
+  }
+
+  public void testConcurrentChanges() throws Exception {
+    List<TestNode> leaves = new ArrayList<>();
+    TestNode root = newTree(leaves);
+    assertEquals(AlertLevel.NONE, root.getAlertLevel());
+    AlertLevel[] levels = AlertLevel.values();
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      Random random = new Random(t);
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 50000; i++) {
+          // Neighboring threads share hosts
+          TestNode leaf = leaves.get(random.nextInt(LEAVES_PER_HOST * 4));
+          leaf.setAlertLevel(levels[random.nextInt(levels.length)]);
+          if (i % 1000 == 0) {
+            leaf.getParent().childrenChanged();
+          }
+          root.getAlertLevel();
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(root.getAlertLevelWalk(), root.getAlertLevel());
+    for (TestNode host : root.children) {
+      assertEquals(host.getAlertLevelWalk(), host.getAlertLevel());
+    }
+  }
+
+  /**
+   * Leaves are changed before their parents are updated, as a worker sets its level before notifying,
+   * while other threads read the hosts directly.  A host may then count the new level of a leaf
+   * before the leaf updates it, and the root must still be updated.
+   */
+  public void testReadBeforeUpdate() throws Exception {
+    List<TestNode> leaves = new ArrayList<>();
+    TestNode root = newTree(leaves);
+    assertEquals(AlertLevel.NONE, root.getAlertLevel());
+    AlertLevel[] levels = AlertLevel.values();
+    final int changes = 50000;
+    AtomicLong writersDone = new AtomicLong();
+    Thread[] writers = new Thread[4];
+    Thread[] readers = new Thread[4];
+    for (int t = 0; t < writers.length; t++) {
+      Random random = new Random(t);
+      writers[t] = new Thread(() -> {
+        for (int i = 0; i < changes; i++) {
+          // Neighboring threads share hosts
+          TestNode leaf = leaves.get(random.nextInt(LEAVES_PER_HOST * 4));
+          leaf.alertLevel = levels[random.nextInt(levels.length)];
+          Thread.yield();
+          leaf.alertLevelChanged();
+          if (i < changes / 2 && i % 1000 == 0) {
+            leaf.getParent().childrenChanged();
+          }
+        }
+        writersDone.incrementAndGet();
+      });
+    }
+    for (int t = 0; t < readers.length; t++) {
+      Random random = new Random(-1 - t);
+      readers[t] = new Thread(() -> {
+        while (writersDone.get() < writers.length) {
+          root.children.get(random.nextInt(4)).getAlertLevel();
+          root.getAlertLevel();
+        }
+      });
+    }
+    for (int t = 0; t < writers.length; t++) {
+      readers[t].start();
+      writers[t].start();
+    }
+    for (int t = 0; t < writers.length; t++) {
+      writers[t].join();
+      readers[t].join();
+    }
+    assertEquals(root.getAlertLevelWalk(), root.getAlertLevel());
+    for (TestNode host : root.children) {
+      assertEquals(host.getAlertLevelWalk(), host.getAlertLevel());
+    }
+  }
+
+  /**
+   * A client polling the root while a few leaves change.
+   */
+  public void testRootReads() throws RemoteException {
+    List<TestNode> leaves = new ArrayList<>();
+    TestNode root = newTree(leaves);
+    final int reads = 2000;
+    Random random = new Random(1);
+    long walkReads = childrenReads.get();
+    for (int i = 0; i < reads; i++) {
+      leaves.get(random.nextInt(leaves.size())).alertLevel = AlertLevel.LOW;
+      root.getAlertLevelWalk();
+    }
+    walkReads = childrenReads.get() - walkReads;
+    root.getAlertLevel();
+    long countedReads = childrenReads.get();
+    for (int i = 0; i < reads; i++) {
+      leaves.get(random.nextInt(leaves.size())).setAlertLevel(AlertLevel.MEDIUM);
+      root.getAlertLevel();
+    }
+    countedReads = childrenReads.get() - countedReads;
+    assertEquals(AlertLevel.MEDIUM, root.getAlertLevel());
+    assertEquals(reads * (1 + HOSTS), walkReads);
+    assertEquals(0, countedReads);
+  }
+}
@@ -0,0 +1,508 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.PingResult;
+import com.aoindustries.noc.monitor.net.PingResultColumns;
+import com.aoindustries.noc.monitor.net.PingResultSerializer;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Kills a separate process writing the persisted histories and background-written files at
+ * arbitrary points, then verifies the recovered state and measures the recovery time.  Also measures
+ * the sustained write throughput of a fleet of histories.
+ *
+ * <p>A process kill loses nothing already written to the operating system, so every write
+ * acknowledged by the process before the kill must be found.  Whatever was being written at the
+ * time of the kill may or may not be found, but the history must still be an unbroken sequence of
+ * the results written.  This is the guarantee the append-only engines need to rely on
+ * {@link GroupCommit} instead of a force on every write.  Linked-list histories are not tested, as
+ * they always write with a barrier.  Power loss is not simulated.</p>
+ *
+ * <p>The process is this class, run by {@link #main(java.lang.String[])}.</p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class CrashConsistencyTest extends TestCase {
+
+  private static final String MODE_LOG = "log";
+  private static final String MODE_DATABASE = "database";
+  private static final String MODE_RUNS = "runs";
+  private static final String MODE_WRITER = "writer";
+
+  private static final String ACKED = "acked ";
+
+  private static final int SERIES = 20;
+
+  /**
+   * The number of results kept in each series, older results removed in batches.
+   */
+  private static final int WINDOW = 300;
+  private static final int REMOVE_BATCH = 25;
+
+  /**
+   * Small segments so the kills land in rolling, deleting and compacting segments too.
+   */
+  private static final int SEGMENT_SIZE = 4096;
+  private static final int SHARDS = 4;
+  private static final int MAX_RUN_LENGTH = 50;
+
+  private static final int ROUNDS_PER_ACK = 5;
+
+  private static final int KILLS = 8;
+
+  /**
+   * Each kill is after a random number of acknowledgements, then a random delay within the
+   * writes not yet acknowledged.
+   */
+  private static final int MAX_KILL_ACKS = 20;
+  private static final int MAX_KILL_DELAY = 20;
+
+  private static final int FLEET_SERIES = 500;
+  private static final int FLEET_ROUNDS = 200;
+  private static final int FLEET_SEGMENT_SIZE = 64 * 1024;
+
+  public CrashConsistencyTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(CrashConsistencyTest.class);
+    return suite;
+  }
+
+  /**
+   * The result written at each sequence number, which is its time.
+   */
+  private static PingResult newResult(long seq) {
+    return (seq % 37) == 0
+        ? new PingResult(seq, seq * 7, AlertLevel.CRITICAL, "Timeout")
+        : new PingResult(seq, seq * 7, AlertLevel.NONE);
+  }
+
+  private static void assertResult(long seq, PingResult result) {
+    PingResult expected = newResult(seq);
+    assertEquals(expected.getTime(), result.getTime());
+    assertEquals(expected.getLatency(), result.getLatency());
+    assertSame(expected.getAlertLevel(), result.getAlertLevel());
+    assertEquals(expected.getError(), result.getError());
+  }
+
+  /**
+   * The histories of all series in one of the modes.
+   */
+  private static final class Fleet implements Closeable {
+
+    private final String mode;
+    private final HistoryDatabase database;
+    private final List<HistoryStore<PingResult>> stores = new ArrayList<>();
+
+    private Fleet(String mode, File dir, int series, int segmentSize) throws IOException {
+      this.mode = mode;
+      PingResultSerializer serializer = new PingResultSerializer();
+      database = MODE_DATABASE.equals(mode) ? new HistoryDatabase(new File(dir, "history"), SHARDS, segmentSize) : null;
+      for (int i = 0; i < series; i++) {
+        File file = new File(dir, "series" + i);
+        switch (mode) {
+          case MODE_LOG:
+            stores.add(new SegmentedLog<>(new File(dir, "series" + i + ".log"), serializer, segmentSize));
+            break;
+          case MODE_DATABASE:
+            stores.add(database.open(file, serializer));
+            break;
+          case MODE_RUNS:
+            stores.add(openRuns(file, serializer));
+            break;
+          default:
+            throw new IllegalArgumentException("Unexpected mode: " + mode);
+        }
+      }
+    }
+
+    /**
+     * Makes everything written so far visible to another process.
+     */
+    private void sync() throws IOException {
+      if (database != null) {
+        database.flush();
+      }
+      if (MODE_RUNS.equals(mode)) {
+        BackgroundWriter.getInstance().flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      for (HistoryStore<PingResult> store : stores) {
+        store.close();
+      }
+      if (database != null) {
+        database.close();
+      }
+    }
+  }
+
+  /**
+   * Opens a run-length history over segmented logs.
+   */
+  private static HistoryStore<PingResult> openRuns(File file, PingResultSerializer serializer) throws IOException {
+    String engine = System.getProperty(HistoryStore.ENGINE_PROPERTY);
+    System.setProperty(HistoryStore.ENGINE_PROPERTY, HistoryStore.ENGINE_LOG);
+    try {
+      return new RunLengthHistoryStore<>(file, serializer, new PingResultColumns(), MAX_RUN_LENGTH);
+    } finally {
+      if (engine == null) {
+        System.clearProperty(HistoryStore.ENGINE_PROPERTY);
+      } else {
+        System.setProperty(HistoryStore.ENGINE_PROPERTY, engine);
+      }
+    }
+  }
+
+  /**
+   * Runs the process to be killed, writing until killed.
+   *
+   * @param  args  the mode and directory
+   */
+  public static void main(String[] args) throws Exception {
+    String mode = args[0];
+    File dir = new File(args[1]);
+    if (MODE_WRITER.equals(mode)) {
+      runWriter(dir);
+    } else {
+      runFleet(mode, dir);
+    }
+  }
+
+  private static void runFleet(String mode, File dir) throws IOException {
+    try (Fleet fleet = new Fleet(mode, dir, SERIES, SEGMENT_SIZE)) {
+      long[] next = new long[SERIES];
+      int[] sizes = new int[SERIES];
+      for (int i = 0; i < SERIES; i++) {
+        Iterator<PingResult> iter = fleet.stores.get(i).iterator();
+        while (iter.hasNext()) {
+          next[i] = iter.next().getTime() + 1;
+          sizes[i]++;
+        }
+      }
+      while (true) {
+        for (int round = 0; round < ROUNDS_PER_ACK; round++) {
+          for (int i = 0; i < SERIES; i++) {
+            HistoryStore<PingResult> store = fleet.stores.get(i);
+            store.addNewest(newResult(next[i]++));
+            sizes[i]++;
+            if (sizes[i] >= WINDOW + REMOVE_BATCH) {
+              store.removeOldest(REMOVE_BATCH);
+              sizes[i] -= REMOVE_BATCH;
+            }
+          }
+        }
+        fleet.sync();
+        long acked = Long.MAX_VALUE;
+        for (long n : next) {
+          acked = Math.min(acked, n - 1);
+        }
+        System.out.println(ACKED + acked);
+        System.out.flush();
+      }
+    }
+  }
+
+  private static File getWriterFile(File dir) {
+    return new File(dir, "last");
+  }
+
+  private static File getWriterNewFile(File dir) {
+    return new File(dir, "last.new");
+  }
+
+  /**
+   * Reads the value written by the writer, verifying its contents.
+   *
+   * @return  The value or {@code -1} when not yet written
+   */
+  private static long readWriter(File dir) throws IOException, ClassNotFoundException {
+    File file = getWriterFile(dir);
+    if (!file.exists()) {
+      return -1;
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+      long[] values = (long[]) in.readObject();
+      long value = values[0];
+      assertEquals(100 + (int) (value % 1000), values.length);
+      for (long v : values) {
+        assertEquals(value, v);
+      }
+      return value;
+    }
+  }
+
+  private static void runWriter(File dir) throws IOException, ClassNotFoundException {
+    long value = readWriter(dir);
+    while (true) {
+      value++;
+      long[] values = new long[100 + (int) (value % 1000)];
+      Arrays.fill(values, value);
+      BackgroundWriter.enqueueObject(getWriterFile(dir), getWriterNewFile(dir), values, true);
+      BackgroundWriter.getInstance().flush();
+      System.out.println(ACKED + value);
+      System.out.flush();
+    }
+  }
+
+  private File dir;
+
+  @Override
+  protected void setUp() throws Exception {
+    dir = Files.createTempDirectory("CrashConsistencyTest").toFile();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    deleteRecursive(dir);
+  }
+
+  private static void deleteRecursive(File file) {
+    File[] list = file.listFiles();
+    if (list != null) {
+      for (File child : list) {
+        deleteRecursive(child);
+      }
+    }
+    file.delete();
+  }
+
+  private static long getSize(File file) {
+    File[] list = file.listFiles();
+    if (list == null) {
+      return file.length();
+    }
+    long size = 0;
+    for (File child : list) {
+      size += getSize(child);
+    }
+    return size;
+  }
+
+  /**
+   * Starts the process and kills it once the given value is acknowledged, after a random delay.
+   *
+   * @return  The last value acknowledged before the kill
+   */
+  private long startAndKill(String mode, long killAfter, Random random) throws Exception {
+    Process process = new ProcessBuilder(
+        new File(new File(System.getProperty("java.home"), "bin"), "java").getPath(),
+        "-cp", System.getProperty("java.class.path"),
+        "-D" + BackgroundWriter.WINDOW_PROPERTY + "=0",
+        CrashConsistencyTest.class.getName(),
+        mode,
+        dir.getPath()
+    ).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    AtomicLong acked = new AtomicLong(-1);
+    Thread reader = new Thread(() -> {
+      try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = in.readLine()) != null) {
+          if (line.startsWith(ACKED)) {
+            synchronized (acked) {
+              acked.set(Long.parseLong(line.substring(ACKED.length())));
+              acked.notifyAll();
+            }
+          }
+        }
+      } catch (IOException e) {
+        // Killed
+      }
+      synchronized (acked) {
+        acked.notifyAll();
+      }
+    });
+    reader.start();
+    try {
+      synchronized (acked) {
+        long deadline = System.currentTimeMillis() + 60000;
+        while (acked.get() < killAfter && process.isAlive() && System.currentTimeMillis() < deadline) {
+          acked.wait(1000);
+        }
+      }
+      assertTrue("Not acknowledged: " + killAfter, acked.get() >= killAfter);
+      Thread.sleep(random.nextInt(MAX_KILL_DELAY + 1));
+    } finally {
+      process.destroyForcibly();
+      assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+      reader.join();
+    }
+    return acked.get();
+  }
+
+  /**
+   * Opens the fleet as after the kill, verifying every series.
+   *
+   * @return  The time to recover, in nanoseconds
+   */
+  private long verifyFleet(String mode, long acked) throws IOException {
+    long startNanos = System.nanoTime();
+    try (Fleet fleet = new Fleet(mode, dir, SERIES, SEGMENT_SIZE)) {
+      for (HistoryStore<PingResult> store : fleet.stores) {
+        long expected = -1;
+        int size = 0;
+        Iterator<PingResult> iter = store.iterator();
+        while (iter.hasNext()) {
+          PingResult result = iter.next();
+          if (expected != -1) {
+            assertResult(expected, result);
+          }
+          expected = result.getTime() + 1;
+          size++;
+        }
+        long newest = expected - 1;
+        assertTrue("Acknowledged result lost: " + newest + " < " + acked, newest >= acked);
+        assertTrue("Too many results: " + size, size < WINDOW + 2 * REMOVE_BATCH);
+        if (size > 0) {
+          assertEquals(newest, store.peekNewest().getTime());
+        }
+      }
+    }
+    return System.nanoTime() - startNanos;
+  }
+
+  private void killFleet(String mode) throws Exception {
+    Random random = new Random(mode.hashCode());
+    long maxAcked = -1;
+    long totalNanos = 0;
+    long maxNanos = 0;
+    for (int kill = 0; kill < KILLS; kill++) {
+      long acked = startAndKill(mode, maxAcked + 1 + random.nextInt(MAX_KILL_ACKS * ROUNDS_PER_ACK), random);
+      long nanos = verifyFleet(mode, Math.max(maxAcked, acked));
+      maxAcked = Math.max(maxAcked, acked);
+      totalNanos += nanos;
+      maxNanos = Math.max(maxNanos, nanos);
+    }
+    System.out.println(
+        "CrashConsistencyTest: " + mode + ": " + KILLS + " kills, " + SERIES + " series to " + (maxAcked + 1) + " results, "
+            + getSize(dir) + " bytes, recovery mean " + TimeUnit.NANOSECONDS.toMillis(totalNanos / KILLS) + " ms, max "
+            + TimeUnit.NANOSECONDS.toMillis(maxNanos) + " ms"
+    );
+  }
+
+  public void testKillLog() throws Exception {
+    killFleet(MODE_LOG);
+  }
+
+  public void testKillDatabase() throws Exception {
+    killFleet(MODE_DATABASE);
+  }
+
+  public void testKillRuns() throws Exception {
+    killFleet(MODE_RUNS);
+  }
+
+  /**
+   * A file replaced by the background writer is always found whole, old or new.
+   */
+  public void testKillWriter() throws Exception {
+    Random random = new Random(1);
+    long maxAcked = -1;
+    int interrupted = 0;
+    for (int kill = 0; kill < KILLS; kill++) {
+      long acked = startAndKill(MODE_WRITER, maxAcked + 1 + random.nextInt(MAX_KILL_ACKS), random);
+      maxAcked = Math.max(maxAcked, acked);
+      if (getWriterNewFile(dir).exists()) {
+        interrupted++;
+      }
+      long value = readWriter(dir);
+      assertTrue("Acknowledged write lost: " + value + " < " + maxAcked, value >= maxAcked);
+    }
+    System.out.println(
+        "CrashConsistencyTest: " + MODE_WRITER + ": " + KILLS + " kills, " + (maxAcked + 1) + " writes, "
+            + interrupted + " kills left a partial new file"
+    );
+  }
+
+  /**
+   * Measures the sustained write rate of a fleet of histories, and the time to open them again.
+   */
+  public void testFleetThroughput() throws Exception {
+    for (String mode : new String[] {MODE_LOG, MODE_DATABASE}) {
+      File modeDir = new File(dir, mode);
+      Files.createDirectory(modeDir.toPath());
+      long startNanos = System.nanoTime();
+      try (Fleet fleet = new Fleet(mode, modeDir, FLEET_SERIES, FLEET_SEGMENT_SIZE)) {
+        long seq = 0;
+        for (int round = 0; round < FLEET_ROUNDS; round++) {
+          for (HistoryStore<PingResult> store : fleet.stores) {
+            store.addNewest(newResult(seq));
+            if (round >= WINDOW / 10 && (round % REMOVE_BATCH) == 0) {
+              store.removeOldest(REMOVE_BATCH);
+            }
+          }
+          seq++;
+        }
+        fleet.sync();
+      }
+      long writeNanos = System.nanoTime() - startNanos;
+      long appends = (long) FLEET_SERIES * FLEET_ROUNDS;
+      startNanos = System.nanoTime();
+      int read = 0;
+      try (Fleet fleet = new Fleet(mode, modeDir, FLEET_SERIES, FLEET_SEGMENT_SIZE)) {
+        for (HistoryStore<PingResult> store : fleet.stores) {
+          Iterator<PingResult> iter = store.iterator();
+          while (iter.hasNext()) {
+            iter.next();
+            read++;
+          }
+        }
+      }
+      long openNanos = System.nanoTime() - startNanos;
+      assertTrue(read > 0);
+      System.out.println(
+          "CrashConsistencyTest: " + mode + ": " + FLEET_SERIES + " series, " + appends + " results written at "
+              + (appends * 1000000000L / writeNanos) + "/s, " + getSize(modeDir) + " bytes, reopened and read "
+              + read + " in " + TimeUnit.NANOSECONDS.toMillis(openNanos) + " ms"
+      );
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Compares the live threads and per-check latency of running checks through a second thread and
+ * {@link Future#get(long, java.util.concurrent.TimeUnit)} against running them inline with
+ * {@link DeadlineCall}.  Run with {@code -Pbenchmark}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class DeadlineCallBenchmark extends TestCase {
+
+  private static final int WORKERS = 500;
+
+  private static final int PASSES = 5;
+
+  private static final long CHECK_MILLIS = 50;
+
+  public DeadlineCallBenchmark(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(DeadlineCallBenchmark.class);
+    return suite;
+  }
+
+  private static String check() throws InterruptedException {
+    Thread.sleep(CHECK_MILLIS);
+    return "result";
+  }
+
+  private static String checkWithFuture() throws Exception {
+    Future<String> future = RootNodeImpl.submit(DeadlineCallBenchmark::check);
+    try {
+      return future.get(1, TimeUnit.MINUTES);
+    } catch (Exception e) {
+      future.cancel(true);
+      throw e;
+    }
+  }
+
+  private static String checkInline() throws Exception {
+    return DeadlineCall.call(DeadlineCallBenchmark::check, 1, TimeUnit.MINUTES, future -> future.cancel(true));
+  }
+
+  /**
+   * Runs all workers at once, each on its own thread like a worker pass.
+   *
+   * @return  the peak live threads added during the run and the mean microseconds per check
+   */
+  private static long[] run(Callable<String> check) throws Exception {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    // Warm up the executor threads and the wheel
+    check.call();
+    ExecutorService workers = Executors.newCachedThreadPool();
+    try {
+      int before = threads.getThreadCount();
+      threads.resetPeakThreadCount();
+      AtomicLong totalNanos = new AtomicLong();
+      List<Future<?>> futures = new ArrayList<>(WORKERS);
+      for (int i = 0; i < WORKERS; i++) {
+        futures.add(workers.submit(() -> {
+          for (int pass = 0; pass < PASSES; pass++) {
+            long start = System.nanoTime();
+            check.call();
+            totalNanos.addAndGet(System.nanoTime() - start);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      return new long[]{
+          threads.getPeakThreadCount() - before,
+          totalNanos.get() / (WORKERS * PASSES) / 1000
+      };
+    } finally {
+      workers.shutdown();
+      assertTrue(workers.awaitTermination(1, TimeUnit.MINUTES));
+    }
+  }
+
+  public void testThreadsAndLatency() throws Exception {
+    // Inline first, since idle executor threads left by the other would be counted before the run
+    long[] inline = run(DeadlineCallBenchmark::checkInline);
+    long[] withFuture = run(DeadlineCallBenchmark::checkWithFuture);
+    System.out.println(
+        "DeadlineCallBenchmark: " + WORKERS + " workers, " + CHECK_MILLIS + " ms per check: "
+            + "peak threads added " + withFuture[0] + " with future, " + inline[0] + " inline; "
+            + "latency per check " + withFuture[1] + " us with future, " + inline[1] + " us inline"
+    );
+    assertTrue(inline[0] < withFuture[0]);
+  }
+}
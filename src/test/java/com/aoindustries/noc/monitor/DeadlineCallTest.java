@@ -0,0 +1,179 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link DeadlineCall}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class DeadlineCallTest extends TestCase {
+
+  public DeadlineCallTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(DeadlineCallTest.class);
+    return suite;
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    // Never leak an interrupt into the next test
+    Thread.interrupted();
+  }
+
+  public void testSuccess() throws Exception {
+    AtomicInteger canceled = new AtomicInteger();
+    assertEquals("result", DeadlineCall.call(() -> "result", 1, TimeUnit.MINUTES, future -> canceled.incrementAndGet()));
+    assertEquals(0, canceled.get());
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  public void testException() throws Exception {
+    IOException thrown = new IOException("Test");
+    try {
+      DeadlineCall.call(
+          () -> {
+            throw thrown;
+          },
+          1,
+          TimeUnit.MINUTES,
+          future -> fail("Canceled")
+      );
+      fail("Exception not thrown");
+    } catch (IOException e) {
+      assertSame(thrown, e);
+    }
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  public void testTimeoutInterrupts() throws Exception {
+    CountDownLatch never = new CountDownLatch(1);
+    AtomicInteger canceled = new AtomicInteger();
+    Future<?>[] cancelFuture = new Future<?>[1];
+    long start = System.nanoTime();
+    try {
+      DeadlineCall.call(
+          () -> {
+            never.await();
+            return "result";
+          },
+          200,
+          TimeUnit.MILLISECONDS,
+          future -> {
+            canceled.incrementAndGet();
+            cancelFuture[0] = future;
+            future.cancel(true);
+          }
+      );
+      fail("TimeoutException not thrown");
+    } catch (TimeoutException e) {
+      // The interrupt from the deadline is kept with the timeout
+      assertEquals(1, e.getSuppressed().length);
+      assertTrue(e.getSuppressed()[0] instanceof InterruptedException);
+    }
+    assertTrue("Not ended by the deadline", System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+    assertEquals(1, canceled.get());
+    assertTrue(cancelFuture[0].isCancelled());
+    assertTrue(cancelFuture[0].isDone());
+    // Our own interrupt is not leaked into the rest of the worker pass
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  public void testTimeoutAfterCompletion() throws Exception {
+    try {
+      DeadlineCall.call(
+          () -> {
+            // Ignores interruption, like a call that only responds to the cancel hook
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+            while (System.nanoTime() < end) {
+              Thread.onSpinWait();
+            }
+            return "result";
+          },
+          100,
+          TimeUnit.MILLISECONDS,
+          future -> {
+            // Does nothing
+          }
+      );
+      fail("TimeoutException not thrown");
+    } catch (TimeoutException e) {
+      assertEquals(0, e.getSuppressed().length);
+    }
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  public void testKeepsOtherInterrupt() throws Exception {
+    assertEquals(
+        "result",
+        DeadlineCall.call(
+            () -> {
+              // Like the worker being stopped during the call
+              Thread.currentThread().interrupt();
+              return "result";
+            },
+            1,
+            TimeUnit.MINUTES,
+            future -> fail("Canceled")
+        )
+    );
+    assertTrue(Thread.interrupted());
+  }
+
+  public void testKeepsOtherInterruptOnTimeout() throws Exception {
+    try {
+      DeadlineCall.call(
+          () -> {
+            // Stopped, then still running when the deadline passes
+            Thread.currentThread().interrupt();
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+            while (System.nanoTime() < end) {
+              Thread.onSpinWait();
+            }
+            return "result";
+          },
+          100,
+          TimeUnit.MILLISECONDS,
+          future -> future.cancel(true)
+      );
+      fail("TimeoutException not thrown");
+    } catch (TimeoutException e) {
+      // Expected
+    }
+    assertTrue(Thread.interrupted());
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.Serializer;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Compares the write throughput of many workers appending to their own histories with the
+ * {@value HistoryStore#ENGINE_LIST} engine, a barrier on every write, with the
+ * {@value HistoryStore#ENGINE_LOG} engine forced on every write, and with the
+ * {@value HistoryStore#ENGINE_LOG} engine and {@link GroupCommit}.  Run with {@code -Pbenchmark}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class GroupCommitBenchmark extends TestCase {
+
+  private static final int WORKERS = 32;
+
+  private static final long DURATION_MILLIS = 2000;
+
+  private static final long INTERVAL = 100;
+
+  private static final int SEGMENT_SIZE = 64 * 1024;
+
+  public GroupCommitBenchmark(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(GroupCommitBenchmark.class);
+    return suite;
+  }
+
+  private static final class LongSerializer implements Serializer<Long> {
+    @Override
+    public boolean isFixedSerializedSize() {
+      return true;
+    }
+
+    @Override
+    public long getSerializedSize(Long value) {
+      return 8;
+    }
+
+    @Override
+    public void serialize(Long value, OutputStream out) throws IOException {
+      DataOutputStream dout = new DataOutputStream(out);
+      dout.writeLong(value);
+      dout.flush();
+    }
+
+    @Override
+    public Long deserialize(InputStream in) throws IOException {
+      return new DataInputStream(in).readLong();
+    }
+  }
+
+  private File directory;
+
+  @Override
+  protected void setUp() throws Exception {
+    directory = Files.createTempDirectory("GroupCommitBenchmark").toFile();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    delete(directory);
+  }
+
+  private static void delete(File file) throws IOException {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        delete(child);
+      }
+    }
+    Files.delete(file.toPath());
+  }
+
+  private enum Mode {
+    LIST,
+    LOG_FORCED,
+    LOG_GROUP
+  }
+
+  public void testThroughput() throws Exception {
+    long[] list = run(Mode.LIST);
+    long[] forced = run(Mode.LOG_FORCED);
+    long[] group = run(Mode.LOG_GROUP);
+    System.out.println("GroupCommitBenchmark: " + WORKERS + " workers for " + DURATION_MILLIS + " ms, writes and group forces:");
+    System.out.println("GroupCommitBenchmark:   list, barrier on every write:  " + list[0] + " writes");
+    System.out.println("GroupCommitBenchmark:   log, forced on every write:    " + forced[0] + " writes");
+    System.out.println("GroupCommitBenchmark:   log, group commit " + INTERVAL + " ms:    " + group[0] + " writes, " + group[1] + " forces");
+    assertTrue(group[0] > forced[0]);
+    assertTrue(group[0] > list[0]);
+  }
+
+  /**
+   * @return  the number of writes and the number of forces by group commit
+   */
+  private long[] run(Mode mode) throws Exception {
+    GroupCommit groupCommit = new GroupCommit(mode == Mode.LOG_GROUP ? INTERVAL : 0);
+    List<HistoryStore<Long>> stores = new ArrayList<>(WORKERS);
+    try {
+      for (int i = 0; i < WORKERS; i++) {
+        File file = new File(directory, mode.name() + i);
+        if (mode == Mode.LIST) {
+          stores.add(new ListHistoryStore<>(file, new LongSerializer()));
+        } else {
+          stores.add(new SegmentedLog<>(file, new LongSerializer(), SEGMENT_SIZE, groupCommit));
+        }
+      }
+      AtomicBoolean done = new AtomicBoolean();
+      AtomicLong writes = new AtomicLong();
+      List<Thread> threads = new ArrayList<>(WORKERS);
+      List<IOException> errors = new ArrayList<>();
+      for (HistoryStore<Long> store : stores) {
+        Thread thread = new Thread(() -> {
+          try {
+            long value = 0;
+            while (!done.get()) {
+              store.addNewest(value++);
+              writes.incrementAndGet();
+            }
+          } catch (IOException e) {
+            synchronized (errors) {
+              errors.add(e);
+            }
+          }
+        });
+        threads.add(thread);
+        thread.start();
+      }
+      Thread.sleep(DURATION_MILLIS);
+      done.set(true);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      if (!errors.isEmpty()) {
+        throw errors.get(0);
+      }
+      return new long[] {writes.get(), groupCommit.getForces()};
+    } finally {
+      for (HistoryStore<Long> store : stores) {
+        store.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.Serializer;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Iterator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link GroupCommit}.
+ *
+ * @see  GroupCommitBenchmark
+ *
+ * @author  AO Industries, Inc.
+ */
+public class GroupCommitTest extends TestCase {
+
+  private static final long INTERVAL = 100;
+
+  public GroupCommitTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(GroupCommitTest.class);
+    return suite;
+  }
+
+  private File directory;
+
+  @Override
+  protected void setUp() throws Exception {
+    directory = Files.createTempDirectory("GroupCommitTest").toFile();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    delete(directory);
+  }
+
+  private static void delete(File file) throws IOException {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        delete(child);
+      }
+    }
+    Files.delete(file.toPath());
+  }
+
+  private static final class LongSerializer implements Serializer<Long> {
+    @Override
+    public boolean isFixedSerializedSize() {
+      return true;
+    }
+
+    @Override
+    public long getSerializedSize(Long value) {
+      return 8;
+    }
+
+    @Override
+    public void serialize(Long value, OutputStream out) throws IOException {
+      DataOutputStream dout = new DataOutputStream(out);
+      dout.writeLong(value);
+      dout.flush();
+    }
+
+    @Override
+    public Long deserialize(InputStream in) throws IOException {
+      return new DataInputStream(in).readLong();
+    }
+  }
+
+  public void testClosedRemoved() throws Exception {
+    GroupCommit group = new GroupCommit(INTERVAL);
+    try (RandomAccessFile raf = new RandomAccessFile(new File(directory, "open"), "rw")) {
+      FileChannel closed;
+      try (RandomAccessFile other = new RandomAccessFile(new File(directory, "closed"), "rw")) {
+        closed = other.getChannel();
+        group.register(closed);
+      }
+      group.register(raf.getChannel());
+      group.commit();
+      assertEquals(1, group.getForces());
+      group.commit();
+      assertEquals(2, group.getForces());
+      assertTrue(group.getCommits() >= 2);
+    }
+  }
+
+  /**
+   * The log engine registers its newest segment and head, which are then only forced by commits.
+   */
+  public void testLog() throws Exception {
+    GroupCommit group = new GroupCommit(INTERVAL);
+    File dir = new File(directory, "log");
+    try (SegmentedLog<Long> log = new SegmentedLog<>(dir, new LongSerializer(), 1024, group)) {
+      for (long i = 0; i < 10; i++) {
+        log.addNewest(i);
+      }
+      group.commit();
+      assertEquals(2, group.getForces());
+    }
+    try (SegmentedLog<Long> log = new SegmentedLog<>(dir, new LongSerializer(), 1024, new GroupCommit(0))) {
+      Iterator<Long> iter = log.iterator();
+      for (long i = 0; i < 10; i++) {
+        assertEquals(Long.valueOf(i), iter.next());
+      }
+      assertFalse(iter.hasNext());
+    }
+  }
+}
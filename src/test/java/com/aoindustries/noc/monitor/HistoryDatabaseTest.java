@@ -0,0 +1,417 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.Serializer;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.PingResult;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link HistoryDatabase} and {@link HistoryMigration}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class HistoryDatabaseTest extends TestCase {
+
+  public HistoryDatabaseTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(HistoryDatabaseTest.class);
+    return suite;
+  }
+
+  private static final class LongSerializer implements Serializer<Long> {
+    @Override
+    public boolean isFixedSerializedSize() {
+      return true;
+    }
+
+    @Override
+    public long getSerializedSize(Long value) {
+      return 8;
+    }
+
+    @Override
+    public void serialize(Long value, OutputStream out) throws IOException {
+      DataOutputStream dout = new DataOutputStream(out);
+      dout.writeLong(value);
+      dout.flush();
+    }
+
+    @Override
+    public Long deserialize(InputStream in) throws IOException {
+      return new DataInputStream(in).readLong();
+    }
+  }
+
+  /**
+   * The size of each record of a {@link LongSerializer}.
+   */
+  private static final int RECORD_SIZE = 29;
+
+  private File root;
+
+  @Override
+  protected void setUp() throws Exception {
+    root = Files.createTempDirectory("HistoryDatabaseTest").toFile();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    delete(root);
+  }
+
+  private static void delete(File file) throws IOException {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        delete(child);
+      }
+    }
+    Files.delete(file.toPath());
+  }
+
+  private HistoryDatabase open(int shards, int recordsPerSegment) throws IOException {
+    return new HistoryDatabase(new File(root, "history"), shards, recordsPerSegment * RECORD_SIZE);
+  }
+
+  private HistoryStore<Long> open(HistoryDatabase database, String name) throws IOException {
+    return database.open(new File(root, name), new LongSerializer());
+  }
+
+  private static void assertValues(HistoryStore<Long> store, long from, long to) throws IOException {
+    Iterator<Long> iter = store.iterator();
+    for (long value = from; value < to; value++) {
+      assertTrue(iter.hasNext());
+      assertEquals(value, iter.next().longValue());
+    }
+    assertFalse(iter.hasNext());
+    assertEquals(from == to ? null : Long.valueOf(to - 1), store.peekNewest());
+  }
+
+  public void testAddAndReopen() throws Exception {
+    try (HistoryDatabase database = open(2, 100)) {
+      HistoryStore<Long> a = open(database, "a");
+      HistoryStore<Long> b = open(database, "dir/b");
+      for (long value = 0; value < 1000; value++) {
+        a.addNewest(value);
+        b.addNewest(value + 10000);
+      }
+      assertValues(a, 0, 1000);
+      assertValues(b, 10000, 11000);
+      assertEquals(2, database.getSeriesCount());
+    }
+    try (HistoryDatabase database = open(2, 100)) {
+      assertEquals(2, database.getSeriesCount());
+      HistoryStore<Long> a = open(database, "a");
+      HistoryStore<Long> b = open(database, "dir/b");
+      // From the index, then by scanning once released
+      assertValues(a, 0, 1000);
+      assertValues(a, 0, 1000);
+      assertValues(b, 10000, 11000);
+      a.addNewest(1000L);
+      assertValues(a, 0, 1001);
+    }
+  }
+
+  public void testRemoveOldestDeletesSegments() throws Exception {
+    try (HistoryDatabase database = open(1, 100)) {
+      HistoryStore<Long> a = open(database, "a");
+      HistoryStore<Long> b = open(database, "b");
+      for (long value = 0; value < 1000; value++) {
+        a.addNewest(value);
+        b.addNewest(value);
+      }
+      database.flush();
+      assertEquals(20, database.getSegmentCount());
+      a.removeOldest(900);
+      // Still in b
+      assertEquals(20, database.getSegmentCount());
+      b.removeOldest(900);
+      database.flush();
+      assertTrue(database.getSegmentCount() <= 3);
+      assertValues(a, 900, 1000);
+      try {
+        a.removeOldest(101);
+        fail("Expected IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        // Expected
+      }
+    }
+    try (HistoryDatabase database = open(1, 100)) {
+      HistoryStore<Long> a = open(database, "a");
+      HistoryStore<Long> b = open(database, "b");
+      assertValues(a, 900, 1000);
+      assertValues(b, 900, 1000);
+      a.removeOldest(100);
+      assertValues(a, 1000, 1000);
+      // Numbering continues after everything is removed
+      a.addNewest(1000L);
+      assertValues(a, 1000, 1001);
+    }
+    try (HistoryDatabase database = open(1, 100)) {
+      assertValues(open(database, "a"), 1000, 1001);
+    }
+  }
+
+  public void testRemovedBeforeWritten() throws Exception {
+    try (HistoryDatabase database = open(1, 100)) {
+      HistoryStore<Long> a = open(database, "a");
+      for (long value = 0; value < 10; value++) {
+        a.addNewest(value);
+      }
+      a.removeOldest(5);
+      assertValues(a, 5, 10);
+    }
+    try (HistoryDatabase database = open(1, 100)) {
+      assertValues(open(database, "a"), 5, 10);
+    }
+  }
+
+  private static void awaitCompactions(HistoryDatabase database) throws InterruptedException {
+    for (int i = 0; i < 500 && database.getCompactions() == 0; i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(database.getCompactions() > 0);
+  }
+
+  public void testUnusedSeriesCompacted() throws Exception {
+    try (HistoryDatabase database = open(1, 100)) {
+      HistoryStore<Long> unused = open(database, "unused");
+      HistoryStore<Long> used = open(database, "used");
+      for (long value = 0; value < 1000; value++) {
+        if ((value % 100) == 0) {
+          unused.addNewest(value / 100);
+        }
+        used.addNewest(value);
+      }
+      // Releases the indexes, allowing compaction
+      assertValues(unused, 0, 10);
+      assertValues(used, 0, 1000);
+      used.removeOldest(990);
+      database.flush();
+      awaitCompactions(database);
+      assertValues(unused, 0, 10);
+      assertValues(used, 990, 1000);
+    }
+    try (HistoryDatabase database = open(1, 100)) {
+      assertValues(open(database, "unused"), 0, 10);
+      assertValues(open(database, "used"), 990, 1000);
+    }
+  }
+
+  public void testTruncatesIncompleteRecord() throws Exception {
+    try (HistoryDatabase database = open(1, 100)) {
+      HistoryStore<Long> a = open(database, "a");
+      for (long value = 0; value < 10; value++) {
+        a.addNewest(value);
+      }
+    }
+    File[] segments = new File(root, "history/shard000").listFiles((d, name) -> name.endsWith(".seg"));
+    Arrays.sort(segments);
+    try (RandomAccessFile raf = new RandomAccessFile(segments[segments.length - 1], "rw")) {
+      raf.seek(raf.length());
+      raf.writeInt(8);
+      raf.writeInt(12345);
+    }
+    try (HistoryDatabase database = open(1, 100)) {
+      HistoryStore<Long> a = open(database, "a");
+      assertValues(a, 0, 10);
+      a.addNewest(10L);
+    }
+    try (HistoryDatabase database = open(1, 100)) {
+      assertValues(open(database, "a"), 0, 11);
+    }
+  }
+
+  private static Rollup newRollup(int level, long startTime) {
+    Rollup rollup = Rollup.aggregate(startTime, Collections.singletonList(new PingResult(startTime, 1, AlertLevel.NONE)), result -> new double[0]);
+    return level == 0 ? rollup : Rollup.merge(level, startTime, Collections.singletonList(rollup));
+  }
+
+  public void testMigration() throws Exception {
+    File dir = new File(root, "host");
+    Files.createDirectories(dir.toPath());
+    File list = new File(dir, "list");
+    try (ListHistoryStore<Long> store = new ListHistoryStore<>(list, new LongSerializer())) {
+      for (long value = 0; value < 100; value++) {
+        store.addNewest(value);
+      }
+      store.removeOldest(10);
+    }
+    try (ListRollupStore rollups = new ListRollupStore(new File(dir, "list.rollups"))) {
+      rollups.add(newRollup(1, 0));
+      rollups.add(newRollup(0, 0));
+      rollups.add(newRollup(0, Rollup.getDuration(0)));
+    }
+    File log = new File(dir, "log");
+    try (SegmentedLog<Long> store = new SegmentedLog<>(new File(dir, "log.log"), new LongSerializer(), 1000)) {
+      for (long value = 0; value < 200; value++) {
+        store.addNewest(value);
+      }
+    }
+    Files.createFile(new File(dir, "log.rollups").toPath());
+    // Without any history
+    Files.createFile(new File(dir, "empty.rollups").toPath());
+    // Written by a previous version, without any rollups
+    File old = new File(dir, "old");
+    try (ListHistoryStore<Long> store = new ListHistoryStore<>(old, new LongSerializer())) {
+      store.addNewest(1L);
+    }
+    // Not histories
+    File last = new File(dir, "last");
+    try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(last))) {
+      out.writeObject("last");
+    }
+    Files.createFile(new File(dir, "old.alert").toPath());
+    try (HistoryDatabase database = open(4, 100)) {
+      assertEquals(3, HistoryMigration.migrate(root, database));
+      assertEquals(0, HistoryMigration.migrate(root, database));
+    }
+    assertFalse(list.exists());
+    assertTrue(new File(dir, "list.imported").exists());
+    assertTrue(new File(dir, "log.log.imported").isDirectory());
+    assertTrue(new File(dir, "list.rollups.imported").exists());
+    assertTrue(new File(dir, "old.imported").exists());
+    assertTrue(last.exists());
+    try (HistoryDatabase database = open(4, 100)) {
+      assertValues(database.open(old, new LongSerializer()), 1, 2);
+      assertValues(database.open(list, new LongSerializer()), 10, 100);
+      assertValues(database.open(log, new LongSerializer()), 0, 200);
+      RollupStore rollups = new DatabaseRollupStore(database, list);
+      Iterator<Rollup> level0 = rollups.iterator(0);
+      assertEquals(0, level0.next().getStartTime());
+      assertEquals(Rollup.getDuration(0), level0.next().getStartTime());
+      assertFalse(level0.hasNext());
+      assertEquals(1, rollups.iterator(1).next().getLevel());
+      rollups.removeOldest(0, 1);
+      assertEquals(Rollup.getDuration(0), rollups.iterator(0).next().getStartTime());
+    }
+  }
+
+  public void testImportedWhenOpened() throws Exception {
+    File list = new File(root, "list");
+    try (ListHistoryStore<Long> store = new ListHistoryStore<>(list, new LongSerializer())) {
+      for (long value = 0; value < 100; value++) {
+        store.addNewest(value);
+      }
+    }
+    try (HistoryDatabase database = open(4, 100)) {
+      assertValues(open(database, "list"), 0, 100);
+    }
+    assertFalse(list.exists());
+  }
+
+  /**
+   * Workers of different shards add, remove and read while the writer writes without the lock of
+   * the database.
+   */
+  public void testConcurrentSeries() throws Exception {
+    try (HistoryDatabase database = open(4, 100)) {
+      Thread[] threads = new Thread[8];
+      Throwable[] failures = new Throwable[threads.length];
+      for (int t = 0; t < threads.length; t++) {
+        final int id = t;
+        threads[t] = new Thread(() -> {
+          try {
+            HistoryStore<Long> store = open(database, "worker" + id);
+            for (long value = 0; value < 2000; value++) {
+              store.addNewest(value);
+              if (value % 100 == 99) {
+                store.removeOldest(50);
+                assertEquals(Long.valueOf(value), store.peekNewest());
+              }
+            }
+            assertValues(store, 1000, 2000);
+          } catch (Throwable e) {
+            failures[id] = e;
+          }
+        });
+        threads[t].start();
+      }
+      for (int t = 0; t < threads.length; t++) {
+        threads[t].join();
+        if (failures[t] != null) {
+          throw new AssertionError(failures[t]);
+        }
+      }
+    }
+    try (HistoryDatabase database = open(4, 100)) {
+      for (int t = 0; t < 8; t++) {
+        assertValues(open(database, "worker" + t), 1000, 2000);
+      }
+    }
+  }
+
+  /**
+   * Writes the histories of many workers, comparing the files needed to those of one file per worker.
+   */
+  public void testManySeries() throws Exception {
+    final int series = 5000;
+    final int passes = 20;
+    try (HistoryDatabase database = open(16, 64 * 1024 * 1024 / RECORD_SIZE)) {
+      List<HistoryStore<Long>> stores = new ArrayList<>(series);
+      for (int i = 0; i < series; i++) {
+        stores.add(open(database, "host" + (i / 20) + "/worker" + i));
+      }
+      long startNanos = System.nanoTime();
+      for (int pass = 0; pass < passes; pass++) {
+        for (HistoryStore<Long> store : stores) {
+          store.addNewest((long) pass);
+        }
+      }
+      database.flush();
+      long millis = (System.nanoTime() - startNanos) / 1000000;
+      System.out.println(
+          "HistoryDatabaseTest: " + series + " series, " + ((long) series * passes) + " elements in " + millis + " ms: "
+              + database.getSegmentCount() + " segment files instead of " + series + " files, "
+              + database.getBatches() + " batches written"
+      );
+      assertEquals((long) series * passes, database.getWrites());
+      assertEquals(16, database.getSegmentCount());
+      assertValues(stores.get(series - 1), 0, passes);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link LastResult} written through {@link BackgroundWriter} and read back.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class LastResultTest extends TestCase {
+
+  public LastResultTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(LastResultTest.class);
+    return suite;
+  }
+
+  private File file;
+
+  @Override
+  protected void setUp() throws Exception {
+    file = File.createTempFile("LastResultTest", null);
+    Files.delete(file.toPath());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Files.deleteIfExists(file.toPath());
+  }
+
+  private void waitForFile() throws InterruptedException {
+    // Write now instead of waiting for the window
+    BackgroundWriter.getInstance().flush();
+    for (int i = 0; i < 500 && !file.exists(); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(file.exists());
+  }
+
+  public void testMissing() {
+    assertNull(LastResult.read(file, String.class));
+  }
+
+  public void testRoundTrip() throws Exception {
+    new LastResult<>("report", AlertLevel.HIGH, locale -> "message in " + locale.getLanguage()).write(file);
+    waitForFile();
+    LastResult<String> last = LastResult.read(file, String.class);
+    assertNotNull(last);
+    assertEquals("report", last.getResult());
+    assertEquals(AlertLevel.HIGH, last.getAlertLevel());
+    // Persisted in each translated language, untranslated for others
+    assertEquals("message in ja", last.getAlertMessage().apply(Locale.JAPAN));
+    assertEquals("message in ", last.getAlertMessage().apply(Locale.ITALIAN));
+    assertEquals("message in ", last.getAlertMessage().apply(Locale.ROOT));
+    // A different type is ignored
+    assertNull(LastResult.read(file, Integer.class));
+  }
+
+  public void testNoMessage() throws Exception {
+    new LastResult<>("report", AlertLevel.NONE, null).write(file);
+    waitForFile();
+    assertNull(LastResult.read(file, String.class).getAlertMessage());
+  }
+
+  public void testSameMessage() {
+    PersistedMessage message = PersistedMessage.of(locale -> "same");
+    assertEquals("same", message.apply(Locale.JAPANESE));
+    assertEquals(message, PersistedMessage.of(locale -> "same"));
+    assertFalse(message.equals(PersistedMessage.of(locale -> locale.getLanguage())));
+    assertNull(PersistedMessage.of(null));
+  }
+
+  public void testCorruptIgnored() throws Exception {
+    Files.write(file.toPath(), "not a last result".getBytes(StandardCharsets.UTF_8));
+    assertNull(LastResult.read(file, String.class));
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link PhaseAllocator} and compares the per-second check concurrency of a large
+ * simulated fleet against the previous fixed-step startup staggering.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class PhaseAllocatorTest extends TestCase {
+
+  private static final long PERIOD = 5L * 60 * 1000;
+
+  private static final int WORKERS = 20000;
+  private static final int HOSTS = 1000;
+
+  /**
+   * The chance that any one pass fails and is retried after one minute.
+   */
+  private static final double FAILURE_RATE = 0.02;
+
+  private static final long SIMULATED_MILLIS = 6L * 60 * 60 * 1000;
+
+  /**
+   * Only the final hours are measured, after startup has settled.
+   */
+  private static final long MEASURE_FROM_MILLIS = 4L * 60 * 60 * 1000;
+
+  public PhaseAllocatorTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(PhaseAllocatorTest.class);
+    return suite;
+  }
+
+  private static void assertFlat(int[] loads) {
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int load : loads) {
+      min = Math.min(min, load);
+      max = Math.max(max, load);
+    }
+    assertTrue("max - min > 1: " + min + ".." + max, max - min <= 1);
+  }
+
+  public void testAllocateIsFlat() {
+    PhaseAllocator allocator = new PhaseAllocator(PERIOD, 0);
+    for (int i = 0; i < 1000; i++) {
+      allocator.allocate(null);
+      assertFlat(allocator.getLoads());
+    }
+  }
+
+  public void testAllocateSpreadsEachHost() {
+    PhaseAllocator allocator = new PhaseAllocator(PERIOD, 0);
+    // Fill some slots with other hosts first
+    for (int i = 0; i < 450; i++) {
+      allocator.allocate("other" + (i % 7));
+    }
+    boolean[] used = new boolean[300];
+    for (int i = 0; i < 300; i++) {
+      int slot = (int) (allocator.allocate("host").getOffset() / 1000);
+      assertFalse("Slot used twice for same host: " + slot, used[slot]);
+      used[slot] = true;
+    }
+    assertFlat(allocator.getLoads());
+  }
+
+  public void testReleaseRebalances() {
+    PhaseAllocator allocator = new PhaseAllocator(PERIOD, 0);
+    List<PhaseAllocator.Phase> phases = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      phases.add(allocator.allocate(null));
+    }
+    Random random = new Random(1);
+    for (int i = 0; i < 700; i++) {
+      PhaseAllocator.Phase phase = phases.remove(random.nextInt(phases.size()));
+      phase.release();
+      // Released twice has no effect
+      phase.release();
+      assertFlat(allocator.getLoads());
+    }
+    int total = 0;
+    for (int load : allocator.getLoads()) {
+      total += load;
+    }
+    assertEquals(300, total);
+  }
+
+  public void testAlignLandsOnPhase() {
+    PhaseAllocator allocator = new PhaseAllocator(PERIOD, 0);
+    allocator.allocate(null);
+    PhaseAllocator.Phase phase = allocator.allocate(null);
+    long offset = phase.getOffset();
+    assertTrue(offset > 0);
+    long now = 12345;
+    assertEquals(offset, now + phase.getStartupDelay(now * 1000000));
+    // Run time of the current pass is absorbed
+    for (long start = offset; start < 10 * PERIOD; start += PERIOD) {
+      long end = start + 4321;
+      long delay = phase.align(PERIOD, end * 1000000);
+      assertEquals(start + PERIOD, end + delay);
+    }
+    // One-minute retries land at the same fraction of each minute
+    long delay = phase.align(60000, 1000L * 1000000);
+    assertEquals(offset / 5, (1000 + delay) % 60000);
+  }
+
+  /**
+   * Simulates a fleet in virtual time, comparing the previous startup staggering,
+   * after which every worker drifts by its own run time, against allocated phases.
+   */
+  public void testFleetConcurrency() {
+    Stats before = simulate(false);
+    Stats after = simulate(true);
+    System.out.println("PhaseAllocatorTest: " + WORKERS + " workers on " + HOSTS + " hosts, checks started per second:");
+    System.out.println("PhaseAllocatorTest:   fixed-step staggering: " + before);
+    System.out.println("PhaseAllocatorTest:   phase allocator:       " + after);
+    assertTrue(after.max < before.max);
+    assertTrue(after.hostMax <= before.hostMax);
+  }
+
+  private static final class Stats {
+    private int mean;
+    private int p99;
+    private int max;
+    private int hostMax;
+
+    @Override
+    public String toString() {
+      return "mean=" + mean + ", p99=" + p99 + ", max=" + max + ", max per host=" + hostMax;
+    }
+  }
+
+  private static final class Event implements Comparable<Event> {
+    private final long time;
+    private final int worker;
+
+    private Event(long time, int worker) {
+      this.time = time;
+      this.worker = worker;
+    }
+
+    @Override
+    public int compareTo(Event other) {
+      return Long.compare(time, other.time);
+    }
+  }
+
+  private static Stats simulate(boolean usePhases) {
+    Random random = new Random(42);
+    PhaseAllocator allocator = new PhaseAllocator(PERIOD, 0);
+    PhaseAllocator.Phase[] phases = new PhaseAllocator.Phase[WORKERS];
+    PriorityQueue<Event> queue = new PriorityQueue<>();
+    int lastStartupDelay = 0;
+    for (int worker = 0; worker < WORKERS; worker++) {
+      long delay;
+      if (usePhases) {
+        phases[worker] = allocator.allocate("host" + (worker % HOSTS));
+        delay = phases[worker].getStartupDelay(0);
+      } else {
+        lastStartupDelay = (lastStartupDelay + 5037) % (int) PERIOD;
+        delay = lastStartupDelay;
+      }
+      queue.add(new Event(delay, worker));
+    }
+    int seconds = (int) ((SIMULATED_MILLIS - MEASURE_FROM_MILLIS) / 1000);
+    int[] perSecond = new int[seconds];
+    Map<Long, Integer> perHostSecond = new HashMap<>();
+    int hostMax = 0;
+    Event event;
+    while ((event = queue.poll()) != null && event.time < SIMULATED_MILLIS) {
+      int worker = event.worker;
+      if (event.time >= MEASURE_FROM_MILLIS) {
+        int second = (int) ((event.time - MEASURE_FROM_MILLIS) / 1000);
+        perSecond[second]++;
+        long key = (long) second * HOSTS + (worker % HOSTS);
+        int count = perHostSecond.merge(key, 1, Integer::sum);
+        hostMax = Math.max(hostMax, count);
+      }
+      // Mostly quick checks with a long tail
+      long runTime = (long) (Math.exp(random.nextGaussian() * 1.2 + 5.5));
+      boolean successful = random.nextDouble() >= FAILURE_RATE;
+      long end = event.time + runTime;
+      long delay = successful ? PERIOD : 60000;
+      if (usePhases) {
+        delay = phases[worker].align(delay, end * 1000000);
+      }
+      queue.add(new Event(end + delay, worker));
+    }
+    int[] sorted = perSecond.clone();
+    Arrays.sort(sorted);
+    long total = 0;
+    for (int count : sorted) {
+      total += count;
+    }
+    Stats stats = new Stats();
+    stats.mean = (int) (total / seconds);
+    stats.p99 = sorted[(int) (seconds * 0.99)];
+    stats.max = sorted[seconds - 1];
+    stats.hostMax = hostMax;
+    return stats;
+  }
+}
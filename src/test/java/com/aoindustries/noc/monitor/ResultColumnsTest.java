@@ -0,0 +1,237 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.LoadAverageResult;
+import com.aoindustries.noc.monitor.common.MemoryResult;
+import com.aoindustries.noc.monitor.linux.LoadAverageResultColumns;
+import com.aoindustries.noc.monitor.linux.MemoryResultColumns;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link ResultColumns} and compares the heap used by a fleet of load average series
+ * stored as columns against the result objects.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ResultColumnsTest extends TestCase {
+
+  /**
+   * Matches two days of one-minute results.
+   */
+  private static final int RESULTS = 2880;
+
+  private static final int SERIES = 200;
+
+  public ResultColumnsTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(ResultColumnsTest.class);
+    return suite;
+  }
+
+  private static ResultSnapshot<LoadAverageResult> newColumnSnapshot() {
+    ResultColumns<LoadAverageResult> columns = new LoadAverageResultColumns();
+    return ResultSnapshot.empty(columns.getStorage());
+  }
+
+  private static LoadAverageResult newResult(Random random, long time) {
+    if (random.nextInt(50) == 0) {
+      return new LoadAverageResult(time, random.nextInt(1000000), AlertLevel.CRITICAL, "Error " + time);
+    }
+    float oneMinute = random.nextFloat() * 4;
+    return new LoadAverageResult(
+        time,
+        random.nextInt(1000000),
+        oneMinute > 3 ? AlertLevel.LOW : AlertLevel.NONE,
+        oneMinute,
+        random.nextFloat() * 4,
+        random.nextFloat() * 4,
+        1 + random.nextInt(4),
+        200 + random.nextInt(50),
+        random.nextInt(32768),
+        // Limits rarely change
+        time < 100 * 60000L ? 3 : 4,
+        6,
+        Float.NaN,
+        16
+    );
+  }
+
+  private static void assertSameResult(LoadAverageResult expected, LoadAverageResult actual) {
+    assertEquals(expected.getTime(), actual.getTime());
+    assertEquals(expected.getLatency(), actual.getLatency());
+    assertEquals(expected.getAlertLevel(), actual.getAlertLevel());
+    assertEquals(expected.getError(), actual.getError());
+    if (expected.getError() == null) {
+      assertEquals(expected.getOneMinute(), actual.getOneMinute(), 0);
+      assertEquals(expected.getFiveMinute(), actual.getFiveMinute(), 0);
+      assertEquals(expected.getTenMinute(), actual.getTenMinute(), 0);
+      assertEquals(expected.getRunningProcesses(), actual.getRunningProcesses());
+      assertEquals(expected.getTotalProcesses(), actual.getTotalProcesses());
+      assertEquals(expected.getLastPid(), actual.getLastPid());
+      assertEquals(expected.getLoadLow(), actual.getLoadLow(), 0);
+      assertEquals(expected.getLoadMedium(), actual.getLoadMedium(), 0);
+      assertTrue(Float.isNaN(actual.getLoadHigh()));
+      assertEquals(expected.getLoadCritical(), actual.getLoadCritical(), 0);
+    }
+  }
+
+  public void testMaterialize() {
+    Random random = new Random(1);
+    ResultSnapshot<LoadAverageResult> snapshot = newColumnSnapshot();
+    List<LoadAverageResult> expected = new ArrayList<>();
+    for (int i = 0; i < RESULTS; i++) {
+      LoadAverageResult result = newResult(random, i * 60000L);
+      snapshot = snapshot.addNewest(result);
+      expected.add(0, result);
+    }
+    for (int i = 0; i < 1000; i++) {
+      snapshot = snapshot.removeOldest();
+      expected.remove(expected.size() - 1);
+    }
+    assertEquals(expected.size(), snapshot.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertSameResult(expected.get(i), snapshot.get(i));
+    }
+  }
+
+  /**
+   * Expanding a constant column must not change the rows seen by existing snapshots.
+   */
+  public void testOlderSnapshotsUnchanged() {
+    Random random = new Random(2);
+    ResultSnapshot<LoadAverageResult> snapshot = newColumnSnapshot();
+    List<LoadAverageResult> expected = new ArrayList<>();
+    // Errors first, before any constants are set
+    for (int i = 0; i < 3; i++) {
+      LoadAverageResult result = new LoadAverageResult(i, 0, AlertLevel.UNKNOWN, "Error " + i);
+      snapshot = snapshot.addNewest(result);
+      expected.add(0, result);
+    }
+    for (int i = 3; i < 90; i++) {
+      LoadAverageResult result = newResult(random, i * 60000L);
+      snapshot = snapshot.addNewest(result);
+      expected.add(0, result);
+    }
+    ResultSnapshot<LoadAverageResult> older = snapshot;
+    List<LoadAverageResult> olderExpected = new ArrayList<>(expected);
+    // Crosses the change in the low limit
+    for (int i = 90; i < 200; i++) {
+      snapshot = snapshot.addNewest(newResult(random, i * 60000L));
+    }
+    assertEquals(olderExpected.size(), older.size());
+    for (int i = 0; i < olderExpected.size(); i++) {
+      assertSameResult(olderExpected.get(i), older.get(i));
+    }
+    assertEquals(4, snapshot.get(0).getLoadLow(), 0);
+    assertEquals(3, snapshot.get(snapshot.size() - 4).getLoadLow(), 0);
+  }
+
+  /**
+   * Long values stored as differences are expanded when a difference no longer fits.
+   */
+  public void testWideLongs() {
+    ResultColumns<MemoryResult> columns = new MemoryResultColumns();
+    ResultSnapshot<MemoryResult> snapshot = ResultSnapshot.empty(columns.getStorage());
+    long[] values = {
+        0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 1L << 40, -(1L << 40),
+        Long.MAX_VALUE, Long.MIN_VALUE, 5, Long.MAX_VALUE - 1, 64L << 30
+    };
+    List<MemoryResult> expected = new ArrayList<>();
+    for (int i = 0; i < 600; i++) {
+      long value = values[i % values.length];
+      long time = (i < 300) ? (i * 60000L) : (Long.MAX_VALUE - (600 - i));
+      // Latency over two seconds only once in a while
+      long latency = (i % 97 == 0) ? (10L * 1000 * 1000 * 1000) : (i * 1000L);
+      MemoryResult result = (i % 13 == 5)
+          ? new MemoryResult(time, latency, AlertLevel.UNKNOWN, "Error " + i)
+          : new MemoryResult(time, latency, AlertLevel.NONE, 16L << 30, value, i, -value, 0, value ^ i);
+      snapshot = snapshot.addNewest(result);
+      expected.add(0, result);
+    }
+    for (int i = 0; i < expected.size(); i++) {
+      MemoryResult e = expected.get(i);
+      MemoryResult a = snapshot.get(i);
+      assertEquals(e.getTime(), a.getTime());
+      assertEquals(e.getLatency(), a.getLatency());
+      assertEquals(e.getAlertLevel(), a.getAlertLevel());
+      assertEquals(e.getError(), a.getError());
+      if (e.getError() == null) {
+        assertEquals(e.getMemTotal(), a.getMemTotal());
+        assertEquals(e.getMemFree(), a.getMemFree());
+        assertEquals(e.getBuffers(), a.getBuffers());
+        assertEquals(e.getCached(), a.getCached());
+        assertEquals(e.getSwapTotal(), a.getSwapTotal());
+        assertEquals(e.getSwapFree(), a.getSwapFree());
+      }
+    }
+  }
+
+  public void testHeapUsed() {
+    long objects = measure(false);
+    long columns = measure(true);
+    System.out.println(
+        "ResultColumnsTest: " + SERIES + " load average series of " + RESULTS + " results: "
+            + (objects / ((long) SERIES * RESULTS)) + " bytes per result as objects, "
+            + (columns / ((long) SERIES * RESULTS)) + " as columns"
+    );
+    assertTrue(columns < objects / 2);
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static long measure(boolean useColumns) {
+    Random random = new Random(3);
+    long before = usedMemory();
+    List<ResultSnapshot<LoadAverageResult>> fleet = new ArrayList<>(SERIES);
+    for (int s = 0; s < SERIES; s++) {
+      ResultSnapshot<LoadAverageResult> snapshot = useColumns
+          ? newColumnSnapshot()
+          : ResultSnapshot.empty();
+      for (int i = 0; i < RESULTS; i++) {
+        snapshot = snapshot.addNewest(newResult(random, i * 60000L));
+      }
+      fleet.add(snapshot);
+    }
+    long used = usedMemory() - before;
+    assertEquals(SERIES, fleet.size());
+    return used;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.PingResult;
+import com.aoindustries.noc.monitor.common.TableMultiResultListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Compares the time a worker spends notifying many clients, one of them slow, through
+ * {@link ResultListeners} against the previous synchronous calls.  Run with {@code -Pbenchmark}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ResultListenersBenchmark extends TestCase {
+
+  private static final int CLIENTS = 50;
+
+  private static final int RESULTS = 20;
+
+  private static final long SLOW_CALL_MILLIS = 100;
+
+  public ResultListenersBenchmark(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(ResultListenersBenchmark.class);
+    return suite;
+  }
+
+  /**
+   * Counts the results added, optionally taking time in each.
+   */
+  private static class Client implements TableMultiResultListener<PingResult> {
+
+    private final long callMillis;
+    private final AtomicInteger added = new AtomicInteger();
+
+    private Client(long callMillis) {
+      this.callMillis = callMillis;
+    }
+
+    @Override
+    public void tableMultiResultAdded(PingResult result) {
+      if (callMillis > 0) {
+        try {
+          Thread.sleep(callMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      added.incrementAndGet();
+    }
+
+    @Override
+    public void tableMultiResultRemoved(PingResult result) {
+      // Not used
+    }
+  }
+
+  /**
+   * The time the worker spends notifying the clients of each result, with one slow client.
+   */
+  public void testSlowClient() throws Exception {
+    List<Client> clients = new ArrayList<>();
+    for (int i = 0; i < CLIENTS; i++) {
+      clients.add(new Client(i == 0 ? SLOW_CALL_MILLIS : 0));
+    }
+    // Synchronous calls to each client in turn
+    long syncNanos = 0;
+    for (long i = 1; i <= RESULTS; i++) {
+      PingResult result = new PingResult(i, 1000000, AlertLevel.NONE);
+      long startNanos = System.nanoTime();
+      for (Client client : clients) {
+        client.tableMultiResultAdded(result);
+      }
+      syncNanos += System.nanoTime() - startNanos;
+    }
+    ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      ResultListeners<TableMultiResultListener<PingResult>> listeners = new ResultListeners<>(executor, 1000);
+      for (Client client : clients) {
+        listeners.addListener(client);
+      }
+      long asyncNanos = 0;
+      for (long i = 1; i <= RESULTS; i++) {
+        PingResult result = new PingResult(i, 1000000, AlertLevel.NONE);
+        long startNanos = System.nanoTime();
+        listeners.fire(listener -> listener.tableMultiResultAdded(result));
+        asyncNanos += System.nanoTime() - startNanos;
+      }
+      long deadline = System.currentTimeMillis() + 30000;
+      while (clients.get(0).added.get() < RESULTS * 2) {
+        assertTrue("Timed out", System.currentTimeMillis() < deadline);
+        Thread.sleep(5);
+      }
+      System.out.println(
+          "ResultListenersBenchmark: " + CLIENTS + " clients, one taking " + SLOW_CALL_MILLIS + " ms per call, worker time per result: "
+              + TimeUnit.NANOSECONDS.toMicros(syncNanos / RESULTS) + " us synchronous, "
+              + TimeUnit.NANOSECONDS.toMicros(asyncNanos / RESULTS) + " us queued"
+      );
+      assertTrue(asyncNanos < syncNanos);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.PingResult;
+import com.aoindustries.noc.monitor.common.TableMultiResultListener;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link ResultListeners}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ResultListenersTest extends TestCase {
+
+  public ResultListenersTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(ResultListenersTest.class);
+    return suite;
+  }
+
+  private ExecutorService executor;
+
+  @Override
+  protected void setUp() throws Exception {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Records the times of the results added and removed, optionally taking time or blocking in each.
+   */
+  private static class Client implements TableMultiResultListener<PingResult> {
+
+    private final long callMillis;
+    private final CountDownLatch release;
+    private final List<Long> events = new ArrayList<>();
+
+    private Client(long callMillis, CountDownLatch release) {
+      this.callMillis = callMillis;
+      this.release = release;
+    }
+
+    private Client() {
+      this(0, null);
+    }
+
+    private void call(long event) throws RemoteException {
+      try {
+        if (callMillis > 0) {
+          Thread.sleep(callMillis);
+        }
+        if (release != null) {
+          release.await();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RemoteException("Interrupted", e);
+      }
+      synchronized (events) {
+        events.add(event);
+      }
+    }
+
+    @Override
+    public void tableMultiResultAdded(PingResult result) throws RemoteException {
+      call(result.getTime());
+    }
+
+    @Override
+    public void tableMultiResultRemoved(PingResult result) throws RemoteException {
+      call(-result.getTime());
+    }
+
+    private List<Long> getEvents() {
+      synchronized (events) {
+        return new ArrayList<>(events);
+      }
+    }
+  }
+
+  private static PingResult newResult(long time) {
+    return new PingResult(time, 1000000, AlertLevel.NONE);
+  }
+
+  private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 30000;
+    while (!condition.getAsBoolean()) {
+      assertTrue("Timed out", System.currentTimeMillis() < deadline);
+      Thread.sleep(5);
+    }
+  }
+
+  public void testInOrder() throws Exception {
+    ResultListeners<TableMultiResultListener<PingResult>> listeners = new ResultListeners<>(executor, 1000);
+    Client client = new Client();
+    listeners.addListener(client);
+    List<Long> expected = new ArrayList<>();
+    for (long i = 1; i <= 500; i++) {
+      PingResult result = newResult(i);
+      listeners.fire(listener -> listener.tableMultiResultAdded(result));
+      expected.add(i);
+      if (i > 100) {
+        PingResult removed = newResult(i - 100);
+        listeners.fire(listener -> listener.tableMultiResultRemoved(removed));
+        expected.add(-(i - 100));
+      }
+    }
+    waitFor(() -> client.getEvents().size() == expected.size());
+    assertEquals(expected, client.getEvents());
+    assertEquals(0, listeners.getDropped());
+  }
+
+  public void testRemovesWhenFallingBehind() throws Exception {
+    ResultListeners<TableMultiResultListener<PingResult>> listeners = new ResultListeners<>(executor, 10);
+    CountDownLatch release = new CountDownLatch(1);
+    Client slow = new Client(0, release);
+    Client fast = new Client();
+    listeners.addListener(slow);
+    listeners.addListener(fast);
+    for (long i = 1; i <= 100; i++) {
+      PingResult result = newResult(i);
+      listeners.fire(listener -> listener.tableMultiResultAdded(result));
+      // Keep the fast one caught up so only the slow one can fall behind
+      long sent = i;
+      waitFor(() -> fast.getEvents().size() == sent);
+    }
+    // Removed once more than ten were queued behind the first
+    assertEquals(1, listeners.getEvictions());
+    assertEquals(1, listeners.getListenerCount());
+    assertFalse(listeners.removeListener(slow));
+    release.countDown();
+    waitFor(() -> fast.getEvents().size() == 100);
+    Thread.sleep(50);
+    // Only the one being sent, never a later one with results missing before it
+    assertEquals(Collections.singletonList(1L), slow.getEvents());
+  }
+
+  public void testLatestReplacesQueued() throws Exception {
+    ResultListeners<TableMultiResultListener<PingResult>> listeners = new ResultListeners<>(executor, 1000);
+    CountDownLatch release = new CountDownLatch(1);
+    Client client = new Client(0, release);
+    listeners.addListener(client);
+    for (long i = 1; i <= 100; i++) {
+      PingResult result = newResult(i);
+      listeners.fireLatest(listener -> listener.tableMultiResultAdded(result));
+      if (i == 1) {
+        // Let the first be sent
+        Thread.sleep(50);
+      }
+    }
+    release.countDown();
+    waitFor(() -> client.getEvents().size() == 2);
+    Thread.sleep(50);
+    List<Long> events = client.getEvents();
+    assertEquals(2, events.size());
+    assertEquals(Long.valueOf(1), events.get(0));
+    assertEquals(Long.valueOf(100), events.get(1));
+  }
+
+  public void testRemovesOnRemoteException() throws Exception {
+    ResultListeners<TableMultiResultListener<PingResult>> listeners = new ResultListeners<>(executor, 1000);
+    Client client = new Client() {
+      @Override
+      public void tableMultiResultAdded(PingResult result) throws RemoteException {
+        throw new RemoteException("Disconnected");
+      }
+    };
+    listeners.addListener(client);
+    PingResult result = newResult(1);
+    listeners.fire(listener -> listener.tableMultiResultAdded(result));
+    waitFor(() -> listeners.getListenerCount() == 0);
+    assertFalse(listeners.removeListener(client));
+  }
+
+  public void testRemoveListener() {
+    ResultListeners<TableMultiResultListener<PingResult>> listeners = new ResultListeners<>(executor, 1000);
+    Client client = new Client();
+    listeners.addListener(client);
+    listeners.addListener(client);
+    assertTrue(listeners.removeListener(client));
+    assertTrue(listeners.removeListener(client));
+    assertFalse(listeners.removeListener(client));
+  }
+
+  /**
+   * A result added or removed, identified by its time.
+   */
+  private static final class Change implements ResultListeners.ResultEvent<TableMultiResultListener<PingResult>> {
+
+    private final PingResult result;
+    private final boolean added;
+
+    private Change(PingResult result, boolean added) {
+      this.result = result;
+      this.added = added;
+    }
+
+    @Override
+    public void send(TableMultiResultListener<PingResult> listener) throws RemoteException {
+      if (added) {
+        listener.tableMultiResultAdded(result);
+      } else {
+        listener.tableMultiResultRemoved(result);
+      }
+    }
+
+    @Override
+    public Object getKey() {
+      return result.getTime();
+    }
+
+    @Override
+    public boolean isAdded() {
+      return added;
+    }
+
+    @Override
+    public Change inverse() {
+      return new Change(result, !added);
+    }
+  }
+
+  /**
+   * The current results, oldest first, as added events.
+   */
+  private static List<Change> getAdded(List<PingResult> current) {
+    synchronized (current) {
+      List<Change> added = new ArrayList<>();
+      for (PingResult result : current) {
+        added.add(new Change(result, true));
+      }
+      return added;
+    }
+  }
+
+  /**
+   * A client that falls behind is kept, sent the difference between the results it was sent and
+   * the current results.
+   */
+  public void testReloadsWhenFallingBehind() throws Exception {
+    List<PingResult> current = new ArrayList<>();
+    for (long i = 1; i <= 5; i++) {
+      current.add(newResult(i));
+    }
+    ResultListeners<TableMultiResultListener<PingResult>> listeners = new ResultListeners<>(executor, 10, () -> getAdded(current));
+    CountDownLatch release = new CountDownLatch(1);
+    Client slow = new Client(0, release);
+    listeners.addListener(slow);
+    for (long i = 6; i <= 100; i++) {
+      PingResult added = newResult(i);
+      PingResult removed;
+      synchronized (current) {
+        current.add(added);
+        removed = current.remove(0);
+      }
+      listeners.fire(new Change(added, true));
+      listeners.fire(new Change(removed, false));
+      if (i == 6) {
+        // Let the first be sent
+        Thread.sleep(50);
+      }
+    }
+    assertEquals(1, listeners.getReloads());
+    assertEquals(0, listeners.getEvictions());
+    assertEquals(1, listeners.getListenerCount());
+    release.countDown();
+    // The first added, then the results it has removed and the current results added
+    List<Long> expected = new ArrayList<>();
+    expected.add(6L);
+    for (long i = 1; i <= 6; i++) {
+      expected.add(-i);
+    }
+    for (long i = 96; i <= 100; i++) {
+      expected.add(i);
+    }
+    waitFor(() -> slow.getEvents().size() >= expected.size());
+    Thread.sleep(50);
+    assertEquals(expected, slow.getEvents());
+    // Continues after the reload
+    PingResult added = newResult(101);
+    listeners.fire(new Change(added, true));
+    waitFor(() -> slow.getEvents().size() == expected.size() + 1);
+    assertEquals(Long.valueOf(101), slow.getEvents().get(expected.size()));
+  }
+
+  /**
+   * A result added and removed before being sent is sent neither time.
+   */
+  public void testCoalesced() throws Exception {
+    ResultListeners<TableMultiResultListener<PingResult>> listeners = new ResultListeners<>(executor, 1000, Collections::emptyList);
+    CountDownLatch release = new CountDownLatch(1);
+    Client client = new Client(0, release);
+    listeners.addListener(client);
+    PingResult first = newResult(1);
+    listeners.fire(new Change(first, true));
+    // Let the first be sent
+    Thread.sleep(50);
+    PingResult second = newResult(2);
+    PingResult third = newResult(3);
+    listeners.fire(new Change(second, true));
+    listeners.fire(new Change(third, true));
+    listeners.fire(new Change(second, false));
+    release.countDown();
+    waitFor(() -> client.getEvents().size() == 2);
+    Thread.sleep(50);
+    assertEquals(Arrays.asList(1L, 3L), client.getEvents());
+    assertEquals(2, listeners.getDropped());
+  }
+}
@@ -0,0 +1,528 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.hodgepodge.io.stream.StreamableOutput;
+import com.aoapps.persistence.Serializer;
+import com.aoapps.sql.MilliInterval;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.HttpdServerResult;
+import com.aoindustries.noc.monitor.common.LoadAverageResult;
+import com.aoindustries.noc.monitor.common.MemoryResult;
+import com.aoindustries.noc.monitor.common.MysqlReplicationResult;
+import com.aoindustries.noc.monitor.common.NetBindResult;
+import com.aoindustries.noc.monitor.common.NetDeviceBitRateResult;
+import com.aoindustries.noc.monitor.common.PingResult;
+import com.aoindustries.noc.monitor.common.TableMultiResult;
+import com.aoindustries.noc.monitor.common.TimeResult;
+import com.aoindustries.noc.monitor.common.UpsResult;
+import com.aoindustries.noc.monitor.infrastructure.UpsResultSerializer;
+import com.aoindustries.noc.monitor.linux.LoadAverageResultSerializer;
+import com.aoindustries.noc.monitor.linux.MemoryResultSerializer;
+import com.aoindustries.noc.monitor.linux.TimeResultSerializer;
+import com.aoindustries.noc.monitor.mysql.ReplicationResultSerializer;
+import com.aoindustries.noc.monitor.net.BindResultSerializer;
+import com.aoindustries.noc.monitor.net.DeviceBitRateResultSerializer;
+import com.aoindustries.noc.monitor.net.PingResultSerializer;
+import com.aoindustries.noc.monitor.web.HttpdServerResultSerializer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the compact encodings of the result serializers, that the previous version is still read,
+ * and compares the bytes per record and throughput of each version.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ResultSerializersTest extends TestCase {
+
+  private static final int RECORDS = 20000;
+
+  private static final int PASSES = 10;
+
+  /**
+   * The chance that any one result is an error.
+   */
+  private static final double ERROR_RATE = 0.05;
+
+  private static final long START_TIME = 1792108800000L; // 2026-10-16 00:00:00 UTC
+
+  public ResultSerializersTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(ResultSerializersTest.class);
+    return suite;
+  }
+
+  @FunctionalInterface
+  private static interface PreviousWriter<R> {
+    void write(R value, StreamableOutput out) throws IOException;
+  }
+
+  /**
+   * One serializer, how to generate its results, and how its previous version wrote them.
+   */
+  private static final class Case<R extends TableMultiResult> {
+
+    private final String name;
+    private final Serializer<R> serializer;
+    private final BiFunction<Random, Long, R> sample;
+    private final BiFunction<Random, Long, R> error;
+    private final PreviousWriter<R> previous;
+
+    private Case(String name, Serializer<R> serializer, BiFunction<Random, Long, R> sample, BiFunction<Random, Long, R> error, PreviousWriter<R> previous) {
+      this.name = name;
+      this.serializer = serializer;
+      this.sample = sample;
+      this.error = error;
+      this.previous = previous;
+    }
+
+    private List<R> generate() {
+      Random random = new Random(42);
+      List<R> results = new ArrayList<>(RECORDS);
+      for (int i = 0; i < RECORDS; i++) {
+        long time = START_TIME + i * 60000L + random.nextInt(1000);
+        results.add(random.nextDouble() < ERROR_RATE ? error.apply(random, time) : sample.apply(random, time));
+      }
+      return results;
+    }
+
+    private byte[] serialize(R value) throws IOException {
+      ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      serializer.serialize(value, bout);
+      return bout.toByteArray();
+    }
+
+    private byte[] serializePrevious(R value) throws IOException {
+      ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      try (StreamableOutput out = new StreamableOutput(bout)) {
+        previous.write(value, out);
+      }
+      return bout.toByteArray();
+    }
+
+    private R deserialize(byte[] bytes) throws IOException {
+      return serializer.deserialize(new ByteArrayInputStream(bytes));
+    }
+  }
+
+  private static long latency(Random random) {
+    // Mostly around a millisecond with a long tail
+    return (long) (Math.exp(random.nextGaussian() + 14));
+  }
+
+  private static AlertLevel alertLevel(Random random) {
+    return random.nextInt(10) == 0 ? AlertLevel.LOW : AlertLevel.NONE;
+  }
+
+  private static final String[] ERRORS = {
+      "Timeout",
+      "Connection refused",
+      "java.util.concurrent.TimeoutException",
+      "Unable to find MemTotal:",
+      "Unexpected response: 503 Service Unavailable"
+  };
+
+  private static String error(Random random) {
+    return ERRORS[random.nextInt(ERRORS.length)];
+  }
+
+  /**
+   * Writes the header used by version 1 of every serializer.
+   */
+  private static void writeVersion1Header(int version, TableMultiResult value, StreamableOutput out) throws IOException {
+    out.writeCompressedInt(version);
+    out.writeLong(value.getTime());
+    out.writeLong(value.getLatency());
+    out.writeByte(value.getAlertLevel().ordinal());
+    out.writeNullUTF(value.getError());
+  }
+
+  private static void writeVersion2TimeSpan(MilliInterval value, StreamableOutput out) throws IOException {
+    out.writeLong(value == null ? Long.MIN_VALUE : value.getIntervalMillis());
+  }
+
+  private static final List<Case<?>> CASES = Arrays.asList(
+      new Case<PingResult>(
+          "PingResultSerializer",
+          new PingResultSerializer(),
+          (random, time) -> new PingResult(time, latency(random), alertLevel(random)),
+          (random, time) -> new PingResult(time, latency(random), AlertLevel.CRITICAL, error(random)),
+          (value, out) -> writeVersion1Header(1, value, out)
+      ),
+      new Case<LoadAverageResult>(
+          "LoadAverageResultSerializer",
+          new LoadAverageResultSerializer(),
+          (random, time) -> new LoadAverageResult(
+              time, latency(random), alertLevel(random),
+              random.nextFloat() * 4, random.nextFloat() * 4, random.nextFloat() * 4,
+              random.nextInt(8), 300 + random.nextInt(200), random.nextInt(4000000),
+              8, 16, 24, 32
+          ),
+          (random, time) -> new LoadAverageResult(time, latency(random), AlertLevel.CRITICAL, error(random)),
+          (value, out) -> {
+            writeVersion1Header(1, value, out);
+            if (value.getError() == null) {
+              out.writeFloat(value.getOneMinute());
+              out.writeFloat(value.getFiveMinute());
+              out.writeFloat(value.getTenMinute());
+              out.writeCompressedInt(value.getRunningProcesses());
+              out.writeCompressedInt(value.getTotalProcesses());
+              out.writeCompressedInt(value.getLastPid());
+              out.writeFloat(value.getLoadLow());
+              out.writeFloat(value.getLoadMedium());
+              out.writeFloat(value.getLoadHigh());
+              out.writeFloat(value.getLoadCritical());
+            }
+          }
+      ),
+      new Case<MemoryResult>(
+          "MemoryResultSerializer",
+          new MemoryResultSerializer(),
+          (random, time) -> new MemoryResult(
+              time, latency(random), alertLevel(random),
+              32L * 1024 * 1024, random.nextInt(8 * 1024 * 1024), random.nextInt(512 * 1024),
+              random.nextInt(16 * 1024 * 1024), 8L * 1024 * 1024, 8L * 1024 * 1024 - random.nextInt(65536)
+          ),
+          (random, time) -> new MemoryResult(time, latency(random), AlertLevel.CRITICAL, error(random)),
+          (value, out) -> {
+            writeVersion1Header(1, value, out);
+            if (value.getError() == null) {
+              out.writeLong(value.getMemTotal());
+              out.writeLong(value.getMemFree());
+              out.writeLong(value.getBuffers());
+              out.writeLong(value.getCached());
+              out.writeLong(value.getSwapTotal());
+              out.writeLong(value.getSwapFree());
+            }
+          }
+      ),
+      new Case<TimeResult>(
+          "TimeResultSerializer",
+          new TimeResultSerializer(),
+          (random, time) -> new TimeResult(time, latency(random), alertLevel(random), random.nextInt(200) - 100),
+          (random, time) -> new TimeResult(time, latency(random), AlertLevel.CRITICAL, error(random)),
+          (value, out) -> {
+            writeVersion1Header(1, value, out);
+            if (value.getError() == null) {
+              out.writeLong(value.getSkew());
+            }
+          }
+      ),
+      new Case<NetDeviceBitRateResult>(
+          "DeviceBitRateResultSerializer",
+          new DeviceBitRateResultSerializer(),
+          (random, time) -> new NetDeviceBitRateResult(
+              time, latency(random), alertLevel(random),
+              random.nextInt(100000000), random.nextInt(100000000), random.nextInt(50000), random.nextInt(50000),
+              100000000, 200000000, 400000000, 800000000
+          ),
+          (random, time) -> new NetDeviceBitRateResult(time, latency(random), AlertLevel.CRITICAL, error(random)),
+          (value, out) -> {
+            writeVersion1Header(1, value, out);
+            if (value.getError() == null) {
+              out.writeLong(value.getTxBitsPerSecond());
+              out.writeLong(value.getRxBitsPerSecond());
+              out.writeLong(value.getTxPacketsPerSecond());
+              out.writeLong(value.getRxPacketsPerSecond());
+              out.writeLong(value.getBpsLow());
+              out.writeLong(value.getBpsMedium());
+              out.writeLong(value.getBpsHigh());
+              out.writeLong(value.getBpsCritical());
+            }
+          }
+      ),
+      new Case<UpsResult>(
+          "UpsResultSerializer",
+          new UpsResultSerializer(),
+          (random, time) -> new UpsResult(
+              time, latency(random), alertLevel(random),
+              "ups1", "ONLINE",
+              118 + random.nextFloat() * 4, 92, 139, 60, 120, 120, random.nextFloat() * 50, 100, 27.3f, 24,
+              0, 0,
+              new MilliInterval(0), new MilliInterval(random.nextInt(60000)), new MilliInterval(1800000 + random.nextInt(600000)),
+              30 + random.nextFloat() * 5
+          ),
+          (random, time) -> new UpsResult(time, latency(random), AlertLevel.CRITICAL, error(random)),
+          (value, out) -> {
+            writeVersion1Header(2, value, out);
+            if (value.getError() == null) {
+              out.writeNullUTF(value.getUpsname());
+              out.writeNullUTF(value.getStatus());
+              out.writeFloat(value.getLinev());
+              out.writeFloat(value.getLotrans());
+              out.writeFloat(value.getHitrans());
+              out.writeFloat(value.getLinefreq());
+              out.writeFloat(value.getOutputv());
+              out.writeFloat(value.getNomoutv());
+              out.writeFloat(value.getLoadpct());
+              out.writeFloat(value.getBcharge());
+              out.writeFloat(value.getBattv());
+              out.writeFloat(value.getNombattv());
+              out.writeCompressedInt(value.getExtbatts());
+              out.writeCompressedInt(value.getBadbatts());
+              writeVersion2TimeSpan(value.getTonbatt(), out);
+              writeVersion2TimeSpan(value.getCumonbatt(), out);
+              writeVersion2TimeSpan(value.getTimeleft(), out);
+              out.writeFloat(value.getItemp());
+            }
+          }
+      ),
+      new Case<NetBindResult>(
+          "BindResultSerializer",
+          new BindResultSerializer(),
+          (random, time) -> new NetBindResult(time, latency(random), alertLevel(random), null, "Connected successfully"),
+          (random, time) -> new NetBindResult(time, latency(random), AlertLevel.CRITICAL, error(random), null),
+          (value, out) -> {
+            // Version 2 wrote errors and raw results as encoding types
+            out.writeCompressedInt(2);
+            out.writeLong(value.getTime());
+            out.writeLong(value.getLatency());
+            out.writeByte(value.getAlertLevel().ordinal());
+            if (value.getError() != null) {
+              out.writeByte(0);
+              out.writeUTF(value.getError());
+            } else {
+              // Only the first common result is generated
+              assertEquals("Connected successfully", value.getResult());
+              out.writeByte(2);
+              out.writeCompressedInt(0);
+            }
+          }
+      ),
+      new Case<MysqlReplicationResult>(
+          "ReplicationResultSerializer",
+          new ReplicationResultSerializer(),
+          (random, time) -> new MysqlReplicationResult(
+              time, latency(random), alertLevel(random),
+              Integer.toString(random.nextInt(3)), "mysql-bin.000123", Integer.toString(random.nextInt(100000000)),
+              "Waiting for master to send event", "mysql-bin.000123", Integer.toString(random.nextInt(100000000)),
+              "Yes", "Yes", "0", "", "30 60 120 300"
+          ),
+          (random, time) -> new MysqlReplicationResult(time, latency(random), AlertLevel.CRITICAL, error(random)),
+          (value, out) -> {
+            writeVersion1Header(1, value, out);
+            if (value.getError() == null) {
+              out.writeNullUTF(value.getSecondsBehindMaster());
+              out.writeNullUTF(value.getFile());
+              out.writeNullUTF(value.getPosition());
+              out.writeNullUTF(value.getSlaveIoState());
+              out.writeNullUTF(value.getMasterLogFile());
+              out.writeNullUTF(value.getReadMasterLogPos());
+              out.writeNullUTF(value.getSlaveIoRunning());
+              out.writeNullUTF(value.getSlaveSqlRunning());
+              out.writeNullUTF(value.getLastErrno());
+              out.writeNullUTF(value.getLastError());
+              out.writeNullUTF(value.getAlertThresholds());
+            }
+          }
+      ),
+      new Case<HttpdServerResult>(
+          "HttpdServerResultSerializer",
+          new HttpdServerResultSerializer(),
+          (random, time) -> new HttpdServerResult(time, latency(random), alertLevel(random), random.nextInt(50), 256, 128, 160, 192, 224),
+          (random, time) -> new HttpdServerResult(time, latency(random), AlertLevel.CRITICAL, error(random)),
+          (value, out) -> {
+            writeVersion1Header(1, value, out);
+            if (value.getError() == null) {
+              out.writeCompressedInt(value.getConcurrency());
+              out.writeCompressedInt(value.getMaxConcurrency());
+              out.writeCompressedInt(value.getConcurrencyLow());
+              out.writeCompressedInt(value.getConcurrencyMedium());
+              out.writeCompressedInt(value.getConcurrencyHigh());
+              out.writeCompressedInt(value.getConcurrencyCritical());
+            }
+          }
+      )
+  );
+
+  public void testVarLong() throws IOException {
+    long[] values = {0, 1, -1, 63, -64, 64, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+    for (long value : values) {
+      ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      try (StreamableOutput out = new StreamableOutput(bout)) {
+        ResultEncoding.writeVarSignedLong(value, out);
+      }
+      byte[] bytes = bout.toByteArray();
+      assertEquals(value, ResultEncoding.readVarSignedLong(new java.io.DataInputStream(new ByteArrayInputStream(bytes))));
+      if (value >= -64 && value <= 63) {
+        assertEquals(1, bytes.length);
+      }
+    }
+  }
+
+  public void testHeader() throws IOException {
+    Case<PingResult> ping = getCase(PingResult.class);
+    PingResult common = new PingResult(START_TIME, 1000000, AlertLevel.CRITICAL, "Timeout");
+    PingResult raw = new PingResult(ResultEncoding.EPOCH - 1, 0, AlertLevel.UNKNOWN, "Something unexpected");
+    for (PingResult result : Arrays.asList(common, raw, new PingResult(START_TIME, -1, AlertLevel.NONE))) {
+      PingResult read = ping.deserialize(ping.serialize(result));
+      assertEquals(result.getTime(), read.getTime());
+      assertEquals(result.getLatency(), read.getLatency());
+      assertSame(result.getAlertLevel(), read.getAlertLevel());
+      assertEquals(result.getError(), read.getError());
+    }
+    // Version, flags, time, latency, and dictionary index
+    assertEquals(1 + 1 + 6 + 3 + 1, ping.serialize(common).length);
+  }
+
+  public void testLongStrings() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < 100000) {
+      sb.append("\tat caf\u00e9.\u65e5\u672c.Stack.trace(Line ").append(sb.length()).append(")\n");
+    }
+    String longString = sb.toString();
+    Case<PingResult> ping = getCase(PingResult.class);
+    PingResult error = ping.deserialize(ping.serialize(new PingResult(START_TIME, 1000000, AlertLevel.CRITICAL, longString)));
+    assertEquals(longString, error.getError());
+    Case<NetBindResult> bind = getCase(NetBindResult.class);
+    for (String result : Arrays.asList(longString, longString + " Message accepted for delivery")) {
+      NetBindResult read = bind.deserialize(bind.serialize(new NetBindResult(START_TIME, 1000000, AlertLevel.NONE, null, result)));
+      assertEquals(result, read.getResult());
+    }
+  }
+
+  /**
+   * Raw errors were written by {@link java.io.DataOutput#writeUTF(java.lang.String)}.
+   */
+  public void testRawErrorStillRead() throws IOException {
+    Case<PingResult> ping = getCase(PingResult.class);
+    byte[] current = ping.serialize(new PingResult(START_TIME, 1000000, AlertLevel.CRITICAL, "Something unexpected"));
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    try (StreamableOutput out = new StreamableOutput(bout)) {
+      // Same version
+      out.writeByte(current[0]);
+      out.writeByte(AlertLevel.CRITICAL.ordinal() | (2 << 4));
+      ResultEncoding.writeVarSignedLong(START_TIME - ResultEncoding.EPOCH, out);
+      ResultEncoding.writeVarSignedLong(1000000, out);
+      out.writeUTF("Something unexpected");
+    }
+    PingResult read = ping.deserialize(bout.toByteArray());
+    assertEquals(START_TIME, read.getTime());
+    assertSame(AlertLevel.CRITICAL, read.getAlertLevel());
+    assertEquals("Something unexpected", read.getError());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <R extends TableMultiResult> Case<R> getCase(Class<R> clazz) {
+    for (Case<?> c : CASES) {
+      if (c.sample.apply(new Random(), START_TIME).getClass() == clazz) {
+        return (Case<R>) c;
+      }
+    }
+    throw new AssertionError(clazz.getName());
+  }
+
+  /**
+   * Results are compared by their serialized form, since the results do not implement equals.
+   */
+  private static <R extends TableMultiResult> void doTestRoundTrip(Case<R> c) throws IOException {
+    for (R result : c.generate()) {
+      byte[] bytes = c.serialize(result);
+      R read = c.deserialize(bytes);
+      assertEquals(result.getTime(), read.getTime());
+      assertEquals(result.getLatency(), read.getLatency());
+      assertSame(result.getAlertLevel(), read.getAlertLevel());
+      assertEquals(result.getError(), read.getError());
+      assertTrue(c.name, Arrays.equals(bytes, c.serialize(read)));
+      // Previous version still read
+      assertTrue(c.name, Arrays.equals(bytes, c.serialize(c.deserialize(c.serializePrevious(result)))));
+    }
+  }
+
+  public void testRoundTrip() throws IOException {
+    for (Case<?> c : CASES) {
+      doTestRoundTrip(c);
+    }
+  }
+
+  private static <R extends TableMultiResult> String doBenchmark(Case<R> c) throws IOException {
+    List<R> results = c.generate();
+    List<byte[]> previous = new ArrayList<>(RECORDS);
+    List<byte[]> current = new ArrayList<>(RECORDS);
+    long previousBytes = 0;
+    long currentBytes = 0;
+    for (R result : results) {
+      byte[] bytes = c.serializePrevious(result);
+      previous.add(bytes);
+      previousBytes += bytes.length;
+      bytes = c.serialize(result);
+      current.add(bytes);
+      currentBytes += bytes.length;
+    }
+    assertTrue(c.name + ": " + currentBytes + " >= " + previousBytes, currentBytes < previousBytes);
+    long serializeNanos = Long.MAX_VALUE;
+    long deserializePreviousNanos = Long.MAX_VALUE;
+    long deserializeNanos = Long.MAX_VALUE;
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    for (int pass = 0; pass < PASSES; pass++) {
+      long start = System.nanoTime();
+      for (R result : results) {
+        bout.reset();
+        c.serializer.getSerializedSize(result);
+        c.serializer.serialize(result, bout);
+      }
+      serializeNanos = Math.min(serializeNanos, System.nanoTime() - start);
+      start = System.nanoTime();
+      for (byte[] bytes : previous) {
+        c.deserialize(bytes);
+      }
+      deserializePreviousNanos = Math.min(deserializePreviousNanos, System.nanoTime() - start);
+      start = System.nanoTime();
+      for (byte[] bytes : current) {
+        c.deserialize(bytes);
+      }
+      deserializeNanos = Math.min(deserializeNanos, System.nanoTime() - start);
+    }
+    return String.format(
+        "%-30s %6.1f -> %5.1f bytes/record, serialize %5d k/s, deserialize previous %5d k/s, current %5d k/s",
+        c.name,
+        (double) previousBytes / RECORDS,
+        (double) currentBytes / RECORDS,
+        RECORDS * 1000000L / serializeNanos,
+        RECORDS * 1000000L / deserializePreviousNanos,
+        RECORDS * 1000000L / deserializeNanos
+    );
+  }
+
+  public void testBenchmark() throws IOException {
+    System.out.println("ResultSerializersTest: " + RECORDS + " records each, " + (int) (ERROR_RATE * 100) + "% errors:");
+    for (Case<?> c : CASES) {
+      System.out.println("ResultSerializersTest:   " + doBenchmark(c));
+    }
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link ResultSnapshot} and compares reads while a writer appends against the previous
+ * copy of the whole list under the results lock.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ResultSnapshotTest extends TestCase {
+
+  /**
+   * Matches two days of one-minute results.
+   */
+  private static final int RESULTS = 2880;
+
+  private static final long DURATION_MILLIS = 1000;
+
+  public ResultSnapshotTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(ResultSnapshotTest.class);
+    return suite;
+  }
+
+  public void testNewestFirst() {
+    ResultSnapshot<Integer> snapshot = ResultSnapshot.empty();
+    List<Integer> expected = new LinkedList<>();
+    for (int i = 0; i < 1000; i++) {
+      snapshot = snapshot.addNewest(i);
+      expected.add(0, i);
+    }
+    assertEquals(expected, snapshot);
+    for (int i = 0; i < 600; i++) {
+      snapshot = snapshot.removeOldest();
+      expected.remove(expected.size() - 1);
+    }
+    assertEquals(expected, snapshot);
+    assertEquals(Integer.valueOf(999), snapshot.get(0));
+    assertEquals(Integer.valueOf(600), snapshot.get(snapshot.size() - 1));
+  }
+
+  public void testOlderSnapshotsUnchanged() {
+    ResultSnapshot<Integer> snapshot = ResultSnapshot.empty();
+    for (int i = 0; i < 300; i++) {
+      snapshot = snapshot.addNewest(i);
+    }
+    ResultSnapshot<Integer> older = snapshot;
+    List<Integer> copy = new ArrayList<>(older);
+    for (int i = 300; i < 1000; i++) {
+      snapshot = snapshot.addNewest(i);
+      snapshot = snapshot.removeOldest();
+    }
+    assertEquals(copy, older);
+    assertEquals(300, snapshot.size());
+    assertTrue(snapshot.getVersion() > older.getVersion());
+    try {
+      older.add(0);
+      fail("Expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+      // Expected
+    }
+  }
+
+  public void testRemoveAll() {
+    ResultSnapshot<Integer> snapshot = ResultSnapshot.empty();
+    for (int i = 0; i < 1000; i++) {
+      snapshot = snapshot.addNewest(i);
+    }
+    while (!snapshot.isEmpty()) {
+      snapshot = snapshot.removeOldest();
+    }
+    snapshot = snapshot.addNewest(1);
+    assertEquals(Collections.singletonList(1), snapshot);
+  }
+
+  @SuppressWarnings("unchecked")
+  public void testSerializedAsCopy() throws Exception {
+    ResultSnapshot<Integer> snapshot = ResultSnapshot.empty();
+    for (int i = 0; i < 500; i++) {
+      snapshot = snapshot.addNewest(i);
+    }
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+      out.writeObject(snapshot);
+    }
+    Object read;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()))) {
+      read = in.readObject();
+    }
+    assertFalse(read instanceof ResultSnapshot);
+    assertEquals(snapshot, (List<Integer>) read);
+  }
+
+  @SuppressWarnings("unchecked")
+  public void testSerializesNewest() throws Exception {
+    ResultSnapshot<Integer> snapshot = ResultSnapshot.empty();
+    for (int i = 0; i < 2500; i++) {
+      snapshot = snapshot.addNewest(i);
+    }
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+      out.writeObject(snapshot);
+    }
+    List<Integer> read;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()))) {
+      read = (List<Integer>) in.readObject();
+    }
+    assertEquals(snapshot.subList(0, 1000), read);
+    assertEquals(Integer.valueOf(2499), read.get(0));
+  }
+
+  /**
+   * Readers always see a consistent, sorted snapshot while a writer appends and removes.
+   */
+  public void testConcurrentReaders() throws Exception {
+    AtomicReference<ResultSnapshot<Integer>> current = new AtomicReference<>(ResultSnapshot.empty());
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread[] readers = new Thread[4];
+    for (int r = 0; r < readers.length; r++) {
+      readers[r] = new Thread(() -> {
+        try {
+          while (!done.get()) {
+            ResultSnapshot<Integer> snapshot = current.get();
+            int previous = Integer.MAX_VALUE;
+            for (Integer value : snapshot) {
+              assertTrue(value + " >= " + previous, value < previous);
+              previous = value;
+            }
+          }
+        } catch (Throwable t) {
+          failure.set(t);
+        }
+      });
+      readers[r].start();
+    }
+    ResultSnapshot<Integer> snapshot = current.get();
+    for (int i = 0; i < 200000; i++) {
+      snapshot = snapshot.addNewest(i);
+      if (snapshot.size() > RESULTS) {
+        snapshot = snapshot.removeOldest();
+      }
+      current.set(snapshot);
+    }
+    done.set(true);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+  }
+
+  public void testReadThroughput() throws Exception {
+    long copied = readWhileWriting(false);
+    long snapshots = readWhileWriting(true);
+    System.out.println(
+        "ResultSnapshotTest: " + RESULTS + " results, reads in " + DURATION_MILLIS + " ms while writing: "
+            + copied + " copied under lock, " + snapshots + " snapshots"
+    );
+    assertTrue(snapshots > copied);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static long readWhileWriting(boolean useSnapshot) throws Exception {
+    LinkedList<Integer> results = new LinkedList<>();
+    ResultSnapshot<Integer>[] snapshot = new ResultSnapshot[] {ResultSnapshot.empty()};
+    Object lock = new Object();
+    for (int i = 0; i < RESULTS; i++) {
+      results.addFirst(i);
+      snapshot[0] = snapshot[0].addNewest(i);
+    }
+    AtomicReference<ResultSnapshot<Integer>> published = new AtomicReference<>(snapshot[0]);
+    AtomicBoolean done = new AtomicBoolean();
+    Thread writer = new Thread(() -> {
+      int i = RESULTS;
+      while (!done.get()) {
+        synchronized (lock) {
+          results.addFirst(i);
+          results.removeLast();
+          snapshot[0] = snapshot[0].addNewest(i).removeOldest();
+          published.set(snapshot[0]);
+        }
+        i++;
+      }
+    });
+    writer.start();
+    long reads = 0;
+    long sum = 0;
+    long end = System.currentTimeMillis() + DURATION_MILLIS;
+    while (System.currentTimeMillis() < end) {
+      List<Integer> read;
+      if (useSnapshot) {
+        read = published.get();
+      } else {
+        synchronized (lock) {
+          read = Collections.unmodifiableList(new ArrayList<>(results));
+        }
+      }
+      // Uses the newest result, as clients do for display
+      sum += read.get(0);
+      reads++;
+    }
+    done.set(true);
+    writer.join();
+    assertTrue(sum > 0);
+    return reads;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.PingResult;
+import com.aoindustries.noc.monitor.net.PingResultColumns;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link ResultTail} and compares the packet loss evaluation of the ping worker over the
+ * tail against the whole history kept as columns.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class ResultTailTest extends TestCase {
+
+  /**
+   * Matches two days of one-minute results.
+   */
+  private static final int RESULTS = 2880;
+
+  private static final int EVALUATIONS = 1000000;
+
+  public ResultTailTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(ResultTailTest.class);
+    return suite;
+  }
+
+  public void testNewestFirst() {
+    ResultTail<Integer> tail = ResultTail.of(Collections.<Integer>emptyList(), 3);
+    assertEquals(Collections.emptyList(), tail);
+    tail = tail.addNewest(1);
+    tail = tail.addNewest(2);
+    assertEquals(Arrays.asList(2, 1), tail);
+    tail = tail.addNewest(3);
+    tail = tail.addNewest(4);
+    assertEquals(Arrays.asList(4, 3, 2), tail);
+    assertEquals(3, tail.getCapacity());
+  }
+
+  public void testOf() {
+    assertEquals(Arrays.asList(5, 4), ResultTail.of(Arrays.asList(5, 4, 3, 2, 1), 2));
+    assertEquals(Arrays.asList(5, 4), ResultTail.of(Arrays.asList(5, 4), 10));
+    ResultTail<Integer> none = ResultTail.of(Arrays.asList(5, 4), 0);
+    assertTrue(none.isEmpty());
+    assertSame(none, none.addNewest(6));
+  }
+
+  public void testTrim() {
+    ResultTail<Integer> tail = ResultTail.of(Arrays.asList(5, 4, 3), 3);
+    assertSame(tail, tail.trim(3));
+    assertEquals(Arrays.asList(5), tail.trim(1));
+    assertTrue(tail.trim(0).isEmpty());
+    // Still adds up to its capacity
+    assertEquals(Arrays.asList(6, 5, 4), tail.trim(2).addNewest(6));
+  }
+
+  /**
+   * The packet loss of {@link com.aoindustries.noc.monitor.net.PingWorker}.
+   */
+  private static int getPacketLossPercent(Iterable<? extends PingResult> previousResults) {
+    int timeouts = 0;
+    int checked = 1;
+    for (PingResult previousResult : previousResults) {
+      if (previousResult.getError() != null) {
+        timeouts++;
+      }
+      checked++;
+      if (checked >= 10) {
+        break;
+      }
+    }
+    return timeouts * 10;
+  }
+
+  public void testEvaluation() {
+    ResultColumns<PingResult> columns = new PingResultColumns();
+    ResultSnapshot<PingResult> snapshot = ResultSnapshot.empty(columns.getStorage());
+    List<PingResult> objects = new ArrayList<>();
+    for (int i = 0; i < RESULTS; i++) {
+      PingResult result = (i % 7 == 0)
+          ? new PingResult(i * 60000L, 1000000, AlertLevel.CRITICAL, "Timeout")
+          : new PingResult(i * 60000L, 500000 + i, AlertLevel.NONE);
+      snapshot = snapshot.addNewest(result);
+      objects.add(0, result);
+    }
+    ResultTail<PingResult> tail = ResultTail.of(objects, 9);
+    assertEquals(getPacketLossPercent(snapshot), getPacketLossPercent(tail));
+    long snapshotNanos = time(snapshot);
+    long tailNanos = time(tail);
+    System.out.println(
+        "ResultTailTest: " + EVALUATIONS + " ping evaluations: " + (snapshotNanos / 1000000) + " ms over the column history, "
+            + (tailNanos / 1000000) + " ms over the tail"
+    );
+  }
+
+  private static long time(List<PingResult> previousResults) {
+    // Warm-up
+    long sum = 0;
+    for (int i = 0; i < EVALUATIONS / 10; i++) {
+      sum += getPacketLossPercent(previousResults);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < EVALUATIONS; i++) {
+      sum += getPacketLossPercent(previousResults);
+    }
+    long nanos = System.nanoTime() - start;
+    assertTrue(sum >= 0);
+    return nanos;
+  }
+}
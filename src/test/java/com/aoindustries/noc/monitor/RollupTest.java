@@ -0,0 +1,128 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.PingResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the aggregation and merging of {@link Rollup rollups}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class RollupTest extends TestCase {
+
+  private static final double DELTA = 1e-9;
+
+  public RollupTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(RollupTest.class);
+    return suite;
+  }
+
+  public void testStartTime() {
+    assertEquals(0, Rollup.getStartTime(0, 299999));
+    assertEquals(300000, Rollup.getStartTime(0, 300000));
+    assertEquals(-300000, Rollup.getStartTime(0, -1));
+    assertEquals(86400000, Rollup.getStartTime(Rollup.LEVELS - 1, 86400000 + 5));
+    assertEquals(Long.MAX_VALUE, Rollup.getRetention(Rollup.LEVELS - 1));
+  }
+
+  public void testAggregate() {
+    List<PingResult> results = Arrays.asList(
+        new PingResult(1000, 10, AlertLevel.NONE),
+        new PingResult(2000, 20, AlertLevel.LOW),
+        new PingResult(3000, 30, AlertLevel.CRITICAL, "Timeout"),
+        new PingResult(4000, 40, AlertLevel.NONE)
+    );
+    // Value is latency times two, errors have no value
+    Rollup rollup = Rollup.aggregate(0, results, result -> new double[] {result.getLatency() * 2.0});
+    assertEquals(0, rollup.getLevel());
+    assertEquals(300000, rollup.getEndTime());
+    assertEquals(4, rollup.getCount());
+    assertEquals(1, rollup.getErrorCount());
+    assertSame(AlertLevel.CRITICAL, rollup.getMaxAlertLevel());
+    assertEquals(2, rollup.getColumnCount());
+    Rollup.Column latency = rollup.getColumn(0);
+    assertEquals(4, latency.getCount());
+    assertEquals(10, latency.getMin(), DELTA);
+    assertEquals(40, latency.getMax(), DELTA);
+    assertEquals(25, latency.getMean(), DELTA);
+    assertEquals(Math.sqrt(125), latency.getStandardDeviation(), DELTA);
+    Rollup.Column value = rollup.getColumn(1);
+    assertEquals(3, value.getCount());
+    assertEquals(20, value.getMin(), DELTA);
+    assertEquals(80, value.getMax(), DELTA);
+  }
+
+  public void testErrorFirstStillHasValueColumns() {
+    List<PingResult> results = Arrays.asList(
+        new PingResult(1000, 10, AlertLevel.CRITICAL, "Timeout"),
+        new PingResult(2000, 20, AlertLevel.NONE)
+    );
+    Rollup rollup = Rollup.aggregate(0, results, result -> new double[] {1, Double.NaN});
+    assertEquals(3, rollup.getColumnCount());
+    assertEquals(1, rollup.getColumn(1).getCount());
+    // Not available
+    assertEquals(0, rollup.getColumn(2).getCount());
+    assertTrue(Double.isNaN(rollup.getColumn(2).getMean()));
+  }
+
+  /**
+   * Merging rollups gives the same statistics as aggregating all the raw results at once.
+   */
+  public void testMergeMatchesDirectAggregate() {
+    List<PingResult> all = new ArrayList<>();
+    List<Rollup> rollups = new ArrayList<>();
+    for (int range = 0; range < 3; range++) {
+      List<PingResult> results = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        long latency = (range * 7L + i * 13L) % 17;
+        results.add(new PingResult(range * 300000L + i * 60000L, latency, AlertLevel.fromOrdinal(range)));
+      }
+      all.addAll(results);
+      rollups.add(Rollup.aggregate(range * 300000L, results, result -> new double[0]));
+    }
+    Rollup merged = Rollup.merge(1, 0, rollups);
+    Rollup direct = Rollup.aggregate(0, all, result -> new double[0]);
+    assertEquals(1, merged.getLevel());
+    assertEquals(900000, merged.getEndTime());
+    assertEquals(direct.getCount(), merged.getCount());
+    assertSame(AlertLevel.MEDIUM, merged.getMaxAlertLevel());
+    assertEquals(direct.getColumn(0).getMin(), merged.getColumn(0).getMin(), DELTA);
+    assertEquals(direct.getColumn(0).getMax(), merged.getColumn(0).getMax(), DELTA);
+    assertEquals(direct.getColumn(0).getMean(), merged.getColumn(0).getMean(), DELTA);
+    assertEquals(direct.getColumn(0).getStandardDeviation(), merged.getColumn(0).getStandardDeviation(), DELTA);
+  }
+}
@@ -0,0 +1,366 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.NetBindResult;
+import com.aoindustries.noc.monitor.common.PingResult;
+import com.aoindustries.noc.monitor.net.BindResultRepeater;
+import com.aoindustries.noc.monitor.net.PingResultColumns;
+import com.aoindustries.noc.monitor.net.PingResultSerializer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link RunLengthHistoryStore} and compares the size of a steady-state history with and
+ * without runs.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class RunLengthHistoryStoreTest extends TestCase {
+
+  private static final long PERIOD = 5L * 60 * 1000;
+
+  private static final long START_TIME = 1792108800000L; // 2026-10-16 00:00:00 UTC
+
+  public RunLengthHistoryStoreTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(RunLengthHistoryStoreTest.class);
+    return suite;
+  }
+
+  private File dir;
+  private File file;
+
+  @Override
+  protected void setUp() throws Exception {
+    dir = Files.createTempDirectory("RunLengthHistoryStoreTest").toFile();
+    file = new File(dir, "pings");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    BackgroundWriter.getInstance().flush();
+    deleteRecursive(dir);
+  }
+
+  private static void deleteRecursive(File file) {
+    File[] list = file.listFiles();
+    if (list != null) {
+      for (File child : list) {
+        deleteRecursive(child);
+      }
+    }
+    file.delete();
+  }
+
+  private RunLengthHistoryStore<PingResult> open(int maxRunLength) throws IOException {
+    return new RunLengthHistoryStore<>(file, new PingResultSerializer(), new PingResultColumns(), maxRunLength);
+  }
+
+  private HistoryStore<RunLengthHistoryStore.Run<PingResult>> openRuns() throws IOException {
+    return HistoryStore.open(new File(file.getPath() + ".runs"), new RunLengthHistoryStore.RunSerializer<>(new PingResultSerializer()));
+  }
+
+  /**
+   * Mostly successful pings, with the given errors.
+   */
+  private static List<PingResult> pings(int count, int... errors) {
+    Random random = new Random(count);
+    List<PingResult> results = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      long time = START_TIME + i * PERIOD + random.nextInt(10);
+      long latency = 500000 + random.nextInt(100000);
+      boolean error = false;
+      for (int e : errors) {
+        if (e == i) {
+          error = true;
+        }
+      }
+      results.add(error ? new PingResult(time, latency, AlertLevel.CRITICAL, "Timeout") : new PingResult(time, latency, AlertLevel.NONE));
+    }
+    return results;
+  }
+
+  private static <E> List<E> toList(Iterator<E> iter) {
+    List<E> list = new ArrayList<>();
+    while (iter.hasNext()) {
+      list.add(iter.next());
+    }
+    return list;
+  }
+
+  private static void assertResults(List<PingResult> expected, List<PingResult> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      PingResult e = expected.get(i);
+      PingResult a = actual.get(i);
+      assertEquals(e.getTime(), a.getTime());
+      assertEquals(e.getLatency(), a.getLatency());
+      assertSame(e.getAlertLevel(), a.getAlertLevel());
+      assertEquals(e.getError(), a.getError());
+    }
+  }
+
+  private static int[] runSizes(HistoryStore<RunLengthHistoryStore.Run<PingResult>> runs) throws IOException {
+    List<RunLengthHistoryStore.Run<PingResult>> list = toList(runs.iterator());
+    int[] sizes = new int[list.size()];
+    for (int i = 0; i < sizes.length; i++) {
+      sizes[i] = list.get(i).size();
+    }
+    return sizes;
+  }
+
+  public void testCollapsesRepeats() throws IOException {
+    List<PingResult> results = pings(20, 7, 8, 15);
+    try (RunLengthHistoryStore<PingResult> store = open(100)) {
+      for (PingResult result : results) {
+        store.addNewest(result);
+      }
+      assertResults(results, toList(store.iterator()));
+      assertEquals(results.get(19).getTime(), store.peekNewest().getTime());
+    }
+    try (RunLengthHistoryStore<PingResult> store = open(100)) {
+      assertResults(results, toList(store.iterator()));
+    }
+    try (HistoryStore<RunLengthHistoryStore.Run<PingResult>> runs = openRuns()) {
+      // The last run is still current
+      assertTrue(Arrays.toString(runSizes(runs)), Arrays.equals(new int[] {7, 2, 6, 1}, runSizes(runs)));
+    }
+  }
+
+  public void testMaxRunLength() throws IOException {
+    List<PingResult> results = pings(10);
+    try (RunLengthHistoryStore<PingResult> store = open(4)) {
+      for (PingResult result : results) {
+        store.addNewest(result);
+      }
+      assertResults(results, toList(store.iterator()));
+    }
+    try (HistoryStore<RunLengthHistoryStore.Run<PingResult>> runs = openRuns()) {
+      assertTrue(Arrays.equals(new int[] {4, 4}, runSizes(runs)));
+    }
+  }
+
+  public void testRemoveOldest() throws IOException {
+    List<PingResult> results = pings(20, 7, 8, 15);
+    try (RunLengthHistoryStore<PingResult> store = open(100)) {
+      for (PingResult result : results) {
+        store.addNewest(result);
+      }
+      // Part of the first run, then the rest of it and part of the next
+      store.removeOldest(3);
+      store.removeOldest(5);
+      assertResults(results.subList(8, 20), toList(store.iterator()));
+    }
+    BackgroundWriter.getInstance().flush();
+    try (RunLengthHistoryStore<PingResult> store = open(100)) {
+      assertResults(results.subList(8, 20), toList(store.iterator()));
+      // Into the current run
+      store.removeOldest(9);
+      assertResults(results.subList(17, 20), toList(store.iterator()));
+      try {
+        store.removeOldest(4);
+        fail("Expected IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        // Expected
+      }
+    }
+  }
+
+  public void testLostSkipReadsAgain() throws IOException {
+    List<PingResult> results = pings(20, 7, 8, 15);
+    try (RunLengthHistoryStore<PingResult> store = open(100)) {
+      for (PingResult result : results) {
+        store.addNewest(result);
+      }
+      store.removeOldest(3);
+    }
+    BackgroundWriter.getInstance().flush();
+    assertTrue(new File(file.getPath() + ".runs.skip").delete());
+    try (RunLengthHistoryStore<PingResult> store = open(100)) {
+      assertResults(results, toList(store.iterator()));
+    }
+  }
+
+  public void testRunWrittenTwice() throws IOException {
+    List<PingResult> results = pings(5);
+    // As if stopped after the run was written but before the current run was removed
+    try (HistoryStore<PingResult> current = HistoryStore.open(file, new PingResultSerializer())) {
+      for (PingResult result : results) {
+        current.addNewest(result);
+      }
+    }
+    try (HistoryStore<RunLengthHistoryStore.Run<PingResult>> runs = openRuns()) {
+      runs.addNewest(new RunLengthHistoryStore.Run<>(results.subList(0, 3)));
+    }
+    try (RunLengthHistoryStore<PingResult> store = open(100)) {
+      assertResults(results, toList(store.iterator()));
+    }
+    try (HistoryStore<PingResult> current = HistoryStore.open(file, new PingResultSerializer())) {
+      assertEquals(2, toList(current.iterator()).size());
+    }
+  }
+
+  /**
+   * The current run and runs as {@link SegmentedLog logs}, which compact in the background while
+   * the store is still being written.
+   */
+  public void testCompactionWhileWriting() throws Exception {
+    final int keep = 500;
+    int[] errors = new int[4000];
+    for (int i = 0; i < errors.length; i++) {
+      errors[i] = i * 5;
+    }
+    List<PingResult> results = pings(errors.length * 5, errors);
+    PingResultSerializer serializer = new PingResultSerializer();
+    SegmentedLog<PingResult> current = new SegmentedLog<>(new File(dir, "current"), serializer, 4096);
+    SegmentedLog<RunLengthHistoryStore.Run<PingResult>> runs = new SegmentedLog<>(
+        new File(dir, "runs"),
+        new RunLengthHistoryStore.RunSerializer<>(serializer),
+        4096
+    );
+    int oldest = 0;
+    try (RunLengthHistoryStore<PingResult> store = new RunLengthHistoryStore<>(
+        current,
+        runs,
+        new File(dir, "runs.skip"),
+        new PingResultColumns(),
+        3
+    )) {
+      for (int i = 0; i < results.size(); i++) {
+        store.addNewest(results.get(i));
+        int size = i + 1 - oldest;
+        if (size > keep) {
+          store.removeOldest(size - keep);
+          oldest += size - keep;
+        }
+        if (i % 1000 == 0) {
+          // Let compactions catch up
+          Thread.sleep(1);
+        }
+      }
+      assertResults(results.subList(oldest, results.size()), toList(store.iterator()));
+      assertTrue("Logs compacted", current.getCompactions() + runs.getCompactions() > 0);
+    }
+  }
+
+  public void testCollapsesExistingHistory() throws IOException {
+    List<PingResult> results = pings(50, 10, 11, 30);
+    try (HistoryStore<PingResult> current = HistoryStore.open(file, new PingResultSerializer())) {
+      for (PingResult result : results) {
+        current.addNewest(result);
+      }
+    }
+    try (RunLengthHistoryStore<PingResult> store = open(100)) {
+      assertEquals(results.get(49).getTime(), store.peekNewest().getTime());
+      assertResults(results, toList(store.iterator()));
+    }
+    try (HistoryStore<RunLengthHistoryStore.Run<PingResult>> runs = openRuns()) {
+      assertTrue(Arrays.equals(new int[] {10, 2, 18, 1}, runSizes(runs)));
+    }
+  }
+
+  /**
+   * Compares the serialized size of two days of pings every five minutes, stored one
+   * record per result or as runs, and the size of bind results sent to a client.
+   */
+  public void testSize() throws IOException {
+    int count = (int) (Rollup.RAW_RETENTION / PERIOD);
+    List<PingResult> results = pings(count, 100, 101, 400);
+    PingResultSerializer serializer = new PingResultSerializer();
+    long resultBytes = 0;
+    for (PingResult result : results) {
+      resultBytes += serializer.getSerializedSize(result);
+    }
+    int maxRunLength = 288;
+    try (RunLengthHistoryStore<PingResult> store = open(maxRunLength)) {
+      for (PingResult result : results) {
+        store.addNewest(result);
+      }
+    }
+    RunLengthHistoryStore.RunSerializer<PingResult> runSerializer = new RunLengthHistoryStore.RunSerializer<>(serializer);
+    long runBytes = 0;
+    int runCount;
+    try (HistoryStore<RunLengthHistoryStore.Run<PingResult>> runs = openRuns()) {
+      List<RunLengthHistoryStore.Run<PingResult>> list = toList(runs.iterator());
+      runCount = list.size();
+      for (RunLengthHistoryStore.Run<PingResult> run : list) {
+        runBytes += runSerializer.getSerializedSize(run);
+      }
+    }
+    long currentBytes = 0;
+    int currentCount = 0;
+    try (HistoryStore<PingResult> current = HistoryStore.open(file, serializer)) {
+      for (PingResult result : toList(current.iterator())) {
+        currentBytes += serializer.getSerializedSize(result);
+        currentCount++;
+      }
+    }
+    System.out.println(
+        "RunLengthHistoryStoreTest: " + count + " pings: " + resultBytes + " bytes in " + count + " records -> "
+            + (runBytes + currentBytes) + " bytes in " + runCount + " runs and " + currentCount + " current records"
+    );
+    assertTrue(runBytes + currentBytes < resultBytes);
+    assertTrue(runCount + currentCount < count / 2);
+
+    // Repeats share their result string, which is sent once
+    BindResultRepeater repeater = new BindResultRepeater();
+    List<NetBindResult> fresh = new ArrayList<>();
+    List<NetBindResult> shared = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      NetBindResult result = new NetBindResult(START_TIME + i * PERIOD, 1000000 + i, AlertLevel.NONE, null, new String("SSH-2.0-OpenSSH_8.0"));
+      fresh.add(result);
+      NetBindResult previous = shared.isEmpty() ? null : shared.get(shared.size() - 1);
+      shared.add(previous != null && repeater.isRepeat(previous, result) ? repeater.repeat(previous, result.getTime(), result.getLatency()) : result);
+    }
+    int freshBytes = serializedSize(fresh);
+    int sharedBytes = serializedSize(shared);
+    System.out.println("RunLengthHistoryStoreTest: " + count + " bind results sent to client: " + freshBytes + " bytes -> " + sharedBytes + " bytes");
+    assertTrue(sharedBytes < freshBytes);
+  }
+
+  private static int serializedSize(Object o) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+      out.writeObject(o);
+    }
+    return bout.size();
+  }
+}
@@ -0,0 +1,370 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.Serializer;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link SegmentedLog}, including recovery from an incomplete write or compaction.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class SegmentedLogTest extends TestCase {
+
+  public SegmentedLogTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(SegmentedLogTest.class);
+    return suite;
+  }
+
+  /**
+   * Eight bytes per value, or sixteen bytes per record.
+   */
+  private static final class LongSerializer implements Serializer<Long> {
+    @Override
+    public boolean isFixedSerializedSize() {
+      return true;
+    }
+
+    @Override
+    public long getSerializedSize(Long value) {
+      return 8;
+    }
+
+    @Override
+    public void serialize(Long value, OutputStream out) throws IOException {
+      DataOutputStream dout = new DataOutputStream(out);
+      dout.writeLong(value);
+      dout.flush();
+    }
+
+    @Override
+    public Long deserialize(InputStream in) throws IOException {
+      return new DataInputStream(in).readLong();
+    }
+  }
+
+  private static final int RECORD_SIZE = 16;
+
+  private File dir;
+
+  @Override
+  protected void setUp() throws Exception {
+    dir = Files.createTempDirectory("SegmentedLogTest").toFile();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    delete(dir);
+  }
+
+  private static void delete(File file) throws IOException {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        delete(child);
+      }
+    }
+    Files.delete(file.toPath());
+  }
+
+  private SegmentedLog<Long> open(int recordsPerSegment) throws IOException {
+    return new SegmentedLog<>(new File(dir, "log"), new LongSerializer(), recordsPerSegment * RECORD_SIZE);
+  }
+
+  private static void assertValues(SegmentedLog<Long> log, long from, long to) throws IOException {
+    Iterator<Long> iter = log.iterator();
+    for (long value = from; value < to; value++) {
+      assertTrue(iter.hasNext());
+      assertEquals(value, iter.next().longValue());
+    }
+    assertFalse(iter.hasNext());
+    assertEquals(from == to ? null : Long.valueOf(to - 1), log.peekNewest());
+  }
+
+  private File[] getSegmentFiles() {
+    File[] files = new File(dir, "log").listFiles((d, name) -> name.endsWith(".seg"));
+    Arrays.sort(files);
+    return files;
+  }
+
+  public void testEmpty() throws Exception {
+    try (SegmentedLog<Long> log = open(10)) {
+      assertValues(log, 0, 0);
+      log.removeOldest(0);
+      try {
+        log.removeOldest(1);
+        fail("Expected IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+        // Expected
+      }
+    }
+  }
+
+  public void testAppendAndReopen() throws Exception {
+    try (SegmentedLog<Long> log = open(10)) {
+      for (long value = 0; value < 1000; value++) {
+        log.addNewest(value);
+      }
+      assertEquals(100, log.getSegmentCount());
+      assertValues(log, 0, 1000);
+    }
+    try (SegmentedLog<Long> log = open(10)) {
+      assertValues(log, 0, 1000);
+      log.addNewest(1000L);
+      assertValues(log, 0, 1001);
+    }
+  }
+
+  public void testRemoveOldestDeletesSegments() throws Exception {
+    try (SegmentedLog<Long> log = open(10)) {
+      for (long value = 0; value < 1000; value++) {
+        log.addNewest(value);
+      }
+      log.removeOldest(500);
+      assertEquals(50, log.getSegmentCount());
+      assertValues(log, 500, 1000);
+      log.removeOldest(495);
+      assertValues(log, 995, 1000);
+    }
+    try (SegmentedLog<Long> log = open(10)) {
+      assertValues(log, 995, 1000);
+      log.removeOldest(5);
+      assertValues(log, 1000, 1000);
+      // Numbering continues after everything is removed
+      log.addNewest(1000L);
+      assertValues(log, 1000, 1001);
+    }
+    try (SegmentedLog<Long> log = open(10)) {
+      assertValues(log, 1000, 1001);
+    }
+  }
+
+  public void testTruncatesIncompleteRecord() throws Exception {
+    try (SegmentedLog<Long> log = open(100)) {
+      for (long value = 0; value < 10; value++) {
+        log.addNewest(value);
+      }
+    }
+    File[] segments = getSegmentFiles();
+    try (RandomAccessFile raf = new RandomAccessFile(segments[segments.length - 1], "rw")) {
+      // A record interrupted after its header
+      raf.seek(raf.length());
+      raf.writeInt(8);
+      raf.writeInt(12345);
+      raf.writeInt(0);
+    }
+    try (SegmentedLog<Long> log = open(100)) {
+      assertValues(log, 0, 10);
+      log.addNewest(10L);
+    }
+    try (SegmentedLog<Long> log = open(100)) {
+      assertValues(log, 0, 11);
+    }
+  }
+
+  public void testCorruptRecordEndsSegment() throws Exception {
+    try (SegmentedLog<Long> log = open(100)) {
+      for (long value = 0; value < 10; value++) {
+        log.addNewest(value);
+      }
+    }
+    File[] segments = getSegmentFiles();
+    try (RandomAccessFile raf = new RandomAccessFile(segments[0], "rw")) {
+      raf.seek(5L * RECORD_SIZE + 10);
+      raf.writeByte(raf.readByte() ^ 1);
+    }
+    try (SegmentedLog<Long> log = open(100)) {
+      assertValues(log, 0, 5);
+    }
+  }
+
+  public void testCorruptRecordEndsLog() throws Exception {
+    try (SegmentedLog<Long> log = open(10)) {
+      for (long value = 0; value < 25; value++) {
+        log.addNewest(value);
+      }
+    }
+    File[] segments = getSegmentFiles();
+    assertEquals(3, segments.length);
+    try (RandomAccessFile raf = new RandomAccessFile(segments[0], "rw")) {
+      raf.seek(5L * RECORD_SIZE + 10);
+      raf.writeByte(raf.readByte() ^ 1);
+    }
+    try (SegmentedLog<Long> log = open(10)) {
+      // Not 0 to 5 then 10 to 25
+      assertValues(log, 0, 5);
+      assertEquals(1, log.getSegmentCount());
+      log.addNewest(5L);
+      assertValues(log, 0, 6);
+    }
+    assertTrue(new File(segments[1].getPath() + ".corrupt").exists());
+    assertTrue(new File(segments[2].getPath() + ".corrupt").exists());
+    try (SegmentedLog<Long> log = open(10)) {
+      assertValues(log, 0, 6);
+    }
+  }
+
+  public void testTruncatedSegmentEndsLog() throws Exception {
+    try (SegmentedLog<Long> log = open(10)) {
+      for (long value = 0; value < 25; value++) {
+        log.addNewest(value);
+      }
+      log.removeOldest(2);
+    }
+    File[] segments = getSegmentFiles();
+    try (RandomAccessFile raf = new RandomAccessFile(segments[1], "rw")) {
+      raf.setLength(3L * RECORD_SIZE + RECORD_SIZE / 2);
+    }
+    try (SegmentedLog<Long> log = open(10)) {
+      assertValues(log, 2, 13);
+      assertEquals(2, log.getSegmentCount());
+      for (long value = 13; value < 30; value++) {
+        log.addNewest(value);
+      }
+      assertValues(log, 2, 30);
+    }
+    try (SegmentedLog<Long> log = open(10)) {
+      assertValues(log, 2, 30);
+    }
+  }
+
+  private static void awaitCompactions(SegmentedLog<Long> log, long compactions) throws InterruptedException {
+    for (int i = 0; i < 500; i++) {
+      synchronized (log) {
+        if (log.getCompactions() >= compactions) {
+          return;
+        }
+      }
+      Thread.sleep(10);
+    }
+    fail("Compaction not performed");
+  }
+
+  public void testCompaction() throws Exception {
+    try (SegmentedLog<Long> log = open(100)) {
+      for (long value = 0; value < 250; value++) {
+        log.addNewest(value);
+      }
+      synchronized (log) {
+        log.removeOldest(40);
+      }
+      Thread.sleep(100);
+      synchronized (log) {
+        assertEquals("Less than half removed", 0, log.getCompactions());
+        log.removeOldest(20);
+      }
+      awaitCompactions(log, 1);
+      synchronized (log) {
+        assertEquals(3, log.getSegmentCount());
+        assertValues(log, 60, 250);
+      }
+      assertEquals(40L * RECORD_SIZE, getSegmentFiles()[0].length());
+    }
+    try (SegmentedLog<Long> log = open(100)) {
+      assertValues(log, 60, 250);
+    }
+  }
+
+  public void testCompactionInterrupted() throws Exception {
+    byte[] original;
+    try (SegmentedLog<Long> log = open(100)) {
+      for (long value = 0; value < 250; value++) {
+        log.addNewest(value);
+      }
+      File first = getSegmentFiles()[0];
+      original = Files.readAllBytes(first.toPath());
+      synchronized (log) {
+        log.removeOldest(70);
+      }
+      awaitCompactions(log, 1);
+      // Restore the original as if the shutdown was before it was deleted
+      Files.write(first.toPath(), original);
+    }
+    assertEquals(4, getSegmentFiles().length);
+    try (SegmentedLog<Long> log = open(100)) {
+      assertEquals(3, log.getSegmentCount());
+      assertValues(log, 70, 250);
+    }
+  }
+
+  public void testImportsList() throws Exception {
+    File file = new File(dir, "history");
+    try (ListHistoryStore<Long> list = new ListHistoryStore<>(file, new LongSerializer())) {
+      for (long value = 0; value < 100; value++) {
+        list.addNewest(value);
+      }
+      list.removeOldest(10);
+    }
+    try (SegmentedLog<Long> log = SegmentedLog.open(file, new LongSerializer())) {
+      assertValues(log, 10, 100);
+    }
+    assertFalse(file.exists());
+    assertTrue(new File(dir, "history.imported").exists());
+    try (SegmentedLog<Long> log = SegmentedLog.open(file, new LongSerializer())) {
+      assertValues(log, 10, 100);
+    }
+  }
+
+  public void testThroughput() throws Exception {
+    final int count = 200000;
+    long startNanos = System.nanoTime();
+    try (SegmentedLog<Long> log = open(4096)) {
+      for (long value = 0; value < count; value++) {
+        log.addNewest(value);
+      }
+      long appendNanos = System.nanoTime() - startNanos;
+      startNanos = System.nanoTime();
+      long sum = 0;
+      Iterator<Long> iter = log.iterator();
+      while (iter.hasNext()) {
+        sum += iter.next();
+      }
+      long iterateNanos = System.nanoTime() - startNanos;
+      assertEquals((long) count * (count - 1) / 2, sum);
+      System.out.println(
+          "SegmentedLogTest: " + count + " records in " + log.getSegmentCount() + " segments: "
+              + (count * 1000000000L / appendNanos) + " appends/second, "
+              + (count * 1000000000L / iterateNanos) + " records read/second"
+      );
+    }
+  }
+}
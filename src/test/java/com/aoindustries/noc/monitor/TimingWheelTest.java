@@ -0,0 +1,212 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link TimingWheel} and compares its scheduling overhead against the delay queue
+ * of a {@link ScheduledThreadPoolExecutor}, which is what backs the unbounded executor.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class TimingWheelTest extends TestCase {
+
+  private static final int[] WORKER_COUNTS = {10000, 50000, 100000};
+
+  /**
+   * Each simulated worker reschedules this many times.
+   */
+  private static final int PASSES = 5;
+
+  public TimingWheelTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(TimingWheelTest.class);
+    return suite;
+  }
+
+  private ExecutorService executor;
+  private TimingWheel wheel;
+
+  @Override
+  protected void setUp() throws Exception {
+    executor = java.util.concurrent.Executors.newCachedThreadPool();
+    wheel = new TimingWheel(getName(), executor::submit, 10, TimeUnit.MILLISECONDS, 64);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    wheel.stop();
+    executor.shutdownNow();
+  }
+
+  public void testDispatchesAfterDelay() throws Exception {
+    CountDownLatch latch = new CountDownLatch(100);
+    long start = System.nanoTime();
+    for (int i = 0; i < 100; i++) {
+      // Some delays span multiple rounds of the 640 ms wheel
+      wheel.schedule(latch::countDown, i * 15L);
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(99 * 15L));
+    assertEquals(0, wheel.getPending());
+  }
+
+  public void testCancelBeforeDispatch() throws Exception {
+    AtomicInteger ran = new AtomicInteger();
+    Future<?> future = wheel.schedule(ran::incrementAndGet, 200);
+    assertEquals(1, wheel.getPending());
+    assertTrue(future.cancel(true));
+    assertTrue(future.isCancelled());
+    assertEquals(0, wheel.getPending());
+    Thread.sleep(400);
+    assertEquals(0, ran.get());
+  }
+
+  public void testStop() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      wheel.schedule(() -> fail("Should not run after stop"), 10000);
+    }
+    List<Runnable> unprocessed = wheel.stop();
+    assertEquals(10, unprocessed.size());
+    assertEquals(0, wheel.getPending());
+    try {
+      wheel.schedule(() -> { }, 0);
+      fail("Expected RejectedExecutionException");
+    } catch (RejectedExecutionException e) {
+      // Expected
+    }
+  }
+
+  public void testRejectedDispatchRetried() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    TimingWheel rejecting = new TimingWheel(getName() + ".rejecting", task -> {
+      if (attempts.incrementAndGet() <= 2) {
+        throw new RejectedExecutionException("Full");
+      }
+      return executor.submit(task);
+    }, 10, TimeUnit.MILLISECONDS, 64);
+    try {
+      CountDownLatch latch = new CountDownLatch(1);
+      Future<?> future = rejecting.schedule(latch::countDown, 0);
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertEquals(3, attempts.get());
+      future.get(10, TimeUnit.SECONDS);
+      assertFalse(future.isCancelled());
+    } finally {
+      rejecting.stop();
+    }
+  }
+
+  public void testInterruptDoesNotStop() throws Exception {
+    TimingWheel interrupted = new TimingWheel(getName() + ".interrupted", task -> {
+      // Dispatched on the ticker thread
+      Thread.currentThread().interrupt();
+      return executor.submit(task);
+    }, 10, TimeUnit.MILLISECONDS, 64);
+    try {
+      for (int i = 0; i < 3; i++) {
+        CountDownLatch latch = new CountDownLatch(1);
+        interrupted.schedule(latch::countDown, 20);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      interrupted.stop();
+    }
+  }
+
+  /**
+   * Measures the cost of what each worker does on every pass: cancel the previous
+   * future (on stop) or schedule the next.  Both schedulers hold every worker
+   * in their queue at once, as the monitor does.
+   */
+  public void testSchedulingOverhead() throws Exception {
+    // Warm-up
+    benchmark(WORKER_COUNTS[0], false);
+    for (int workers : WORKER_COUNTS) {
+      benchmark(workers, true);
+    }
+  }
+
+  private void benchmark(int workers, boolean print) {
+    Runnable task = () -> { };
+    ScheduledThreadPoolExecutor stpe = new ScheduledThreadPoolExecutor(1);
+    stpe.setRemoveOnCancelPolicy(true);
+    try {
+      Future<?>[] futures = new Future<?>[workers];
+      long start = System.nanoTime();
+      for (int pass = 0; pass < PASSES; pass++) {
+        for (int i = 0; i < workers; i++) {
+          if (futures[i] != null) {
+            futures[i].cancel(false);
+          }
+          // Spread over the delays of the five-minute startup staggering
+          futures[i] = stpe.schedule(task, 60000L + (i * 5037L) % 300000L, TimeUnit.MILLISECONDS);
+        }
+      }
+      long stpeNanos = System.nanoTime() - start;
+      assertEquals(workers, stpe.getQueue().size());
+
+      futures = new Future<?>[workers];
+      start = System.nanoTime();
+      for (int pass = 0; pass < PASSES; pass++) {
+        for (int i = 0; i < workers; i++) {
+          if (futures[i] != null) {
+            futures[i].cancel(false);
+          }
+          futures[i] = wheel.schedule(task, 60000L + (i * 5037L) % 300000L);
+        }
+      }
+      long wheelNanos = System.nanoTime() - start;
+      assertEquals(workers, wheel.getPending());
+      for (Future<?> future : futures) {
+        future.cancel(false);
+      }
+      assertEquals(0, wheel.getPending());
+
+      if (print) {
+        long ops = (long) workers * PASSES;
+        System.out.println(
+            "TimingWheelTest: " + workers + " workers: ScheduledThreadPoolExecutor "
+                + (stpeNanos / ops) + " ns/op, TimingWheel " + (wheelNanos / ops) + " ns/op"
+        );
+      }
+    } finally {
+      stpe.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,304 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertCategory;
+import com.aoindustries.noc.monitor.common.AlertChange;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.TreeListener;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Compares an alert storm sent to many connected clients through {@link TreeListenerDispatcher}
+ * against the previous per-listener signalers, which each held a thread sleeping between sends.
+ * Run with {@code -Pbenchmark}.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class TreeListenerDispatcherBenchmark extends TestCase {
+
+  private static final long WINDOW = 250;
+
+  private static final int CLIENTS = 300;
+
+  private static final int CHANGES = 5000;
+
+  private static final int PRODUCERS = 8;
+
+  /**
+   * The time of each remote call to a client.
+   */
+  private static final long CALL_MILLIS = 2;
+
+  public TreeListenerDispatcherBenchmark(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(TreeListenerDispatcherBenchmark.class);
+    return suite;
+  }
+
+  private ScheduledExecutorService timer;
+  private ThreadPoolExecutor pool;
+
+  @Override
+  protected void setUp() throws Exception {
+    timer = Executors.newSingleThreadScheduledExecutor();
+    pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    timer.shutdownNow();
+    pool.shutdownNow();
+  }
+
+  private TreeListenerDispatcher newDispatcher(long window, int maxQueued, long deadline) {
+    return new TreeListenerDispatcher(
+        (task, delay) -> timer.schedule(() -> pool.submit(task), delay, TimeUnit.MILLISECONDS),
+        window,
+        maxQueued,
+        deadline
+    );
+  }
+
+  private static AlertChange newChange(int i) {
+    return new AlertChange(null, "node" + i, AlertLevel.NONE, AlertLevel.HIGH, "change" + i, AlertCategory.MONITORING, AlertCategory.MONITORING);
+  }
+
+  /**
+   * Counts the alert changes received, taking time in each call.
+   */
+  private static class Client implements TreeListener {
+
+    private final long callMillis;
+
+    private final AtomicInteger alertCalls = new AtomicInteger();
+    private final AtomicInteger changes = new AtomicInteger();
+
+    private Client(long callMillis) {
+      this.callMillis = callMillis;
+    }
+
+    private void call() throws RemoteException {
+      try {
+        Thread.sleep(callMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RemoteException("Interrupted", e);
+      }
+    }
+
+    @Override
+    public void nodeAdded() throws RemoteException {
+      call();
+    }
+
+    @Override
+    public void nodeRemoved() throws RemoteException {
+      call();
+    }
+
+    @Override
+    public void nodeAlertChanged(List<AlertChange> changes) throws RemoteException {
+      call();
+      this.changes.addAndGet(changes.size());
+      alertCalls.incrementAndGet();
+    }
+
+    private int getChangeCount() {
+      return changes.get();
+    }
+  }
+
+  private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 60000;
+    while (!condition.getAsBoolean()) {
+      assertTrue("Timed out", System.currentTimeMillis() < deadline);
+      Thread.sleep(5);
+    }
+  }
+
+  /**
+   * The previous signalers of {@link RootNodeImpl}, each a task that sends, sleeps 250 ms, and
+   * repeats while there are more changes, all synchronized on the list of listeners.
+   */
+  private final class LegacySignalers {
+
+    private final List<TreeListener> treeListeners = new ArrayList<>();
+    private final Map<TreeListener, Signaler> signalers = new HashMap<>();
+
+    private final class Signaler implements Runnable {
+
+      private final TreeListener treeListener;
+      private List<AlertChange> queuedChanges;
+
+      private Signaler(TreeListener treeListener) {
+        this.treeListener = treeListener;
+      }
+
+      @Override
+      @SuppressWarnings("SleepWhileInLoop")
+      public void run() {
+        try {
+          while (!Thread.currentThread().isInterrupted()) {
+            List<AlertChange> changes;
+            synchronized (treeListeners) {
+              if (queuedChanges == null) {
+                signalers.remove(treeListener);
+                break;
+              }
+              changes = queuedChanges;
+              queuedChanges = null;
+            }
+            treeListener.nodeAlertChanged(changes);
+            Thread.sleep(WINDOW);
+          }
+        } catch (RemoteException | InterruptedException e) {
+          throw new AssertionError(e);
+        }
+      }
+    }
+
+    private void nodeAlertChanged(AlertChange change) {
+      synchronized (treeListeners) {
+        for (TreeListener treeListener : treeListeners) {
+          Signaler signaler = signalers.get(treeListener);
+          if (signaler == null) {
+            signaler = new Signaler(treeListener);
+            signalers.put(treeListener, signaler);
+            signaler.queuedChanges = new ArrayList<>();
+            signaler.queuedChanges.add(change);
+            pool.submit(signaler);
+          } else {
+            if (signaler.queuedChanges == null) {
+              signaler.queuedChanges = new ArrayList<>();
+            }
+            signaler.queuedChanges.add(change);
+          }
+        }
+      }
+    }
+  }
+
+  private static final class StormResult {
+    private long producerMillis;
+    private long deliveredMillis;
+    private long calls;
+    private int maxThreads;
+
+    @Override
+    public String toString() {
+      return "queued in " + producerMillis + " ms, delivered in " + deliveredMillis + " ms, " + calls
+          + " calls, max threads " + maxThreads;
+    }
+  }
+
+  /**
+   * Sends an alert storm from several producers to all clients.
+   */
+  private StormResult storm(boolean legacy) throws Exception {
+    List<Client> clients = new ArrayList<>();
+    TreeListenerDispatcher dispatcher = legacy ? null : newDispatcher(WINDOW, 100000, 60000);
+    LegacySignalers signalers = legacy ? new LegacySignalers() : null;
+    for (int i = 0; i < CLIENTS; i++) {
+      Client client = new Client(CALL_MILLIS);
+      clients.add(client);
+      if (legacy) {
+        signalers.treeListeners.add(client);
+      } else {
+        dispatcher.addTreeListener(client);
+      }
+    }
+    ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+    long startNanos = System.nanoTime();
+    try {
+      List<java.util.concurrent.Future<?>> futures = new ArrayList<>();
+      for (int p = 0; p < PRODUCERS; p++) {
+        int producer = p;
+        futures.add(producers.submit(() -> {
+          for (int i = producer; i < CHANGES; i += PRODUCERS) {
+            AlertChange change = newChange(i);
+            if (legacy) {
+              signalers.nodeAlertChanged(change);
+            } else {
+              dispatcher.nodeAlertChanged(change);
+            }
+          }
+        }));
+      }
+      for (java.util.concurrent.Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      producers.shutdown();
+    }
+    StormResult result = new StormResult();
+    result.producerMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    waitFor(() -> {
+      for (Client client : clients) {
+        if (client.getChangeCount() < CHANGES) {
+          return false;
+        }
+      }
+      return true;
+    });
+    result.deliveredMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    for (Client client : clients) {
+      assertEquals(CHANGES, client.getChangeCount());
+      result.calls += client.alertCalls.get();
+    }
+    // The legacy signalers hold their threads through one more sleep
+    waitFor(() -> pool.getActiveCount() == 0);
+    result.maxThreads = pool.getLargestPoolSize();
+    return result;
+  }
+
+  public void testAlertStorm() throws Exception {
+    StormResult before = storm(true);
+    tearDown();
+    setUp();
+    StormResult after = storm(false);
+    System.out.println(
+        "TreeListenerDispatcherBenchmark: " + CLIENTS + " clients, " + CHANGES + " alert changes from " + PRODUCERS + " threads:"
+    );
+    System.out.println("TreeListenerDispatcherBenchmark:   sleeping signalers: " + before);
+    System.out.println("TreeListenerDispatcherBenchmark:   dispatcher:         " + after);
+  }
+}
@@ -0,0 +1,353 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.aoindustries.noc.monitor;
+
+import com.aoindustries.noc.monitor.common.AlertCategory;
+import com.aoindustries.noc.monitor.common.AlertChange;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.TreeListener;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests {@link TreeListenerDispatcher}, running the scheduled tasks from the test instead of after
+ * their delays.
+ *
+ * @see  TreeListenerDispatcherBenchmark
+ *
+ * @author  AO Industries, Inc.
+ */
+public class TreeListenerDispatcherTest extends TestCase {
+
+  private static final long WINDOW = 250;
+
+  private static final long DEADLINE = 60000;
+
+  public TreeListenerDispatcherTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(TreeListenerDispatcherTest.class);
+    return suite;
+  }
+
+  /**
+   * Keeps the scheduled tasks until run by the test.
+   */
+  private static final class Scheduled {
+
+    private final Runnable task;
+    private final long delay;
+
+    private Scheduled(Runnable task, long delay) {
+      this.task = task;
+      this.delay = delay;
+    }
+  }
+
+  private final List<Scheduled> scheduled = new ArrayList<>();
+
+  private TreeListenerDispatcher newDispatcher(int maxQueued) {
+    return new TreeListenerDispatcher(
+        (task, delay) -> {
+          synchronized (scheduled) {
+            scheduled.add(new Scheduled(task, delay));
+          }
+        },
+        WINDOW,
+        maxQueued,
+        DEADLINE
+    );
+  }
+
+  private int getScheduledCount() {
+    synchronized (scheduled) {
+      return scheduled.size();
+    }
+  }
+
+  /**
+   * Takes the only scheduled task.
+   */
+  private Scheduled takeScheduled() {
+    synchronized (scheduled) {
+      assertEquals(1, scheduled.size());
+      return scheduled.remove(0);
+    }
+  }
+
+  private static AlertChange newChange(int i) {
+    return new AlertChange(null, "node" + i, AlertLevel.NONE, AlertLevel.HIGH, "change" + i, AlertCategory.MONITORING, AlertCategory.MONITORING);
+  }
+
+  /**
+   * Records the calls made, optionally blocking in each.
+   */
+  private static class Client implements TreeListener {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release;
+
+    private final AtomicInteger nodeAddedCalls = new AtomicInteger();
+    private final AtomicInteger nodeRemovedCalls = new AtomicInteger();
+    private final AtomicInteger alertCalls = new AtomicInteger();
+    private final List<String> changes = new ArrayList<>();
+
+    private Client(CountDownLatch release) {
+      this.release = release;
+    }
+
+    private Client() {
+      this(null);
+    }
+
+    private void call() throws RemoteException {
+      started.countDown();
+      if (release != null) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RemoteException("Interrupted", e);
+        }
+      }
+    }
+
+    @Override
+    public void nodeAdded() throws RemoteException {
+      call();
+      nodeAddedCalls.incrementAndGet();
+    }
+
+    @Override
+    public void nodeRemoved() throws RemoteException {
+      call();
+      nodeRemovedCalls.incrementAndGet();
+    }
+
+    @Override
+    public void nodeAlertChanged(List<AlertChange> changes) throws RemoteException {
+      call();
+      synchronized (this.changes) {
+        for (AlertChange change : changes) {
+          this.changes.add(change.getNodeFullPath());
+        }
+      }
+      alertCalls.incrementAndGet();
+    }
+
+    private int getChangeCount() {
+      synchronized (changes) {
+        return changes.size();
+      }
+    }
+  }
+
+  public void testFirstEventNotDelayed() {
+    TreeListenerDispatcher dispatcher = newDispatcher(1000);
+    Client client = new Client();
+    dispatcher.addTreeListener(client);
+    dispatcher.nodeAdded();
+    Scheduled delivery = takeScheduled();
+    assertEquals(0, delivery.delay);
+    delivery.task.run();
+    assertEquals(1, client.nodeAddedCalls.get());
+    assertEquals(1, dispatcher.getDeliveries());
+  }
+
+  public void testCoalescesWithinWindow() {
+    TreeListenerDispatcher dispatcher = newDispatcher(1000);
+    Client client = new Client();
+    dispatcher.addTreeListener(client);
+    dispatcher.nodeAdded();
+    takeScheduled().task.run();
+    // The deadline check of the first delivery
+    Scheduled deadline = takeScheduled();
+    assertEquals(DEADLINE, deadline.delay);
+    for (int i = 0; i < 100; i++) {
+      dispatcher.nodeAdded();
+      dispatcher.nodeRemoved();
+      dispatcher.nodeAlertChanged(newChange(i));
+    }
+    // Delivered after the rest of the window since the last delivery
+    Scheduled delivery = takeScheduled();
+    assertTrue(delivery.delay > 0 && delivery.delay <= WINDOW);
+    delivery.task.run();
+    assertEquals(2, client.nodeAddedCalls.get());
+    assertEquals(1, client.nodeRemovedCalls.get());
+    assertEquals(1, client.alertCalls.get());
+    for (int i = 0; i < 100; i++) {
+      assertEquals("node" + i, client.changes.get(i));
+    }
+    assertEquals(2, dispatcher.getDeliveries());
+    assertEquals(0, getScheduledCount());
+  }
+
+  public void testQueuedDuringDeliverySentAfterWindow() throws Exception {
+    TreeListenerDispatcher dispatcher = newDispatcher(1000);
+    CountDownLatch release = new CountDownLatch(1);
+    Client client = new Client(release);
+    dispatcher.addTreeListener(client);
+    dispatcher.nodeAlertChanged(newChange(0));
+    Thread delivery = new Thread(takeScheduled().task);
+    delivery.start();
+    client.started.await();
+    for (int i = 1; i < 10; i++) {
+      dispatcher.nodeAlertChanged(newChange(i));
+    }
+    // Only the deadline check
+    assertEquals(DEADLINE, takeScheduled().delay);
+    release.countDown();
+    delivery.join();
+    Scheduled next = takeScheduled();
+    assertEquals(WINDOW, next.delay);
+    next.task.run();
+    assertEquals(10, client.getChangeCount());
+    assertEquals(2, client.alertCalls.get());
+  }
+
+  public void testRemoveTreeListener() {
+    TreeListenerDispatcher dispatcher = newDispatcher(1000);
+    Client client = new Client();
+    dispatcher.addTreeListener(client);
+    dispatcher.addTreeListener(client);
+    assertTrue(dispatcher.removeTreeListener(client));
+    assertEquals(1, dispatcher.getListenerCount());
+    assertTrue(dispatcher.removeTreeListener(client));
+    assertFalse(dispatcher.removeTreeListener(client));
+    dispatcher.nodeAdded();
+    assertEquals(0, getScheduledCount());
+  }
+
+  public void testEvictsWhenQueueFull() {
+    TreeListenerDispatcher dispatcher = newDispatcher(100);
+    Client slow = new Client();
+    dispatcher.addTreeListener(slow);
+    for (int i = 0; i < 101; i++) {
+      dispatcher.nodeAlertChanged(newChange(i));
+    }
+    assertEquals(1, dispatcher.getEvictions());
+    assertEquals(0, dispatcher.getListenerCount());
+    // The delivery scheduled before sends nothing
+    takeScheduled().task.run();
+    assertEquals(0, slow.alertCalls.get());
+    assertFalse(dispatcher.removeTreeListener(slow));
+  }
+
+  public void testEvictsPastDeadline() throws Exception {
+    TreeListenerDispatcher dispatcher = newDispatcher(1000);
+    CountDownLatch release = new CountDownLatch(1);
+    Client hung = new Client(release);
+    dispatcher.addTreeListener(hung);
+    dispatcher.nodeAdded();
+    Thread delivery = new Thread(takeScheduled().task);
+    delivery.start();
+    hung.started.await();
+    Scheduled deadline = takeScheduled();
+    assertEquals(DEADLINE, deadline.delay);
+    deadline.task.run();
+    assertEquals(1, dispatcher.getEvictions());
+    assertEquals(0, dispatcher.getListenerCount());
+    assertEquals(0, getScheduledCount());
+    release.countDown();
+    delivery.join();
+  }
+
+  public void testDeadlineChecksLaterDelivery() throws Exception {
+    TreeListenerDispatcher dispatcher = newDispatcher(1000);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch secondStarted = new CountDownLatch(1);
+    dispatcher.addTreeListener(new Client() {
+      @Override
+      public void nodeAdded() throws RemoteException {
+        if (calls.incrementAndGet() == 2) {
+          secondStarted.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted", e);
+          }
+        }
+      }
+    });
+    dispatcher.nodeAdded();
+    takeScheduled().task.run();
+    Scheduled deadline = takeScheduled();
+    // The second delivery hangs, checked by the deadline scheduled for the first
+    dispatcher.nodeAdded();
+    Thread delivery = new Thread(takeScheduled().task);
+    delivery.start();
+    secondStarted.await();
+    assertEquals(0, getScheduledCount());
+    deadline.task.run();
+    assertEquals(0, dispatcher.getEvictions());
+    deadline = takeScheduled();
+    assertEquals(DEADLINE, deadline.delay);
+    deadline.task.run();
+    assertEquals(1, dispatcher.getEvictions());
+    assertEquals(0, getScheduledCount());
+    release.countDown();
+    delivery.join();
+  }
+
+  public void testDeadlineIdle() {
+    TreeListenerDispatcher dispatcher = newDispatcher(1000);
+    Client client = new Client();
+    dispatcher.addTreeListener(client);
+    dispatcher.nodeAdded();
+    takeScheduled().task.run();
+    // A completed delivery is not removed, and nothing is checked while idle
+    takeScheduled().task.run();
+    assertEquals(0, dispatcher.getEvictions());
+    assertEquals(0, getScheduledCount());
+    // The next delivery is checked again
+    dispatcher.nodeAdded();
+    takeScheduled().task.run();
+    assertEquals(DEADLINE, takeScheduled().delay);
+    assertEquals(2, client.nodeAddedCalls.get());
+    assertEquals(0, dispatcher.getEvictions());
+  }
+
+  public void testEvictsOnRemoteException() {
+    TreeListenerDispatcher dispatcher = newDispatcher(1000);
+    dispatcher.addTreeListener(new Client() {
+      @Override
+      public void nodeAdded() throws RemoteException {
+        throw new RemoteException("Disconnected");
+      }
+    });
+    dispatcher.nodeAdded();
+    takeScheduled().task.run();
+    assertEquals(1, dispatcher.getEvictions());
+    assertEquals(0, dispatcher.getListenerCount());
+  }
+}
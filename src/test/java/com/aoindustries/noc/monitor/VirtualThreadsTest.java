@@ -0,0 +1,139 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoindustries.noc.monitor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests creating the executor of {@link VirtualThreads}, with and without virtual threads available.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class VirtualThreadsTest extends TestCase {
+
+  public VirtualThreadsTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(VirtualThreadsTest.class);
+    return suite;
+  }
+
+  /**
+   * Stands in for {@link Executors} on Java 21 or newer.
+   */
+  public static final class StandInExecutors {
+
+    private static final AtomicInteger created = new AtomicInteger();
+
+    private StandInExecutors() {
+      throw new AssertionError();
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+      created.incrementAndGet();
+      return Executors.newSingleThreadExecutor();
+    }
+  }
+
+  private String tracePinned;
+
+  @Override
+  protected void setUp() throws Exception {
+    tracePinned = System.getProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    if (tracePinned == null) {
+      System.clearProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY);
+    } else {
+      System.setProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY, tracePinned);
+    }
+  }
+
+  public void testFallback() {
+    System.clearProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY);
+    assertNull(VirtualThreads.newExecutor(Object.class, 17));
+    assertNull(System.getProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY));
+  }
+
+  public void testEnabled() throws Exception {
+    System.clearProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY);
+    int before = StandInExecutors.created.get();
+    ExecutorService executor = VirtualThreads.newExecutor(StandInExecutors.class, 21);
+    try {
+      assertEquals(before + 1, StandInExecutors.created.get());
+      assertEquals("done", executor.submit(() -> "done").get(10, TimeUnit.SECONDS));
+      assertEquals("short", System.getProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testTracePinnedNotSetFromJava24() {
+    System.clearProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY);
+    ExecutorService executor = VirtualThreads.newExecutor(StandInExecutors.class, 24);
+    try {
+      assertNull(System.getProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testTracePinnedNotReplaced() {
+    System.setProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY, "full");
+    ExecutorService executor = VirtualThreads.newExecutor(StandInExecutors.class, 21);
+    try {
+      assertEquals("full", System.getProperty(VirtualThreads.JDK_TRACE_PINNED_PROPERTY));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Runs on virtual threads when available, otherwise falls back.
+   */
+  public void testRuntime() throws Exception {
+    int feature = Runtime.version().feature();
+    ExecutorService executor = VirtualThreads.newExecutor(Executors.class, feature);
+    if (feature < 21) {
+      assertNull(executor);
+    } else {
+      try {
+        Thread thread = executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+        assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+      } finally {
+        executor.shutdown();
+      }
+    }
+  }
+}
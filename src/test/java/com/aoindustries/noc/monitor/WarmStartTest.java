@@ -0,0 +1,347 @@
+/*
+ * noc-monitor-impl - Implementation of Network Operations Center Monitoring.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of noc-monitor-impl.
+ *
+ * noc-monitor-impl is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * noc-monitor-impl is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with noc-monitor-impl.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.aoindustries.noc.monitor;
+
+import com.aoapps.persistence.PersistentCollections;
+import com.aoapps.persistence.PersistentLinkedList;
+import com.aoapps.persistence.ProtectionLevel;
+import com.aoapps.persistence.Serializer;
+import com.aoindustries.noc.monitor.common.AlertLevel;
+import com.aoindustries.noc.monitor.common.PingResult;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the alert state restored by {@link TableMultiResultWorker} at startup, measuring the
+ * restart time and first-pass alert events of a persistence directory of many workers.
+ *
+ * @author  AO Industries, Inc.
+ */
+public class WarmStartTest extends TestCase {
+
+  private static final int WORKERS = 100;
+
+  private static final int HISTORY = 5000;
+
+  /**
+   * Every this many workers change alert level on their first pass after restart.
+   */
+  private static final int CHANGED_EVERY = 10;
+
+  private static final AlertLevel[] LEVELS = {AlertLevel.NONE, AlertLevel.LOW, AlertLevel.MEDIUM, AlertLevel.HIGH, AlertLevel.CRITICAL};
+
+  public WarmStartTest(String testName) {
+    super(testName);
+  }
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite(WarmStartTest.class);
+    return suite;
+  }
+
+  private static final class TestSerializer implements Serializer<PingResult> {
+    @Override
+    public boolean isFixedSerializedSize() {
+      return false;
+    }
+
+    @Override
+    public long getSerializedSize(PingResult value) throws IOException {
+      String error = value.getError();
+      return 8 + 8 + 1 + 1 + (error == null ? 0 : (2 + error.length()));
+    }
+
+    @Override
+    public void serialize(PingResult value, OutputStream out) throws IOException {
+      DataOutputStream dout = new DataOutputStream(out);
+      dout.writeLong(value.getTime());
+      dout.writeLong(value.getLatency());
+      dout.writeByte(value.getAlertLevel().ordinal());
+      String error = value.getError();
+      dout.writeBoolean(error != null);
+      if (error != null) {
+        dout.writeUTF(error);
+      }
+      dout.flush();
+    }
+
+    @Override
+    public PingResult deserialize(InputStream in) throws IOException {
+      DataInputStream din = new DataInputStream(in);
+      long time = din.readLong();
+      long latency = din.readLong();
+      AlertLevel alertLevel = AlertLevel.fromOrdinal(din.readByte());
+      String error = din.readBoolean() ? din.readUTF() : null;
+      return new PingResult(time, latency, alertLevel, error);
+    }
+  }
+
+  private static final class TestWorker extends TableMultiResultWorker<Long, PingResult> {
+
+    private TestWorker(File persistenceFile) throws IOException {
+      super(persistenceFile, new TestSerializer());
+    }
+
+    @Override
+    protected Long getSample() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected PingResult newErrorResult(long time, long latency, AlertLevel alertLevel, String error) {
+      return new PingResult(time, latency, alertLevel, error);
+    }
+
+    @Override
+    protected PingResult newSampleResult(long time, long latency, AlertLevel alertLevel, Long sample) {
+      return new PingResult(time, latency, alertLevel);
+    }
+
+    @Override
+    protected AlertLevelAndMessage getAlertLevelAndMessage(Long sample, Iterable<? extends PingResult> previousResults) {
+      return AlertLevelAndMessage.NONE;
+    }
+  }
+
+  /**
+   * Restores its alert message from a field set by its own constructor.
+   */
+  private static final class PrefixWorker extends TableMultiResultWorker<Long, PingResult> {
+
+    private final String prefix;
+
+    private PrefixWorker(File persistenceFile, String prefix) throws IOException {
+      super(persistenceFile, new TestSerializer());
+      this.prefix = prefix;
+    }
+
+    @Override
+    protected Function<Locale, String> getRestoredAlertMessage(PingResult result) {
+      String error = result.getError();
+      return (error == null) ? null : locale -> prefix + error;
+    }
+
+    @Override
+    protected Long getSample() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected PingResult newErrorResult(long time, long latency, AlertLevel alertLevel, String error) {
+      return new PingResult(time, latency, alertLevel, error);
+    }
+
+    @Override
+    protected PingResult newSampleResult(long time, long latency, AlertLevel alertLevel, Long sample) {
+      return new PingResult(time, latency, alertLevel);
+    }
+
+    @Override
+    protected AlertLevelAndMessage getAlertLevelAndMessage(Long sample, Iterable<? extends PingResult> previousResults) {
+      return AlertLevelAndMessage.NONE;
+    }
+  }
+
+  private File dir;
+
+  @Override
+  protected void setUp() throws Exception {
+    dir = Files.createTempDirectory("WarmStartTest").toFile();
+    for (int worker = 0; worker < WORKERS; worker++) {
+      try (PersistentLinkedList<PingResult> results = new PersistentLinkedList<>(
+          PersistentCollections.getPersistentBuffer(new RandomAccessFile(getFile(worker), "rw"), ProtectionLevel.BARRIER, Long.MAX_VALUE),
+          new TestSerializer()
+      )) {
+        for (int i = 0; i < HISTORY; i++) {
+          boolean newest = i == HISTORY - 1;
+          AlertLevel alertLevel = newest ? getNewestAlertLevel(worker) : AlertLevel.NONE;
+          results.addFirst(new PingResult(
+              i * 60000L,
+              1000000L + i,
+              alertLevel,
+              (newest && alertLevel == AlertLevel.CRITICAL) ? ("error" + worker) : null
+          ));
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    delete(dir);
+  }
+
+  /**
+   * The histories are imported into log directories when opened.
+   */
+  private static void delete(File file) throws IOException {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        delete(child);
+      }
+    }
+    Files.delete(file.toPath());
+  }
+
+  private File getFile(int worker) {
+    return new File(dir, "worker" + worker);
+  }
+
+  private static AlertLevel getNewestAlertLevel(int worker) {
+    return LEVELS[worker % LEVELS.length];
+  }
+
+  /**
+   * The alert level found by the first pass after restart.
+   */
+  private static AlertLevel getFirstPassAlertLevel(int worker) {
+    return (worker % CHANGED_EVERY) == 0 ? LEVELS[(worker + 1) % LEVELS.length] : getNewestAlertLevel(worker);
+  }
+
+  public void testRestoresNewestAlertState() throws Exception {
+    for (int worker = 0; worker < WORKERS; worker++) {
+      TestWorker testWorker = new TestWorker(getFile(worker));
+      AlertLevel expected = getNewestAlertLevel(worker);
+      assertEquals(expected, testWorker.getAlertLevel());
+      Function<Locale, String> alertMessage = testWorker.getAlertMessage();
+      if (expected == AlertLevel.CRITICAL) {
+        assertNotNull(alertMessage);
+        assertNotNull(alertMessage.apply(Locale.ROOT));
+      } else {
+        assertNull(alertMessage);
+      }
+      List<? extends PingResult> results = testWorker.getResults();
+      assertEquals(HISTORY, results.size());
+      assertEquals((HISTORY - 1) * 60000L, results.get(0).getTime());
+      assertEquals(0L, results.get(HISTORY - 1).getTime());
+    }
+  }
+
+  /**
+   * An error is stored in the result as {@link AlertLevel#CRITICAL}, while the node was still
+   * ramping up to it.
+   */
+  public void testRestoresRampedAlertLevel() throws Exception {
+    File file = new File(dir, "ramping");
+    try (PersistentLinkedList<PingResult> results = new PersistentLinkedList<>(
+        PersistentCollections.getPersistentBuffer(new RandomAccessFile(file, "rw"), ProtectionLevel.BARRIER, Long.MAX_VALUE),
+        new TestSerializer()
+    )) {
+      results.addFirst(new PingResult(0, 1000000L, AlertLevel.NONE, null));
+      results.addFirst(new PingResult(60000L, 1000001L, AlertLevel.CRITICAL, "timeout"));
+    }
+    // Before the last alert is written, restored from the newest result
+    assertEquals(AlertLevel.CRITICAL, new TestWorker(file).getAlertLevel());
+    // The pass after one timeout ramps up to LOW
+    new TestWorker(file).writeLastAlert(AlertLevel.LOW, locale -> "timeout");
+    File alertFile = new File(file.getPath() + ".alert");
+    // Write now instead of waiting for the window
+    BackgroundWriter.getInstance().flush();
+    for (int i = 0; i < 500 && !alertFile.exists(); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(alertFile.exists());
+    TestWorker restarted = new TestWorker(file);
+    assertEquals(AlertLevel.LOW, restarted.getAlertLevel());
+    assertEquals("timeout", restarted.getAlertMessage().apply(Locale.ROOT));
+  }
+
+  public void testRestoredAfterSubclassConstructor() throws Exception {
+    // The newest result of this worker is an error
+    int worker = 4;
+    assertEquals(AlertLevel.CRITICAL, getNewestAlertLevel(worker));
+    PrefixWorker prefixWorker = new PrefixWorker(getFile(worker), "prefix: ");
+    assertEquals(AlertLevel.CRITICAL, prefixWorker.getAlertLevel());
+    assertEquals("prefix: error" + worker, prefixWorker.getAlertMessage().apply(Locale.ROOT));
+  }
+
+  public void testEmptyHistory() throws Exception {
+    TestWorker testWorker = new TestWorker(new File(dir, "empty"));
+    assertNull(testWorker.getAlertLevel());
+    assertNull(testWorker.getAlertMessage());
+    assertEquals(0, testWorker.getResults().size());
+  }
+
+  /**
+   * Compares reading each history before the next worker is created, as previously done in the
+   * constructor, against reading all the histories in parallel after the workers are started.
+   */
+  public void testRestart() throws Exception {
+    long startNanos = System.nanoTime();
+    for (int worker = 0; worker < WORKERS; worker++) {
+      assertEquals(HISTORY, new TestWorker(getFile(worker)).getResults().size());
+    }
+    long sequentialNanos = System.nanoTime() - startNanos;
+
+    startNanos = System.nanoTime();
+    List<TestWorker> testWorkers = new ArrayList<>(WORKERS);
+    for (int worker = 0; worker < WORKERS; worker++) {
+      TestWorker testWorker = new TestWorker(getFile(worker));
+      // As when started
+      testWorker.init();
+      testWorkers.add(testWorker);
+    }
+    long createdNanos = System.nanoTime() - startNanos;
+    for (TestWorker testWorker : testWorkers) {
+      assertEquals(HISTORY, testWorker.getResults().size());
+    }
+    long parallelNanos = System.nanoTime() - startNanos;
+
+    // Any worker that has not restored its alert level notifies a change from UNKNOWN on its first pass
+    int coldEvents = 0;
+    int warmEvents = 0;
+    for (int worker = 0; worker < WORKERS; worker++) {
+      AlertLevel firstPass = getFirstPassAlertLevel(worker);
+      if (firstPass != AlertLevel.UNKNOWN) {
+        coldEvents++;
+      }
+      AlertLevel restored = testWorkers.get(worker).getAlertLevel();
+      if ((restored == null ? AlertLevel.UNKNOWN : restored) != firstPass) {
+        warmEvents++;
+      }
+    }
+    System.out.println("WarmStartTest: " + WORKERS + " workers of " + HISTORY + " results each:");
+    System.out.println("WarmStartTest:   sequential reads:      " + (sequentialNanos / 1000000) + " ms");
+    System.out.println("WarmStartTest:   parallel reads:        " + (parallelNanos / 1000000) + " ms, workers created in "
+        + (createdNanos / 1000000) + " ms");
+    System.out.println("WarmStartTest:   first-pass alert events: " + coldEvents + " cold, " + warmEvents + " warm");
+    assertEquals(WORKERS, coldEvents);
+    assertEquals(WORKERS / CHANGED_EVERY, warmEvents);
+  }
+}